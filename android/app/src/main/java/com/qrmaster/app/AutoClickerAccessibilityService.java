@@ -6,6 +6,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.graphics.Path;
 import android.os.Build;
+import android.os.Handler;
 import android.provider.Settings;
 import android.text.TextUtils;
 import android.util.Log;
@@ -215,6 +216,14 @@ public class AutoClickerAccessibilityService extends AccessibilityService {
      */
     @RequiresApi(api = Build.VERSION_CODES.N)
     public boolean performTap(float x, float y, long durationMs) {
+        return performTap(x, y, durationMs, null, null);
+    }
+    
+    /**
+     * Tek tıklama - callback hareket bitince/iptal olunca handler thread'inde çağrılır
+     */
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public boolean performTap(float x, float y, long durationMs, GestureResultCallback callback, Handler handler) {
         try {
             Path path = new Path();
             path.moveTo(x, y);
@@ -225,7 +234,7 @@ public class AutoClickerAccessibilityService extends AccessibilityService {
             GestureDescription.Builder builder = new GestureDescription.Builder();
             builder.addStroke(stroke);
             
-            boolean dispatched = dispatchGesture(builder.build(), null, null);
+            boolean dispatched = dispatchGesture(builder.build(), callback, handler);
             if (dispatched) {
                 Log.d(TAG, String.format("✅ TAP: (%.0f, %.0f) %dms", x, y, durationMs));
             }
@@ -242,6 +251,12 @@ public class AutoClickerAccessibilityService extends AccessibilityService {
      */
     @RequiresApi(api = Build.VERSION_CODES.N)
     public boolean performDoubleTap(float x, float y, long tapDuration, long intervalMs) {
+        return performDoubleTap(x, y, tapDuration, intervalMs, null, null);
+    }
+    
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public boolean performDoubleTap(float x, float y, long tapDuration, long intervalMs,
+                                    GestureResultCallback callback, Handler handler) {
         try {
             Path path1 = new Path();
             path1.moveTo(x, y);
@@ -260,7 +275,7 @@ public class AutoClickerAccessibilityService extends AccessibilityService {
             builder.addStroke(stroke1);
             builder.addStroke(stroke2);
             
-            boolean dispatched = dispatchGesture(builder.build(), null, null);
+            boolean dispatched = dispatchGesture(builder.build(), callback, handler);
             if (dispatched) {
                 Log.d(TAG, String.format("✅ DOUBLE TAP: (%.0f, %.0f)", x, y));
             }
@@ -311,6 +326,12 @@ public class AutoClickerAccessibilityService extends AccessibilityService {
      */
     @RequiresApi(api = Build.VERSION_CODES.N)
     public boolean performSwipe(float startX, float startY, float endX, float endY, long durationMs) {
+        return performSwipe(startX, startY, endX, endY, durationMs, null, null);
+    }
+    
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public boolean performSwipe(float startX, float startY, float endX, float endY, long durationMs,
+                                GestureResultCallback callback, Handler handler) {
         try {
             Path path = new Path();
             path.moveTo(startX, startY);
@@ -322,7 +343,7 @@ public class AutoClickerAccessibilityService extends AccessibilityService {
             GestureDescription.Builder builder = new GestureDescription.Builder();
             builder.addStroke(stroke);
             
-            boolean dispatched = dispatchGesture(builder.build(), null, null);
+            boolean dispatched = dispatchGesture(builder.build(), callback, handler);
             if (dispatched) {
                 Log.d(TAG, String.format("✅ SWIPE: (%.0f,%.0f) → (%.0f,%.0f) %dms", 
                     startX, startY, endX, endY, durationMs));
@@ -340,6 +361,12 @@ public class AutoClickerAccessibilityService extends AccessibilityService {
      */
     @RequiresApi(api = Build.VERSION_CODES.N)
     public boolean performPinch(float centerX, float centerY, float distance, boolean zoomIn, long durationMs) {
+        return performPinch(centerX, centerY, distance, zoomIn, durationMs, null, null);
+    }
+    
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public boolean performPinch(float centerX, float centerY, float distance, boolean zoomIn, long durationMs,
+                                GestureResultCallback callback, Handler handler) {
         try {
             float half = distance / 2;
             
@@ -371,7 +398,7 @@ public class AutoClickerAccessibilityService extends AccessibilityService {
             builder.addStroke(stroke1);
             builder.addStroke(stroke2);
             
-            boolean dispatched = dispatchGesture(builder.build(), null, null);
+            boolean dispatched = dispatchGesture(builder.build(), callback, handler);
             if (dispatched) {
                 Log.d(TAG, String.format("✅ PINCH: %s at (%.0f, %.0f)", 
                     zoomIn ? "ZOOM IN" : "ZOOM OUT", centerX, centerY));
@@ -3,6 +3,7 @@ package com.qrmaster.app;
 import android.app.Activity;
 import android.content.Context;
 import android.content.Intent;
+import android.media.projection.MediaProjectionManager;
 import android.net.Uri;
 import android.os.Build;
 import android.provider.Settings;
@@ -13,6 +14,7 @@ import com.getcapacitor.annotation.CapacitorPlugin;
 import com.getcapacitor.annotation.ActivityCallback;
 import com.getcapacitor.JSObject;
 import android.util.Log;
+import androidx.activity.result.ActivityResult;
 
 /**
  * ✅ AUTO CLICKER - Capacitor Plugin
@@ -89,6 +91,56 @@ public class AutoClickerPlugin extends Plugin {
     }
     }
     
+    /**
+     * 🎯 GÖRSEL HEDEFLER - ekran yakalama izni iste, sonucu servise ilet
+     */
+    @PluginMethod
+    public void enableVisualTargets(PluginCall call) {
+        try {
+            MediaProjectionManager projectionManager =
+                (MediaProjectionManager) getContext().getSystemService(Context.MEDIA_PROJECTION_SERVICE);
+            if (projectionManager == null) {
+                call.reject("Ekran yakalama desteklenmiyor");
+                return;
+            }
+            
+            startActivityForResult(call, projectionManager.createScreenCaptureIntent(), "screenCaptureResult");
+        } catch (Exception e) {
+            Log.e(TAG, "❌ enableVisualTargets hatası: " + e.getMessage());
+            call.reject("Ekran yakalama izni istenemedi: " + e.getMessage());
+        }
+    }
+    
+    @ActivityCallback
+    private void screenCaptureResult(PluginCall call, ActivityResult result) {
+        if (call == null) {
+            return;
+        }
+        
+        if (result.getResultCode() != Activity.RESULT_OK || result.getData() == null) {
+            call.reject("Ekran yakalama izni reddedildi");
+            return;
+        }
+        
+        try {
+            Intent serviceIntent = new Intent(getContext(), AutoClickerService.class);
+            serviceIntent.putExtra(AutoClickerService.EXTRA_PROJECTION_RESULT_CODE, result.getResultCode());
+            serviceIntent.putExtra(AutoClickerService.EXTRA_PROJECTION_DATA, result.getData());
+            
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                getContext().startForegroundService(serviceIntent);
+            } else {
+                getContext().startService(serviceIntent);
+            }
+            
+            Log.d(TAG, "✅ Ekran yakalama izni servise iletildi");
+            call.resolve();
+        } catch (Exception e) {
+            Log.e(TAG, "❌ screenCaptureResult hatası: " + e.getMessage());
+            call.reject("Görsel hedefler başlatılamadı: " + e.getMessage());
+        }
+    }
+    
     /**
      * ✅ OVERLAY İZNİNİ KONTROL ET
      */
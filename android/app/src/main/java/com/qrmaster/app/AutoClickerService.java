@@ -1,5 +1,6 @@
 package com.qrmaster.app;
 
+import android.accessibilityservice.AccessibilityService;
 import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
@@ -9,6 +10,7 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
+import android.content.pm.ServiceInfo;
 import android.graphics.Color;
 import android.graphics.PixelFormat;
 import android.graphics.Point;
@@ -43,8 +45,10 @@ import java.util.List;
  * - Swipe (kaydırma) desteği
  * - Scroll desteği
  * - Pinch-to-zoom desteği
+ * - Görsel hedef: kırpılan şablon her tıklamada ekranda aranır, dokunuş eşleşmeye kayar
  * - Panel küçültme/büyütme
  * - Ayarlanabilir hız ve tekrar sayısı
+ * - Ayrı thread'de mutlak zamanlı tıklama, panelde hız/jitter istatistiği
  * - Türkçe arayüz
  */
 public class AutoClickerService extends Service {
@@ -53,6 +57,13 @@ public class AutoClickerService extends Service {
     private static final String CHANNEL_ID = "auto_clicker_channel";
     private static final int NOTIFICATION_ID = 5001;
     
+    // Görsel hedef (MediaProjection izni AutoClickerPlugin.enableVisualTargets ile gelir)
+    public static final String EXTRA_PROJECTION_RESULT_CODE = "projection_result_code";
+    public static final String EXTRA_PROJECTION_DATA = "projection_data";
+    private static final int TARGET_TEMPLATE_SIZE = 96;      // Kırpılan şablon (ekran pikseli)
+    private static final float TARGET_MIN_SCORE = 0.8f;      // NCC güven eşiği
+    private static final long TARGET_CAPTURE_DELAY_MS = 150; // Crosshair kalktıktan sonra yeni kare
+    
     private WindowManager windowManager;
     private View floatingView;
     private View minimizedView;
@@ -60,12 +71,19 @@ public class AutoClickerService extends Service {
     private View crosshairOverlay;
     
     private Handler handler;
-    private Runnable clickRunnable;
     
     // Click points & gestures
     private List<ClickAction> actions = new ArrayList<>();
+    private List<ClickAction> runActions = new ArrayList<>(); // Çalışırken scheduler thread'inin kopyası
     private int currentActionIndex = 0;
     
+    // Click scheduling
+    private final ClickTimingStats clickStats = new ClickTimingStats();
+    private final ClickScheduler scheduler = new ClickScheduler(clickStats);
+    private TextView tvClickStats;
+    private Runnable statsRunnable;
+    private static final long STATS_REFRESH_MS = 500;
+    
     // Undo/Redo history
     private List<List<ClickAction>> history = new ArrayList<>();
     private int historyIndex = -1;
@@ -76,7 +94,7 @@ public class AutoClickerService extends Service {
     private View editOverlay = null;
     
     // Settings
-    private boolean isRunning = false;
+    private volatile boolean isRunning = false; // Scheduler thread'i de okur
     private boolean pointsVisible = true; // ✅ Başlangıçta görünür
     private boolean isMinimized = false;
     private int clickInterval = 500;
@@ -88,6 +106,13 @@ public class AutoClickerService extends Service {
     private long lastPowerPress = 0;
     private static final long DOUBLE_PRESS_INTERVAL = 500; // 500ms for double press
     
+    // Visual targets
+    private ScreenCaptureService screenCapture;
+    private final TemplateMatcher templateMatcher = new TemplateMatcher();
+    private int matchCount = 0;
+    private int matchHits = 0;
+    private long matchTotalNs = 0;
+    
     @Override
     public void onCreate() {
         super.onCreate();
@@ -217,6 +242,13 @@ public class AutoClickerService extends Service {
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         Log.d(TAG, "✅ Auto Clicker Service STARTED");
+        
+        if (intent != null && intent.hasExtra(EXTRA_PROJECTION_DATA)) {
+            startScreenCapture(
+                intent.getIntExtra(EXTRA_PROJECTION_RESULT_CODE, 0),
+                intent.getParcelableExtra(EXTRA_PROJECTION_DATA)
+            );
+        }
         return START_STICKY;
     }
     
@@ -229,6 +261,11 @@ public class AutoClickerService extends Service {
             stopClicking();
             removeAllOverlays();
             
+            if (screenCapture != null) {
+                screenCapture.stop();
+                screenCapture = null;
+            }
+            
             if (screenReceiver != null) {
                 unregisterReceiver(screenReceiver);
                 screenReceiver = null;
@@ -243,6 +280,34 @@ public class AutoClickerService extends Service {
         return null;
     }
     
+    // ══════════════════════════════════════════════════════════════
+    // SCREEN CAPTURE (visual targets)
+    // ══════════════════════════════════════════════════════════════
+    
+    private void startScreenCapture(int resultCode, Intent data) {
+        try {
+            if (data == null) {
+                Log.e(TAG, "❌ Projection data missing");
+                return;
+            }
+            
+            // Android 10+: projeksiyon ancak mediaProjection tipli ön plan servisinde başlar
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                startForeground(NOTIFICATION_ID, createNotification("🎯 Görsel hedefler aktif"),
+                    ServiceInfo.FOREGROUND_SERVICE_TYPE_MEDIA_PROJECTION);
+            }
+            
+            if (screenCapture == null) {
+                screenCapture = new ScreenCaptureService(this);
+            }
+            screenCapture.startProjection(resultCode, data);
+            Log.d(TAG, "🎯 Screen capture ready for visual targets");
+            
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Error starting screen capture: " + e.getMessage());
+        }
+    }
+    
     // ══════════════════════════════════════════════════════════════
     // NOTIFICATION
     // ══════════════════════════════════════════════════════════════
@@ -436,6 +501,12 @@ public class AutoClickerService extends Service {
                 btnAddPinch.setOnClickListener(v -> showCrosshairForPinch());
             }
             
+            // Add visual target
+            Button btnAddTarget = floatingView.findViewById(R.id.btn_add_target);
+            if (btnAddTarget != null) {
+                btnAddTarget.setOnClickListener(v -> showCrosshairForTarget());
+            }
+            
             // Interval seekbar
             SeekBar seekInterval = floatingView.findViewById(R.id.seekbar_interval);
             TextView txtInterval = floatingView.findViewById(R.id.tv_interval);
@@ -447,6 +518,7 @@ public class AutoClickerService extends Service {
                     @Override
                     public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
                         clickInterval = progress + 500; // 500ms to 10000ms
+                        scheduler.setInterval(clickInterval * 1_000_000L);
                         if (txtInterval != null) {
                             txtInterval.setText(clickInterval + "ms");
                         }
@@ -495,6 +567,9 @@ public class AutoClickerService extends Service {
                 });
             }
             
+            // Timing stats
+            tvClickStats = floatingView.findViewById(R.id.tv_click_stats);
+            
             // Minimize
             Button btnMinimize = floatingView.findViewById(R.id.btn_minimize);
             if (btnMinimize != null) {
@@ -832,6 +907,16 @@ public class AutoClickerService extends Service {
         showZoomDialog();
     }
     
+    private void showCrosshairForTarget() {
+        if (screenCapture == null || !screenCapture.isProjectionActive()) {
+            android.widget.Toast.makeText(this,
+                "🎯 Önce ekran yakalama izni verin",
+                android.widget.Toast.LENGTH_SHORT).show();
+            return;
+        }
+        showCrosshair("TARGET");
+    }
+    
     private void showZoomDialog() {
         try {
             if (windowManager == null) return;
@@ -1017,6 +1102,14 @@ public class AutoClickerService extends Service {
                     addPinchAction(x, y, pendingZoomIn);
                     hideCrosshair();
                     break;
+                    
+                case "TARGET":
+                    // Şablon crosshair'siz kareden kırpılmalı
+                    hideCrosshair();
+                    if (handler != null) {
+                        handler.postDelayed(() -> addTargetAction(x, y), TARGET_CAPTURE_DELAY_MS);
+                    }
+                    break;
             }
         } catch (Exception e) {
             Log.e(TAG, "Error handling crosshair point: " + e.getMessage());
@@ -1172,6 +1265,68 @@ public class AutoClickerService extends Service {
         }
     }
     
+    /**
+     * 🎯 Görsel hedefli TAP: (x, y) çevresinden şablon kırp
+     */
+    private void addTargetAction(float x, float y) {
+        try {
+            if (screenCapture == null) return;
+            
+            ClickAction action = new ClickAction();
+            action.type = ActionType.TAP;
+            action.x = x;
+            action.y = y;
+            
+            boolean captured = screenCapture.captureFrame(frame -> cropTemplate(frame, action));
+            if (!captured || action.template == null) {
+                Log.w(TAG, "⚠️ Target template could not be captured");
+                android.widget.Toast.makeText(this,
+                    "🎯 Hedef alınamadı, tekrar deneyin",
+                    android.widget.Toast.LENGTH_SHORT).show();
+                return;
+            }
+            
+            actions.add(action);
+            Log.d(TAG, String.format("✅ TARGET action added: (%.0f, %.0f)", x, y));
+            updateUI();
+            refreshPointsOverlay();
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error adding target action: " + e.getMessage());
+        }
+    }
+    
+    private void cropTemplate(ScreenFrame frame, ClickAction action) {
+        float scale = frame.getScale();
+        int minSide = TemplateMatcher.DOWNSCALE * TemplateMatcher.MIN_TEMPLATE_SIDE;
+        int size = Math.max(minSide, Math.round(TARGET_TEMPLATE_SIZE * scale));
+        size = Math.min(size, Math.min(frame.getWidth(), frame.getHeight()));
+        int left = Math.max(0, Math.min(frame.getWidth() - size, Math.round(action.x * scale) - size / 2));
+        int top = Math.max(0, Math.min(frame.getHeight() - size, Math.round(action.y * scale) - size / 2));
+        
+        int[] pixels = new int[size * size];
+        frame.read(pixels, left, top, size, size);
+        try {
+            action.template = new TemplateMatcher.Template(pixels, size, size);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "⚠️ Target template rejected: " + e.getMessage());
+            return;
+        }
+        action.templateScale = scale;
+        action.anchorX = frame.toScreenX(left + size / 2f);
+        action.anchorY = frame.toScreenY(top + size / 2f);
+        
+        // Ekran değişmezse yeni kare gelmez: kırpılan konum ilk isabet sayılır
+        TemplateMatcher.Match seed = new TemplateMatcher.Match();
+        seed.found = true;
+        seed.score = 1f;
+        seed.x = left + size / 2f;
+        seed.y = top + size / 2f;
+        action.lastMatch = seed;
+        action.matchX = action.anchorX;
+        action.matchY = action.anchorY;
+    }
+    
     private void addSwipeAction(float startX, float startY, float endX, float endY) {
         try {
             ClickAction action = new ClickAction();
@@ -1292,39 +1447,22 @@ public class AutoClickerService extends Service {
             isRunning = true;
             currentRepeat = 0;
             currentActionIndex = 0;
+            runActions = new ArrayList<>(actions);
+            
+            // Tıklamalar ana thread'den bağımsız, mutlak zamanlı
+            scheduler.start(this::fireNextAction, clickInterval * 1_000_000L);
             
-            clickRunnable = new Runnable() {
+            statsRunnable = new Runnable() {
                 @Override
                 public void run() {
-                    try {
-                        if (!isRunning || actions.isEmpty()) return;
-                        
-                        if (repeatCount > 0 && currentRepeat >= repeatCount) {
-                            stopClicking();
-                            return;
-                        }
-                        
-                        ClickAction action = actions.get(currentActionIndex);
-                        executeAction(action);
-                        
-                        currentActionIndex++;
-                        if (currentActionIndex >= actions.size()) {
-                            currentActionIndex = 0;
-                            currentRepeat++;
-                        }
-                        
-                        if (handler != null && isRunning) {
-                            handler.postDelayed(this, clickInterval);
-                        }
-                        
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error in click runnable: " + e.getMessage());
+                    updateUI();
+                    if (isRunning && handler != null) {
+                        handler.postDelayed(this, STATS_REFRESH_MS);
                     }
                 }
             };
-            
             if (handler != null) {
-                handler.post(clickRunnable);
+                handler.postDelayed(statsRunnable, STATS_REFRESH_MS);
             }
             
             Log.d(TAG, "✅ Auto clicking STARTED");
@@ -1338,12 +1476,13 @@ public class AutoClickerService extends Service {
     private void stopClicking() {
         try {
             isRunning = false;
+            scheduler.stop();
             
-            if (handler != null && clickRunnable != null) {
-                handler.removeCallbacks(clickRunnable);
+            if (handler != null && statsRunnable != null) {
+                handler.removeCallbacks(statsRunnable);
             }
             
-            Log.d(TAG, "🛑 Auto clicking STOPPED");
+            Log.d(TAG, "🛑 Auto clicking STOPPED: " + clickStats.snapshot());
             updateUI();
             
         } catch (Exception e) {
@@ -1351,44 +1490,129 @@ public class AutoClickerService extends Service {
         }
     }
     
-    private void executeAction(ClickAction action) {
+    /**
+     * ⏱️ Scheduler thread'inde her dilimde çağrılır
+     *
+     * @return Hareket gönderildiyse true
+     */
+    private boolean fireNextAction(AccessibilityService.GestureResultCallback callback, Handler callbackHandler) {
+        try {
+            if (!isRunning || runActions.isEmpty()) return false;
+            
+            if (repeatCount > 0 && currentRepeat >= repeatCount) {
+                scheduler.stop();
+                if (handler != null) {
+                    handler.post(this::stopClicking);
+                }
+                return false;
+            }
+            
+            ClickAction action = runActions.get(currentActionIndex);
+            boolean dispatched = executeAction(action, callback, callbackHandler);
+            
+            currentActionIndex++;
+            if (currentActionIndex >= runActions.size()) {
+                currentActionIndex = 0;
+                currentRepeat++;
+            }
+            return dispatched;
+            
+        } catch (Exception e) {
+            Log.e(TAG, "Error in click scheduler: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * @param callback Hareket bitince/iptal olunca callbackHandler thread'inde çağrılır
+     * @return Hareket gönderildiyse true
+     */
+    private boolean executeAction(ClickAction action, AccessibilityService.GestureResultCallback callback,
+                                  Handler callbackHandler) {
         try {
             AutoClickerAccessibilityService service = AutoClickerAccessibilityService.getInstance();
             if (service == null) {
                 Log.e(TAG, "Accessibility service not available");
-                return;
+                return false;
             }
             
             if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) {
                 Log.e(TAG, "Gestures require Android N or higher");
-                return;
+                return false;
+            }
+            
+            // Görsel hedef: tüm koordinatlar eşleşmenin kaydığı kadar kayar
+            float dx = 0;
+            float dy = 0;
+            if (action.template != null) {
+                if (!locateTarget(action)) {
+                    Log.d(TAG, "🎯 Target not on screen, action skipped");
+                    return false;
+                }
+                dx = action.matchX - action.anchorX;
+                dy = action.matchY - action.anchorY;
             }
             
             switch (action.type) {
                 case TAP:
-                    service.performTap(action.x, action.y, 100);
-                    break;
+                    return service.performTap(action.x + dx, action.y + dy, 100, callback, callbackHandler);
                     
                 case DOUBLE_TAP:
-                    service.performDoubleTap(action.x, action.y, 100, 100);
-                    break;
+                    return service.performDoubleTap(action.x + dx, action.y + dy, 100, 100, callback, callbackHandler);
                     
                 case LONG_PRESS:
-                    service.performTap(action.x, action.y, action.duration);
-                    break;
+                    return service.performTap(action.x + dx, action.y + dy, action.duration, callback, callbackHandler);
                     
                 case SWIPE:
-                    service.performSwipe(action.x, action.y, action.x2, action.y2, action.duration);
-                    break;
+                    return service.performSwipe(action.x + dx, action.y + dy, action.x2 + dx, action.y2 + dy,
+                        action.duration, callback, callbackHandler);
                     
                 case PINCH:
-                    service.performPinch(action.x, action.y, 300, action.zoomIn, action.duration);
-                    break;
+                    return service.performPinch(action.x + dx, action.y + dy, 300, action.zoomIn, action.duration,
+                        callback, callbackHandler);
             }
+            return false;
             
         } catch (Exception e) {
             Log.e(TAG, "Error executing action: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * 🎯 Şablonu son karede ara (önce son isabetin çevresinde). Yeni kare yoksa ekran
+     * değişmemiştir, son sonuç geçerli kalır.
+     *
+     * @return Hedef ekranda güven eşiğinin üstünde bulunduysa true (matchX/matchY dolu)
+     */
+    private boolean locateTarget(ClickAction action) {
+        if (screenCapture == null || !screenCapture.isProjectionActive()) {
+            Log.w(TAG, "⚠️ Screen capture not active for visual target");
+            return false;
         }
+        
+        screenCapture.captureFrame(frame -> {
+            if (frame.getScale() != action.templateScale) {
+                Log.w(TAG, "⚠️ Capture scale changed, target template no longer matches");
+                action.lastMatch = null;
+                return;
+            }
+            
+            TemplateMatcher.Match match = templateMatcher.find(frame, frame.getWidth(), frame.getHeight(),
+                action.template, action.minScore, action.lastMatch);
+            action.lastMatch = match;
+            if (match.found) {
+                action.matchX = frame.toScreenX(match.x);
+                action.matchY = frame.toScreenY(match.y);
+                matchHits++;
+            }
+            matchCount++;
+            matchTotalNs += match.latencyNs;
+            Log.d(TAG, String.format("🎯 %s (avg %.2f ms, %d/%d hits)", match,
+                matchTotalNs / 1e6 / matchCount, matchHits, matchCount));
+        });
+        
+        return action.lastMatch != null && action.lastMatch.found;
     }
     
     // ══════════════════════════════════════════════════════════════
@@ -1399,7 +1623,10 @@ public class AutoClickerService extends Service {
         try {
             if (floatingView == null) return;
             
-            // UI updated automatically through buttons
+            // Buttons update themselves; timing stats are refreshed while running
+            if (tvClickStats != null) {
+                tvClickStats.setText(clickStats.snapshot().toString());
+            }
             
         } catch (Exception e) {
             Log.e(TAG, "Error updating UI: " + e.getMessage());
@@ -1459,6 +1686,14 @@ public class AutoClickerService extends Service {
         public long duration = 100;
         public boolean zoomIn = true; // For PINCH - true = zoom in, false = zoom out
         
+        // Visual target (template == null → sabit koordinat)
+        TemplateMatcher.Template template;
+        float templateScale = 1f;        // Şablonun kırpıldığı yakalama ölçeği
+        float anchorX, anchorY;          // Şablon merkezi (ekran) kırpma anında
+        float minScore = TARGET_MIN_SCORE;
+        TemplateMatcher.Match lastMatch; // Sonraki arama önce bunun çevresinde
+        float matchX, matchY;            // Son isabet merkezi (ekran)
+        
         public ClickAction() {}
         
         public ClickAction copy() {
@@ -1470,6 +1705,15 @@ public class AutoClickerService extends Service {
             copy.y2 = this.y2;
             copy.duration = this.duration;
             copy.zoomIn = this.zoomIn;
+            copy.template = this.template; // Değişmez, paylaşılır
+            copy.templateScale = this.templateScale;
+            copy.anchorX = this.anchorX;
+            copy.anchorY = this.anchorY;
+            copy.minScore = this.minScore;
+            // Son isabet de kopyalanır: geri alınan aksiyon değişmeyen ekranda yeni kare beklemeden tıklar
+            copy.lastMatch = this.lastMatch; // find her seferinde yeni Match döner, paylaşılır
+            copy.matchX = this.matchX;
+            copy.matchY = this.matchY;
             return copy;
         }
     }
@@ -0,0 +1,199 @@
+package com.qrmaster.app;
+
+import android.accessibilityservice.AccessibilityService;
+import android.accessibilityservice.GestureDescription;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ⏱️ TIKLAMA ZAMANLAYICI - ayrı thread, mutlak hedef zamanlar
+ *
+ * k. dilimin hedefi start + k · interval (uptime nanosaniye); bir tıklamanın gecikmesi
+ * sonrakileri kaydırmaz ve ana thread'deki UI işi zamanlamayı etkilemez. Handler milisaniye
+ * hassasiyetinde uyandırır, kalan kısım park ile beklenir.
+ *
+ * Önceki hareket bitmeden yenisi gönderilmez (dispatchGesture öncekini iptal eder). Hareket
+ * hedef zamandan geç biterse sıradaki, GestureResultCallback gelir gelmez gönderilir. Bir
+ * aralıktan fazla geride kalınırsa kaçan dilimler sayılır ve ızgara ileri alınır (toplu tıklama yok).
+ */
+final class ClickScheduler {
+    private static final String TAG = "ClickScheduler";
+    private static final long PARK_THRESHOLD_NS = 50_000;   // Bundan kısa bekleme: hemen ateşle
+    private static final long PARK_MAX_NS = 2_000_000;      // Bundan uzun bekleme: Handler'a bırak
+    private static final long GESTURE_TIMEOUT_MS = 5_000;   // Callback gelmezse hareket bitmiş say
+
+    /**
+     * Her dilimde scheduler thread'inde çağrılır
+     */
+    interface Task {
+        /**
+         * Sıradaki hareketi gönder
+         *
+         * @return Hareket gönderildiyse true (callback, callbackHandler üzerinden gelmeli)
+         */
+        boolean fire(AccessibilityService.GestureResultCallback callback, Handler callbackHandler);
+    }
+
+    private final ClickTimingStats stats;
+    private final Runnable fireRunnable = this::fire;
+    private final AccessibilityService.GestureResultCallback gestureCallback =
+        new AccessibilityService.GestureResultCallback() {
+            @Override
+            public void onCompleted(GestureDescription gestureDescription) {
+                onGestureDone(false);
+            }
+
+            @Override
+            public void onCancelled(GestureDescription gestureDescription) {
+                onGestureDone(true);
+            }
+        };
+
+    private volatile boolean running;
+    private volatile long intervalNs;
+    private HandlerThread thread;
+    private volatile Handler handler;
+    private Task task;
+
+    // Yalnız scheduler thread'inde
+    private long nextDeadlineNs;
+    private long gestureStartNs;
+    private boolean gestureInFlight;
+    private boolean waitingForGesture;
+
+    ClickScheduler(ClickTimingStats stats) {
+        this.stats = stats;
+    }
+
+    /** Monoton saat - Handler.postAtTime ile aynı zaman tabanı (uptime) */
+    static long now() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.UPSIDE_DOWN_CAKE
+            ? SystemClock.uptimeNanos()
+            : System.nanoTime();
+    }
+
+    synchronized void start(Task task, long intervalNs) {
+        if (running) {
+            return;
+        }
+        this.task = task;
+        this.intervalNs = intervalNs;
+        stats.reset();
+
+        thread = new HandlerThread("ClickScheduler", Process.THREAD_PRIORITY_DISPLAY);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        running = true;
+        handler.post(() -> {
+            nextDeadlineNs = now();
+            gestureInFlight = false;
+            waitingForGesture = false;
+            fire();
+        });
+        Log.d(TAG, "⏱️ Scheduler started, interval " + intervalNs / 1_000_000 + " ms");
+    }
+
+    /** Herhangi bir thread'den çağrılabilir (Task.fire içinden de) */
+    synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        handler.removeCallbacksAndMessages(null);
+        thread.quitSafely();
+        handler = null;
+        thread = null;
+        Log.d(TAG, "⏹️ Scheduler stopped");
+    }
+
+    /** Sonraki dilimden itibaren geçerli */
+    void setInterval(long intervalNs) {
+        this.intervalNs = intervalNs;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    private void fire() {
+        Handler h = handler;
+        if (!running || h == null) {
+            return;
+        }
+
+        long now = now();
+        long wait = nextDeadlineNs - now;
+        if (wait > PARK_MAX_NS) {
+            scheduleAt(h, nextDeadlineNs); // Erken uyanma
+            return;
+        }
+        if (wait > PARK_THRESHOLD_NS) {
+            LockSupport.parkNanos(wait);
+            now = now();
+        }
+
+        if (gestureInFlight) {
+            if ((now - gestureStartNs) / 1_000_000 < GESTURE_TIMEOUT_MS) {
+                // Hareket bitince onGestureDone hemen ateşler; gelmezse zaman aşımında tekrar bakılır
+                waitingForGesture = true;
+                h.removeCallbacks(fireRunnable);
+                h.postDelayed(fireRunnable, GESTURE_TIMEOUT_MS);
+                return;
+            }
+            Log.w(TAG, "⚠️ Gesture callback timed out");
+            stats.recordCancelled();
+            gestureInFlight = false;
+        }
+        waitingForGesture = false;
+
+        long interval = intervalNs;
+        long lateness = now - nextDeadlineNs;
+        if (lateness >= interval) {
+            long missed = lateness / interval;
+            stats.recordMissed(missed);
+            nextDeadlineNs += missed * interval;
+            lateness -= missed * interval;
+        }
+
+        gestureInFlight = true;
+        gestureStartNs = now;
+        boolean dispatched = task.fire(gestureCallback, h);
+        if (!running) {
+            return; // Task durdurdu (ör. tekrar sayısı doldu)
+        }
+        if (dispatched) {
+            stats.recordClick(now, lateness);
+        } else {
+            gestureInFlight = false;
+            stats.recordEmpty();
+        }
+
+        nextDeadlineNs += interval;
+        scheduleAt(h, nextDeadlineNs);
+    }
+
+    private void onGestureDone(boolean cancelled) {
+        if (cancelled) {
+            stats.recordCancelled();
+        }
+        gestureInFlight = false;
+
+        Handler h = handler;
+        if (waitingForGesture && h != null) {
+            // Hedef zaman geçti, hareket şimdi bitti: bekletmeden sıradakini gönder
+            h.removeCallbacks(fireRunnable);
+            fire();
+        }
+    }
+
+    private void scheduleAt(Handler h, long deadlineNs) {
+        h.removeCallbacks(fireRunnable);
+        h.postAtTime(fireRunnable, deadlineNs / 1_000_000); // uptimeMillis tabanı
+    }
+}
@@ -0,0 +1,123 @@
+package com.qrmaster.app;
+
+import java.util.Arrays;
+
+/**
+ * ⏱️ TIKLAMA ZAMANLAMA İSTATİSTİKLERİ
+ *
+ * Son WINDOW tıklamanın ateşlenme zamanı ve hedef zamana göre gecikmesi halka tamponda tutulur.
+ * Ulaşılan hız (tıklama/sn) ve jitter (ardışık tıklama aralıklarının standart sapması) bu
+ * pencereden hesaplanır; sayaçlar çalışma boyunca birikir.
+ *
+ * Android'e bağımlı değil. Scheduler thread'i yazar, UI thread'i snapshot okur (synchronized).
+ */
+final class ClickTimingStats {
+    static final int WINDOW = 128;
+
+    /**
+     * Anlık görüntü (UI için)
+     */
+    static final class Snapshot {
+        long clicks;          // Gönderilen hareket
+        long missedSlots;     // Bir aralıktan fazla geride kalınıp atlanan dilim
+        long emptySlots;      // Hareket gönderilmeyen dilim (ör. görsel hedef ekranda yok)
+        long cancelled;       // İptal edilen / zaman aşımına uğrayan hareket
+        double clicksPerSecond;
+        double intervalJitterMs;
+        double meanLatenessMs;
+        double p95LatenessMs;
+        double maxLatenessMs;
+
+        @Override
+        public String toString() {
+            return String.format("⏱️ %.2f/s · jitter ±%.2f ms · gecikme ort %.2f / p95 %.2f / max %.2f ms · "
+                    + "%d tık, %d kaçan, %d boş, %d iptal",
+                clicksPerSecond, intervalJitterMs, meanLatenessMs, p95LatenessMs, maxLatenessMs,
+                clicks, missedSlots, emptySlots, cancelled);
+        }
+    }
+
+    private final long[] fireTimes = new long[WINDOW];
+    private final long[] lateness = new long[WINDOW];
+    private final long[] sortBuffer = new long[WINDOW];
+    private int head;  // Sıradaki yazma konumu
+    private int size;
+    private long clicks;
+    private long missedSlots;
+    private long emptySlots;
+    private long cancelled;
+
+    /**
+     * @param fireNs     Hareketin gönderildiği an (monoton saat)
+     * @param latenessNs Hedef zamandan sapma (erken ateşlemede negatif olabilir)
+     */
+    synchronized void recordClick(long fireNs, long latenessNs) {
+        fireTimes[head] = fireNs;
+        lateness[head] = latenessNs;
+        head = (head + 1) % WINDOW;
+        size = Math.min(size + 1, WINDOW);
+        clicks++;
+    }
+
+    synchronized void recordMissed(long slots) {
+        missedSlots += slots;
+    }
+
+    synchronized void recordEmpty() {
+        emptySlots++;
+    }
+
+    synchronized void recordCancelled() {
+        cancelled++;
+    }
+
+    synchronized void reset() {
+        head = 0;
+        size = 0;
+        clicks = 0;
+        missedSlots = 0;
+        emptySlots = 0;
+        cancelled = 0;
+    }
+
+    synchronized Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.clicks = clicks;
+        snapshot.missedSlots = missedSlots;
+        snapshot.emptySlots = emptySlots;
+        snapshot.cancelled = cancelled;
+        if (size == 0) {
+            return snapshot;
+        }
+
+        int oldest = (head - size + WINDOW) % WINDOW;
+        long latenessSum = 0;
+        long latenessMax = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            long value = lateness[(oldest + i) % WINDOW];
+            latenessSum += value;
+            latenessMax = Math.max(latenessMax, value);
+            sortBuffer[i] = value;
+        }
+        Arrays.sort(sortBuffer, 0, size);
+        snapshot.meanLatenessMs = latenessSum / 1e6 / size;
+        snapshot.maxLatenessMs = latenessMax / 1e6;
+        snapshot.p95LatenessMs = sortBuffer[Math.min(size - 1, (int) Math.ceil(size * 0.95) - 1)] / 1e6;
+
+        if (size >= 2) {
+            int intervals = size - 1;
+            long span = fireTimes[(oldest + size - 1) % WINDOW] - fireTimes[oldest];
+            double meanInterval = (double) span / intervals;
+            snapshot.clicksPerSecond = span > 0 ? 1e9 / meanInterval : 0;
+
+            double squares = 0;
+            for (int i = 1; i < size; i++) {
+                double deviation = fireTimes[(oldest + i) % WINDOW] - fireTimes[(oldest + i - 1) % WINDOW]
+                    - meanInterval;
+                squares += deviation * deviation;
+            }
+            snapshot.intervalJitterMs = Math.sqrt(squares / intervals) / 1e6;
+        }
+        return snapshot;
+    }
+}
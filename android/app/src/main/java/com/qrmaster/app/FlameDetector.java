@@ -24,6 +24,14 @@ public class FlameDetector {
     
     private static final int GRAY_MAX = 180; // Soluk renk için
     
+    // Turuncu/Kırmızı ton: red > 150 && green < 150 && blue < 100
+    private static final PixelScanKernel.ColorRule FLAME_RULE = new PixelScanKernel.ColorRule(150, 150, 100, false);
+    private static final int ICON_SCAN_WIDTH = 100; // Sol kenardan itibaren ikon alanı
+    private static final int ICON_GAP_ROWS = 6; // İkon içindeki boşluklar tek aday kalsın
+    private static final long SCAN_BUDGET_NS = 8_000_000L; // ~yarım kare (16ms)
+    
+    private static final PixelScanKernel KERNEL = new PixelScanKernel(); // Tamponlar tekrar kullanılır
+    
     public static class FlameSlot {
         public String time;
         public float x;
@@ -65,10 +73,16 @@ public class FlameDetector {
             int endY = height * 3 / 4; // Alta kadar %75
             int leftX = 50; // Sol kenardan 50px
             
-            // Her 100px'de bir satır tara
-            for (int y = startY; y < endY; y += 100) {
-                // Sol tarafta alev ikonu ara
-                FlameSlot slot = scanRowForFlame(screenshot, leftX, y, width);
+            // Tüm satırlar yoğun taranır (eskiden her 100px'de bir satır - ince ikonlar kaçıyordu)
+            List<PixelScanKernel.Candidate> candidates = new ArrayList<>();
+            synchronized (KERNEL) {
+                KERNEL.scan((dst, x, y, w, rows) -> screenshot.getPixels(dst, 0, w, x, y, w, rows),
+                    width, height, leftX, startY, leftX + ICON_SCAN_WIDTH, endY,
+                    FLAME_RULE, ICON_GAP_ROWS, System.nanoTime() + SCAN_BUDGET_NS, candidates);
+            }
+            
+            for (PixelScanKernel.Candidate candidate : candidates) {
+                FlameSlot slot = slotFromCandidate(screenshot, candidate, width);
                 if (slot != null) {
                     slots.add(slot);
                     Log.d(TAG, "🔥 Found flame slot: " + slot);
@@ -86,73 +100,39 @@ public class FlameDetector {
     }
     
     /**
-     * Bir satırı tara
+     * Aday alev ikonundan slot oluştur
      */
-    private static FlameSlot scanRowForFlame(Bitmap bitmap, int startX, int y, int width) {
-        try {
-            // Sol tarafta alev ikonu var mı kontrol et (turuncu/kırmızı pixel)
-            boolean hasFlameIcon = false;
-            int flameX = startX;
-            
-            for (int x = startX; x < startX + 100 && x < width; x++) {
-                int pixel = bitmap.getPixel(x, y);
-                
-                if (isFlameColor(pixel)) {
-                    hasFlameIcon = true;
-                    flameX = x;
-                    break;
-                }
-            }
-            
-            if (!hasFlameIcon) {
-                return null;
-            }
-            
-            // Renk kontrolü - renkli mi soluk mu?
-            int colorSample = bitmap.getPixel(flameX, y);
-            boolean isColorful = isColorfulFlame(colorSample);
-            
-            // SADECE RENKLİ ALEVLER
-            if (!isColorful) {
-                Log.d(TAG, "⚪ Skipping dim flame at y=" + y);
-                return null;
-            }
-            
-            // Saat metnini bul (alev ikonunun sağında)
-            String time = extractTimeFromRow(bitmap, flameX + 50, y, width);
-            
-            if (time == null || time.isEmpty()) {
-                return null;
-            }
-            
-            // + butonu koordinatı (sağ tarafta)
-            float plusButtonX = width - 80; // Sağdan 80px
-            
-            FlameSlot slot = new FlameSlot();
-            slot.time = time;
-            slot.x = plusButtonX;
-            slot.y = y;
-            slot.isColorful = isColorful;
-            slot.colorSample = colorSample;
-            
-            return slot;
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error scanning row: " + e.getMessage());
+    private static FlameSlot slotFromCandidate(Bitmap bitmap, PixelScanKernel.Candidate candidate, int width) {
+        int y = candidate.y;
+        
+        // Renk kontrolü - renkli mi soluk mu?
+        int colorSample = candidate.samplePixel;
+        boolean isColorful = isColorfulFlame(colorSample);
+        
+        // SADECE RENKLİ ALEVLER
+        if (!isColorful) {
+            Log.d(TAG, "⚪ Skipping dim flame at y=" + y);
             return null;
         }
-    }
-    
-    /**
-     * 🎨 ALEV RENGİ KONTROLÜ
-     */
-    private static boolean isFlameColor(int pixel) {
-        int red = Color.red(pixel);
-        int green = Color.green(pixel);
-        int blue = Color.blue(pixel);
         
-        // Turuncu/Kırmızı ton kontrolü
-        return red > 150 && green < 150 && blue < 100;
+        // Saat metnini bul (alev ikonunun sağında)
+        String time = extractTimeFromRow(bitmap, candidate.x + 50, y, width);
+        
+        if (time == null || time.isEmpty()) {
+            return null;
+        }
+        
+        // + butonu koordinatı (sağ tarafta)
+        float plusButtonX = width - 80; // Sağdan 80px
+        
+        FlameSlot slot = new FlameSlot();
+        slot.time = time;
+        slot.x = plusButtonX;
+        slot.y = y;
+        slot.isColorful = isColorful;
+        slot.colorSample = colorSample;
+        
+        return slot;
     }
     
     /**
@@ -171,9 +151,6 @@ public class FlameDetector {
         // Soluk gri kontrolü
         boolean isGray = red < GRAY_MAX && green < GRAY_MAX && blue < GRAY_MAX;
         
-        Log.d(TAG, String.format("Color check: RGB(%d,%d,%d) -> colorful=%b, gray=%b", 
-            red, green, blue, isColorful, isGray));
-        
         return isColorful && !isGray;
     }
     
@@ -0,0 +1,174 @@
+package com.qrmaster.app;
+
+import java.util.Arrays;
+
+/**
+ * 👁️ KARE DEĞİŞİM DEDEKTÖRÜ - ucuz algısal özet (küçültülmüş parlaklık ızgarası)
+ *
+ * Kare cols × rows hücreye bölünür; her hücre satırından SAMPLE_ROWS_PER_CELL satır okunur ve her
+ * SAMPLE_COLUMN_STEP pikselden biri parlaklığa (Y ≈ (77R + 150G + 29B) >> 8) katılır. Hücre
+ * ortalaması önceki kareden lumaThreshold'dan fazla saparsa hücre değişmiş sayılır. Değişen
+ * hücrelerin sınır kutusu pahalı dedektörlerin (FlameDetector, şablon eşleme) çalışıp
+ * çalışmayacağına karar verir.
+ *
+ * 1080x2400 karede ~35 bin piksel örneklenir. Android'e bağımlı değil, tek thread.
+ */
+final class FrameChangeDetector {
+    static final int SAMPLE_ROWS_PER_CELL = 4;
+    static final int SAMPLE_COLUMN_STEP = 4;
+
+    /**
+     * Son karşılaştırmanın sonucu (update her seferinde aynı nesneyi doldurur)
+     */
+    static final class Change {
+        boolean changed;
+        boolean firstFrame;   // Önceki kare yok / boyut değişti - tüm kare değişmiş sayılır
+        int changedCells;
+        int left, top, right, bottom; // Değişen bölge (kare pikseli, right/bottom hariç)
+
+        /** Değişen bölge verilen dikdörtgenle kesişiyor mu? */
+        boolean intersects(int l, int t, int r, int b) {
+            return changed && left < r && l < right && top < b && t < bottom;
+        }
+
+        @Override
+        public String toString() {
+            return changed
+                ? "Change{" + changedCells + " cells, [" + left + "," + top + " - " + right + "," + bottom + "]"
+                    + (firstFrame ? ", first" : "") + "}"
+                : "Change{none}";
+        }
+    }
+
+    private final int cols;
+    private final int rows;
+    private final int lumaThreshold;
+    private final Change change = new Change();
+
+    private int[] current;
+    private int[] previous;
+    private boolean hasPrevious;
+    private int frameWidth = -1;
+    private int frameHeight = -1;
+
+    // Kare boyutuna göre hazırlanır
+    private int[] rowBuffer = new int[0];
+    private int[] sampleColumn = new int[0]; // Örneklenen x → hücre sütunu
+    private int[] samplesPerColumn = new int[0];
+    private final long[] cellSums;
+
+    FrameChangeDetector(int cols, int rows, int lumaThreshold) {
+        this.cols = cols;
+        this.rows = rows;
+        this.lumaThreshold = lumaThreshold;
+        this.current = new int[cols * rows];
+        this.previous = new int[cols * rows];
+        this.cellSums = new long[cols];
+    }
+
+    /**
+     * Yeni kareyi özetle ve öncekiyle karşılaştır
+     */
+    Change update(PixelScanKernel.PixelSource source, int width, int height) {
+        if (width != frameWidth || height != frameHeight) {
+            prepare(width, height);
+        }
+
+        for (int gridRow = 0; gridRow < rows; gridRow++) {
+            int cellTop = gridRow * height / rows;
+            int cellHeight = (gridRow + 1) * height / rows - cellTop;
+            Arrays.fill(cellSums, 0);
+
+            for (int k = 0; k < SAMPLE_ROWS_PER_CELL; k++) {
+                int y = cellTop + (2 * k + 1) * cellHeight / (2 * SAMPLE_ROWS_PER_CELL);
+                source.read(rowBuffer, 0, y, width, 1);
+                for (int i = 0, x = 0; x < width; i++, x += SAMPLE_COLUMN_STEP) {
+                    int pixel = rowBuffer[x];
+                    cellSums[sampleColumn[i]] += (77 * ((pixel >> 16) & 0xFF) + 150 * ((pixel >> 8) & 0xFF)
+                        + 29 * (pixel & 0xFF)) >> 8;
+                }
+            }
+
+            int base = gridRow * cols;
+            for (int c = 0; c < cols; c++) {
+                current[base + c] = (int) (cellSums[c] / (samplesPerColumn[c] * SAMPLE_ROWS_PER_CELL));
+            }
+        }
+
+        compare(width, height);
+
+        int[] swap = previous;
+        previous = current;
+        current = swap;
+        hasPrevious = true;
+        return change;
+    }
+
+    /** Sonraki kare ilk kare sayılsın (ör. ekran/uygulama değişti) */
+    void reset() {
+        hasPrevious = false;
+    }
+
+    private void compare(int width, int height) {
+        change.firstFrame = !hasPrevious;
+        if (!hasPrevious) {
+            change.changed = true;
+            change.changedCells = cols * rows;
+            change.left = 0;
+            change.top = 0;
+            change.right = width;
+            change.bottom = height;
+            return;
+        }
+
+        int minCol = cols, maxCol = -1, minRow = rows, maxRow = -1, count = 0;
+        for (int gridRow = 0; gridRow < rows; gridRow++) {
+            int base = gridRow * cols;
+            for (int c = 0; c < cols; c++) {
+                if (Math.abs(current[base + c] - previous[base + c]) > lumaThreshold) {
+                    count++;
+                    minCol = Math.min(minCol, c);
+                    maxCol = Math.max(maxCol, c);
+                    minRow = Math.min(minRow, gridRow);
+                    maxRow = Math.max(maxRow, gridRow);
+                }
+            }
+        }
+
+        change.changed = count > 0;
+        change.changedCells = count;
+        if (count > 0) {
+            change.left = minCol * width / cols;
+            change.right = (maxCol + 1) * width / cols;
+            change.top = minRow * height / rows;
+            change.bottom = (maxRow + 1) * height / rows;
+        } else {
+            change.left = change.top = change.right = change.bottom = 0;
+        }
+    }
+
+    private void prepare(int width, int height) {
+        if (width < cols || height < rows * SAMPLE_ROWS_PER_CELL) {
+            throw new IllegalArgumentException("Frame " + width + "x" + height + " too small for "
+                + cols + "x" + rows + " grid");
+        }
+        frameWidth = width;
+        frameHeight = height;
+        hasPrevious = false;
+        rowBuffer = new int[width];
+
+        int samples = (width + SAMPLE_COLUMN_STEP - 1) / SAMPLE_COLUMN_STEP;
+        sampleColumn = new int[samples];
+        samplesPerColumn = new int[cols];
+        for (int i = 0; i < samples; i++) {
+            int column = i * SAMPLE_COLUMN_STEP * cols / width;
+            sampleColumn[i] = column;
+            samplesPerColumn[column]++;
+        }
+        for (int c = 0; c < cols; c++) {
+            if (samplesPerColumn[c] == 0) {
+                throw new IllegalArgumentException("Grid column " + c + " has no samples at width " + width);
+            }
+        }
+    }
+}
@@ -2,7 +2,10 @@ package com.qrmaster.app;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.Color;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.Log;
 
 import java.util.ArrayList;
@@ -34,6 +37,37 @@ public class IntelligentVisionSystem {
     private int currentWaitTime = 800;
     private float confidenceThreshold = 0.7f;
     
+    // Turuncu/Kırmızı alev tonu: red > 150 && green < 180 && blue < 100 && red > green
+    private static final PixelScanKernel.ColorRule FLAME_RULE = new PixelScanKernel.ColorRule(150, 180, 100, true);
+    private static final int LEFT_MARGIN = 40;
+    private static final int ICON_SCAN_WIDTH = 100; // Sol kenardan itibaren ikon alanı
+    private static final int ICON_GAP_ROWS = 6; // İkon içindeki boşluklar tek aday kalsın
+    private static final long SCAN_BUDGET_NS = 8_000_000L; // ~yarım kare (16ms)
+    
+    private final PixelScanKernel kernel = new PixelScanKernel(); // Tamponlar taramalar arasında tekrar kullanılır
+    
+    // Sürekli analiz: değişim ızgarası ve zorunlu tarama aralığı (ızgaranın kaçırdığı ince değişimler için)
+    private static final int CHANGE_GRID_COLS = 16;
+    private static final int CHANGE_GRID_ROWS = 32;
+    private static final int CHANGE_LUMA_THRESHOLD = 6;
+    private static final long FORCED_ANALYSIS_INTERVAL_MS = 2000;
+    
+    private HandlerThread analysisThread;
+    private FrameChangeDetector changeDetector;
+    private long lastFlameScanMs;
+    private volatile int framesAnalyzed = 0;
+    private volatile int framesSkipped = 0;
+    
+    /**
+     * Sürekli analiz olayları - analiz thread'inde çağrılır
+     */
+    public interface ContinuousAnalysisListener {
+        void onFlameSlotsDetected(List<FlameSlot> slots);
+        
+        /** Ekran değişti - diğer dedektörler (şablon eşleme) için; frame yalnız bu çağrı süresince geçerli */
+        default void onFrameChanged(ScreenFrame frame, FrameChangeDetector.Change change) {}
+    }
+    
     public static class FlamePattern {
         public int x, y;
         public int avgRed, avgGreen, avgBlue;
@@ -98,6 +132,94 @@ public class IntelligentVisionSystem {
         return result[0];
     }
     
+    /**
+     * 🔁 SÜREKLİ ANALİZ BAŞLAT
+     * Her yeni karede (ImageReader dinleyicisi, arka plan HandlerThread) ucuz parlaklık ızgarası
+     * öncekiyle karşılaştırılır; alev taraması yalnız alev alanı değiştiyse çalışır.
+     *
+     * @param captureScale Analiz çözünürlüğü (ör. 0.5f); slot koordinatları yine ekran pikseli
+     */
+    public void startContinuousAnalysis(float captureScale, ContinuousAnalysisListener listener) {
+        stopContinuousAnalysis();
+        
+        analysisThread = new HandlerThread("VisionAnalysis", Process.THREAD_PRIORITY_BACKGROUND);
+        analysisThread.start();
+        Handler analysisHandler = new Handler(analysisThread.getLooper());
+        
+        changeDetector = new FrameChangeDetector(CHANGE_GRID_COLS, CHANGE_GRID_ROWS, CHANGE_LUMA_THRESHOLD);
+        framesAnalyzed = 0;
+        framesSkipped = 0;
+        lastFlameScanMs = 0;
+        
+        screenCapture.setCaptureScale(captureScale);
+        screenCapture.startContinuousCapture(frame -> analyzeFrame(frame, listener), analysisHandler);
+        
+        Log.d(TAG, "🔁 Continuous analysis started (scale " + screenCapture.getCaptureScale() + ")");
+    }
+    
+    public void stopContinuousAnalysis() {
+        if (analysisThread == null) {
+            return;
+        }
+        
+        screenCapture.stopContinuousCapture();
+        if (Thread.currentThread() == analysisThread) {
+            // Dinleyici içinden: eski ImageReader'ın kapatılması bu kareden sonra kuyrukta (quitSafely işler)
+            screenCapture.setCaptureScale(1f);
+            analysisThread.quitSafely();
+        } else {
+            // Analiz thread'i kareyi bitirsin: ölçek değişimi okuduğu ImageReader'ı kapatır
+            analysisThread.quitSafely();
+            try {
+                analysisThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            screenCapture.setCaptureScale(1f);
+        }
+        analysisThread = null;
+        
+        Log.d(TAG, "⏹️ Continuous analysis stopped: " + getAnalysisStats());
+    }
+    
+    public boolean isContinuousAnalysisRunning() {
+        return analysisThread != null;
+    }
+    
+    /**
+     * Analiz thread'i: değişim yoksa kareyi atla, alev alanı değiştiyse kopyasız tara
+     */
+    private void analyzeFrame(ScreenFrame frame, ContinuousAnalysisListener listener) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        FrameChangeDetector.Change change = changeDetector.update(frame, width, height);
+        
+        long now = SystemClock.uptimeMillis();
+        boolean forced = now - lastFlameScanMs >= FORCED_ANALYSIS_INTERVAL_MS;
+        if (!change.changed && !forced) {
+            framesSkipped++;
+            return;
+        }
+        framesAnalyzed++;
+        
+        if (change.changed) {
+            listener.onFrameChanged(frame, change);
+        }
+        
+        // Alev alanı: sol kenar şeridi, üstten %20 - %85
+        float scale = frame.getScale();
+        int flameLeft = Math.round(LEFT_MARGIN * scale);
+        int flameRight = flameLeft + Math.round(ICON_SCAN_WIDTH * scale);
+        if (forced || change.intersects(flameLeft, (int)(height * 0.20f), flameRight, (int)(height * 0.85f))) {
+            lastFlameScanMs = now;
+            listener.onFlameSlotsDetected(scanFlameSlots(frame, width, height, scale));
+        }
+    }
+    
+    public String getAnalysisStats() {
+        return String.format("Frames analyzed: %d | skipped: %d", framesAnalyzed, framesSkipped);
+    }
+    
     /**
      * 🔍 ALEVLİ SAATLERİ AKILLI TARA
      */
@@ -115,31 +237,8 @@ public class IntelligentVisionSystem {
             
             Log.d(TAG, "🔍 Intelligent scan: " + width + "x" + height);
             
-            // Liste alanını tara (üstten %20 - %85)
-            int startY = (int)(height * 0.20f);
-            int endY = (int)(height * 0.85f);
-            int leftMargin = 40;
-            
-            // Her 100-150px'de bir satır tara (liste item yüksekliği)
-            for (int y = startY; y < endY; y += 120) {
-                // Sol tarafta alev ikonu ara (turuncu/kırmızı)
-                FlameSlot slot = analyzeRowForFlame(screenshot, leftMargin, y, width);
-                
-                if (slot != null && slot.confidence > confidenceThreshold) {
-                    slots.add(slot);
-                    Log.d(TAG, "🔥 FOUND: " + slot);
-                    
-                    // Öğren
-                    learnFromDetection(slot);
-                }
-            }
-            
-            Log.d(TAG, "📊 Total flames detected: " + slots.size());
-            
-            // Adaptive learning
-            if (slots.size() == 0 && failCount > 2) {
-                adjustDetectionParameters();
-            }
+            slots = scanFlameSlots((dst, x, y, w, rows) -> screenshot.getPixels(dst, 0, w, x, y, w, rows),
+                width, height, 1f);
             
         } catch (Exception e) {
             Log.e(TAG, "Error scanning: " + e.getMessage());
@@ -150,81 +249,84 @@ public class IntelligentVisionSystem {
     }
     
     /**
-     * 🎨 BİR SATIRI ANALİZ ET
+     * 🔍 Piksel kaynağındaki alevleri tara (Bitmap veya kopyasız ScreenFrame)
+     *
+     * @param scale Kare çözünürlüğü / ekran çözünürlüğü; slot koordinatları ekran pikselidir
      */
-    private FlameSlot analyzeRowForFlame(Bitmap screenshot, int startX, int y, int width) {
-        try {
-            // Sol tarafta turuncu/kırmızı piksel ara (100px genişlik)
-            int flameX = -1;
-            int totalRed = 0, totalGreen = 0, totalBlue = 0;
-            int sampleCount = 0;
+    private synchronized List<FlameSlot> scanFlameSlots(PixelScanKernel.PixelSource source,
+                                                        int width, int height, float scale) {
+        List<FlameSlot> slots = new ArrayList<>();
+        
+        // Liste alanını tara (üstten %20 - %85)
+        int startY = (int)(height * 0.20f);
+        int endY = (int)(height * 0.85f);
+        int leftMargin = Math.round(LEFT_MARGIN * scale);
+        int screenWidth = Math.round(width / scale);
+        
+        // Tüm satırlar yoğun taranır (eskiden her 120px'de bir satır - aradaki ikonlar kaçıyordu)
+        List<PixelScanKernel.Candidate> candidates = new ArrayList<>();
+        kernel.scan(source, width, height, leftMargin, startY, leftMargin + Math.round(ICON_SCAN_WIDTH * scale), endY,
+            FLAME_RULE, ICON_GAP_ROWS, System.nanoTime() + SCAN_BUDGET_NS, candidates);
+        
+        for (PixelScanKernel.Candidate candidate : candidates) {
+            FlameSlot slot = slotFromCandidate(candidate, screenWidth, scale);
             
-            for (int x = startX; x < startX + 100 && x < width; x += 5) {
-                if (y >= screenshot.getHeight()) continue;
-                
-                int pixel = screenshot.getPixel(x, y);
-                int red = Color.red(pixel);
-                int green = Color.green(pixel);
-                int blue = Color.blue(pixel);
+            if (slot != null && slot.confidence > confidenceThreshold) {
+                slots.add(slot);
+                Log.d(TAG, "🔥 FOUND: " + slot);
                 
-                // Turuncu/Kırmızı alev tonu kontrolü
-                if (isFlameColor(red, green, blue)) {
-                    flameX = x;
-                    totalRed += red;
-                    totalGreen += green;
-                    totalBlue += blue;
-                    sampleCount++;
-                }
+                // Öğren
+                learnFromDetection(slot);
             }
-            
-            if (flameX == -1 || sampleCount == 0) {
-                return null; // Alev yok
-            }
-            
-            // Ortalama renk
-            int avgRed = totalRed / sampleCount;
-            int avgGreen = totalGreen / sampleCount;
-            int avgBlue = totalBlue / sampleCount;
-            
-            // RENKLİ mi SOLUK mu?
-            boolean isColorful = isColorfulFlame(avgRed, avgGreen, avgBlue);
-            
-            if (!isColorful) {
-                Log.d(TAG, String.format("⚪ DIM flame at y=%d RGB=(%d,%d,%d)", y, avgRed, avgGreen, avgBlue));
-                return null; // Soluk alevleri ATLA
-            }
-            
-            // Saat metnini tahmin et (OCR olmadan basit)
-            String timeText = extractTimeFromRow(screenshot, flameX + 80, y, width);
-            
-            // Confidence hesapla
-            float confidence = calculateConfidence(avgRed, avgGreen, avgBlue, isColorful);
-            
-            // Slot oluştur
-            FlameSlot slot = new FlameSlot();
-            slot.x = width - 80; // + butonu sağ tarafta
-            slot.y = y;
-            slot.time = timeText;
-            slot.colorRed = avgRed;
-            slot.colorGreen = avgGreen;
-            slot.colorBlue = avgBlue;
-            slot.isColorful = isColorful;
-            slot.confidence = confidence;
-            
-            return slot;
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error analyzing row: " + e.getMessage());
-            return null;
         }
+        
+        Log.d(TAG, "📊 Total flames detected: " + slots.size());
+        
+        // Adaptive learning
+        if (slots.size() == 0 && failCount > 2) {
+            adjustDetectionParameters();
+        }
+        
+        return slots;
     }
     
     /**
-     * 🎨 ALEV RENGİ Mİ?
+     * 🎨 ADAY ALEV İKONUNU DEĞERLENDİR
      */
-    private boolean isFlameColor(int red, int green, int blue) {
-        // Turuncu/Kırmızı ton: Yüksek kırmızı, orta yeşil, düşük mavi
-        return red > 150 && green < 180 && blue < 100 && red > green;
+    private FlameSlot slotFromCandidate(PixelScanKernel.Candidate candidate, int width, float scale) {
+        int y = Math.round(candidate.y / scale); // Ekran koordinatı
+        
+        // Ortalama renk (adayın tüm alev pikselleri)
+        int avgRed = candidate.avgRed;
+        int avgGreen = candidate.avgGreen;
+        int avgBlue = candidate.avgBlue;
+        
+        // RENKLİ mi SOLUK mu?
+        boolean isColorful = isColorfulFlame(avgRed, avgGreen, avgBlue);
+        
+        if (!isColorful) {
+            Log.d(TAG, String.format("⚪ DIM flame at y=%d RGB=(%d,%d,%d)", y, avgRed, avgGreen, avgBlue));
+            return null; // Soluk alevleri ATLA
+        }
+        
+        // Saat metnini tahmin et (OCR olmadan basit)
+        String timeText = extractTimeFromRow(Math.round(candidate.x / scale) + 80, y, width);
+        
+        // Confidence hesapla
+        float confidence = calculateConfidence(avgRed, avgGreen, avgBlue, isColorful);
+        
+        // Slot oluştur
+        FlameSlot slot = new FlameSlot();
+        slot.x = width - 80; // + butonu sağ tarafta
+        slot.y = y;
+        slot.time = timeText;
+        slot.colorRed = avgRed;
+        slot.colorGreen = avgGreen;
+        slot.colorBlue = avgBlue;
+        slot.isColorful = isColorful;
+        slot.confidence = confidence;
+        
+        return slot;
     }
     
     /**
@@ -271,7 +373,7 @@ public class IntelligentVisionSystem {
     /**
      * ⏰ SAAT METNİNİ BUL (Basit versiyon)
      */
-    private String extractTimeFromRow(Bitmap screenshot, int startX, int y, int endX) {
+    private String extractTimeFromRow(int startX, int y, int endX) {
         // Basit: Pozisyon bazlı tahmin
         // Gerçek implementasyonda Google ML Kit Text Recognition kullanılabilir
         
@@ -427,6 +529,7 @@ public class IntelligentVisionSystem {
     }
     
     public void stop() {
+        stopContinuousAnalysis();
         if (screenCapture != null) {
             screenCapture.stop();
         }
@@ -0,0 +1,53 @@
+package com.qrmaster.app;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 📐 OCR satırlarını okuma sırasına diz (yukarıdan aşağıya, aynı satırda soldan sağa)
+ *
+ * Android'e bağımlı değil (SmartOCRProcessor ve JVM benchmark'ları kullanır).
+ * Önce Y'ye göre sıralanır, sonra üst kenarı satırın ilk (en üstteki) elemanına
+ * rowThreshold pikselden yakın olanlar aynı satır sayılıp X'e göre dizilir.
+ *
+ * ⚠️ Eski "Y'ler yakınsa X'e bak" karşılaştırıcısından farklı gruplar: eskisi her çifte
+ * ayrı bakıyordu, burada satır ilk elemana sabitlenir. top 0 / 6 / 12 (eşik 10) için
+ * eskisi 0-6 ve 6-12'yi aynı, 0-12'yi farklı satır sayıp girdi sırasına göre değişen
+ * sonuç veriyordu; burada her zaman [0, 6] + [12]. Eski karşılaştırıcı geçişli
+ * olmadığından büyük listelerde TimSort "Comparison method violates its general
+ * contract" atabiliyordu. Satırlar birbirinden eşikten uzaksa sonuç aynıdır.
+ */
+final class OcrLineSorter {
+
+    interface Line {
+        int top();
+
+        int left();
+    }
+
+    private static final Comparator<Line> BY_TOP = (a, b) -> {
+        int yDiff = Integer.compare(a.top(), b.top());
+        return yDiff != 0 ? yDiff : Integer.compare(a.left(), b.left());
+    };
+
+    private static final Comparator<Line> BY_LEFT = (a, b) -> Integer.compare(a.left(), b.left());
+
+    private OcrLineSorter() {
+    }
+
+    static <T extends Line> void sort(List<T> lines, int rowThreshold) {
+        Collections.sort(lines, BY_TOP);
+
+        int rowStart = 0;
+        int size = lines.size();
+        for (int i = 1; i <= size; i++) {
+            if (i == size || lines.get(i).top() - lines.get(rowStart).top() >= rowThreshold) {
+                if (i - rowStart > 1) {
+                    Collections.sort(lines.subList(rowStart, i), BY_LEFT);
+                }
+                rowStart = i;
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.qrmaster.app;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ⚡ TOPLU PİKSEL TARAMA ÇEKİRDEĞİ
+ *
+ * Bitmap.getPixel her çağrıda JNI geçişi yapar; burada piksel kaynağı BAND_ROWS satırlık blokları
+ * tekrar kullanılan int[]'e tek çağrıda doldurur (Bitmap.getPixels). Renk sınıflandırması dallanmasız
+ * tamsayı işlemleriyle: "r > eşik" ⇔ (eşik - r) < 0, üç koşulun işaret bitleri AND'lenir.
+ *
+ * Bölgedeki her satır taranır (eski sürümler 100-120 px'de bir satıra bakıyordu, aradaki ince
+ * hedefler kaçıyordu). Eşleşen ardışık satırlar tek adaya (Candidate) birleşir. Süre bütçesi
+ * aşılırsa kalan bölge giderek seyrek satırlarla taranır (en fazla MAX_ROW_STEP).
+ *
+ * Android'e bağımlı değil (JVM testleri int[] kaynakla çalıştırır). Örnek başına tek thread.
+ */
+final class PixelScanKernel {
+    static final int BAND_ROWS = 32;
+    static final int MAX_ROW_STEP = 8;
+
+    /**
+     * Piksel kaynağı - Android'de Bitmap.getPixels, testlerde int[] kare
+     */
+    interface PixelSource {
+        /** [x, x+width) × [y, y+rows) ARGB piksellerini dst'ye yaz (satır adımı width) */
+        void read(int[] dst, int x, int y, int width, int rows);
+    }
+
+    /**
+     * red > redAbove && green < greenBelow && blue < blueBelow (&& red > green)
+     */
+    static final class ColorRule {
+        final int redAbove;
+        final int greenBelow;
+        final int blueBelow;
+        final int redOverGreenOff; // 0: red > green şartı var, MIN_VALUE: yok (terim hep negatif)
+
+        ColorRule(int redAbove, int greenBelow, int blueBelow, boolean redOverGreen) {
+            this.redAbove = redAbove;
+            this.greenBelow = greenBelow;
+            this.blueBelow = blueBelow;
+            this.redOverGreenOff = redOverGreen ? 0 : Integer.MIN_VALUE;
+        }
+
+        /** Tek piksel için 1/0 - tarama döngüsündeki ifadenin aynısı */
+        int match(int pixel) {
+            int red = (pixel >> 16) & 0xFF;
+            int green = (pixel >> 8) & 0xFF;
+            int blue = pixel & 0xFF;
+            return ((redAbove - red) & (green - greenBelow) & (blue - blueBelow)
+                & ((green - red) | redOverGreenOff)) >>> 31;
+        }
+    }
+
+    /**
+     * Ardışık eşleşen satırlardan oluşan hedef
+     */
+    static final class Candidate {
+        int top;          // İlk eşleşen satır
+        int bottom;       // Son eşleşen satır
+        int y;            // Orta satır (tıklama/satır konumu)
+        int x;            // En soldaki eşleşme
+        int samplePixel;  // Orta satıra en yakın satırın ilk eşleşen pikseli
+        int pixelCount;
+        int avgRed, avgGreen, avgBlue;
+
+        @Override
+        public String toString() {
+            return "Candidate{y=" + y + " [" + top + ".." + bottom + "], x=" + x + ", px=" + pixelCount
+                + ", RGB=(" + avgRed + "," + avgGreen + "," + avgBlue + ")}";
+        }
+    }
+
+    private int[] band = new int[0];
+    private int[] rowFirstX = new int[0];     // Satırın ilk eşleşmesi (x) veya -1
+    private int[] rowFirstPixel = new int[0];
+    private int lastRowStep = 1;
+
+    // Açık aday (tarama sırasında)
+    private int runTop = -1;
+    private int runBottom;
+    private int runCount;
+    private long runRed, runGreen, runBlue;
+
+    // Son taranan satırın toplamları (scanRow → scan)
+    private int rowCount;
+    private int rowRed, rowGreen, rowBlue;
+
+    /**
+     * Bölgeyi tara, adayları out'a ekle
+     *
+     * @param left, top, right, bottom Bölge (right/bottom hariç), kare sınırlarına kırpılır
+     * @param maxGapRows Bu kadar eşleşmeyen satır aynı adayı bölmez (ikon içi boşluklar)
+     * @param deadlineNanos System.nanoTime() sınırı; aşılınca satırlar seyrekleşir (0: sınırsız)
+     * @return Bulunan aday sayısı
+     */
+    int scan(PixelSource source, int frameWidth, int frameHeight,
+             int left, int top, int right, int bottom,
+             ColorRule rule, int maxGapRows, long deadlineNanos, List<Candidate> out) {
+        left = Math.max(0, left);
+        top = Math.max(0, top);
+        right = Math.min(frameWidth, right);
+        bottom = Math.min(frameHeight, bottom);
+        int width = right - left;
+        if (width <= 0 || bottom <= top) {
+            return 0;
+        }
+        ensureCapacity(width, frameHeight);
+
+        int found = 0;
+        int rowStep = 1;
+        runTop = -1;
+        for (int bandTop = top; bandTop < bottom; bandTop += BAND_ROWS) {
+            int rows = Math.min(BAND_ROWS, bottom - bandTop);
+            source.read(band, left, bandTop, width, rows);
+
+            for (int r = (rowStep - (bandTop - top) % rowStep) % rowStep; r < rows; r += rowStep) {
+                int y = bandTop + r;
+                scanRow(r * width, width, rule, y, left);
+                if (rowFirstX[y] >= 0) {
+                    if (runTop >= 0 && y - runBottom > maxGapRows + rowStep) {
+                        found += closeRun(out);
+                    }
+                    extendRun(y);
+                    runCount += rowCount;
+                    runRed += rowRed;
+                    runGreen += rowGreen;
+                    runBlue += rowBlue;
+                } else if (runTop >= 0 && y - runBottom > maxGapRows + rowStep) {
+                    found += closeRun(out);
+                }
+            }
+
+            if (deadlineNanos != 0 && rowStep < MAX_ROW_STEP && System.nanoTime() - deadlineNanos > 0) {
+                rowStep *= 2; // Bütçe bitti - geri kalan daha seyrek
+            }
+        }
+        if (runTop >= 0) {
+            found += closeRun(out);
+        }
+        lastRowStep = rowStep;
+        return found;
+    }
+
+    /** Son taramanın bitişteki satır adımı (1: bölgenin tamamı yoğun tarandı) */
+    int lastRowStep() {
+        return lastRowStep;
+    }
+
+    // Sıcak döngü: satır başına tek dal (ilk eşleşme), toplamlar maskelerle
+    private void scanRow(int offset, int width, ColorRule rule, int y, int left) {
+        int redAbove = rule.redAbove;
+        int greenBelow = rule.greenBelow;
+        int blueBelow = rule.blueBelow;
+        int redOverGreenOff = rule.redOverGreenOff;
+        int[] pixels = band;
+
+        int first = -1;
+        int count = 0;
+        int sumRed = 0, sumGreen = 0, sumBlue = 0; // width × 255 int'e sığar
+        for (int i = 0; i < width; i++) {
+            int pixel = pixels[offset + i];
+            int red = (pixel >> 16) & 0xFF;
+            int green = (pixel >> 8) & 0xFF;
+            int blue = pixel & 0xFF;
+            int match = ((redAbove - red) & (green - greenBelow) & (blue - blueBelow)
+                & ((green - red) | redOverGreenOff)) >>> 31;
+            int mask = -match;
+            count += match;
+            sumRed += red & mask;
+            sumGreen += green & mask;
+            sumBlue += blue & mask;
+            if (match != 0 && first < 0) {
+                first = i;
+            }
+        }
+
+        if (count == 0) {
+            rowFirstX[y] = -1;
+            return;
+        }
+        rowFirstX[y] = left + first;
+        rowFirstPixel[y] = pixels[offset + first];
+        rowCount = count;
+        rowRed = sumRed;
+        rowGreen = sumGreen;
+        rowBlue = sumBlue;
+    }
+
+    private void extendRun(int y) {
+        if (runTop < 0) {
+            runTop = y;
+        }
+        runBottom = y;
+    }
+
+    private int closeRun(List<Candidate> out) {
+        Candidate candidate = new Candidate();
+        candidate.top = runTop;
+        candidate.bottom = runBottom;
+        candidate.y = (runTop + runBottom) / 2;
+        candidate.x = Integer.MAX_VALUE;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int y = runTop; y <= runBottom; y++) {
+            int firstX = rowFirstX[y];
+            if (firstX < 0) {
+                continue; // Boşluk ya da atlanan satır
+            }
+            candidate.x = Math.min(candidate.x, firstX);
+            int distance = Math.abs(y - candidate.y);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                candidate.samplePixel = rowFirstPixel[y];
+            }
+        }
+        candidate.pixelCount = runCount;
+        candidate.avgRed = (int) (runRed / runCount);
+        candidate.avgGreen = (int) (runGreen / runCount);
+        candidate.avgBlue = (int) (runBlue / runCount);
+        out.add(candidate);
+
+        runTop = -1;
+        runCount = 0;
+        runRed = runGreen = runBlue = 0;
+        return 1;
+    }
+
+    private void ensureCapacity(int width, int frameHeight) {
+        if (band.length < width * BAND_ROWS) {
+            band = new int[width * BAND_ROWS];
+        }
+        if (rowFirstX.length < frameHeight) {
+            rowFirstX = new int[frameHeight];
+            rowFirstPixel = new int[frameHeight];
+        }
+        // Seyrek taramada atlanan satırlar eski değer taşımasın
+        Arrays.fill(rowFirstX, 0, frameHeight, -1);
+    }
+}
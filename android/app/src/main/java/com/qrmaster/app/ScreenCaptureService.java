@@ -19,32 +19,76 @@ import android.util.Log;
 import android.view.WindowManager;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 
 /**
  * 📸 EKRAN YAKALAMA SERVİSİ
  * Gerçek zamanlı ekran görüntüsü alır
+ *
+ * Üç yol:
+ * - captureFrame: ImageReader düzleminin salt okunur görünümü (ScreenFrame), hiç kopya yok
+ * - acquireBitmap / releaseBitmap: havuzdan tekrar kullanılan Bitmap, tek kopya
+ * - captureScreen: çağırana ait yeni Bitmap (eski API), tek tahsis
+ *
+ * startContinuousCapture her yeni karede captureFrame yolunu arka plan thread'inde çalıştırır.
+ *
+ * setCaptureScale ile VirtualDisplay düşük çözünürlükte yakalar (yalnız analiz için);
+ * kare koordinatları ScreenFrame.toScreenX/Y ile ekrana çevrilir.
  */
 public class ScreenCaptureService {
     
     private static final String TAG = "ScreenCapture";
     
+    private static final float MIN_CAPTURE_SCALE = 0.1f;
+    private static final int MAX_POOLED_BITMAPS = 2;
+    private static final int COPY_BAND_ROWS = 32; // Dolgulu düzlemden Bitmap'e satır bloğu
+    
     private Context context;
     private MediaProjectionManager projectionManager;
     private MediaProjection mediaProjection;
     private VirtualDisplay virtualDisplay;
     private ImageReader imageReader;
     
+    // Android 14+: createVirtualDisplay'den önce kayıt zorunlu; kullanıcı/sistem paylaşımı bitirince yakalama kapanır
+    private final MediaProjection.Callback projectionCallback = new MediaProjection.Callback() {
+        @Override
+        public void onStop() {
+            Log.w(TAG, "⚠️ MediaProjection stopped by the system");
+            stop();
+        }
+    };
+    
     private int screenWidth;
     private int screenHeight;
     private int screenDensity;
     
+    // Yakalama çözünürlüğü (captureScale × ekran)
+    private float captureScale = 1f;
+    private int captureWidth;
+    private int captureHeight;
+    
+    // Havuz ve kopya tamponu - yakalama çağrıları aynı thread'den (handler) gelir
+    private final ArrayDeque<Bitmap> bitmapPool = new ArrayDeque<>();
+    private int[] copyBuffer = new int[0];
+    
     private Handler handler;
     
+    // Sürekli yakalama: ImageReader dinleyicisi arka plan handler'ında
+    private volatile FrameConsumer continuousConsumer;
+    private Handler continuousHandler;
+    
     public interface ScreenCaptureCallback {
         void onScreenCaptured(Bitmap bitmap);
         void onError(String error);
     }
     
+    /**
+     * Kopyasız kare tüketicisi - frame yalnızca bu çağrı sırasında geçerli, saklanmamalı
+     */
+    public interface FrameConsumer {
+        void onFrame(ScreenFrame frame);
+    }
+    
     public ScreenCaptureService(Context context) {
         this.context = context;
         this.handler = new Handler(Looper.getMainLooper());
@@ -56,6 +100,8 @@ public class ScreenCaptureService {
         screenWidth = metrics.widthPixels;
         screenHeight = metrics.heightPixels;
         screenDensity = metrics.densityDpi;
+        captureWidth = screenWidth;
+        captureHeight = screenHeight;
         
         projectionManager = (MediaProjectionManager) context.getSystemService(Context.MEDIA_PROJECTION_SERVICE);
         
@@ -78,35 +124,223 @@ public class ScreenCaptureService {
                 Log.e(TAG, "❌ Failed to create MediaProjection");
                 return;
             }
+            mediaProjection.registerCallback(projectionCallback, handler);
             
             // ImageReader oluştur
             imageReader = ImageReader.newInstance(
-                screenWidth, 
-                screenHeight, 
-                PixelFormat.RGBA_8888, 
+                captureWidth,
+                captureHeight,
+                PixelFormat.RGBA_8888,
                 2
             );
+            attachContinuousListener(imageReader);
             
             // VirtualDisplay oluştur
             virtualDisplay = mediaProjection.createVirtualDisplay(
                 "ScreenCapture",
-                screenWidth,
-                screenHeight,
-                screenDensity,
+                captureWidth,
+                captureHeight,
+                captureDensity(),
                 DisplayManager.VIRTUAL_DISPLAY_FLAG_AUTO_MIRROR,
                 imageReader.getSurface(),
                 null,
                 handler
             );
             
-            Log.d(TAG, "✅ MediaProjection started");
+            Log.d(TAG, "✅ MediaProjection started (" + captureWidth + "x" + captureHeight + ")");
             
         } catch (Exception e) {
             Log.e(TAG, "❌ Error starting projection: " + e.getMessage());
             e.printStackTrace();
+            stop(); // Yarım kalan projeksiyon etkin görünmesin, izin tekrar istenebilsin
+        }
+    }
+    
+    /**
+     * 🔬 Yakalama ölçeği (1 = tam çözünürlük). Yalnız analiz için düşürülmeli; yakalanan kareler
+     * ve Bitmap'ler bu ölçekte gelir. Projeksiyon çalışıyorsa VirtualDisplay yeniden boyutlanır.
+     */
+    public void setCaptureScale(float scale) {
+        float clamped = Math.max(MIN_CAPTURE_SCALE, Math.min(1f, scale));
+        int width = Math.max(1, Math.round(screenWidth * clamped));
+        int height = Math.max(1, Math.round(screenHeight * clamped));
+        if (width == captureWidth && height == captureHeight) {
+            captureScale = clamped;
+            return;
+        }
+        
+        captureScale = clamped;
+        captureWidth = width;
+        captureHeight = height;
+        clearBitmapPool(); // Eski boyuttaki Bitmap'ler artık kullanılamaz
+        
+        if (virtualDisplay == null) {
+            return; // startProjection yeni boyutu kullanır
+        }
+        
+        try {
+            ImageReader oldReader = imageReader;
+            imageReader = ImageReader.newInstance(captureWidth, captureHeight, PixelFormat.RGBA_8888, 2);
+            attachContinuousListener(imageReader);
+            virtualDisplay.resize(captureWidth, captureHeight, captureDensity());
+            virtualDisplay.setSurface(imageReader.getSurface());
+            closeReader(oldReader);
+            
+            Log.d(TAG, "🔬 Capture resized: " + captureWidth + "x" + captureHeight + " (scale " + captureScale + ")");
+            
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Error resizing capture: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * ⚡ Kopyasız yakalama: son kare düzleminin salt okunur görünümü consumer'a verilir,
+     * dönüşte Image kapanır. Bitmap tahsisi yok.
+     *
+     * @return Kare verildiyse true
+     */
+    public boolean captureFrame(FrameConsumer consumer) {
+        if (imageReader == null) {
+            Log.w(TAG, "⚠️ ImageReader not initialized");
+            return false;
+        }
+        
+        return captureFrame(imageReader, consumer);
+    }
+    
+    /**
+     * 🔁 Sürekli yakalama: her yeni karede consumer, backgroundHandler thread'inde çağrılır.
+     * VirtualDisplay yalnız ekran değişince kare üretir; biriken kareler atlanır (acquireLatestImage).
+     * Projeksiyon henüz başlamadıysa başlayınca devreye girer.
+     */
+    public void startContinuousCapture(FrameConsumer consumer, Handler backgroundHandler) {
+        continuousHandler = backgroundHandler;
+        continuousConsumer = consumer;
+        if (imageReader != null) {
+            attachContinuousListener(imageReader);
+        }
+        Log.d(TAG, "🔁 Continuous capture started");
+    }
+    
+    public void stopContinuousCapture() {
+        continuousConsumer = null;
+        if (imageReader != null) {
+            imageReader.setOnImageAvailableListener(null, null);
+        }
+        Log.d(TAG, "⏹️ Continuous capture stopped");
+    }
+    
+    private void attachContinuousListener(ImageReader reader) {
+        if (continuousConsumer == null) {
+            return;
+        }
+        reader.setOnImageAvailableListener(r -> {
+            FrameConsumer consumer = continuousConsumer;
+            if (consumer != null) {
+                captureFrame(r, consumer);
+            }
+        }, continuousHandler);
+    }
+    
+    /**
+     * Sürekli yakalama thread'i o an bu okuyucunun düzlemini okuyor olabilir: close() tamponu
+     * serbest bırakır (ScreenFrame bunu yakalayamaz). Kapatma o thread'e sıralanır, kare bitince çalışır.
+     */
+    private void closeReader(ImageReader reader) {
+        Handler background = continuousHandler;
+        if (background == null || !background.post(reader::close)) {
+            reader.close(); // Sürekli yakalama hiç başlamadı veya thread bitti
+        }
+    }
+    
+    private boolean captureFrame(ImageReader reader, FrameConsumer consumer) {
+        Image image = null;
+        ScreenFrame frame = null;
+        try {
+            image = reader.acquireLatestImage();
+            
+            if (image == null) {
+                return false; // Yeni kare yok
+            }
+            
+            frame = wrap(image);
+            consumer.onFrame(frame);
+            return true;
+            
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Error capturing frame: " + e.getMessage());
+            return false;
+        } finally {
+            if (frame != null) {
+                frame.release();
+            }
+            if (image != null) {
+                image.close();
+            }
+        }
+    }
+    
+    /**
+     * ♻️ Havuzdan Bitmap al ve son kareyle doldur - işi bitince releaseBitmap ile geri verilmeli
+     *
+     * @return Doldurulmuş Bitmap (captureWidth x captureHeight) veya yeni kare yoksa null
+     */
+    public Bitmap acquireBitmap() {
+        if (imageReader == null) {
+            Log.w(TAG, "⚠️ ImageReader not initialized");
+            return null;
+        }
+        
+        Image image = null;
+        ScreenFrame frame = null;
+        Bitmap bitmap = null;
+        try {
+            image = imageReader.acquireLatestImage();
+            
+            if (image == null) {
+                return null;
+            }
+            
+            frame = wrap(image);
+            bitmap = bitmapPool.poll();
+            if (bitmap == null || bitmap.isRecycled()
+                || bitmap.getWidth() != frame.getWidth() || bitmap.getHeight() != frame.getHeight()) {
+                bitmap = Bitmap.createBitmap(frame.getWidth(), frame.getHeight(), Bitmap.Config.ARGB_8888);
+            }
+            copyToBitmap(image, frame, bitmap);
+            return bitmap;
+            
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Error capturing pooled bitmap: " + e.getMessage());
+            if (bitmap != null) {
+                releaseBitmap(bitmap);
+            }
+            return null;
+        } finally {
+            if (frame != null) {
+                frame.release();
+            }
+            if (image != null) {
+                image.close();
+            }
         }
     }
     
+    /**
+     * acquireBitmap'ten alınan Bitmap'i havuza geri ver
+     */
+    public void releaseBitmap(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) {
+            return;
+        }
+        if (bitmap.getWidth() != captureWidth || bitmap.getHeight() != captureHeight
+            || bitmapPool.size() >= MAX_POOLED_BITMAPS) {
+            bitmap.recycle();
+            return;
+        }
+        bitmapPool.offer(bitmap);
+    }
+    
     /**
      * Ekran görüntüsü al
      */
@@ -124,25 +358,15 @@ public class ScreenCaptureService {
                 return;
             }
             
-            // Image'i Bitmap'e çevir
-            Image.Plane[] planes = image.getPlanes();
-            ByteBuffer buffer = planes[0].getBuffer();
-            int pixelStride = planes[0].getPixelStride();
-            int rowStride = planes[0].getRowStride();
-            int rowPadding = rowStride - pixelStride * screenWidth;
-            
-            Bitmap bitmap = Bitmap.createBitmap(
-                screenWidth + rowPadding / pixelStride,
-                screenHeight,
-                Bitmap.Config.ARGB_8888
-            );
-            bitmap.copyPixelsFromBuffer(buffer);
-            
-            image.close();
-            
-            // Crop extra padding
-            if (rowPadding > 0) {
-                bitmap = Bitmap.createBitmap(bitmap, 0, 0, screenWidth, screenHeight);
+            // Image'i Bitmap'e çevir - tam boyutlu tek Bitmap (dolgu satır satır atlanır, crop kopyası yok)
+            Bitmap bitmap;
+            try {
+                ScreenFrame frame = wrap(image);
+                bitmap = Bitmap.createBitmap(frame.getWidth(), frame.getHeight(), Bitmap.Config.ARGB_8888);
+                copyToBitmap(image, frame, bitmap);
+                frame.release();
+            } finally {
+                image.close();
             }
             
             callback.onScreenCaptured(bitmap);
@@ -156,6 +380,45 @@ public class ScreenCaptureService {
         }
     }
     
+    private ScreenFrame wrap(Image image) {
+        Image.Plane plane = image.getPlanes()[0];
+        return new ScreenFrame(plane.getBuffer(), image.getWidth(), image.getHeight(),
+            plane.getRowStride(), plane.getPixelStride(), captureScale, image.getTimestamp());
+    }
+    
+    /**
+     * Düzlemi Bitmap'e kopyala: dolgusuzsa tek copyPixelsFromBuffer, değilse satır blokları
+     */
+    private void copyToBitmap(Image image, ScreenFrame frame, Bitmap bitmap) {
+        if (frame.isTightlyPacked()) {
+            ByteBuffer buffer = image.getPlanes()[0].getBuffer();
+            buffer.rewind();
+            bitmap.copyPixelsFromBuffer(buffer);
+            return;
+        }
+        
+        int width = frame.getWidth();
+        if (copyBuffer.length < width * COPY_BAND_ROWS) {
+            copyBuffer = new int[width * COPY_BAND_ROWS];
+        }
+        for (int y = 0; y < frame.getHeight(); y += COPY_BAND_ROWS) {
+            int rows = Math.min(COPY_BAND_ROWS, frame.getHeight() - y);
+            frame.read(copyBuffer, 0, y, width, rows);
+            bitmap.setPixels(copyBuffer, 0, width, 0, y, width, rows);
+        }
+    }
+    
+    private int captureDensity() {
+        return Math.max(1, Math.round(screenDensity * captureScale));
+    }
+    
+    private void clearBitmapPool() {
+        Bitmap bitmap;
+        while ((bitmap = bitmapPool.poll()) != null) {
+            bitmap.recycle();
+        }
+    }
+    
     /**
      * Durdur
      */
@@ -167,15 +430,20 @@ public class ScreenCaptureService {
             }
             
             if (imageReader != null) {
-                imageReader.close();
+                closeReader(imageReader);
                 imageReader = null;
             }
             
             if (mediaProjection != null) {
-                mediaProjection.stop();
-                mediaProjection = null;
+                MediaProjection projection = mediaProjection;
+                mediaProjection = null; // stop() onStop'u tetikler - ikinci kez girilmesin
+                projection.unregisterCallback(projectionCallback);
+                projection.stop();
             }
             
+            continuousConsumer = null;
+            clearBitmapPool();
+            
             Log.d(TAG, "✅ ScreenCapture stopped");
             
         } catch (Exception e) {
@@ -190,6 +458,23 @@ public class ScreenCaptureService {
     public int getScreenHeight() {
         return screenHeight;
     }
+    
+    public int getCaptureWidth() {
+        return captureWidth;
+    }
+    
+    public int getCaptureHeight() {
+        return captureHeight;
+    }
+    
+    public float getCaptureScale() {
+        return captureScale;
+    }
+    
+    /** Kare üretiliyor mu (projeksiyon var ama VirtualDisplay kurulamadıysa false) */
+    public boolean isProjectionActive() {
+        return virtualDisplay != null;
+    }
 }
 
 
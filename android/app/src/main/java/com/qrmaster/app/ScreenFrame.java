@@ -0,0 +1,143 @@
+package com.qrmaster.app;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * 🖼️ EKRAN KARESİ - ImageReader düzleminin salt okunur görünümü (kopyasız)
+ *
+ * RGBA_8888 düzlemi satır sonunda dolgu (rowStride) ve piksel aralığı (pixelStride) taşıyabilir;
+ * tüm erişimler bunlara göre adreslenir. Pikseller ARGB int olarak (Bitmap.getPixels ile aynı)
+ * verilir, böylece PixelScanKernel doğrudan düzlemi tarayabilir.
+ *
+ * Görünüm yalnızca ScreenCaptureService.FrameConsumer.onFrame sırasında geçerlidir; Image kapanınca
+ * release() çağrılır ve sonraki erişimler IllegalStateException atar. Android'e bağımlı değil.
+ */
+public final class ScreenFrame implements PixelScanKernel.PixelSource {
+    private final ByteBuffer buffer;   // LITTLE_ENDIAN: getInt → A B G R
+    private final IntBuffer ints;      // Hizalı düzlemler için toplu okuma (yoksa null)
+    private final int width;
+    private final int height;
+    private final int rowStride;
+    private final int pixelStride;
+    private final float scale;         // Yakalama çözünürlüğü / ekran çözünürlüğü
+    private final long timestampNs;
+    private volatile boolean released;
+
+    ScreenFrame(ByteBuffer plane, int width, int height, int rowStride, int pixelStride,
+                float scale, long timestampNs) {
+        if (pixelStride < 4 || rowStride < width * pixelStride
+            || plane.remaining() < (long) rowStride * (height - 1) + (long) width * pixelStride) {
+            throw new IllegalArgumentException("Invalid plane: " + width + "x" + height
+                + " rowStride=" + rowStride + " pixelStride=" + pixelStride + " bytes=" + plane.remaining());
+        }
+        this.buffer = plane.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        this.ints = pixelStride == 4 && rowStride % 4 == 0 ? buffer.asIntBuffer() : null;
+        this.width = width;
+        this.height = height;
+        this.rowStride = rowStride;
+        this.pixelStride = pixelStride;
+        this.scale = scale;
+        this.timestampNs = timestampNs;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getRowStride() {
+        return rowStride;
+    }
+
+    public int getPixelStride() {
+        return pixelStride;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    public long getTimestampNs() {
+        return timestampNs;
+    }
+
+    /** Düzlemin salt okunur görünümü (konum 0, LITTLE_ENDIAN) - stride'lar çağırana ait */
+    public ByteBuffer getBuffer() {
+        checkValid();
+        return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Kare koordinatını ekran koordinatına çevir (düşük çözünürlüklü yakalamada tıklama için) */
+    public float toScreenX(float x) {
+        return x / scale;
+    }
+
+    public float toScreenY(float y) {
+        return y / scale;
+    }
+
+    /** Tek piksel (ARGB) */
+    public int getPixel(int x, int y) {
+        checkValid();
+        checkBounds(x, y, 1, 1);
+        return abgrToArgb(buffer.getInt(y * rowStride + x * pixelStride));
+    }
+
+    /**
+     * [x, x+w) × [y, y+rows) bölgesini dst'ye ARGB olarak yaz (satır adımı w) - Bitmap.getPixels gibi
+     */
+    @Override
+    public void read(int[] dst, int x, int y, int w, int rows) {
+        checkValid();
+        checkBounds(x, y, w, rows);
+        for (int r = 0; r < rows; r++) {
+            int offset = r * w;
+            int rowStart = (y + r) * rowStride + x * pixelStride;
+            if (ints != null) {
+                IntBuffer row = ints.duplicate();
+                row.position(rowStart >> 2);
+                row.get(dst, offset, w);
+                for (int i = offset; i < offset + w; i++) {
+                    dst[i] = abgrToArgb(dst[i]);
+                }
+            } else {
+                for (int i = 0; i < w; i++) {
+                    dst[offset + i] = abgrToArgb(buffer.getInt(rowStart + i * pixelStride));
+                }
+            }
+        }
+    }
+
+    /** Dolgusuz mu? (Bitmap.copyPixelsFromBuffer tek seferde kopyalayabilir) */
+    boolean isTightlyPacked() {
+        return pixelStride == 4 && rowStride == width * 4;
+    }
+
+    /** Image kapanıyor - görünüm artık kullanılamaz */
+    void release() {
+        released = true;
+    }
+
+    private void checkValid() {
+        if (released) {
+            throw new IllegalStateException("ScreenFrame used after its Image was closed");
+        }
+    }
+
+    private void checkBounds(int x, int y, int w, int rows) {
+        if (x < 0 || y < 0 || w < 0 || rows < 0 || x + w > width || y + rows > height) {
+            throw new IndexOutOfBoundsException("Region " + x + "," + y + " " + w + "x" + rows
+                + " outside " + width + "x" + height);
+        }
+    }
+
+    // RGBA bellek sırası LITTLE_ENDIAN okununca ABGR olur; R ile B yer değiştirir
+    private static int abgrToArgb(int abgr) {
+        return (abgr & 0xFF00FF00) | ((abgr & 0xFF) << 16) | ((abgr >> 16) & 0xFF);
+    }
+}
@@ -8,8 +8,6 @@ import com.google.mlkit.vision.text.Text;
 
 import java.text.Collator;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 
@@ -115,20 +113,8 @@ public class SmartOCRProcessor {
      * 🎯 SATIR SIRALAMA - Y koordinatına göre yukarıdan aşağıya
      */
     private static void sortLinesByPosition(List<TextLineInfo> lines) {
-        Collections.sort(lines, new Comparator<TextLineInfo>() {
-            @Override
-            public int compare(TextLineInfo line1, TextLineInfo line2) {
-                // Önce Y koordinatına göre (yukarıdan aşağıya)
-                int yDiff = line1.boundingBox.top - line2.boundingBox.top;
-                
-                // Eğer Y'ler çok yakınsa (aynı satırda), X'e göre sırala (soldan sağa)
-                if (Math.abs(yDiff) < LINE_OVERLAP_THRESHOLD) {
-                    return line1.boundingBox.left - line2.boundingBox.left;
-                }
-                
-                return yDiff;
-            }
-        });
+        // Önce Y; satırın en üst elemanına eşikten yakın olanlar aynı satır, X'e göre (bkz. OcrLineSorter)
+        OcrLineSorter.sort(lines, LINE_OVERLAP_THRESHOLD);
         
         Log.i(TAG, "🎯 Satırlar Y koordinatına göre sıralandı");
     }
@@ -231,7 +217,7 @@ public class SmartOCRProcessor {
     /**
      * 📐 SATIR BİLGİ SINIFI
      */
-    private static class TextLineInfo {
+    private static class TextLineInfo implements OcrLineSorter.Line {
         String text;
         Rect boundingBox;
         float confidence;
@@ -241,6 +227,16 @@ public class SmartOCRProcessor {
             this.boundingBox = boundingBox;
             this.confidence = confidence;
         }
+        
+        @Override
+        public int top() {
+            return boundingBox.top;
+        }
+        
+        @Override
+        public int left() {
+            return boundingBox.left;
+        }
     }
     
     /**
@@ -0,0 +1,428 @@
+package com.qrmaster.app;
+
+import java.util.Arrays;
+
+/**
+ * 🎯 ŞABLON EŞLEYİCİ - görsel hedef bulma (piramit + normalize çapraz korelasyon)
+ *
+ * Kare ve şablon DOWNSCALE ile küçültülmüş gri tonlamaya çevrilir, her seviyede 2x2 ortalamayla
+ * piramit kurulur. En üst seviyede arama yapılır (önce son isabetin çevresinde, yetmezse tüm
+ * kare), en iyi adaylar alt seviyelerde ±REFINE_RADIUS penceresinde inceltilir. Skor NCC
+ * (-1..1): pencere toplamları integral görüntülerden O(1), çapraz terim tamsayı döngüsüyle.
+ *
+ * Android'e bağımlı değil (PixelSource: ScreenFrame / Bitmap / int[]). Örnek başına tek thread;
+ * piramit tamponları aramalar arasında tekrar kullanılır.
+ */
+final class TemplateMatcher {
+    static final int DOWNSCALE = 2;           // Seviye 0 = kare / 2
+    static final int MIN_TEMPLATE_SIDE = 8;   // Üst seviyede şablon en az bu kadar
+    static final int MAX_LEVELS = 4;
+    static final int MAX_TEMPLATE_SIDE = 256; // ΣI·T int'e sığsın (seviye 0'da 128x128)
+    static final int COARSE_CANDIDATES = 3;
+    static final int REFINE_RADIUS = 2;
+
+    /**
+     * Kırpılmış şablon - oluşturulduktan sonra değişmez
+     */
+    static final class Template {
+        final int width;   // Kare pikseli
+        final int height;
+        final int levels;
+        final int[][] gray;
+        final int[] levelWidth;
+        final int[] levelHeight;
+        final long[] sum;      // ΣT
+        final double[] norm;   // sqrt(ΣT² - (ΣT)²/n)
+
+        /**
+         * @param argb Kırpılmış ARGB pikseller (satır adımı width)
+         */
+        Template(int[] argb, int width, int height) {
+            if (width > MAX_TEMPLATE_SIDE || height > MAX_TEMPLATE_SIDE
+                || width / DOWNSCALE < MIN_TEMPLATE_SIDE || height / DOWNSCALE < MIN_TEMPLATE_SIDE) {
+                throw new IllegalArgumentException("Template size " + width + "x" + height + " out of range");
+            }
+            this.width = width;
+            this.height = height;
+
+            int[][] grayLevels = new int[MAX_LEVELS][];
+            int[] widths = new int[MAX_LEVELS];
+            int[] heights = new int[MAX_LEVELS];
+            long[] sums = new long[MAX_LEVELS];
+            double[] norms = new double[MAX_LEVELS];
+
+            widths[0] = width / DOWNSCALE;
+            heights[0] = height / DOWNSCALE;
+            grayLevels[0] = new int[widths[0] * heights[0]];
+            for (int y = 0; y < heights[0]; y++) {
+                for (int x = 0; x < widths[0]; x++) {
+                    int total = 0;
+                    for (int dy = 0; dy < DOWNSCALE; dy++) {
+                        for (int dx = 0; dx < DOWNSCALE; dx++) {
+                            total += luma(argb[(y * DOWNSCALE + dy) * width + x * DOWNSCALE + dx]);
+                        }
+                    }
+                    grayLevels[0][y * widths[0] + x] = total / (DOWNSCALE * DOWNSCALE);
+                }
+            }
+
+            int count = 0;
+            for (int level = 0; level < MAX_LEVELS; level++) {
+                if (level > 0) {
+                    if (widths[level - 1] / 2 < MIN_TEMPLATE_SIDE || heights[level - 1] / 2 < MIN_TEMPLATE_SIDE) {
+                        break;
+                    }
+                    widths[level] = widths[level - 1] / 2;
+                    heights[level] = heights[level - 1] / 2;
+                    grayLevels[level] = halve(grayLevels[level - 1], widths[level - 1], widths[level], heights[level]);
+                }
+                long sum = 0, sumSq = 0;
+                for (int value : grayLevels[level]) {
+                    sum += value;
+                    sumSq += value * value;
+                }
+                int n = grayLevels[level].length;
+                double variance = sumSq - (double) sum * sum / n;
+                if (variance < n) { // Ortalama sapma < 1 gri seviye: dokusuz
+                    if (level == 0) {
+                        throw new IllegalArgumentException("Template has no texture");
+                    }
+                    break;
+                }
+                sums[level] = sum;
+                norms[level] = Math.sqrt(variance);
+                count++;
+            }
+
+            this.levels = count;
+            this.gray = grayLevels;
+            this.levelWidth = widths;
+            this.levelHeight = heights;
+            this.sum = sums;
+            this.norm = norms;
+        }
+    }
+
+    /**
+     * Arama sonucu
+     */
+    static final class Match {
+        boolean found;       // score >= minScore
+        float x, y;          // Şablon merkezi (kare pikseli)
+        float score;         // NCC
+        long latencyNs;      // Piramit + arama süresi
+        boolean fromLastHit; // Son isabet çevresinde bulundu (tam arama gerekmedi)
+
+        @Override
+        public String toString() {
+            return String.format("Match{%s (%.0f,%.0f) score=%.3f, %.2f ms%s}", found ? "✓" : "✗", x, y, score,
+                latencyNs / 1e6, fromLastHit ? ", local" : "");
+        }
+    }
+
+    // Kare piramidi (tekrar kullanılır)
+    private int frameWidth = -1;
+    private int frameHeight = -1;
+    private final int[][] gray = new int[MAX_LEVELS][];
+    private final int[] width = new int[MAX_LEVELS];
+    private final int[] height = new int[MAX_LEVELS];
+    private final long[][] integral = new long[MAX_LEVELS][];   // ΣI, (w+1)x(h+1)
+    private final long[][] integralSq = new long[MAX_LEVELS][]; // ΣI²
+    private int[] rowBuffer = new int[0];
+    private final int[] bandTop = new int[MAX_LEVELS];    // Kurulan satır bandı [bandTop, bandBottom)
+    private final int[] bandBottom = new int[MAX_LEVELS];
+
+    // Üst seviye adayları
+    private final int[] candidateX = new int[COARSE_CANDIDATES];
+    private final int[] candidateY = new int[COARSE_CANDIDATES];
+    private final float[] candidateScore = new float[COARSE_CANDIDATES];
+
+    /**
+     * Şablonu karede bul
+     *
+     * @param previous Son isabet (varsa önce çevresi aranır) veya null
+     */
+    Match find(PixelScanKernel.PixelSource source, int frameWidth, int frameHeight,
+               Template template, float minScore, Match previous) {
+        long start = System.nanoTime();
+        Match match = new Match();
+        prepare(frameWidth, frameHeight);
+        int top = Math.min(template.levels, availableLevels()) - 1;
+        if (top < 0 || template.levelWidth[0] > width[0] || template.levelHeight[0] > height[0]) {
+            match.latencyNs = System.nanoTime() - start;
+            return match;
+        }
+
+        // 1) Son isabetin çevresi (şablon boyu kadar) - piramit yalnız o satır bandı için kurulur
+        if (previous != null && previous.found) {
+            int factor = DOWNSCALE << top;
+            int tw = template.levelWidth[top];
+            int th = template.levelHeight[top];
+            int cx = Math.round(previous.x / factor) - tw / 2;
+            int cy = Math.round(previous.y / factor) - th / 2;
+            int radius = Math.max(tw, th);
+            int margin = 1 + REFINE_RADIUS; // İnceltme penceresi için üst seviye satırı
+            buildPyramid(source, top + 1, (cy - radius - margin) << top, (cy + radius + th + margin) << top);
+            searchLevel(template, top, cx - radius, cy - radius, cx + radius, cy + radius);
+            refine(template, top, match);
+            if (match.score >= minScore) {
+                match.fromLastHit = true;
+            }
+        }
+
+        // 2) Tüm kare
+        if (!match.fromLastHit) {
+            buildPyramid(source, top + 1, 0, height[0]);
+            searchLevel(template, top, 0, 0, width[top], height[top]);
+            refine(template, top, match);
+        }
+
+        match.found = match.score >= minScore;
+        match.latencyNs = System.nanoTime() - start;
+        return match;
+    }
+
+    /**
+     * Üst seviyede [x0,x1]×[y0,y1] sol-üst konumlarını tara, en iyi COARSE_CANDIDATES adayı tut
+     * (birbirine şablonun yarısından yakın adaylar tekilleştirilir)
+     */
+    private void searchLevel(Template template, int level, int x0, int y0, int x1, int y1) {
+        int tw = template.levelWidth[level];
+        int th = template.levelHeight[level];
+        x0 = Math.max(0, x0);
+        y0 = Math.max(bandTop[level], y0);
+        x1 = Math.min(width[level] - tw, x1);
+        y1 = Math.min(bandBottom[level] - th, y1);
+        int separation = Math.max(1, Math.min(tw, th) / 2);
+
+        for (int i = 0; i < COARSE_CANDIDATES; i++) {
+            candidateScore[i] = -2f;
+        }
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                float score = score(template, level, x, y);
+                if (score > candidateScore[COARSE_CANDIDATES - 1]) {
+                    insertCandidate(x, y, score, separation);
+                }
+            }
+        }
+    }
+
+    private void insertCandidate(int x, int y, float score, int separation) {
+        // Yakın aday varsa: daha iyiyse yerini al, değilse atla
+        for (int i = 0; i < COARSE_CANDIDATES; i++) {
+            if (candidateScore[i] > -2f && Math.abs(candidateX[i] - x) < separation
+                && Math.abs(candidateY[i] - y) < separation) {
+                if (score <= candidateScore[i]) {
+                    return;
+                }
+                removeCandidate(i);
+                break;
+            }
+        }
+        int position = COARSE_CANDIDATES - 1;
+        while (position > 0 && candidateScore[position - 1] < score) {
+            candidateX[position] = candidateX[position - 1];
+            candidateY[position] = candidateY[position - 1];
+            candidateScore[position] = candidateScore[position - 1];
+            position--;
+        }
+        candidateX[position] = x;
+        candidateY[position] = y;
+        candidateScore[position] = score;
+    }
+
+    private void removeCandidate(int index) {
+        for (int i = index; i < COARSE_CANDIDATES - 1; i++) {
+            candidateX[i] = candidateX[i + 1];
+            candidateY[i] = candidateY[i + 1];
+            candidateScore[i] = candidateScore[i + 1];
+        }
+        candidateScore[COARSE_CANDIDATES - 1] = -2f;
+    }
+
+    /**
+     * Adayları seviye 0'a kadar incelt; en iyisi match'e yazılır (öncekinden iyiyse)
+     */
+    private void refine(Template template, int top, Match match) {
+        for (int i = 0; i < COARSE_CANDIDATES && candidateScore[i] > -2f; i++) {
+            int x = candidateX[i];
+            int y = candidateY[i];
+            float best = candidateScore[i];
+            for (int level = top - 1; level >= 0; level--) {
+                int tw = template.levelWidth[level];
+                int th = template.levelHeight[level];
+                int baseX = x * 2;
+                int baseY = y * 2;
+                best = -2f;
+                for (int dy = -REFINE_RADIUS; dy <= REFINE_RADIUS; dy++) {
+                    int yy = baseY + dy;
+                    if (yy < bandTop[level] || yy > bandBottom[level] - th) {
+                        continue;
+                    }
+                    for (int dx = -REFINE_RADIUS; dx <= REFINE_RADIUS; dx++) {
+                        int xx = baseX + dx;
+                        if (xx < 0 || xx > width[level] - tw) {
+                            continue;
+                        }
+                        float score = score(template, level, xx, yy);
+                        if (score > best) {
+                            best = score;
+                            x = xx;
+                            y = yy;
+                        }
+                    }
+                }
+            }
+            if (best > match.score) {
+                match.score = best;
+                match.x = (x + template.levelWidth[0] / 2f) * DOWNSCALE;
+                match.y = (y + template.levelHeight[0] / 2f) * DOWNSCALE;
+            }
+        }
+    }
+
+    /** NCC: (ΣIT - ΣI·ΣT/n) / (sqrt(ΣI² - (ΣI)²/n) · normT) */
+    private float score(Template template, int level, int x, int y) {
+        int tw = template.levelWidth[level];
+        int th = template.levelHeight[level];
+        int n = tw * th;
+        int stride = width[level] + 1;
+        long[] s = integral[level];
+        long[] sq = integralSq[level];
+        int a = y * stride + x;
+        int b = a + tw;
+        int c = (y + th) * stride + x;
+        int d = c + tw;
+        long sumI = s[d] - s[b] - s[c] + s[a];
+        long sumSqI = sq[d] - sq[b] - sq[c] + sq[a];
+        double varianceI = sumSqI - (double) sumI * sumI / n;
+        if (varianceI < n) {
+            return 0f; // Düz bölge - korelasyon anlamsız
+        }
+
+        int[] image = gray[level];
+        int[] tpl = template.gray[level];
+        int imageWidth = width[level];
+        int cross = 0;
+        for (int row = 0; row < th; row++) {
+            int imageOffset = (y + row) * imageWidth + x;
+            int tplOffset = row * tw;
+            for (int col = 0; col < tw; col++) {
+                cross += image[imageOffset + col] * tpl[tplOffset + col];
+            }
+        }
+        double numerator = cross - (double) sumI * template.sum[level] / n;
+        return (float) (numerator / (Math.sqrt(varianceI) * template.norm[level]));
+    }
+
+    /**
+     * Kare boyutuna göre piramit tamponlarını hazırla
+     */
+    private void prepare(int frameW, int frameH) {
+        if (frameW == frameWidth && frameH == frameHeight) {
+            return;
+        }
+        frameWidth = frameW;
+        frameHeight = frameH;
+        for (int level = 0; level < MAX_LEVELS; level++) {
+            width[level] = (level == 0 ? frameW / DOWNSCALE : width[level - 1] / 2);
+            height[level] = (level == 0 ? frameH / DOWNSCALE : height[level - 1] / 2);
+            gray[level] = new int[width[level] * height[level]];
+            integral[level] = new long[(width[level] + 1) * (height[level] + 1)];
+            integralSq[level] = new long[(width[level] + 1) * (height[level] + 1)];
+        }
+        rowBuffer = new int[frameW * DOWNSCALE];
+    }
+
+    private int availableLevels() {
+        int levels = 1;
+        while (levels < MAX_LEVELS && width[levels] >= MIN_TEMPLATE_SIDE && height[levels] >= MIN_TEMPLATE_SIDE) {
+            levels++;
+        }
+        return levels;
+    }
+
+    /**
+     * Piramidi seviye 0'ın [rowStart, rowEnd) satır bandı için kur (seviye 0: DOWNSCALE x DOWNSCALE
+     * kutu ortalaması). Bant üst seviyelere hizalanır; integral görüntüler bandın üstünden
+     * başlar, bant içindeki pencere toplamları yine doğrudur.
+     */
+    private void buildPyramid(PixelScanKernel.PixelSource source, int levels, int rowStart, int rowEnd) {
+        int align = 1 << (levels - 1);
+        rowStart = Math.max(0, rowStart / align * align);
+        rowEnd = Math.min(height[0], (rowEnd + align - 1) / align * align);
+
+        int frameW = frameWidth;
+        int w0 = width[0];
+        int[] level0 = gray[0];
+        for (int y = rowStart; y < rowEnd; y++) {
+            source.read(rowBuffer, 0, y * DOWNSCALE, frameW, DOWNSCALE);
+            int offset = y * w0;
+            for (int x = 0; x < w0; x++) {
+                int total = 0;
+                for (int dy = 0; dy < DOWNSCALE; dy++) {
+                    int rowOffset = dy * frameW + x * DOWNSCALE;
+                    for (int dx = 0; dx < DOWNSCALE; dx++) {
+                        total += luma(rowBuffer[rowOffset + dx]);
+                    }
+                }
+                level0[offset + x] = total / (DOWNSCALE * DOWNSCALE);
+            }
+        }
+        bandTop[0] = rowStart;
+        bandBottom[0] = rowEnd;
+        buildIntegral(0);
+
+        for (int level = 1; level < levels; level++) {
+            bandTop[level] = bandTop[level - 1] / 2;
+            bandBottom[level] = Math.min(height[level], bandBottom[level - 1] / 2);
+            halveInto(gray[level - 1], width[level - 1], gray[level], width[level], bandTop[level], bandBottom[level]);
+            buildIntegral(level);
+        }
+    }
+
+    private void buildIntegral(int level) {
+        int w = width[level];
+        int stride = w + 1;
+        int[] image = gray[level];
+        long[] s = integral[level];
+        long[] sq = integralSq[level];
+        int first = bandTop[level];
+        Arrays.fill(s, first * stride, (first + 1) * stride, 0);
+        Arrays.fill(sq, first * stride, (first + 1) * stride, 0);
+        for (int y = first; y < bandBottom[level]; y++) {
+            long rowSum = 0, rowSumSq = 0;
+            int out = (y + 1) * stride + 1;
+            int above = y * stride + 1;
+            for (int x = 0; x < w; x++) {
+                int value = image[y * w + x];
+                rowSum += value;
+                rowSumSq += value * value;
+                s[out + x] = s[above + x] + rowSum;
+                sq[out + x] = sq[above + x] + rowSumSq;
+            }
+        }
+    }
+
+    private static int[] halve(int[] src, int srcWidth, int w, int h) {
+        int[] dst = new int[w * h];
+        halveInto(src, srcWidth, dst, w, 0, h);
+        return dst;
+    }
+
+    private static void halveInto(int[] src, int srcWidth, int[] dst, int w, int rowStart, int rowEnd) {
+        for (int y = rowStart; y < rowEnd; y++) {
+            int row0 = 2 * y * srcWidth;
+            int row1 = row0 + srcWidth;
+            for (int x = 0; x < w; x++) {
+                int sx = 2 * x;
+                dst[y * w + x] = (src[row0 + sx] + src[row0 + sx + 1] + src[row1 + sx] + src[row1 + sx + 1]) >> 2;
+            }
+        }
+    }
+
+    private static int luma(int pixel) {
+        return (77 * ((pixel >> 16) & 0xFF) + 150 * ((pixel >> 8) & 0xFF) + 29 * (pixel & 0xFF)) >> 8;
+    }
+}
@@ -256,7 +256,7 @@ public class ClipboardHistoryView extends LinearLayout implements ClipboardStore
 
         // Contextual actions (TEXT için)
         if (entry.getType() == ClipboardEntry.Type.TEXT) {
-            com.qrmaster.app.keyboard.clipboard.ContextualPasteHelper.ContentType type = 
+            com.qrmaster.app.keyboard.clipboard.ContentType type = 
                 com.qrmaster.app.keyboard.clipboard.ContextualPasteHelper.detectType(entry.getContent());
             
             java.util.List<com.qrmaster.app.keyboard.clipboard.ContextualPasteHelper.Action> contextActions = 
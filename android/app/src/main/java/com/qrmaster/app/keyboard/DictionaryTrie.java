@@ -0,0 +1,459 @@
+package com.qrmaster.app.keyboard;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 🌳 Sıkıştırılmış önek ağacı (statik radix trie)
+ *
+ * Dallanmayan zincirler tek kenarda birleşir: kelime sonu olmayan ve tek çocuklu
+ * düğüm tutulmaz, kenar etiketi birden fazla harf olabilir ("kitap" / "kitaplık"
+ * için k-i-t-a-p-l-ı-k yerine "kitap" → "lık"). Etiketler tek bir char havuzunda durur.
+ *
+ * Düğümler BFS sırasıyla düz dizilerde tutulur, bir düğümün çocukları
+ * ardışıktır ve etiketlerinin ilk harfine göre sıralıdır (ikili arama ile iniş).
+ * Her düğümde kelime frekansı ve alt ağaçtaki en yüksek frekans saklanır;
+ * önek için en iyi K tamamlama best-first gezinme ile bulunur,
+ * sözlüğün tamamı taranmaz.
+ *
+ * İkili format (big-endian) - Builder.toBuffer yazar, build sırasında compileDictionary
+ * görevi de aynı Builder'ı çalıştırır (dictionary-compiler modülü):
+ *   int magic ("QDIC"), int version, int nodeCount, int wordCount, int labelChars
+ *   char[labelChars] label havuzu (+ 4 byte hizalama için gerekirse 2 byte dolgu)
+ *   int[nodeCount + 1] labelStart (düğüme gelen kenar: havuz[labelStart[n] .. labelStart[n + 1]))
+ *   int[nodeCount + 1] childStart
+ *   int[nodeCount] parents
+ *   int[nodeCount] wordFreq
+ *   int[nodeCount] maxFreq
+ * Dosya doğrudan mmap'lenip okunur, açılışta ayrıştırma yapılmaz.
+ */
+class DictionaryTrie {
+    static final int MAGIC = 0x51444943; // "QDIC"
+    static final int VERSION = 2;
+    private static final int HEADER_BYTES = 20;
+
+    private static final Locale TURKISH = new Locale("tr", "TR");
+    private static final char COMBINING_DOT_ABOVE = '\u0307';
+
+    // Düğüm dizileri (indeks = düğüm, 0 = kök) - tampon üzerindeki görünümler
+    private final CharBuffer labels;      // Kenar etiketleri, ardışık
+    private final IntBuffer labelStart;   // Düğüme gelen kenar: labels[labelStart[n] .. labelStart[n + 1])
+    private final IntBuffer childStart;   // Çocuklar: childStart[n] .. childStart[n + 1] - 1
+    private final IntBuffer parents;      // Kelimeyi geri kurmak için
+    private final IntBuffer wordFreq;     // 0 = kelime sonu değil
+    private final IntBuffer maxFreq;      // Alt ağaçtaki en yüksek kelime frekansı
+    private final int wordCount;
+
+    // Best-first için yeniden kullanılan max-heap: (anahtar << 32) | (düğüm << 1) | kelimeMi
+    private long[] heap = new long[64];
+    private int heapSize;
+    private final StringBuilder wordBuilder = new StringBuilder();
+
+    private DictionaryTrie(ByteBuffer buffer) {
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (data.remaining() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a dictionary trie (version " + VERSION + ")");
+        }
+        int nodeCount = data.getInt(8);
+        this.wordCount = data.getInt(12);
+        int labelChars = data.getInt(16);
+
+        int offset = HEADER_BYTES;
+        this.labels = slice(data, offset, labelChars * 2).asCharBuffer();
+        offset += align4(labelChars * 2);
+        this.labelStart = slice(data, offset, (nodeCount + 1) * 4).asIntBuffer();
+        offset += (nodeCount + 1) * 4;
+        this.childStart = slice(data, offset, (nodeCount + 1) * 4).asIntBuffer();
+        offset += (nodeCount + 1) * 4;
+        this.parents = slice(data, offset, nodeCount * 4).asIntBuffer();
+        offset += nodeCount * 4;
+        this.wordFreq = slice(data, offset, nodeCount * 4).asIntBuffer();
+        offset += nodeCount * 4;
+        this.maxFreq = slice(data, offset, nodeCount * 4).asIntBuffer();
+    }
+
+    /**
+     * İkili formattaki tampondan trie (mmap'li asset veya Builder çıktısı).
+     * Veri kopyalanmaz; tampon trie yaşadığı sürece geçerli kalmalı.
+     */
+    static DictionaryTrie fromBuffer(ByteBuffer buffer) {
+        return new DictionaryTrie(buffer);
+    }
+
+    private static ByteBuffer slice(ByteBuffer data, int offset, int length) {
+        ByteBuffer view = data.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        return view.slice().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    private static int align4(int bytes) {
+        return (bytes + 3) & ~3;
+    }
+
+    /**
+     * Türkçe büyük/küçük harf katlama: "I" → "ı", "İ" → "i".
+     * Türkçe dışı locale'de oluşan "i̇" (i + U+0307) da temizlenir.
+     */
+    static String foldCase(String text) {
+        String lower = text.toLowerCase(TURKISH).trim();
+        if (lower.indexOf(COMBINING_DOT_ABOVE) < 0) {
+            return lower;
+        }
+        StringBuilder sb = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (c == COMBINING_DOT_ABOVE && i > 0 && lower.charAt(i - 1) == 'i') {
+                continue;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    int size() {
+        return wordCount;
+    }
+
+    /**
+     * Kelime sözlükte var mı? (frekansı, yoksa 0)
+     */
+    synchronized int frequency(String word) {
+        int node = findNode(foldCase(word), true);
+        return node < 0 ? 0 : wordFreq.get(node);
+    }
+
+    /**
+     * Önek için en yüksek frekanslı en fazla maxCount kelime (frekans sırasıyla)
+     */
+    synchronized List<String> topK(String prefix, int maxCount) {
+        List<String> results = new ArrayList<>(maxCount);
+        if (prefix == null || prefix.isEmpty() || maxCount <= 0) {
+            return results;
+        }
+
+        int start = findNode(foldCase(prefix), false);
+        if (start < 0) {
+            return results;
+        }
+
+        heapSize = 0;
+        push(maxFreq.get(start), start, false);
+
+        while (heapSize > 0 && results.size() < maxCount) {
+            long top = pop();
+            int node = (int) ((top >>> 1) & 0x7FFFFFFFL);
+            if ((top & 1L) != 0) {
+                results.add(buildWord(node));
+                continue;
+            }
+            int freq = wordFreq.get(node);
+            if (freq > 0) {
+                push(freq, node, true);
+            }
+            int end = childStart.get(node + 1);
+            for (int child = childStart.get(node); child < end; child++) {
+                push(maxFreq.get(child), child, false);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * topK ile aynı gezinme, ama adaylar doğrudan sıralayıcıya verilir.
+     * Sıralayıcının kabul etmeyeceği frekansa inince durur; kelime String'i
+     * sadece heap'e girebilecek adaylar için oluşturulur.
+     *
+     * @param foldedPrefix foldCase uygulanmış önek
+     */
+    synchronized void collect(String foldedPrefix, int maxCount, SuggestionRanker ranker, int source) {
+        if (foldedPrefix == null || foldedPrefix.isEmpty() || maxCount <= 0) {
+            return;
+        }
+        int start = findNode(foldedPrefix, false);
+        if (start < 0) {
+            return;
+        }
+
+        heapSize = 0;
+        push(maxFreq.get(start), start, false);
+
+        int emitted = 0;
+        while (heapSize > 0 && emitted < maxCount) {
+            long top = pop();
+            int key = (int) (top >>> 32);
+            if (!ranker.accepts(source, key)) {
+                break; // Kalan her şey daha düşük frekanslı
+            }
+            int node = (int) ((top >>> 1) & 0x7FFFFFFFL);
+            if ((top & 1L) != 0) {
+                ranker.offer(buildWord(node), source, key);
+                emitted++;
+                continue;
+            }
+            int freq = wordFreq.get(node);
+            if (freq > 0) {
+                push(freq, node, true);
+            }
+            int end = childStart.get(node + 1);
+            for (int child = childStart.get(node); child < end; child++) {
+                push(maxFreq.get(child), child, false);
+            }
+        }
+    }
+
+    /**
+     * @param exact false ise anahtar bir kenarın ortasında bitebilir (önek araması):
+     *              o kenarın altındaki her kelime anahtarla başlar
+     */
+    private int findNode(String key, boolean exact) {
+        int node = 0;
+        int i = 0;
+        while (i < key.length()) {
+            node = findChild(node, key.charAt(i));
+            if (node < 0) {
+                return -1;
+            }
+            int end = labelStart.get(node + 1);
+            int j = labelStart.get(node);
+            for (; j < end && i < key.length(); j++, i++) {
+                if (labels.get(j) != key.charAt(i)) {
+                    return -1;
+                }
+            }
+            if (j < end && exact) {
+                return -1;
+            }
+        }
+        return node;
+    }
+
+    private int findChild(int node, char c) {
+        int lo = childStart.get(node);
+        int hi = childStart.get(node + 1) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char label = labels.get(labelStart.get(mid));
+            if (label < c) {
+                lo = mid + 1;
+            } else if (label > c) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private String buildWord(int node) {
+        wordBuilder.setLength(0);
+        while (node != 0) {
+            for (int j = labelStart.get(node + 1) - 1; j >= labelStart.get(node); j--) {
+                wordBuilder.append(labels.get(j));
+            }
+            node = parents.get(node);
+        }
+        return wordBuilder.reverse().toString();
+    }
+
+    private void push(int key, int node, boolean isWord) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        long value = ((long) key << 32) | ((long) node << 1) | (isWord ? 1L : 0L);
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] >= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+
+    /**
+     * Kelime + frekans listesinden trie kurar
+     */
+    static class Builder {
+        // Sözlük satırında frekans yoksa sıradan türetilir (üstteki kelime daha sık)
+        static final int RANK_BASE_FREQUENCY = 1_000_000;
+
+        private static final class Node {
+            final TreeMap<Character, Node> children = new TreeMap<>();
+            int freq;
+        }
+
+        private final Node root = new Node();
+        private int nodeCount = 1;
+        private int wordCount;
+
+        /**
+         * Kelime ekle; aynı kelime tekrar gelirse en yüksek frekans kalır
+         */
+        Builder add(String word, int freq) {
+            if (word == null || freq <= 0) {
+                return this;
+            }
+            String key = foldCase(word);
+            if (key.isEmpty()) {
+                return this;
+            }
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                Node child = node.children.get(c);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(c, child);
+                    nodeCount++;
+                }
+                node = child;
+            }
+            if (node.freq == 0) {
+                wordCount++;
+            }
+            node.freq = Math.max(node.freq, freq);
+            return this;
+        }
+
+        /**
+         * Kelime listesi (dictionary_tr.txt): satır başına "kelime" veya "kelime<TAB>frekans"
+         */
+        Builder addWordList(BufferedReader reader) throws IOException {
+            String line;
+            int rank = 0;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    add(line.substring(0, tab), parseFrequency(line.substring(tab + 1)));
+                } else {
+                    add(line, Math.max(1, RANK_BASE_FREQUENCY - rank));
+                }
+                rank++;
+            }
+            return this;
+        }
+
+        private static int parseFrequency(String value) {
+            try {
+                return Math.max(1, Integer.parseInt(value.trim()));
+            } catch (NumberFormatException e) {
+                return 1;
+            }
+        }
+
+        DictionaryTrie build() {
+            return new DictionaryTrie(toBuffer());
+        }
+
+        /**
+         * İkili format (sınıf açıklamasındaki düzen); konumu 0, limiti dosya boyu
+         */
+        ByteBuffer toBuffer() {
+            // Sıkıştırılmış düğüm sayısı bilinmiyor; harf başına düğüm sayısı üst sınır
+            char[] labels = new char[nodeCount - 1];
+            int[] labelStart = new int[nodeCount + 1];
+            int[] childStart = new int[nodeCount + 1];
+            int[] parents = new int[nodeCount];
+            int[] wordFreq = new int[nodeCount];
+            int[] maxFreq = new int[nodeCount];
+
+            // BFS: çocuklar ardışık indekslere yerleşir, dallanmayan zincir tek kenar olur
+            ArrayDeque<Node> queue = new ArrayDeque<>();
+            queue.add(root);
+            int next = 1;
+            int index = 0;
+            int labelChars = 0;
+            while (!queue.isEmpty()) {
+                Node node = queue.poll();
+                wordFreq[index] = node.freq;
+                childStart[index] = next;
+                for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                    labelStart[next] = labelChars;
+                    labels[labelChars++] = entry.getKey();
+                    Node child = entry.getValue();
+                    while (child.freq == 0 && child.children.size() == 1) {
+                        Map.Entry<Character, Node> only = child.children.firstEntry();
+                        labels[labelChars++] = only.getKey();
+                        child = only.getValue();
+                    }
+                    parents[next] = index;
+                    queue.add(child);
+                    next++;
+                }
+                index++;
+            }
+            int compressedCount = next;
+            childStart[compressedCount] = next;
+            labelStart[compressedCount] = labelChars;
+
+            // Alt ağaç maksimumu: çocuklar her zaman ebeveynden sonra geldiği için tersten tek geçiş
+            for (int n = compressedCount - 1; n >= 0; n--) {
+                int max = wordFreq[n];
+                for (int child = childStart[n]; child < childStart[n + 1]; child++) {
+                    max = Math.max(max, maxFreq[child]);
+                }
+                maxFreq[n] = max;
+            }
+
+            int labelBytes = align4(labelChars * 2);
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + labelBytes + (compressedCount * 5 + 2) * 4)
+                    .order(ByteOrder.BIG_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(compressedCount).putInt(wordCount).putInt(labelChars);
+            for (int i = 0; i < labelChars; i++) buffer.putChar(labels[i]);
+            buffer.position(HEADER_BYTES + labelBytes);
+            putInts(buffer, labelStart, compressedCount + 1);
+            putInts(buffer, childStart, compressedCount + 1);
+            putInts(buffer, parents, compressedCount);
+            putInts(buffer, wordFreq, compressedCount);
+            putInts(buffer, maxFreq, compressedCount);
+            buffer.flip();
+            return buffer;
+        }
+
+        private static void putInts(ByteBuffer buffer, int[] values, int count) {
+            for (int i = 0; i < count; i++) {
+                buffer.putInt(values[i]);
+            }
+        }
+    }
+}
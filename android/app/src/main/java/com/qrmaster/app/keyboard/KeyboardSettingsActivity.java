@@ -197,6 +197,10 @@ public class KeyboardSettingsActivity extends AppCompatActivity {
         findViewById(R.id.section_privacy).setOnClickListener(v -> {
             showToast("🔒 Gizlilik ayarları");
         });
+        
+        findViewById(R.id.section_latency).setOnClickListener(v -> {
+            showLatencyDialog();
+        });
     }
     
     private void updateThemeText() {
@@ -284,6 +288,42 @@ public class KeyboardSettingsActivity extends AppCompatActivity {
         builder.show();
     }
     
+    /**
+     * ⏱️ Gecikme raporu (debug) - tuş → öneri şeridi aşamaları
+     */
+    private void showLatencyDialog() {
+        LatencyTracker tracker = LatencyTracker.getInstance();
+        
+        TextView reportView = new TextView(this);
+        reportView.setTypeface(android.graphics.Typeface.MONOSPACE);
+        reportView.setTextSize(12);
+        reportView.setTextIsSelectable(true);
+        int padding = (int) (16 * getResources().getDisplayMetrics().density);
+        reportView.setPadding(padding, padding, padding, padding);
+        reportView.setText(tracker.report());
+        
+        android.widget.HorizontalScrollView scroll = new android.widget.HorizontalScrollView(this);
+        scroll.addView(reportView);
+        
+        android.app.AlertDialog.Builder builder = new android.app.AlertDialog.Builder(this);
+        builder.setTitle("⏱️ Gecikme ölçümleri");
+        builder.setView(scroll);
+        builder.setPositiveButton("Kopyala", (dialog, which) -> {
+            android.content.ClipboardManager clipboard =
+                (android.content.ClipboardManager) getSystemService(CLIPBOARD_SERVICE);
+            if (clipboard != null) {
+                clipboard.setPrimaryClip(android.content.ClipData.newPlainText("latency", tracker.report()));
+                showToast("📋 Rapor kopyalandı");
+            }
+        });
+        builder.setNeutralButton("Sıfırla", (dialog, which) -> {
+            tracker.reset();
+            showToast("🔄 Ölçümler sıfırlandı");
+        });
+        builder.setNegativeButton("Kapat", null);
+        builder.show();
+    }
+    
     private void shareKeyboard() {
         Intent shareIntent = new Intent(Intent.ACTION_SEND);
         shareIntent.setType("text/plain");
@@ -0,0 +1,122 @@
+package com.qrmaster.app.keyboard;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * ⏱️ Tuş → öneri şeridi gecikme ölçümü
+ *
+ * - Her aşama için System.nanoTime süreleri sabit boyutlu bir halka tampona yazılır
+ *   (kayıt sırasında bellek ayırma yok)
+ * - Rapor anında son CAPACITY örnekten p50/p95/p99 hesaplanır
+ * - Servis ve ayarlar ekranı aynı process'te, tek örnek paylaşılır
+ *
+ * Rapor: KeyboardSettingsActivity → "Gecikme ölçümleri" veya
+ * adb shell dumpsys input_method
+ */
+class LatencyTracker {
+    static final int STAGE_DISPATCH = 0;     // onKey girişi → handleCharacterKey
+    static final int STAGE_COMMIT = 1;       // InputConnection.commitText
+    static final int STAGE_PREDICTION = 2;   // SuggestionWorker aday toplama + sıralama
+    static final int STAGE_RENDER = 3;       // CandidateStripView.setSuggestions
+    static final int STAGE_KEY_TO_RENDER = 4; // onKey girişi → şerit çizildi (uçtan uca)
+    static final int STAGE_COUNT = 5;
+
+    private static final String[] STAGE_NAMES = {
+        "dispatch", "commit", "prediction", "render", "key→render"
+    };
+
+    private static final int CAPACITY = 512; // 2'nin kuvveti olmalı
+    private static final int MASK = CAPACITY - 1;
+
+    private static final LatencyTracker INSTANCE = new LatencyTracker();
+
+    static LatencyTracker getInstance() {
+        return INSTANCE;
+    }
+
+    private final long[][] samples = new long[STAGE_COUNT][CAPACITY];
+    private final long[] counts = new long[STAGE_COUNT];
+    private final long[] maxNanos = new long[STAGE_COUNT];
+
+    private LatencyTracker() {
+    }
+
+    /**
+     * startNanos'tan şimdiye kadar geçen süreyi kaydet (ana thread ve SuggestionWorker)
+     */
+    void record(int stage, long startNanos) {
+        if (startNanos == 0) {
+            return;
+        }
+        long duration = System.nanoTime() - startNanos;
+        synchronized (this) {
+            samples[stage][(int) (counts[stage] & MASK)] = duration;
+            counts[stage]++;
+            if (duration > maxNanos[stage]) {
+                maxNanos[stage] = duration;
+            }
+        }
+    }
+
+    synchronized void reset() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(maxNanos, 0);
+    }
+
+    /**
+     * Okunabilir rapor (ms cinsinden)
+     */
+    String report() {
+        long[][] copies = new long[STAGE_COUNT][];
+        long[] totals = new long[STAGE_COUNT];
+        long[] maxima = new long[STAGE_COUNT];
+        synchronized (this) {
+            for (int stage = 0; stage < STAGE_COUNT; stage++) {
+                int size = (int) Math.min(counts[stage], CAPACITY);
+                copies[stage] = Arrays.copyOf(samples[stage], size);
+                totals[stage] = counts[stage];
+                maxima[stage] = maxNanos[stage];
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "%-11s %7s %7s %7s %7s %8s%n",
+            "stage", "p50", "p95", "p99", "max", "count"));
+        for (int stage = 0; stage < STAGE_COUNT; stage++) {
+            long[] sorted = copies[stage];
+            Arrays.sort(sorted);
+            sb.append(String.format(Locale.US, "%-11s %7s %7s %7s %7s %8d%n",
+                STAGE_NAMES[stage],
+                formatMillis(percentile(sorted, 50)),
+                formatMillis(percentile(sorted, 95)),
+                formatMillis(percentile(sorted, 99)),
+                formatMillis(sorted.length == 0 ? -1 : maxima[stage]),
+                totals[stage]));
+        }
+        sb.append("(ms, son ").append(CAPACITY).append(" örnek; max tüm oturum)");
+        return sb.toString();
+    }
+
+    void dump(PrintWriter writer) {
+        writer.println("Keystroke latency:");
+        writer.println(report());
+    }
+
+    // En yakın sıra yöntemi; örnek yoksa -1
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return -1;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static String formatMillis(long nanos) {
+        if (nanos < 0) {
+            return "-";
+        }
+        return String.format(Locale.US, "%.2f", nanos / 1_000_000.0);
+    }
+}
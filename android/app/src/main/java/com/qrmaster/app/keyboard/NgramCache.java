@@ -0,0 +1,265 @@
+package com.qrmaster.app.keyboard;
+
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * ⚡ Bellek içi n-gram indeksi (SmartPredictionDB okumalarının önünde)
+ *
+ * - Her context için en sık TOP_K sonraki kelime tutulur
+ * - Kelimeler int ID'ye çevrilir (intern), listeler primitive dizilerde
+ * - Context ilk sorulduğunda DB'den yüklenir, LRU ile sınırlı
+ * - Öğrenme olunca ilgili satır yerinde güncellenir (DB'ye tekrar gidilmez)
+ * - Kuyruk bir batch'i yazınca o context'ler atılır, sonraki okumada DB'den yeniden yüklenir
+ */
+class NgramCache {
+    static final int TOP_K = 8;
+    private static final int MAX_BIGRAM_CONTEXTS = 512;
+    private static final int MAX_TRIGRAM_CONTEXTS = 512;
+    private static final int MAX_INTERNED_WORDS = 20000;
+
+    /**
+     * Bir context'in sonraki kelimeleri - frekansa göre azalan sıralı
+     */
+    private static final class Successors {
+        final int[] ids = new int[TOP_K];
+        final int[] freqs = new int[TOP_K];
+        int size;
+    }
+
+    private final SmartPredictionDB db;
+    private final NgramWriteQueue writeQueue;
+
+    // Kelime <-> ID
+    private final HashMap<String, Integer> wordIds = new HashMap<>();
+    private final ArrayList<String> words = new ArrayList<>();
+
+    private final LruCache<String, Successors> bigrams = new LruCache<>(MAX_BIGRAM_CONTEXTS);
+    private final LruCache<String, Successors> trigrams = new LruCache<>(MAX_TRIGRAM_CONTEXTS);
+    private int commits; // Her yazılan batch'te artar - yükleme sırasında commit olduysa sonuç eskidir
+
+    NgramCache(SmartPredictionDB db, NgramWriteQueue writeQueue) {
+        this.db = db;
+        this.writeQueue = writeQueue;
+        writeQueue.setCommitListener(this::onBatchCommitted);
+    }
+
+    /**
+     * Trigram önce, yetmezse bigram (SmartPredictionDB.getSmartPredictions ile aynı mantık)
+     * Kelimeler NgramWriteQueue ile aynı şekilde normalize edilmiş olmalı.
+     */
+    List<String> getSmartPredictions(String prevWord1, String prevWord2, int limit) {
+        List<String> predictions = new ArrayList<>(limit);
+        String trigramKey = prevWord1 != null && prevWord2 != null ? prevWord1 + " " + prevWord2 : null;
+
+        if (trigramKey != null) {
+            ensureLoaded(trigrams, trigramKey, prevWord1, prevWord2);
+        }
+        if (prevWord2 != null) {
+            ensureLoaded(bigrams, prevWord2, prevWord2, null);
+        }
+
+        synchronized (this) {
+            if (trigramKey != null) {
+                appendWords(trigrams.get(trigramKey), predictions, limit);
+            }
+            if (predictions.size() < limit && prevWord2 != null) {
+                appendWords(bigrams.get(prevWord2), predictions, limit);
+            }
+        }
+        return predictions;
+    }
+
+    /**
+     * getSmartPredictions ile aynı context'ler, ama liste yerine sıralayıcıya verir
+     * (sıralayıcının önekine uyan kelimeler)
+     */
+    void collect(String prevWord1, String prevWord2, SuggestionRanker ranker) {
+        String trigramKey = prevWord1 != null && prevWord2 != null ? prevWord1 + " " + prevWord2 : null;
+
+        if (trigramKey != null) {
+            ensureLoaded(trigrams, trigramKey, prevWord1, prevWord2);
+        }
+        if (prevWord2 != null) {
+            ensureLoaded(bigrams, prevWord2, prevWord2, null);
+        }
+
+        synchronized (this) {
+            if (trigramKey != null) {
+                offerAll(trigrams.get(trigramKey), ranker, SuggestionRanker.SOURCE_NEXT_WORD_TRIGRAM);
+            }
+            if (prevWord2 != null) {
+                offerAll(bigrams.get(prevWord2), ranker, SuggestionRanker.SOURCE_NEXT_WORD_BIGRAM);
+            }
+        }
+    }
+
+    synchronized void onBigramLearned(String word1, String word2) {
+        Successors entry = bigrams.get(word1);
+        if (entry != null && hasRoomFor(word2)) {
+            increment(entry, intern(word2), 1);
+        }
+    }
+
+    synchronized void onTrigramLearned(String word1, String word2, String word3) {
+        Successors entry = trigrams.get(word1 + " " + word2);
+        if (entry != null && hasRoomFor(word3)) {
+            increment(entry, intern(word3), 1);
+        }
+    }
+
+    synchronized void clear() {
+        bigrams.evictAll();
+        trigrams.evictAll();
+        wordIds.clear();
+        words.clear();
+    }
+
+    // NgramWriteQueue executor thread'i - batch DB'de, etkilenen context'ler yeniden yüklensin
+    private synchronized void onBatchCommitted(List<NgramWriteQueue.PendingNgram> batch) {
+        commits++;
+        for (NgramWriteQueue.PendingNgram ngram : batch) {
+            if (ngram.isTrigram()) {
+                trigrams.remove(ngram.word1 + " " + ngram.word2);
+            } else {
+                bigrams.remove(ngram.word1);
+            }
+        }
+    }
+
+    /**
+     * ID tablosu dolu ve kelime yeniyse tablo sıfırlanır (önbellek de gider).
+     * Artış zaten kuyrukta olduğundan context yeniden yüklenirken collectPending ile gelir.
+     */
+    private boolean hasRoomFor(String word) {
+        if (words.size() < MAX_INTERNED_WORDS || wordIds.containsKey(word)) {
+            return true;
+        }
+        clear();
+        return false;
+    }
+
+    /**
+     * Context önbellekte yoksa DB'den yükle. SQLite okuması kilit dışında yapılır,
+     * böylece ana thread'deki öğrenme (onBigramLearned vb.) okumayı beklemez.
+     * Okuma sürerken kuyruk bir batch yazdıysa (artışlar ne okunan satırlarda ne kuyrukta
+     * olabilir) tekrar okunur.
+     */
+    private void ensureLoaded(LruCache<String, Successors> cache, String key, String word1, String word2) {
+        String[] loadWords = new String[TOP_K];
+        int[] loadFreqs = new int[TOP_K];
+        while (true) {
+            int commitsBefore;
+            synchronized (this) {
+                if (cache.get(key) != null) {
+                    return; // Önbellekte ya da başka thread yükledi
+                }
+                commitsBefore = commits;
+            }
+
+            int count = word2 == null
+                    ? db.loadBigramSuccessors(word1, TOP_K, loadWords, loadFreqs)
+                    : db.loadTrigramSuccessors(word1, word2, TOP_K, loadWords, loadFreqs);
+
+            synchronized (this) {
+                if (commits != commitsBefore) {
+                    continue;
+                }
+                if (cache.get(key) != null) {
+                    return;
+                }
+
+                if (words.size() + 2 * TOP_K > MAX_INTERNED_WORDS) {
+                    clear(); // ID tablosu şişti - baştan başla
+                }
+
+                Successors entry = new Successors();
+                for (int i = 0; i < count; i++) {
+                    entry.ids[i] = intern(loadWords[i]);
+                    entry.freqs[i] = loadFreqs[i];
+                }
+                entry.size = count;
+
+                // Kuyrukta bekleyen (henüz yazılmamış) artışları da uygula
+                int pendingCount = writeQueue.collectPending(word1, word2, loadWords, loadFreqs);
+                for (int i = 0; i < pendingCount; i++) {
+                    increment(entry, intern(loadWords[i]), loadFreqs[i]);
+                }
+
+                cache.put(key, entry);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Frekansı delta kadar artır ve sırayı koru. Eşit frekansta yeni kullanılan öne geçer
+     * (DB'deki "frequency DESC, last_used DESC" sıralaması gibi).
+     * Liste doluysa ve kelime listede yoksa eklenmez: DB frekansı en fazla
+     * listenin minimumu kadar olduğundan sıralamayı en çok eşitlik bozar.
+     */
+    private static void increment(Successors entry, int id, int delta) {
+        int index = -1;
+        for (int i = 0; i < entry.size; i++) {
+            if (entry.ids[i] == id) {
+                index = i;
+                break;
+            }
+        }
+
+        if (index < 0) {
+            if (entry.size == TOP_K) {
+                return;
+            }
+            index = entry.size++;
+            entry.ids[index] = id;
+            entry.freqs[index] = 0;
+        }
+
+        int freq = entry.freqs[index] + delta;
+        while (index > 0 && entry.freqs[index - 1] <= freq) {
+            entry.ids[index] = entry.ids[index - 1];
+            entry.freqs[index] = entry.freqs[index - 1];
+            index--;
+        }
+        entry.ids[index] = id;
+        entry.freqs[index] = freq;
+    }
+
+    private void offerAll(Successors entry, SuggestionRanker ranker, int source) {
+        if (entry == null) {
+            return;
+        }
+        for (int i = 0; i < entry.size; i++) {
+            String word = words.get(entry.ids[i]);
+            if (ranker.matches(word)) {
+                ranker.offer(word, source, entry.freqs[i]);
+            }
+        }
+    }
+
+    private void appendWords(Successors entry, List<String> out, int limit) {
+        if (entry == null) {
+            return;
+        }
+        for (int i = 0; i < entry.size && out.size() < limit; i++) {
+            String word = words.get(entry.ids[i]);
+            if (!out.contains(word)) {
+                out.add(word);
+            }
+        }
+    }
+
+    private int intern(String word) {
+        Integer id = wordIds.get(word);
+        if (id == null) {
+            id = words.size();
+            words.add(word);
+            wordIds.put(word, id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,201 @@
+package com.qrmaster.app.keyboard;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🧠 N-gram öğrenme kuyruğu (write-behind)
+ *
+ * Space'e her basışta SQLite'a yazmak yerine:
+ * - Artışlar bellekte toplanır, aynı n-gram tekrar gelirse birleştirilir
+ * - Zamanlayıcı dolunca veya kuyruk dolunca arka planda tek transaction ile yazılır
+ * - onFinishInput / onDestroy'da son kez boşaltılır
+ */
+class NgramWriteQueue {
+    private static final String TAG = "NgramWriteQueue";
+
+    private static final long FLUSH_DELAY_MS = 1500;  // İlk artıştan sonra bekleme
+    private static final int MAX_PENDING = 64;        // Bu kadar farklı n-gram birikince hemen yaz
+    private static final long SHUTDOWN_WAIT_MS = 500;
+
+    /**
+     * Bekleyen tek bir n-gram artışı (word3 == null ise bigram)
+     */
+    static final class PendingNgram {
+        final String word1;
+        final String word2;
+        final String word3;
+        int count;
+        long lastUsed;
+
+        PendingNgram(String word1, String word2, String word3) {
+            this.word1 = word1;
+            this.word2 = word2;
+            this.word3 = word3;
+        }
+
+        boolean isTrigram() {
+            return word3 != null;
+        }
+    }
+
+    /**
+     * Yazılan batch DB'ye işlendikten sonra executor thread'inde çağrılır
+     */
+    interface CommitListener {
+        void onCommitted(List<PendingNgram> batch);
+    }
+
+    private final SmartPredictionDB db;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final Object lock = new Object();
+
+    // Anahtar: "b|w1|w2" veya "t|w1|w2|w3"
+    private Map<String, PendingNgram> pending = new HashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private volatile CommitListener commitListener;
+
+    NgramWriteQueue(SmartPredictionDB db) {
+        this.db = db;
+    }
+
+    void setCommitListener(CommitListener listener) {
+        this.commitListener = listener;
+    }
+
+    void addBigram(String word1, String word2) {
+        if (isBlank(word1) || isBlank(word2)) {
+            return;
+        }
+        enqueue(normalize(word1), normalize(word2), null);
+    }
+
+    void addTrigram(String word1, String word2, String word3) {
+        if (isBlank(word1) || isBlank(word2) || isBlank(word3)) {
+            return;
+        }
+        enqueue(normalize(word1), normalize(word2), normalize(word3));
+    }
+
+    private void enqueue(String word1, String word2, String word3) {
+        String key = word3 == null
+                ? "b|" + word1 + "|" + word2
+                : "t|" + word1 + "|" + word2 + "|" + word3;
+
+        boolean flushNow;
+        synchronized (lock) {
+            PendingNgram entry = pending.get(key);
+            if (entry == null) {
+                entry = new PendingNgram(word1, word2, word3);
+                pending.put(key, entry);
+            }
+            entry.count++;
+            entry.lastUsed = System.currentTimeMillis();
+
+            flushNow = pending.size() >= MAX_PENDING;
+            if (!flushNow && scheduledFlush == null && !executor.isShutdown()) {
+                scheduledFlush = executor.schedule(this::drain, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (flushNow) {
+            flush();
+        }
+    }
+
+    /**
+     * Henüz DB'ye yazılmamış artışları context'e göre topla (NgramCache yüklemesi için).
+     * word2 == null ise word1 bigram context'i, değilse (word1, word2) trigram context'i.
+     *
+     * @return Doldurulan satır sayısı
+     */
+    int collectPending(String word1, String word2, String[] outWords, int[] outCounts) {
+        int count = 0;
+        synchronized (lock) {
+            for (PendingNgram ngram : pending.values()) {
+                if (count == outWords.length) {
+                    break;
+                }
+                boolean match = word2 == null
+                        ? !ngram.isTrigram() && ngram.word1.equals(word1)
+                        : ngram.isTrigram() && ngram.word1.equals(word1) && ngram.word2.equals(word2);
+                if (match) {
+                    outWords[count] = ngram.isTrigram() ? ngram.word3 : ngram.word2;
+                    outCounts[count] = ngram.count;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Bekleyen artışları arka planda hemen yaz
+     */
+    Future<?> flush() {
+        synchronized (lock) {
+            if (executor.isShutdown()) {
+                return null;
+            }
+            return executor.submit(this::drain);
+        }
+    }
+
+    /**
+     * Son boşaltma - kısa süre bekler, sonra executor'ı kapatır
+     */
+    void shutdown() {
+        Future<?> last = flush();
+        if (last != null) {
+            try {
+                last.get(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                Log.e(TAG, "Final flush did not complete", e);
+            }
+        }
+        executor.shutdown();
+    }
+
+    // Sadece executor thread'inde çalışır
+    private void drain() {
+        List<PendingNgram> batch;
+        synchronized (lock) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending.values());
+            pending = new HashMap<>();
+        }
+
+        db.applyNgramBatch(batch);
+        Log.d(TAG, "💾 Flushed " + batch.size() + " n-grams");
+
+        // Boşaltma ile commit arasında yüklenen context'ler bu artışları ne DB'de ne kuyrukta gördü
+        CommitListener listener = commitListener;
+        if (listener != null) {
+            listener.onCommitted(batch);
+        }
+    }
+
+    private static boolean isBlank(String word) {
+        return word == null || word.trim().isEmpty();
+    }
+
+    // SmartPredictionDB.saveBigram ile aynı normalizasyon
+    private static String normalize(String word) {
+        return word.toLowerCase().trim();
+    }
+}
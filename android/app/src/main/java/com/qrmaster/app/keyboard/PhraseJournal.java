@@ -0,0 +1,354 @@
+package com.qrmaster.app.keyboard;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 📒 Phrase modeli için ekleme-only ikili günlük + snapshot
+ *
+ * - Her öğrenilen kelime günlüğe tek kayıt olarak eklenir (tüm modeli yazmak yok)
+ * - Günlük büyüyünce model tek snapshot dosyasına sıkıştırılır, günlük sıfırlanır
+ * - Açılışta snapshot + günlük tekrar oynatılır (trigramlar dahil)
+ *
+ * Modeli yalnızca bu sınıfın yazıcı thread'i değiştirir; böylece snapshot
+ * her zaman günlükle tutarlıdır.
+ *
+ * Dosya başlığı: int magic, int version, int generation.
+ * Günlük yalnızca generation'ı snapshot ile aynıysa uygulanır (sıkıştırma
+ * yarıda kesilirse eski günlük iki kez sayılmaz). Snapshot geçici dosyaya yazılıp
+ * yeniden adlandırılır; yarım snapshot hiç görünmez.
+ */
+class PhraseJournal {
+    private static final String TAG = "PhraseJournal";
+
+    static final int TYPE_WORD = 1;     // word, count
+    static final int TYPE_BIGRAM = 2;   // prev, word, count
+    static final int TYPE_TRIGRAM = 3;  // "prev2 prev", word, count
+    private static final int TYPE_LEARN = 4; // word, prev, prev2 (günlük kaydı)
+
+    private static final int MAGIC_SNAPSHOT = 0x51505353; // "QPSS"
+    private static final int MAGIC_JOURNAL = 0x5150534A;  // "QPSJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+
+    private static final long COMPACT_THRESHOLD_BYTES = 256 * 1024;
+    private static final long SHUTDOWN_WAIT_MS = 1000;
+
+    /**
+     * Günlüğü besleyen ve snapshot'ı sağlayan model
+     */
+    interface Model {
+        void applyLearn(String word, String prev, String prev2);
+
+        void applyCount(int type, String context, String word, int count);
+
+        void forEachCount(CountVisitor visitor) throws IOException;
+
+        void clearAll();
+    }
+
+    interface CountVisitor {
+        void visit(int type, String context, String word, int count) throws IOException;
+    }
+
+    private final File snapshotFile;
+    private final File journalFile;
+    private final Model model;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    // Yazıcı thread'ine ait
+    private DataOutputStream journal;
+    private long journalBytes;
+    private int generation;
+
+    PhraseJournal(File dir, String name, Model model) {
+        this.snapshotFile = new File(dir, name + ".snap");
+        this.journalFile = new File(dir, name + ".log");
+        this.model = model;
+    }
+
+    boolean hasSavedState() {
+        return snapshotFile.exists() || journalFile.exists();
+    }
+
+    /**
+     * Snapshot + günlüğü arka planda yükle; sonraki kayıtlar yüklemeden sonra işlenir
+     */
+    void load(Runnable onLoaded) {
+        executor.execute(() -> {
+            try {
+                int snapshotGeneration = replaySnapshot();
+                long validBytes = replayJournal(snapshotGeneration);
+                generation = snapshotGeneration;
+                openJournal(validBytes);
+            } catch (IOException e) {
+                Log.e(TAG, "Phrase journal could not be loaded", e);
+            }
+            if (onLoaded != null) {
+                onLoaded.run();
+            }
+        });
+    }
+
+    /**
+     * Kelime öğrenildi - modele uygula ve günlüğe ekle (arka planda)
+     */
+    void learn(String word, String prev, String prev2) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        executor.execute(() -> {
+            model.applyLearn(word, prev, prev2);
+            if (journal == null) {
+                return;
+            }
+            try {
+                int before = journal.size();
+                journal.writeByte(TYPE_LEARN);
+                journal.writeUTF(word);
+                journal.writeUTF(prev == null ? "" : prev);
+                journal.writeUTF(prev2 == null ? "" : prev2);
+                journalBytes += journal.size() - before;
+            } catch (IOException e) {
+                Log.e(TAG, "Journal append failed", e);
+            }
+        });
+    }
+
+    /**
+     * Tamponu diske ver; günlük eşiği aştıysa snapshot'a sıkıştır
+     */
+    Future<?> flush() {
+        if (executor.isShutdown()) {
+            return null;
+        }
+        return executor.submit(() -> {
+            try {
+                if (journal != null) {
+                    journal.flush();
+                }
+                if (journalBytes > COMPACT_THRESHOLD_BYTES) {
+                    compact();
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Journal flush failed", e);
+            }
+        });
+    }
+
+    /**
+     * load() yerine: kayıt yokken modele taşınmış eski veriyi ilk snapshot olarak yaz.
+     * Günlük ancak snapshot diske yazıldıktan sonra açılır; arada çökülürse ikisi de
+     * olmadığından sonraki açılışta taşıma baştan yapılır.
+     *
+     * @param onSaved  Snapshot yazıldıktan sonra (yazıcı thread'inde) - eski kayıt artık silinebilir
+     * @param onLoaded Her durumda en son çalışır
+     */
+    void migrate(Runnable onSaved, Runnable onLoaded) {
+        executor.execute(() -> {
+            try {
+                writeSnapshot(1);
+                generation = 1;
+                openJournal(0);
+                if (onSaved != null) {
+                    onSaved.run();
+                }
+            } catch (IOException e) {
+                // Günlük açılmaz: model bellekte çalışır, eski kayıt yerinde kalır
+                Log.e(TAG, "Migrated phrase model could not be saved", e);
+            }
+            if (onLoaded != null) {
+                onLoaded.run();
+            }
+        });
+    }
+
+    void clear() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        executor.execute(() -> {
+            model.clearAll();
+            try {
+                closeJournal();
+                snapshotFile.delete();
+                journalFile.delete();
+                generation = 0;
+                openJournal(0);
+            } catch (IOException e) {
+                Log.e(TAG, "Journal reset failed", e);
+            }
+        });
+    }
+
+    void shutdown() {
+        Future<?> last = flush();
+        if (last != null) {
+            try {
+                last.get(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                Log.e(TAG, "Final journal flush did not complete", e);
+            }
+        }
+        executor.execute(() -> {
+            try {
+                closeJournal();
+            } catch (IOException e) {
+                Log.e(TAG, "Journal close failed", e);
+            }
+        });
+        executor.shutdown();
+    }
+
+    // ---- Yazıcı thread'i ----
+
+    private void compact() throws IOException {
+        int nextGeneration = generation + 1;
+        writeSnapshot(nextGeneration);
+
+        // Snapshot artık günlüğü içeriyor - yeni nesil ile boş günlük
+        closeJournal();
+        journalFile.delete();
+        generation = nextGeneration;
+        openJournal(0);
+        Log.d(TAG, "✅ Phrase model compacted (generation " + generation + ")");
+    }
+
+    // Geçici dosyaya yaz, diske indir, sonra yerine koy
+    private void writeSnapshot(int snapshotGeneration) throws IOException {
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        FileOutputStream file = new FileOutputStream(tmp);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC_SNAPSHOT);
+            out.writeInt(VERSION);
+            out.writeInt(snapshotGeneration);
+            model.forEachCount((type, context, word, count) -> {
+                out.writeByte(type);
+                out.writeUTF(context == null ? "" : context);
+                out.writeUTF(word);
+                out.writeInt(count);
+            });
+            out.flush();
+            file.getFD().sync();
+        }
+        if (!tmp.renameTo(snapshotFile)) {
+            tmp.delete();
+            throw new IOException("Snapshot rename failed");
+        }
+    }
+
+    private int replaySnapshot() throws IOException {
+        if (!snapshotFile.exists()) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            if (in.readInt() != MAGIC_SNAPSHOT || in.readInt() != VERSION) {
+                Log.w(TAG, "Unknown snapshot format, ignored");
+                return 0;
+            }
+            int snapshotGeneration = in.readInt();
+            while (true) {
+                int type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException end) {
+                    break;
+                }
+                String context = in.readUTF();
+                String word = in.readUTF();
+                int count = in.readInt();
+                model.applyCount(type, context.isEmpty() ? null : context, word, count);
+            }
+            return snapshotGeneration;
+        }
+    }
+
+    /**
+     * @return Günlüğün sağlam kısmının uzunluğu (yarım kalmış son kayıt hariç), geçersizse 0
+     */
+    private long replayJournal(int snapshotGeneration) throws IOException {
+        if (!journalFile.exists()) {
+            return 0;
+        }
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(journalFile)))) {
+            if (in.readInt() != MAGIC_JOURNAL || in.readInt() != VERSION
+                    || in.readInt() != snapshotGeneration) {
+                Log.w(TAG, "Stale or unknown journal, ignored");
+                return 0;
+            }
+            valid = HEADER_BYTES;
+            while (true) {
+                int type = in.readByte();
+                if (type != TYPE_LEARN) {
+                    break;
+                }
+                String word = in.readUTF();
+                String prev = in.readUTF();
+                String prev2 = in.readUTF();
+                model.applyLearn(word, prev.isEmpty() ? null : prev, prev2.isEmpty() ? null : prev2);
+                valid += 1 + utfLength(word) + utfLength(prev) + utfLength(prev2);
+            }
+        } catch (EOFException end) {
+            // Dosya sonu veya yarım kayıt - buraya kadarı geçerli
+        }
+        return valid;
+    }
+
+    private void openJournal(long validBytes) throws IOException {
+        if (validBytes < HEADER_BYTES) {
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(journalFile))) {
+                out.writeInt(MAGIC_JOURNAL);
+                out.writeInt(VERSION);
+                out.writeInt(generation);
+            }
+            validBytes = HEADER_BYTES;
+        } else if (journalFile.length() > validBytes) {
+            // Yarım kalmış son kaydı kes, yoksa sonraki eklemeler bozulur
+            try (RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")) {
+                raf.setLength(validBytes);
+            }
+        }
+        journal = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)));
+        journalBytes = validBytes;
+    }
+
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    // DataOutputStream.writeUTF'in yazdığı bayt sayısı (2 bayt uzunluk + modified UTF-8)
+    private static int utfLength(String s) {
+        int length = 2;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                length += 1;
+            } else if (c > 0x07FF) {
+                length += 3;
+            } else {
+                length += 2;
+            }
+        }
+        return length;
+    }
+}
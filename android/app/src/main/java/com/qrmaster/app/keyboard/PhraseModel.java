@@ -0,0 +1,248 @@
+package com.qrmaster.app.keyboard;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 🧩 Phrase n-gram modeli: kelime frekansı + bigram + trigram
+ *
+ * Android'e bağımlı değil; SmartPhrasePredictor ve JVM benchmark'ları aynı sınıfı kullanır.
+ * Değişiklikler PhraseJournal yazıcı thread'inden gelir, okumalar her thread'den yapılabilir.
+ * Context listesi son kelimeler (en yenisi sonda), kelimeler normalize edilmiş olmalı.
+ */
+class PhraseModel implements PhraseJournal.Model {
+
+    // Kelime geçmişi: kelime -> frekans
+    private final ConcurrentHashMap<String, Integer> wordFrequency = new ConcurrentHashMap<>();
+
+    // Bigram modeli: kelime -> sonraki kelime -> frekans
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Integer>> bigramModel = new ConcurrentHashMap<>();
+
+    // Trigram modeli: "kelime1 kelime2" -> kelime3 -> frekans
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Integer>> trigramModel = new ConcurrentHashMap<>();
+
+    int wordCount() {
+        return wordFrequency.size();
+    }
+
+    int bigramCount() {
+        return bigramModel.size();
+    }
+
+    int trigramCount() {
+        return trigramModel.size();
+    }
+
+    /**
+     * Eski Gson kaydından gelen veriyi ekle (taşıma)
+     */
+    void putAll(Map<String, Integer> words, Map<String, ConcurrentHashMap<String, Integer>> bigrams) {
+        if (words != null) {
+            wordFrequency.putAll(words);
+        }
+        if (bigrams != null) {
+            bigramModel.putAll(bigrams);
+        }
+    }
+
+    @Override
+    public void applyLearn(String normalized, String prev, String prev2) {
+        // Kelime frekansını artır
+        wordFrequency.merge(normalized, 1, Integer::sum);
+
+        // N-gram modeline ekle
+        if (prev != null) {
+            // Bigram: prev -> current
+            bigramModel.computeIfAbsent(prev, k -> new ConcurrentHashMap<>())
+                .merge(normalized, 1, Integer::sum);
+
+            // Trigram: prev2 prev1 -> current
+            if (prev2 != null) {
+                String bigramKey = prev2 + " " + prev;
+                trigramModel.computeIfAbsent(bigramKey, k -> new ConcurrentHashMap<>())
+                    .merge(normalized, 1, Integer::sum);
+            }
+        }
+    }
+
+    @Override
+    public void applyCount(int type, String context, String word, int count) {
+        switch (type) {
+            case PhraseJournal.TYPE_WORD:
+                wordFrequency.merge(word, count, Integer::sum);
+                break;
+            case PhraseJournal.TYPE_BIGRAM:
+                bigramModel.computeIfAbsent(context, k -> new ConcurrentHashMap<>())
+                    .merge(word, count, Integer::sum);
+                break;
+            case PhraseJournal.TYPE_TRIGRAM:
+                trigramModel.computeIfAbsent(context, k -> new ConcurrentHashMap<>())
+                    .merge(word, count, Integer::sum);
+                break;
+        }
+    }
+
+    @Override
+    public void forEachCount(PhraseJournal.CountVisitor visitor) throws IOException {
+        for (Map.Entry<String, Integer> entry : wordFrequency.entrySet()) {
+            visitor.visit(PhraseJournal.TYPE_WORD, null, entry.getKey(), entry.getValue());
+        }
+        writeModel(PhraseJournal.TYPE_BIGRAM, bigramModel, visitor);
+        writeModel(PhraseJournal.TYPE_TRIGRAM, trigramModel, visitor);
+    }
+
+    private static void writeModel(int type, Map<String, ConcurrentHashMap<String, Integer>> model,
+                                   PhraseJournal.CountVisitor visitor) throws IOException {
+        for (Map.Entry<String, ConcurrentHashMap<String, Integer>> context : model.entrySet()) {
+            for (Map.Entry<String, Integer> entry : context.getValue().entrySet()) {
+                visitor.visit(type, context.getKey(), entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void clearAll() {
+        wordFrequency.clear();
+        bigramModel.clear();
+        trigramModel.clear();
+    }
+
+    /**
+     * Önek için sözlük + kullanıcı kelimeleri + n-gram skorları
+     */
+    List<String> getSuggestions(String normalized, List<String> dictSuggestions, List<String> context, int maxCount) {
+        Map<String, Integer> scores = new HashMap<>();
+
+        // 1. Sözlük önerilerini ekle
+        for (String suggestion : dictSuggestions) {
+            scores.put(suggestion, 10); // Base score
+        }
+
+        // 2. Kullanıcı geçmişinden eşleşenleri ekle
+        for (Map.Entry<String, Integer> entry : wordFrequency.entrySet()) {
+            String word = entry.getKey();
+            if (word.startsWith(normalized)) {
+                int freq = entry.getValue();
+                // Kullanıcı kelimelerine ekstra ağırlık
+                scores.merge(word, 50 + freq * 10, Integer::sum);
+            }
+        }
+
+        // 3. Context-aware skorlar (önceki kelimeye göre)
+        if (!context.isEmpty()) {
+            String prev = context.get(context.size() - 1);
+            ConcurrentHashMap<String, Integer> nextWords = bigramModel.get(prev);
+            if (nextWords != null) {
+                for (Map.Entry<String, Integer> entry : nextWords.entrySet()) {
+                    String word = entry.getKey();
+                    if (word.startsWith(normalized)) {
+                        int freq = entry.getValue();
+                        scores.merge(word, 100 + freq * 20, Integer::sum);
+                    }
+                }
+            }
+
+            // Trigram model
+            if (context.size() >= 2) {
+                String prev2 = context.get(context.size() - 2);
+                String bigramKey = prev2 + " " + prev;
+                ConcurrentHashMap<String, Integer> triWords = trigramModel.get(bigramKey);
+                if (triWords != null) {
+                    for (Map.Entry<String, Integer> entry : triWords.entrySet()) {
+                        String word = entry.getKey();
+                        if (word.startsWith(normalized)) {
+                            int freq = entry.getValue();
+                            scores.merge(word, 200 + freq * 30, Integer::sum);
+                        }
+                    }
+                }
+            }
+        }
+
+        // 4. Sırala ve döndür
+        return topScores(scores, maxCount);
+    }
+
+    /**
+     * Boşluktan sonra context-based öneriler
+     */
+    List<String> getContextSuggestions(List<String> context, int maxCount) {
+        if (context.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<String, Integer> scores = new HashMap<>();
+
+        // Bigram model
+        String prev = context.get(context.size() - 1);
+        ConcurrentHashMap<String, Integer> nextWords = bigramModel.get(prev);
+        if (nextWords != null) {
+            for (Map.Entry<String, Integer> entry : nextWords.entrySet()) {
+                scores.put(entry.getKey(), entry.getValue() * 10);
+            }
+        }
+
+        // Trigram model (daha güçlü)
+        if (context.size() >= 2) {
+            String prev2 = context.get(context.size() - 2);
+            String bigramKey = prev2 + " " + prev;
+            ConcurrentHashMap<String, Integer> triWords = trigramModel.get(bigramKey);
+            if (triWords != null) {
+                for (Map.Entry<String, Integer> entry : triWords.entrySet()) {
+                    scores.merge(entry.getKey(), entry.getValue() * 20, Integer::sum);
+                }
+            }
+        }
+
+        return topScores(scores, maxCount);
+    }
+
+    /**
+     * Kullanıcı kelimeleri ve n-gram adaylarını sıralayıcıya ver.
+     * Önek yoksa sadece context (bigram/trigram) adayları.
+     */
+    void collectCandidates(SuggestionRanker ranker, List<String> context) {
+        if (ranker.hasPrefix()) {
+            wordFrequency.forEach((word, freq) -> {
+                if (ranker.matches(word)) {
+                    ranker.offer(word, SuggestionRanker.SOURCE_USER_HISTORY, freq);
+                }
+            });
+        }
+
+        if (context.isEmpty()) {
+            return;
+        }
+        String prev = context.get(context.size() - 1);
+        offerMatches(bigramModel.get(prev), ranker, SuggestionRanker.SOURCE_PHRASE_BIGRAM);
+
+        if (context.size() >= 2) {
+            String prev2 = context.get(context.size() - 2);
+            offerMatches(trigramModel.get(prev2 + " " + prev), ranker, SuggestionRanker.SOURCE_PHRASE_TRIGRAM);
+        }
+    }
+
+    private static void offerMatches(ConcurrentHashMap<String, Integer> nextWords, SuggestionRanker ranker, int source) {
+        if (nextWords == null) {
+            return;
+        }
+        nextWords.forEach((word, freq) -> {
+            if (ranker.matches(word)) {
+                ranker.offer(word, source, freq);
+            }
+        });
+    }
+
+    private static List<String> topScores(Map<String, Integer> scores, int maxCount) {
+        return scores.entrySet().stream()
+            .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
+            .limit(maxCount)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+}
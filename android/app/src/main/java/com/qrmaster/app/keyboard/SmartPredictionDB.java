@@ -5,9 +5,11 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -171,6 +173,64 @@ public class SmartPredictionDB extends SQLiteOpenHelper {
         }
     }
     
+    /**
+     * Biriktirilmiş n-gram artışlarını tek transaction içinde yaz (NgramWriteQueue'dan)
+     * 
+     * Her satır tek bir UPSERT ifadesi: mevcut frekans okunup artış eklenir.
+     * ON CONFLICT DO UPDATE SQLite 3.24 (API 30) gerektirdiği için minSdk 24'te
+     * INSERT OR REPLACE + alt sorgu kullanılıyor.
+     */
+    void applyNgramBatch(Collection<NgramWriteQueue.PendingNgram> batch) {
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+        
+        SQLiteDatabase db = getWritableDatabase();
+        SQLiteStatement bigramStmt = null;
+        SQLiteStatement trigramStmt = null;
+        db.beginTransaction();
+        try {
+            for (NgramWriteQueue.PendingNgram ngram : batch) {
+                if (ngram.isTrigram()) {
+                    if (trigramStmt == null) {
+                        trigramStmt = db.compileStatement("INSERT OR REPLACE INTO " + TABLE_TRIGRAM + " (" +
+                                COL_WORD1_TRI + ", " + COL_WORD2_TRI + ", " + COL_WORD3_TRI + ", " +
+                                COL_FREQUENCY_TRI + ", " + COL_LAST_USED_TRI + ") VALUES (?1, ?2, ?3, " +
+                                "COALESCE((SELECT " + COL_FREQUENCY_TRI + " FROM " + TABLE_TRIGRAM +
+                                " WHERE " + COL_WORD1_TRI + " = ?1 AND " + COL_WORD2_TRI + " = ?2 AND " +
+                                COL_WORD3_TRI + " = ?3), 0) + ?4, ?5)");
+                    }
+                    trigramStmt.bindString(1, ngram.word1);
+                    trigramStmt.bindString(2, ngram.word2);
+                    trigramStmt.bindString(3, ngram.word3);
+                    trigramStmt.bindLong(4, ngram.count);
+                    trigramStmt.bindLong(5, ngram.lastUsed);
+                    trigramStmt.executeInsert();
+                } else {
+                    if (bigramStmt == null) {
+                        bigramStmt = db.compileStatement("INSERT OR REPLACE INTO " + TABLE_BIGRAM + " (" +
+                                COL_WORD1 + ", " + COL_WORD2 + ", " + COL_FREQUENCY + ", " + COL_LAST_USED +
+                                ") VALUES (?1, ?2, " +
+                                "COALESCE((SELECT " + COL_FREQUENCY + " FROM " + TABLE_BIGRAM +
+                                " WHERE " + COL_WORD1 + " = ?1 AND " + COL_WORD2 + " = ?2), 0) + ?3, ?4)");
+                    }
+                    bigramStmt.bindString(1, ngram.word1);
+                    bigramStmt.bindString(2, ngram.word2);
+                    bigramStmt.bindLong(3, ngram.count);
+                    bigramStmt.bindLong(4, ngram.lastUsed);
+                    bigramStmt.executeInsert();
+                }
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error applying n-gram batch", e);
+        } finally {
+            db.endTransaction();
+            if (bigramStmt != null) bigramStmt.close();
+            if (trigramStmt != null) trigramStmt.close();
+        }
+    }
+    
     /**
      * Bigram tahminleri al (tek kelime context)
      * Örnek: "merhaba" → ["nasılsın", "dostum", "arkadaşım"]
@@ -256,6 +316,56 @@ public class SmartPredictionDB extends SQLiteOpenHelper {
         return predictions;
     }
     
+    /**
+     * Bigram sonraki kelimelerini frekanslarıyla birlikte yükle (NgramCache için)
+     * 
+     * @return Doldurulan satır sayısı
+     */
+    int loadBigramSuccessors(String word1, int limit, String[] outWords, int[] outFreqs) {
+        return loadSuccessors(TABLE_BIGRAM, COL_WORD2, COL_FREQUENCY, COL_LAST_USED,
+                COL_WORD1 + " = ?", new String[]{word1}, limit, outWords, outFreqs);
+    }
+    
+    /**
+     * Trigram sonraki kelimelerini frekanslarıyla birlikte yükle (NgramCache için)
+     * 
+     * @return Doldurulan satır sayısı
+     */
+    int loadTrigramSuccessors(String word1, String word2, int limit, String[] outWords, int[] outFreqs) {
+        return loadSuccessors(TABLE_TRIGRAM, COL_WORD3_TRI, COL_FREQUENCY_TRI, COL_LAST_USED_TRI,
+                COL_WORD1_TRI + " = ? AND " + COL_WORD2_TRI + " = ?", new String[]{word1, word2},
+                limit, outWords, outFreqs);
+    }
+    
+    private int loadSuccessors(String table, String wordCol, String freqCol, String lastUsedCol,
+                               String selection, String[] args, int limit,
+                               String[] outWords, int[] outFreqs) {
+        int count = 0;
+        Cursor cursor = null;
+        try {
+            cursor = getReadableDatabase().query(
+                    table,
+                    new String[]{wordCol, freqCol},
+                    selection,
+                    args,
+                    null, null,
+                    freqCol + " DESC, " + lastUsedCol + " DESC",
+                    String.valueOf(limit)
+            );
+            
+            while (cursor.moveToNext() && count < limit) {
+                outWords[count] = cursor.getString(0);
+                outFreqs[count] = cursor.getInt(1);
+                count++;
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error loading successors from " + table, e);
+        } finally {
+            if (cursor != null) cursor.close();
+        }
+        return count;
+    }
+    
     /**
      * Akıllı tahmin - Trigram önce, bulamazsa bigram
      */
@@ -40,6 +40,8 @@ public class SmartPredictionManager {
     private static final String TAG = "SmartPrediction";
     
     private final SmartPredictionDB db;
+    private final NgramWriteQueue writeQueue;
+    private final NgramCache cache;
     private final LinkedList<String> recentWords = new LinkedList<>();
     private static final int MAX_RECENT_WORDS = 3; // Son 3 kelimeyi hatırla
     
@@ -48,6 +50,8 @@ public class SmartPredictionManager {
     
     public SmartPredictionManager(Context context) {
         this.db = SmartPredictionDB.getInstance(context);
+        this.writeQueue = new NgramWriteQueue(db);
+        this.cache = new NgramCache(db, writeQueue);
         Log.d(TAG, "✅ SmartPredictionManager initialized");
     }
     
@@ -97,7 +101,7 @@ public class SmartPredictionManager {
         // Önceki kelimelerle ilişki kur
         if (recentWords.size() >= 1) {
             String prevWord = recentWords.get(recentWords.size() - 1);
-            db.saveBigram(prevWord, currentWord);
+            learnBigram(prevWord, currentWord);
             Log.d(TAG, "📚 Learned bigram: " + prevWord + " → " + currentWord);
             learned = true;
         }
@@ -105,7 +109,7 @@ public class SmartPredictionManager {
         if (recentWords.size() >= 2) {
             String prevWord1 = recentWords.get(recentWords.size() - 2);
             String prevWord2 = recentWords.get(recentWords.size() - 1);
-            db.saveTrigram(prevWord1, prevWord2, currentWord);
+            learnTrigram(prevWord1, prevWord2, currentWord);
             Log.d(TAG, "📚 Learned trigram: " + prevWord1 + " + " + prevWord2 + " → " + currentWord);
         }
         
@@ -129,17 +133,33 @@ public class SmartPredictionManager {
         
         // Bigram'ları kaydet
         for (int i = 0; i < words.size() - 1; i++) {
-            db.saveBigram(words.get(i), words.get(i + 1));
+            learnBigram(words.get(i), words.get(i + 1));
         }
         
         // Trigram'ları kaydet
         for (int i = 0; i < words.size() - 2; i++) {
-            db.saveTrigram(words.get(i), words.get(i + 1), words.get(i + 2));
+            learnTrigram(words.get(i), words.get(i + 1), words.get(i + 2));
         }
         
         Log.d(TAG, "✅ Sentence learned: " + (words.size() - 1) + " bigrams, " + (words.size() - 2) + " trigrams");
     }
     
+    /**
+     * Bigram öğren - DB kuyruğuna ekle, önbellekteki satırı güncelle
+     */
+    private void learnBigram(String word1, String word2) {
+        writeQueue.addBigram(word1, word2);
+        cache.onBigramLearned(word1, word2);
+    }
+    
+    /**
+     * Trigram öğren - DB kuyruğuna ekle, önbellekteki satırı güncelle
+     */
+    private void learnTrigram(String word1, String word2, String word3) {
+        writeQueue.addTrigram(word1, word2, word3);
+        cache.onTrigramLearned(word1, word2, word3);
+    }
+    
     /**
      * Sıradaki kelimeyi tahmin et (context-aware)
      * 
@@ -155,8 +175,8 @@ public class SmartPredictionManager {
         String prevWord2 = recentWords.size() >= 1 ? recentWords.get(recentWords.size() - 1) : null;
         String prevWord1 = recentWords.size() >= 2 ? recentWords.get(recentWords.size() - 2) : null;
         
-        // Akıllı tahmin: Önce trigram, sonra bigram
-        predictions = db.getSmartPredictions(prevWord1, prevWord2, 5);
+        // Akıllı tahmin: Önce trigram, sonra bigram (bellek içi indeksten)
+        predictions = cache.getSmartPredictions(prevWord1, prevWord2, 5);
         
         if (!predictions.isEmpty()) {
             Log.d(TAG, "💡 Smart predictions: " + predictions);
@@ -165,6 +185,19 @@ public class SmartPredictionManager {
         return predictions;
     }
     
+    /**
+     * Sıradaki kelime tahminlerini sıralayıcıya ver (önek varsa uyanlar)
+     * SuggestionWorker thread'inden çağrılır; context ana thread'de getRecentWords() ile alınır.
+     */
+    void collectCandidates(SuggestionRanker ranker, List<String> context) {
+        if (context.isEmpty()) {
+            return;
+        }
+        String prevWord2 = context.get(context.size() - 1);
+        String prevWord1 = context.size() >= 2 ? context.get(context.size() - 2) : null;
+        cache.collect(prevWord1, prevWord2, ranker);
+    }
+    
     /**
      * Belirli bir prefix ile başlayan tahminleri al
      * Hem sözlük hem de öğrenilen kelimeler
@@ -256,6 +289,20 @@ public class SmartPredictionManager {
         }
     }
     
+    /**
+     * Bekleyen öğrenmeleri DB'ye yaz (onFinishInput)
+     */
+    public void flushLearning() {
+        writeQueue.flush();
+    }
+    
+    /**
+     * Son öğrenmeleri yaz ve kuyruğu kapat (onDestroy)
+     */
+    public void shutdown() {
+        writeQueue.shutdown();
+    }
+    
     /**
      * İstatistikler
      */
@@ -269,6 +316,7 @@ public class SmartPredictionManager {
      */
     public void cleanOldData() {
         db.cleanOldData(30);
+        cache.clear();
     }
 }
 
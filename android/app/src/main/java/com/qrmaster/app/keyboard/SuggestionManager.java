@@ -2,28 +2,32 @@ package com.qrmaster.app.keyboard;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.res.AssetFileDescriptor;
 import android.content.res.AssetManager;
 import android.os.Handler;
 import android.os.Looper;
 import android.text.TextUtils;
+import android.util.Log;
 
 import java.io.BufferedReader;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 /**
  * Akıllı kelime öneri sistemi
- * - Sözlük tabanlı
+ * - Sözlük tabanlı (DictionaryTrie - önek ağacı, tam tarama yok)
  * - Önceden yazılan kelimeleri hatırlayıp önceliklendirir
  * - Frekans bazlı öneri
  */
@@ -33,8 +37,11 @@ public class SuggestionManager {
         void onLoaded();
     }
 
-    private final List<String> dictionary = new ArrayList<>();
-    private final Map<String, Integer> userHistory = new LinkedHashMap<>(); // Kullanıcı geçmişi
+    private static final String TAG = "SuggestionManager";
+    private static final String COMPILED_DICTIONARY_ASSET = "dictionary_tr.bin";
+
+    private volatile DictionaryTrie dictionary;
+    private final TreeMap<String, Integer> userHistory = new TreeMap<>(); // Kullanıcı geçmişi (önek aralığı için sıralı)
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private volatile boolean loaded = false;
@@ -48,20 +55,10 @@ public class SuggestionManager {
         }
 
         executor.execute(() -> {
-            // Sözlük yükle
-            AssetManager manager = context.getAssets();
-            try (InputStream inputStream = manager.open("dictionary_tr.txt");
-                 BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    line = line.trim();
-                    if (!line.isEmpty()) {
-                        dictionary.add(line.toLowerCase(Locale.getDefault()));
-                    }
-                }
-                Collections.sort(dictionary);
-            } catch (IOException e) {
-                e.printStackTrace();
+            // Derlenmiş sözlük (build sırasında üretilir) - mmap, ayrıştırma yok
+            dictionary = mapCompiledDictionary(context);
+            if (dictionary == null) {
+                dictionary = parseTextDictionary(context);
             }
             
             // Kullanıcı geçmişini yükle
@@ -74,13 +71,47 @@ public class SuggestionManager {
         });
     }
     
+    /**
+     * dictionary_tr.bin'i sıkıştırılmamış asset'ten doğrudan belleğe eşle.
+     * Eşleme kanal kapandıktan sonra da geçerli kalır.
+     */
+    private static DictionaryTrie mapCompiledDictionary(Context context) {
+        try (AssetFileDescriptor afd = context.getAssets().openFd(COMPILED_DICTIONARY_ASSET);
+             FileInputStream in = afd.createInputStream();
+             FileChannel channel = in.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    afd.getStartOffset(), afd.getDeclaredLength());
+            return DictionaryTrie.fromBuffer(buffer);
+        } catch (IOException | IllegalArgumentException e) {
+            Log.w(TAG, "Compiled dictionary unavailable, falling back to text", e);
+            return null;
+        }
+    }
+    
+    /**
+     * Yedek yol: metin sözlüğü ayrıştırıp trie kur
+     */
+    private static DictionaryTrie parseTextDictionary(Context context) {
+        AssetManager manager = context.getAssets();
+        DictionaryTrie.Builder builder = new DictionaryTrie.Builder();
+        try (InputStream inputStream = manager.open("dictionary_tr.txt");
+             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            builder.addWordList(reader);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return builder.build();
+    }
+    
     private void loadUserHistory() {
         try {
             SharedPreferences prefs = context.getSharedPreferences("keyboard_suggestions", Context.MODE_PRIVATE);
             Map<String, ?> allEntries = prefs.getAll();
-            for (Map.Entry<String, ?> entry : allEntries.entrySet()) {
-                if (entry.getValue() instanceof Integer) {
-                    userHistory.put(entry.getKey(), (Integer) entry.getValue());
+            synchronized (userHistory) {
+                for (Map.Entry<String, ?> entry : allEntries.entrySet()) {
+                    if (entry.getValue() instanceof Integer) {
+                        userHistory.put(entry.getKey(), (Integer) entry.getValue());
+                    }
                 }
             }
         } catch (Exception e) {
@@ -90,13 +121,16 @@ public class SuggestionManager {
     
     public void learnWord(String word) {
         if (TextUtils.isEmpty(word) || word.length() < 2) return;
-        word = word.toLowerCase(Locale.getDefault());
+        word = DictionaryTrie.foldCase(word);
         
-        userHistory.put(word, userHistory.getOrDefault(word, 0) + 1);
+        final int finalCount;
+        synchronized (userHistory) {
+            finalCount = userHistory.getOrDefault(word, 0) + 1;
+            userHistory.put(word, finalCount);
+        }
         
         // Asenkron kaydet
         final String finalWord = word;
-        final int finalCount = userHistory.get(word);
         executor.execute(() -> {
             try {
                 SharedPreferences prefs = context.getSharedPreferences("keyboard_suggestions", Context.MODE_PRIVATE);
@@ -111,39 +145,59 @@ public class SuggestionManager {
         if (!loaded || TextUtils.isEmpty(prefix)) {
             return Collections.emptyList();
         }
-        prefix = prefix.toLowerCase(Locale.getDefault());
+        prefix = DictionaryTrie.foldCase(prefix);
         
-        // Önce kullanıcı geçmişinden öneriler al (öncelikli)
+        // Önce kullanıcı geçmişinden öneriler al (öncelikli) - sadece önek aralığı
         List<WordScore> scoredWords = new ArrayList<>();
-        
-        // Kullanıcı geçmişinden
-        for (Map.Entry<String, Integer> entry : userHistory.entrySet()) {
-            if (entry.getKey().startsWith(prefix)) {
-                scoredWords.add(new WordScore(entry.getKey(), entry.getValue() * 100)); // Yüksek öncelik
+        synchronized (userHistory) {
+            for (Map.Entry<String, Integer> entry : userHistory.subMap(prefix, prefix + Character.MAX_VALUE).entrySet()) {
+                scoredWords.add(new WordScore(entry.getKey(), entry.getValue()));
             }
         }
-        
-        // Sözlükten
-        for (String word : dictionary) {
-            if (word.startsWith(prefix)) {
-                int score = userHistory.getOrDefault(word, 0);
-                scoredWords.add(new WordScore(word, score));
-            }
-            if (scoredWords.size() >= maxCount * 3) break; // Fazla olsun, sonra sırala
-        }
-        
-        // Skora göre sırala (en yüksek önce)
         Collections.sort(scoredWords, (a, b) -> Integer.compare(b.score, a.score));
         
-        // İlk maxCount kelimeyi al
         List<String> results = new ArrayList<>(maxCount);
         for (int i = 0; i < Math.min(maxCount, scoredWords.size()); i++) {
             results.add(scoredWords.get(i).word);
         }
         
+        // Sözlükten - frekansa göre en iyi K (best-first)
+        if (results.size() < maxCount && dictionary != null) {
+            for (String word : dictionary.topK(prefix, maxCount + results.size())) {
+                if (results.size() >= maxCount) break;
+                if (!results.contains(word)) {
+                    results.add(word);
+                }
+            }
+        }
+        
         return results;
     }
     
+    /**
+     * Yazılan önek için kullanıcı geçmişi ve sözlük adaylarını sıralayıcıya ver
+     * (SuggestionWorker thread'inden)
+     */
+    void collectCandidates(SuggestionRanker ranker) {
+        if (!loaded || !ranker.hasPrefix()) {
+            return;
+        }
+        String prefix = ranker.prefix();
+        
+        // Kullanıcı geçmişi - sadece önek aralığı
+        synchronized (userHistory) {
+            for (Map.Entry<String, Integer> entry : userHistory.subMap(prefix, prefix + Character.MAX_VALUE).entrySet()) {
+                ranker.offer(entry.getKey(), SuggestionRanker.SOURCE_USER_HISTORY, entry.getValue());
+            }
+        }
+        
+        // Sözlük - best-first, sıralayıcının kabul etmeyeceği yerde durur
+        DictionaryTrie trie = dictionary;
+        if (trie != null) {
+            trie.collect(prefix, SuggestionRanker.MAX_RESULTS, ranker, SuggestionRanker.SOURCE_DICTIONARY);
+        }
+    }
+    
     private static class WordScore {
         String word;
         int score;
@@ -0,0 +1,189 @@
+package com.qrmaster.app.keyboard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 🏆 Tek geçişli öneri sıralayıcı
+ *
+ * Sözlük, kullanıcı geçmişi ve n-gram kaynakları adaylarını doğrudan buraya verir;
+ * ara listeler ve tekrar tekrar sıralama yok. En iyi MAX_RESULTS aday sabit
+ * boyutlu bir min-heap'te tutulur, skor fonksiyonu değiştirilebilir.
+ *
+ * Aynı kelime birden fazla kaynaktan gelirse en yüksek skoru kalır (toplam değil):
+ * böylece heap'ten düşen bir kelime sonradan tekrar gelse de sonuç kesin olur.
+ *
+ * Thread-safe değildir; tek thread'den begin → offer... → finish sırasıyla kullanılır.
+ */
+class SuggestionRanker {
+    static final int MAX_RESULTS = 5; // CandidateStripView'daki kutu sayısı
+
+    // Aday kaynakları
+    static final int SOURCE_DICTIONARY = 0;
+    static final int SOURCE_USER_HISTORY = 1;
+    static final int SOURCE_PHRASE_BIGRAM = 2;
+    static final int SOURCE_PHRASE_TRIGRAM = 3;
+    static final int SOURCE_NEXT_WORD_BIGRAM = 4;   // SmartPredictionDB
+    static final int SOURCE_NEXT_WORD_TRIGRAM = 5;  // SmartPredictionDB
+
+    /**
+     * Kaynak + frekanstan skor (büyük olan önde)
+     */
+    interface Scorer {
+        long score(int source, int frequency);
+    }
+
+    /**
+     * Varsayılan: önce kaynak katmanı (trigram > bigram > geçmiş > sözlük), sonra frekans
+     */
+    static final Scorer DEFAULT_SCORER = (source, frequency) -> {
+        int tier;
+        switch (source) {
+            case SOURCE_NEXT_WORD_TRIGRAM: tier = 6; break;
+            case SOURCE_PHRASE_TRIGRAM: tier = 5; break;
+            case SOURCE_NEXT_WORD_BIGRAM: tier = 4; break;
+            case SOURCE_PHRASE_BIGRAM: tier = 3; break;
+            case SOURCE_USER_HISTORY: tier = 2; break;
+            default: tier = 1; break;
+        }
+        return ((long) tier << 32) | (frequency & 0xFFFFFFFFL);
+    };
+
+    private final Scorer scorer;
+
+    // Min-heap (kök = en zayıf aday)
+    private final String[] words = new String[MAX_RESULTS];
+    private final long[] scores = new long[MAX_RESULTS];
+    private int size;
+
+    private String prefix = "";
+    private final ArrayList<String> results = new ArrayList<>(MAX_RESULTS);
+
+    SuggestionRanker() {
+        this(DEFAULT_SCORER);
+    }
+
+    SuggestionRanker(Scorer scorer) {
+        this.scorer = scorer;
+    }
+
+    /**
+     * Yeni sıralama başlat
+     *
+     * @param prefix Yazılmakta olan kelime (DictionaryTrie.foldCase ile katlanmış), boşsa sıradaki kelime
+     */
+    void begin(String prefix) {
+        this.prefix = prefix == null ? "" : prefix;
+        for (int i = 0; i < size; i++) {
+            words[i] = null;
+        }
+        size = 0;
+    }
+
+    String prefix() {
+        return prefix;
+    }
+
+    boolean hasPrefix() {
+        return !prefix.isEmpty();
+    }
+
+    boolean matches(String word) {
+        return word.startsWith(prefix);
+    }
+
+    /**
+     * Bu skorla gelen yeni bir aday heap'e girebilir mi? (kaynaklar pahalı adayları atlamak için)
+     */
+    boolean accepts(int source, int frequency) {
+        return size < MAX_RESULTS || scorer.score(source, frequency) > scores[0];
+    }
+
+    void offer(String word, int source, int frequency) {
+        if (word == null || word.isEmpty()) {
+            return;
+        }
+        long score = scorer.score(source, frequency);
+
+        for (int i = 0; i < size; i++) {
+            if (words[i].equals(word)) {
+                if (score > scores[i]) {
+                    scores[i] = score;
+                    siftDown(i);
+                }
+                return;
+            }
+        }
+
+        if (size < MAX_RESULTS) {
+            words[size] = word;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            words[0] = word;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Sonuçlar skora göre azalan sırada. Dönen liste tekrar kullanılır;
+     * bir sonraki begin() çağrısına kadar geçerlidir.
+     */
+    List<String> finish() {
+        results.clear();
+        // Heap sort: en zayıf sona taşınır, dizi baştan sona azalan sırada kalır
+        int count = size;
+        while (size > 0) {
+            String weakest = words[0];
+            size--;
+            words[0] = words[size];
+            scores[0] = scores[size];
+            words[size] = weakest;
+            siftDown(0);
+        }
+        for (int i = 0; i < count; i++) {
+            results.add(words[i]);
+            words[i] = null;
+        }
+        return results;
+    }
+
+    private void siftUp(int i) {
+        String word = words[i];
+        long score = scores[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= score) {
+                break;
+            }
+            words[i] = words[parent];
+            scores[i] = scores[parent];
+            i = parent;
+        }
+        words[i] = word;
+        scores[i] = score;
+    }
+
+    private void siftDown(int i) {
+        String word = words[i];
+        long score = scores[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && scores[child + 1] < scores[child]) {
+                child++;
+            }
+            if (scores[child] >= score) {
+                break;
+            }
+            words[i] = words[child];
+            scores[i] = scores[child];
+            i = child;
+        }
+        words[i] = word;
+        scores[i] = score;
+    }
+}
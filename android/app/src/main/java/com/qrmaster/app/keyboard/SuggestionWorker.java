@@ -0,0 +1,112 @@
+package com.qrmaster.app.keyboard;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ⚙️ Öneri hesaplama thread'i
+ *
+ * - Aday toplama + sıralama (SQLite okumaları dahil) ayrı bir thread'de yapılır,
+ *   tuş basışı tahmini asla beklemez
+ * - Her isteğe artan bir sıra numarası verilir; sonuç gelene kadar yeni istek
+ *   geldiyse eski sonuç CandidateStripView'a hiç ulaşmaz
+ * - Hızlı yazarken art arda gelen istekler kısa bir gecikmeyle birleştirilir
+ */
+class SuggestionWorker {
+    private static final long BURST_WINDOW_MS = 60; // Bu aralıkta gelen istek "seri yazım" sayılır
+    private static final long DEBOUNCE_MS = 30;
+
+    interface Callback {
+        /**
+         * Ana thread'de, sadece en güncel istek için çağrılır
+         */
+        void onSuggestions(String prefix, List<String> suggestions);
+    }
+
+    private final SuggestionManager suggestionManager;
+    private final SmartPredictionManager smartPrediction;
+    private final SmartPhrasePredictor phrasePredictor;
+    private final Callback callback;
+
+    private final HandlerThread thread;
+    private final Handler workerHandler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final SuggestionRanker ranker = new SuggestionRanker(); // Sadece worker thread'i
+
+    private volatile int latestSequence;
+    private long lastRequestAt;
+
+    SuggestionWorker(SuggestionManager suggestionManager, SmartPredictionManager smartPrediction,
+                     SmartPhrasePredictor phrasePredictor, Callback callback) {
+        this.suggestionManager = suggestionManager;
+        this.smartPrediction = smartPrediction;
+        this.phrasePredictor = phrasePredictor;
+        this.callback = callback;
+        this.thread = new HandlerThread("SuggestionWorker", Process.THREAD_PRIORITY_DEFAULT);
+        this.thread.start();
+        this.workerHandler = new Handler(thread.getLooper());
+    }
+
+    /**
+     * Ana thread'den çağrılır. Context (son kelimeler) burada kopyalanır,
+     * worker thread'i ana thread'in listelerine dokunmaz.
+     *
+     * @param prefix foldCase uygulanmış önek, boşsa sıradaki kelime tahmini
+     */
+    void request(String prefix) {
+        final int sequence = ++latestSequence;
+        final List<String> predictionContext = smartPrediction.getRecentWords();
+        final List<String> phraseContext = phrasePredictor.getRecentWords();
+
+        long now = SystemClock.uptimeMillis();
+        long delay = now - lastRequestAt < BURST_WINDOW_MS ? DEBOUNCE_MS : 0;
+        lastRequestAt = now;
+
+        // Bekleyen (henüz başlamamış) eski istekleri at
+        workerHandler.removeCallbacksAndMessages(null);
+        workerHandler.postDelayed(() -> compute(sequence, prefix, predictionContext, phraseContext), delay);
+    }
+
+    /**
+     * Bekleyen ve çalışan isteklerin sonuçlarını geçersiz kıl (ör. öneriler temizlenince)
+     */
+    void cancel() {
+        latestSequence++;
+        workerHandler.removeCallbacksAndMessages(null);
+    }
+
+    void shutdown() {
+        cancel();
+        thread.quitSafely();
+    }
+
+    // Worker thread'i
+    private void compute(int sequence, String prefix, List<String> predictionContext, List<String> phraseContext) {
+        if (sequence != latestSequence) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        ranker.begin(prefix);
+        smartPrediction.collectCandidates(ranker, predictionContext);
+        phrasePredictor.collectCandidates(ranker, phraseContext);
+        suggestionManager.collectCandidates(ranker);
+        final List<String> suggestions = new ArrayList<>(ranker.finish());
+        LatencyTracker.getInstance().record(LatencyTracker.STAGE_PREDICTION, start);
+
+        if (sequence != latestSequence) {
+            return;
+        }
+        mainHandler.post(() -> {
+            if (sequence == latestSequence) {
+                callback.onSuggestions(prefix, suggestions);
+            }
+        });
+    }
+}
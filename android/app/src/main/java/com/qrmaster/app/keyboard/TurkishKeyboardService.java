@@ -42,13 +42,14 @@ import androidx.core.content.FileProvider;
 import com.qrmaster.app.keyboard.ModernThemeDialog;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Stack;
 import java.io.File;
+import java.io.FileDescriptor;
 import java.io.FileOutputStream;
 import java.io.InputStream;
+import java.io.PrintWriter;
 import java.net.HttpURLConnection;
 import java.net.URL;
 
@@ -110,6 +111,10 @@ public class TurkishKeyboardService extends InputMethodService
     private com.qrmaster.app.keyboard.miniapps.SharedTypingView sharedTypingView;
     private SuggestionManager suggestionManager;
     private SmartPhrasePredictor phrasePredictor;
+    private SuggestionWorker suggestionWorker;
+    private final LatencyTracker latency = LatencyTracker.getInstance();
+    private long keyDownNanos;       // Sadece onKey süresince dolu
+    private long suggestionKeyNanos; // Son öneri isteğini tetikleyen tuşun zamanı
     private LanguageManager languageManager;
     private com.qrmaster.app.keyboard.mouse.MouseManager mouseManager;
     private boolean isMouseKeyboardMode = false; // PC'ye yazma modu
@@ -310,6 +315,8 @@ public class TurkishKeyboardService extends InputMethodService
         suggestionManager.load(getApplicationContext(), () -> Log.d(TAG, "✅ Sözlük yüklendi"));
         phrasePredictor = new SmartPhrasePredictor(getApplicationContext());
         smartPrediction = new SmartPredictionManager(getApplicationContext());
+        suggestionWorker = new SuggestionWorker(suggestionManager, smartPrediction, phrasePredictor,
+            this::onSuggestionsReady);
         languageManager = new LanguageManager(getApplicationContext());
         com.qrmaster.app.keyboard.textexpander.TextExpanderManager.getInstance(getApplicationContext());
         Log.d(TAG, "✅ Akıllı tahmin sistemi başlatıldı");
@@ -364,12 +371,18 @@ public class TurkishKeyboardService extends InputMethodService
         } catch (Exception e) {
             Log.e(TAG, "OCR receiver unregister error", e);
         }
+        if (suggestionWorker != null) {
+            suggestionWorker.shutdown();
+        }
         if (suggestionManager != null) {
             suggestionManager.shutdown();
         }
         if (phrasePredictor != null) {
             phrasePredictor.shutdown();
         }
+        if (smartPrediction != null) {
+            smartPrediction.shutdown();
+        }
 
         unregisterScreenshotObserver();
         
@@ -379,6 +392,15 @@ public class TurkishKeyboardService extends InputMethodService
         super.onDestroy();
     }
 
+    /**
+     * adb shell dumpsys input_method → gecikme raporu
+     */
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter fout, String[] args) {
+        super.dump(fd, fout, args);
+        latency.dump(fout);
+    }
+
     @Override
     public View onCreateInputView() {
         Log.d(TAG, "📐 MODERN Input view oluşturuluyor...");
@@ -709,6 +731,9 @@ public class TurkishKeyboardService extends InputMethodService
         saveInputState();
         composingBuffer.setLength(0);
         clearSuggestions();
+        if (smartPrediction != null) {
+            smartPrediction.flushLearning();
+        }
         
         // Klavye moduna dön
         if (currentMode != ViewMode.KEYBOARD) {
@@ -718,6 +743,15 @@ public class TurkishKeyboardService extends InputMethodService
 
     @Override
     public void onKey(int primaryCode, int[] keyCodes) {
+        keyDownNanos = System.nanoTime();
+        try {
+            dispatchKey(primaryCode, keyCodes);
+        } finally {
+            keyDownNanos = 0;
+        }
+    }
+
+    private void dispatchKey(int primaryCode, int[] keyCodes) {
         InputConnection ic = getCurrentInputConnection();
         if (ic == null) {
             return;
@@ -903,6 +937,7 @@ public class TurkishKeyboardService extends InputMethodService
                 break;
                 
             default:
+                latency.record(LatencyTracker.STAGE_DISPATCH, keyDownNanos);
                 if (handleCharacterKey(primaryCode, keyCodes, ic)) {
                     break;
                 }
@@ -1700,9 +1735,7 @@ public class TurkishKeyboardService extends InputMethodService
                     public void onTextInput(String text) {
                         // Klavyeden yazılan text'i PC'ye gönder
                         if (mouseManager != null && text != null && !text.isEmpty()) {
-                            for (char c : text.toCharArray()) {
-                                mouseManager.sendKeyPress(String.valueOf(c));
-                            }
+                            mouseManager.sendText(text);
                         }
                     }
                     @Override
@@ -5254,60 +5287,44 @@ public class TurkishKeyboardService extends InputMethodService
     }
 
     private void updateSuggestions() {
-        if (candidateStripView == null || suggestionManager == null || phrasePredictor == null || smartPrediction == null) {
+        if (candidateStripView == null || suggestionWorker == null) {
             return;
         }
-        if (composingBuffer.length() == 0) {
-            // 🧠 AKILLI TAHMİN: Boşluktan sonra sıradaki kelimeyi öner
-            List<String> smartPreds = smartPrediction.getPredictions();
-            Log.d(TAG, "🔍 updateSuggestions called with empty buffer");
-            Log.d(TAG, "🔍 Recent words: " + smartPrediction.getRecentWords());
-            if (!smartPreds.isEmpty()) {
-                Log.d(TAG, "💡 Sıradaki kelime tahminleri: " + smartPreds);
-                candidateStripView.setSuggestions(smartPreds);
-                return;
-            } else {
-                Log.d(TAG, "⚠️ Akıllı tahmin boş döndü");
-            }
-            
-            // Fallback: Phrase predictor
-            List<String> contextSuggestions = phrasePredictor.getSuggestions("", Collections.emptyList());
-            if (contextSuggestions.isEmpty()) {
-                candidateStripView.hideAll();
-            } else {
-                candidateStripView.setSuggestions(contextSuggestions);
-            }
+        
+        // 🏆 Tek geçiş, ayrı thread'de: tüm kaynaklar aynı sıralayıcıya (en fazla 5)
+        // Boş buffer → sıradaki kelime tahmini, dolu buffer → önek tamamlama
+        suggestionKeyNanos = keyDownNanos;
+        suggestionWorker.request(composingBuffer.length() == 0
+            ? "" : DictionaryTrie.foldCase(composingBuffer.toString()));
+    }
+
+    /**
+     * SuggestionWorker sonucu (ana thread) - buffer o arada değiştiyse gösterme
+     */
+    private void onSuggestionsReady(String prefix, List<String> suggestions) {
+        if (candidateStripView == null) {
             return;
         }
-        
-        // Sözlükten base suggestions al (5 kelime)
-        List<String> dictSuggestions = suggestionManager.getSuggestions(composingBuffer.toString(), 5);
-        
-        // 🧠 AKILLI TAHMİN: Prefix ile başlayan öğrenilen kelimeler + sözlük
-        List<String> combinedSuggestions = smartPrediction.getPredictionsWithPrefix(
-            composingBuffer.toString(), 
-            dictSuggestions
-        );
-        
-        // Phrase predictor ile birleştir (max 5)
-        List<String> smartSuggestions = phrasePredictor.getSuggestions(
-            composingBuffer.toString(), 
-            combinedSuggestions.isEmpty() ? dictSuggestions : combinedSuggestions
-        );
-        
-        // Maksimum 5 kelime göster
-        if (smartSuggestions.size() > 5) {
-            smartSuggestions = smartSuggestions.subList(0, 5);
+        String current = composingBuffer.length() == 0
+            ? "" : DictionaryTrie.foldCase(composingBuffer.toString());
+        if (!current.equals(prefix)) {
+            return;
         }
-        
-        if (smartSuggestions.isEmpty()) {
+        long renderStart = System.nanoTime();
+        if (suggestions.isEmpty()) {
             candidateStripView.hideAll();
         } else {
-            candidateStripView.setSuggestions(smartSuggestions);
+            candidateStripView.setSuggestions(suggestions);
         }
+        latency.record(LatencyTracker.STAGE_RENDER, renderStart);
+        latency.record(LatencyTracker.STAGE_KEY_TO_RENDER, suggestionKeyNanos);
+        suggestionKeyNanos = 0;
     }
 
     private void clearSuggestions() {
+        if (suggestionWorker != null) {
+            suggestionWorker.cancel();
+        }
         if (candidateStripView != null) {
             candidateStripView.hideAll();
         }
@@ -5466,7 +5483,9 @@ public class TurkishKeyboardService extends InputMethodService
                 Log.d(TAG, "⚠️ composingBuffer boş, sadece space yazılıyor");
             }
             
+            long commitStart = System.nanoTime();
             ic.commitText(" ", 1);
+            latency.record(LatencyTracker.STAGE_COMMIT, commitStart);
             composingBuffer.setLength(0);
             
             Log.d(TAG, "🎯 updateSuggestions() çağrılıyor (Space sonrası)");
@@ -5678,7 +5697,9 @@ public class TurkishKeyboardService extends InputMethodService
         }
         
         // Normal mod
+        long commitStart = System.nanoTime();
         ic.commitText(text, 1);
+        latency.record(LatencyTracker.STAGE_COMMIT, commitStart);
         if (isLetter) {
             composingBuffer.append(text.toLowerCase(turkishLocale));
             
@@ -0,0 +1,14 @@
+package com.qrmaster.app.keyboard.clipboard;
+
+/**
+ * Pano içerik tipleri (ContentTypeDetector sonucu)
+ */
+public enum ContentType {
+    URL,
+    EMAIL,
+    PHONE,
+    IBAN,
+    ADDRESS,
+    PLAIN_TEXT,
+    UNKNOWN
+}
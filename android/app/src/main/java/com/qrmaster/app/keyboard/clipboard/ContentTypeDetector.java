@@ -0,0 +1,83 @@
+package com.qrmaster.app.keyboard.clipboard;
+
+import java.util.regex.Pattern;
+
+/**
+ * 🔎 Pano içeriğinin tipini tespit et
+ *
+ * Android'e bağımlı değil: URL ve e-posta kalıpları dışarıdan verilir
+ * (uygulamada android.util.Patterns, JVM benchmark'larında eşdeğerleri).
+ */
+final class ContentTypeDetector {
+
+    // IBAN regex (TR ile başlar, 26 karakter)
+    private static final Pattern IBAN_PATTERN = Pattern.compile("^TR\\d{24}$");
+
+    // Telefon regex (Türkiye formatı)
+    private static final Pattern PHONE_PATTERN = Pattern.compile(
+        "^(\\+90|0)?\\s?\\(?\\d{3}\\)?[\\s.-]?\\d{3}[\\s.-]?\\d{2}[\\s.-]?\\d{2}$"
+    );
+
+    private static final String[] CITIES = {
+        "istanbul", "ankara", "izmir", "bursa", "antalya", "adana", "konya",
+        "gaziantep", "mersin", "diyarbakır", "kayseri", "eskişehir"
+    };
+
+    private final Pattern webUrlPattern;
+    private final Pattern emailPattern;
+
+    ContentTypeDetector(Pattern webUrlPattern, Pattern emailPattern) {
+        this.webUrlPattern = webUrlPattern;
+        this.emailPattern = emailPattern;
+    }
+
+    ContentType detect(String content) {
+        if (content == null || content.isEmpty()) {
+            return ContentType.UNKNOWN;
+        }
+
+        content = content.trim();
+
+        // URL kontrolü
+        if (webUrlPattern.matcher(content).matches() ||
+            content.startsWith("http://") || content.startsWith("https://")) {
+            return ContentType.URL;
+        }
+
+        // Email kontrolü
+        if (emailPattern.matcher(content).matches()) {
+            return ContentType.EMAIL;
+        }
+
+        // IBAN kontrolü
+        String cleanIban = content.replace(" ", "").toUpperCase();
+        if (IBAN_PATTERN.matcher(cleanIban).matches()) {
+            return ContentType.IBAN;
+        }
+
+        // Telefon kontrolü
+        if (PHONE_PATTERN.matcher(content).matches()) {
+            return ContentType.PHONE;
+        }
+
+        // Adres kontrolü (basit: 2+ satır içerir veya şehir adı var)
+        if (content.contains("\n") || containsCityName(content)) {
+            return ContentType.ADDRESS;
+        }
+
+        return ContentType.PLAIN_TEXT;
+    }
+
+    /**
+     * Türkiye şehir adı içeriyor mu?
+     */
+    private static boolean containsCityName(String text) {
+        String lowerText = text.toLowerCase();
+        for (String city : CITIES) {
+            if (lowerText.contains(city)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
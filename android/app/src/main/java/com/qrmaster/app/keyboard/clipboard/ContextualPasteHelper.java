@@ -3,12 +3,10 @@ package com.qrmaster.app.keyboard.clipboard;
 import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
-import android.text.TextUtils;
 import android.util.Patterns;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * Contextual Paste - Akıllı yapıştır
@@ -16,16 +14,6 @@ import java.util.regex.Pattern;
  */
 public class ContextualPasteHelper {
 
-    public enum ContentType {
-        URL,
-        EMAIL,
-        PHONE,
-        IBAN,
-        ADDRESS,
-        PLAIN_TEXT,
-        UNKNOWN
-    }
-
     public static class Action {
         public String label;
         public String icon;
@@ -45,52 +33,14 @@ public class ContextualPasteHelper {
         }
     }
 
-    // IBAN regex (TR ile başlar, 26 karakter)
-    private static final Pattern IBAN_PATTERN = Pattern.compile("^TR\\d{24}$");
-    
-    // Telefon regex (Türkiye formatı)
-    private static final Pattern PHONE_PATTERN = Pattern.compile(
-        "^(\\+90|0)?\\s?\\(?\\d{3}\\)?[\\s.-]?\\d{3}[\\s.-]?\\d{2}[\\s.-]?\\d{2}$"
-    );
+    private static final ContentTypeDetector DETECTOR =
+        new ContentTypeDetector(Patterns.WEB_URL, Patterns.EMAIL_ADDRESS);
 
     /**
      * İçerik tipini tespit et
      */
     public static ContentType detectType(String content) {
-        if (TextUtils.isEmpty(content)) {
-            return ContentType.UNKNOWN;
-        }
-
-        content = content.trim();
-
-        // URL kontrolü
-        if (Patterns.WEB_URL.matcher(content).matches() || 
-            content.startsWith("http://") || content.startsWith("https://")) {
-            return ContentType.URL;
-        }
-
-        // Email kontrolü
-        if (Patterns.EMAIL_ADDRESS.matcher(content).matches()) {
-            return ContentType.EMAIL;
-        }
-
-        // IBAN kontrolü
-        String cleanIban = content.replace(" ", "").toUpperCase();
-        if (IBAN_PATTERN.matcher(cleanIban).matches()) {
-            return ContentType.IBAN;
-        }
-
-        // Telefon kontrolü
-        if (PHONE_PATTERN.matcher(content).matches()) {
-            return ContentType.PHONE;
-        }
-
-        // Adres kontrolü (basit: 2+ satır içerir veya şehir adı var)
-        if (content.contains("\n") || containsCityName(content)) {
-            return ContentType.ADDRESS;
-        }
-
-        return ContentType.PLAIN_TEXT;
+        return DETECTOR.detect(content);
     }
 
     /**
@@ -218,22 +168,4 @@ public class ContextualPasteHelper {
         }
         return formatted.toString();
     }
-
-    /**
-     * Türkiye şehir adı içeriyor mu?
-     */
-    private static boolean containsCityName(String text) {
-        String[] cities = {
-            "istanbul", "ankara", "izmir", "bursa", "antalya", "adana", "konya",
-            "gaziantep", "mersin", "diyarbakır", "kayseri", "eskişehir"
-        };
-        String lowerText = text.toLowerCase();
-        for (String city : cities) {
-            if (lowerText.contains(city)) {
-                return true;
-            }
-        }
-        return false;
-    }
 }
-
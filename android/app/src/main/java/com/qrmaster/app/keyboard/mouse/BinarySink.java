@@ -0,0 +1,51 @@
+package com.qrmaster.app.keyboard.mouse;
+
+import java.io.IOException;
+
+/**
+ * MouseCommandWriter thread - binary çerçeveler (MouseProtocol.FrameWriter)
+ *
+ * Android'e bağımlı değil; MouseManager, loopback testleri ve JMH benchmark'ları kullanır.
+ */
+final class BinarySink implements CommandPipeline.Sink {
+    private final MouseProtocol.FrameWriter writer;
+
+    BinarySink(MouseProtocol.FrameWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void click(String button) throws IOException {
+        writer.writeClick(button);
+    }
+
+    @Override
+    public void scroll(int delta) throws IOException {
+        writer.writeScroll(delta);
+    }
+
+    @Override
+    public void key(String key) throws IOException {
+        writer.writeKey(key);
+    }
+
+    @Override
+    public void text(String text) throws IOException {
+        writer.writeText(text);
+    }
+
+    @Override
+    public void gesture(String name) throws IOException {
+        writer.writeGesture(name);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public boolean supportsText() {
+        return true;
+    }
+}
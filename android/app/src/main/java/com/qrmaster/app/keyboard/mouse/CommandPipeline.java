@@ -0,0 +1,315 @@
+package com.qrmaster.app.keyboard.mouse;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ⌨️ TCP komutları için tek yazıcılı, sıralı ve toplu gönderim hattı
+ *
+ * - Üreticiler (ana thread, görünümler) kilitsiz kuyruğa ekler, tek bir yazıcı thread boşaltır:
+ *   komutlar eklendikleri sırayla gider, iki tuş asla aynı anda yazılmaz
+ * - Kuyrukta biriken komutlar tek flush ile gönderilir (tuş başına bir syscall yerine)
+ * - Art arda gelen tek karakterlik yazdırılabilir tuşlar ve metinler tek TEXT komutuna birleşir
+ *   (Sink desteklemiyorsa karakter karakter KEY olarak yazılır)
+ * - Geri basınç: kuyrukta CAPACITY komut beklerken yenileri reddedilir, Listener bir kez haberdar edilir
+ * - Bağlantı koparsa hat durmaz, duraklar: yeni komutlar kuyrukta bekler (CAPACITY sınırıyla),
+ *   resume() ile yeni Sink'e sırasıyla yazılır. Gönderilen son REPLAY_CAPACITY komut saklanır;
+ *   sunucu oturumu sürdürdüyse aldığı komut sayısından sonrası tekrar gönderilir
+ *
+ * Android'e bağımlı değil. Oturum başına bir örnek (yeniden bağlanmalar dahil): start() → ... → stop().
+ */
+final class CommandPipeline {
+    static final int CAPACITY = 256;
+    static final int REPLAY_CAPACITY = 256;
+    private static final int MAX_BATCH = 64;
+    private static final int MAX_TEXT_CHARS = 4096; // UTF-8'de MouseProtocol.MAX_PAYLOAD'un altında kalır
+
+    /**
+     * Komutların yazılacağı hedef (binary çerçeve veya JSON satırı). Sadece yazıcı thread'den çağrılır.
+     */
+    interface Sink {
+        void click(String button) throws Exception;
+
+        void scroll(int delta) throws Exception;
+
+        void key(String key) throws Exception;
+
+        void text(String text) throws Exception;
+
+        void gesture(String name) throws Exception;
+
+        void flush() throws Exception;
+
+        boolean supportsText();
+    }
+
+    interface Listener {
+        /** Kuyruk doldu, komutlar reddediliyor (boşalana kadar bir kez) */
+        void onOverload(int pending);
+
+        /** Yazma başarısız - hat resume() çağrılana kadar duraklar, kuyruk korunur */
+        void onWriteError(Exception e);
+    }
+
+    private static final class Command {
+        final byte type; // MouseProtocol.OP_*
+        final String value;
+        final int number;
+
+        Command(byte type, String value, int number) {
+            this.type = type;
+            this.value = value;
+            this.number = number;
+        }
+    }
+
+    private final Listener listener;
+    private final ConcurrentLinkedQueue<Command> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+    private volatile boolean overloaded;
+    private volatile boolean suspended;
+
+    // Sadece yazıcı thread
+    private final StringBuilder textRun = new StringBuilder();
+    private final ArrayList<Command> history = new ArrayList<>(); // Hatta yazılacak/yazılmış komutlar
+    private long historyBase; // history.get(0)'ın oturumdaki sıra numarası
+    private long writeIndex;  // Sıradaki yazılacak komutun sıra numarası
+    private Sink sink;
+
+    // Herhangi bir thread → yazıcı (resumeSink en son yazılır)
+    private volatile long resumeReceived;
+    private volatile Sink resumeSink;
+
+    CommandPipeline(Sink sink, Listener listener) {
+        this.sink = sink;
+        this.listener = listener;
+        this.writer = new Thread(this::writeLoop, "MouseCommandWriter");
+        this.writer.setDaemon(true);
+    }
+
+    void start() {
+        writer.start();
+    }
+
+    void stop() {
+        running = false;
+        LockSupport.unpark(writer);
+        queue.clear();
+    }
+
+    /**
+     * Bağlantı koptu (herhangi bir thread) - yazma durur, komutlar kuyrukta birikir
+     */
+    void suspend() {
+        suspended = true;
+    }
+
+    /**
+     * Yeni bağlantıyla devam et (herhangi bir thread)
+     *
+     * @param received Sunucunun bu oturumda işlediği komut sayısı; yeni oturumsa -1
+     *                 (yazılıp teyit edilmeyenler bırakılır, hiç yazılmayanlar gider)
+     */
+    void resume(Sink sink, long received) {
+        resumeReceived = received;
+        resumeSink = sink;
+        LockSupport.unpark(writer);
+    }
+
+    int pendingCount() {
+        return pending.get();
+    }
+
+    boolean click(String button) {
+        return offer(new Command(MouseProtocol.OP_CLICK, button, 0));
+    }
+
+    boolean scroll(int delta) {
+        return offer(new Command(MouseProtocol.OP_SCROLL, null, delta));
+    }
+
+    boolean key(String key) {
+        return offer(new Command(MouseProtocol.OP_KEY, key, 0));
+    }
+
+    boolean text(String text) {
+        return offer(new Command(MouseProtocol.OP_TEXT, text, 0));
+    }
+
+    boolean gesture(String name) {
+        return offer(new Command(MouseProtocol.OP_GESTURE, name, 0));
+    }
+
+    // Herhangi bir thread
+    private boolean offer(Command command) {
+        if (!running) {
+            return false;
+        }
+        if (pending.incrementAndGet() > CAPACITY) {
+            pending.decrementAndGet();
+            if (!overloaded) {
+                overloaded = true;
+                listener.onOverload(CAPACITY);
+            }
+            return false;
+        }
+        queue.offer(command);
+        // Yazıcı park'a girmek üzereyse de uyanır: önce parked=true yazar, sonra kuyruğa bakar
+        if (parked) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    private void writeLoop() {
+        while (running) {
+            Sink next = resumeSink;
+            if (next != null) {
+                resumeSink = null;
+                applyResume(next, resumeReceived);
+            }
+            if (sink == null || suspended) {
+                parkUntil(false); // Bağlantı yok: kuyruk dolana kadar (CAPACITY) biriktir
+                continue;
+            }
+
+            int taken = 0;
+            Command command;
+            while (taken < MAX_BATCH && (command = queue.poll()) != null) {
+                append(command);
+                taken++;
+            }
+            flushText();
+            if (taken > 0 && pending.addAndGet(-taken) == 0) {
+                overloaded = false;
+            }
+            if (writeIndex == historyBase + history.size()) {
+                parkUntil(true);
+                continue;
+            }
+
+            try {
+                drain();
+            } catch (Exception e) {
+                // Yazılamayanlar history'de kalır; resume() sonrası sırayla tekrar denenir
+                sink = null;
+                if (running && resumeSink == null) {
+                    listener.onWriteError(e);
+                }
+            }
+            trimHistory();
+        }
+    }
+
+    // Yazıcı park'a girmek üzereyken gelen komut/resume kaçırılmaz: önce parked=true, sonra kontrol
+    private void parkUntil(boolean wantCommands) {
+        parked = true;
+        if (running && resumeSink == null && (!wantCommands || queue.isEmpty())) {
+            LockSupport.park(this);
+        }
+        parked = false;
+    }
+
+    private void applyResume(Sink next, long received) {
+        if (received >= 0) {
+            // Oturum sürdü: sunucunun almadığı ilk komuttan itibaren tekrar
+            long end = historyBase + history.size();
+            writeIndex = Math.max(historyBase, Math.min(received, end));
+        } else {
+            // Yeni oturum: teyitsiz gönderilmişler bırakılır, numaralar sunucuyla birlikte sıfırdan
+            history.subList(0, (int) (writeIndex - historyBase)).clear();
+            historyBase = 0;
+            writeIndex = 0;
+        }
+        sink = next;
+        suspended = false;
+    }
+
+    private void drain() throws Exception {
+        int start = (int) (writeIndex - historyBase);
+        for (int i = start; i < history.size(); i++) {
+            write(history.get(i));
+            writeIndex++;
+        }
+        sink.flush();
+    }
+
+    // Yazılmış komutlardan sadece son REPLAY_CAPACITY tanesi saklanır
+    private void trimHistory() {
+        int written = (int) (writeIndex - historyBase);
+        int drop = Math.min(written, history.size() - REPLAY_CAPACITY);
+        if (drop > 0) {
+            history.subList(0, drop).clear();
+            historyBase += drop;
+        }
+    }
+
+    private void append(Command command) {
+        if (command.type == MouseProtocol.OP_TEXT || isPrintableChar(command)) {
+            textRun.append(command.value);
+            return;
+        }
+        flushText(); // Sıra korunsun: özel tuştan önce biriken metin gider
+        history.add(command);
+    }
+
+    private void write(Command command) throws Exception {
+        switch (command.type) {
+            case MouseProtocol.OP_CLICK:
+                sink.click(command.value);
+                break;
+            case MouseProtocol.OP_SCROLL:
+                sink.scroll(command.number);
+                break;
+            case MouseProtocol.OP_KEY:
+                sink.key(command.value);
+                break;
+            case MouseProtocol.OP_TEXT:
+                sink.text(command.value);
+                break;
+            case MouseProtocol.OP_GESTURE:
+                sink.gesture(command.value);
+                break;
+        }
+    }
+
+    private void flushText() {
+        if (textRun.length() == 0) {
+            return;
+        }
+        if (sink.supportsText()) {
+            // Çok uzun metin birden fazla çerçeveye bölünür (vekil çift ortadan kesilmez)
+            int start = 0;
+            while (start < textRun.length()) {
+                int end = Math.min(textRun.length(), start + MAX_TEXT_CHARS);
+                if (end < textRun.length() && Character.isHighSurrogate(textRun.charAt(end - 1))) {
+                    end--;
+                }
+                history.add(new Command(MouseProtocol.OP_TEXT, textRun.substring(start, end), 0));
+                start = end;
+            }
+        } else {
+            for (int i = 0; i < textRun.length(); ) {
+                int codePoint = textRun.codePointAt(i);
+                history.add(new Command(MouseProtocol.OP_KEY, new String(Character.toChars(codePoint)), 0));
+                i += Character.charCount(codePoint);
+            }
+        }
+        textRun.setLength(0);
+    }
+
+    // "a", "ş", "😀" gibi tek karakter; "ENTER", "LWIN" gibi tuş adları birleştirilmez
+    private static boolean isPrintableChar(Command command) {
+        if (command.type != MouseProtocol.OP_KEY || command.value == null || command.value.isEmpty()) {
+            return false;
+        }
+        int codePoint = command.value.codePointAt(0);
+        return Character.charCount(codePoint) == command.value.length()
+            && !Character.isISOControl(codePoint);
+    }
+}
@@ -0,0 +1,214 @@
+package com.qrmaster.app.keyboard.mouse;
+
+import android.util.Log;
+import org.json.JSONObject;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.InterfaceAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 🔍 Tek keşif oturumu - tüm yollar aynı anda, sonuçlar geldikçe
+ *
+ * Aynı soketten aynı anda gönderilir:
+ * - Bilinen son IP'lere unicast (broadcast engelli ağlarda da anında yanıt)
+ * - Her arayüzün alt ağ yayını (ör. 192.168.1.255) ve 255.255.255.255
+ * - Multicast grubu (MULTICAST_GROUP)
+ * UDP kaybına karşı yoklamalar RESEND_AT_MS anlarında tekrarlanır. Yanıtlar cihaz id'sine göre
+ * tekilleştirilip Listener'a hemen verilir; finish() ile oturum beklemeden bitirilebilir.
+ */
+final class DeviceDiscovery {
+    private static final String TAG = "DeviceDiscovery";
+    static final int DISCOVERY_PORT = 59091;
+    static final String MULTICAST_GROUP = "239.255.42.99";
+    private static final long[] RESEND_AT_MS = {0, 300, 900};
+
+    interface Listener {
+        /** Keşif thread'inden, her cihaz için bir kez */
+        void onDeviceFound(MouseManager.PCDevice device);
+    }
+
+    private final List<String> knownIps;
+    private final int discoveryPort;
+    private final int replyPort;
+    private final Listener listener;
+    private final Map<String, MouseManager.PCDevice> found = new LinkedHashMap<>();
+    private volatile DatagramSocket socket;
+    private volatile boolean finished;
+
+    /**
+     * @param knownIps Önce denenecek son bilinen adresler
+     * @param replyPort Eski sunucular yanıtı telefonun bu portuna yollar (kaynak port yerine)
+     */
+    DeviceDiscovery(List<String> knownIps, int replyPort, Listener listener) {
+        this(knownIps, DISCOVERY_PORT, replyPort, listener);
+    }
+
+    // Testler: loopback sunucunun rastgele portu
+    DeviceDiscovery(List<String> knownIps, int discoveryPort, int replyPort, Listener listener) {
+        this.knownIps = knownIps;
+        this.discoveryPort = discoveryPort;
+        this.replyPort = replyPort;
+        this.listener = listener;
+    }
+
+    /**
+     * Süre dolana veya finish() çağrılana kadar bekle (çağıran thread'i bloklar)
+     *
+     * @return Bulunan cihazlar, yanıt sırasıyla
+     */
+    List<MouseManager.PCDevice> run(long timeoutMs) throws IOException {
+        DatagramSocket s = openSocket();
+        socket = s;
+        try {
+            List<InetAddress> targets = probeTargets();
+            byte[] probe = MouseProtocol.DISCOVERY_MESSAGE.getBytes(StandardCharsets.UTF_8);
+            byte[] receiveBuffer = new byte[1024];
+            DatagramPacket reply = new DatagramPacket(receiveBuffer, receiveBuffer.length);
+
+            long start = System.currentTimeMillis();
+            long deadline = start + timeoutMs;
+            int sends = 0;
+            while (!finished) {
+                long now = System.currentTimeMillis();
+                if (now >= deadline) {
+                    break;
+                }
+                if (sends < RESEND_AT_MS.length && now - start >= RESEND_AT_MS[sends]) {
+                    sendProbes(s, probe, targets);
+                    sends++;
+                }
+                long nextWake = sends < RESEND_AT_MS.length ? Math.min(deadline, start + RESEND_AT_MS[sends]) : deadline;
+                s.setSoTimeout((int) Math.max(1, nextWake - now));
+                try {
+                    reply.setLength(receiveBuffer.length);
+                    s.receive(reply);
+                } catch (SocketTimeoutException e) {
+                    continue; // Sıradaki yoklama turu veya süre sonu
+                }
+                handleReply(reply);
+            }
+        } catch (SocketException e) {
+            if (!finished) {
+                throw e;
+            }
+            // finish() soketi kapattı - normal
+        } finally {
+            s.close();
+        }
+
+        synchronized (found) {
+            return new ArrayList<>(found.values());
+        }
+    }
+
+    /** Herhangi bir thread - bulunanlarla hemen bitir */
+    void finish() {
+        finished = true;
+        DatagramSocket s = socket;
+        if (s != null) {
+            s.close();
+        }
+    }
+
+    // Eski sunucular yanıtı sabit porta gönderir: mümkünse o portu dinle, değilse rastgele port
+    private DatagramSocket openSocket() throws SocketException {
+        DatagramSocket s = new DatagramSocket(null);
+        s.setReuseAddress(true);
+        try {
+            s.bind(new InetSocketAddress(replyPort));
+        } catch (SocketException e) {
+            Log.w(TAG, "Port " + replyPort + " kullanımda, rastgele port: " + e.getMessage());
+            s.close();
+            s = new DatagramSocket();
+        }
+        s.setBroadcast(true);
+        return s;
+    }
+
+    private List<InetAddress> probeTargets() {
+        Set<InetAddress> targets = new LinkedHashSet<>();
+        for (String ip : knownIps) {
+            try {
+                targets.add(InetAddress.getByName(ip)); // Sayısal IP - DNS sorgusu yok
+            } catch (IOException e) {
+                Log.w(TAG, "Geçersiz kayıtlı IP: " + ip);
+            }
+        }
+        try {
+            for (NetworkInterface nif : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+                if (!nif.isUp() || nif.isLoopback()) {
+                    continue;
+                }
+                for (InterfaceAddress address : nif.getInterfaceAddresses()) {
+                    if (address.getBroadcast() != null) {
+                        targets.add(address.getBroadcast()); // Yönlendirilmiş alt ağ yayını
+                    }
+                }
+            }
+        } catch (SocketException e) {
+            Log.w(TAG, "Ağ arayüzleri okunamadı: " + e.getMessage());
+        }
+        try {
+            targets.add(InetAddress.getByName("255.255.255.255"));
+            targets.add(InetAddress.getByName(MULTICAST_GROUP));
+        } catch (IOException e) {
+            // Sayısal adresler - olmaz
+        }
+        return new ArrayList<>(targets);
+    }
+
+    // Bir hedefe gönderilemezse (ör. ağa ulaşılamıyor) diğerleri denenmeye devam eder
+    private void sendProbes(DatagramSocket s, byte[] probe, List<InetAddress> targets) {
+        for (InetAddress target : targets) {
+            try {
+                s.send(new DatagramPacket(probe, probe.length, target, discoveryPort));
+            } catch (IOException e) {
+                if (finished) {
+                    return;
+                }
+                Log.w(TAG, "Yoklama gönderilemedi: " + target.getHostAddress() + " - " + e.getMessage());
+            }
+        }
+    }
+
+    private void handleReply(DatagramPacket reply) {
+        String response = new String(reply.getData(), 0, reply.getLength(), StandardCharsets.UTF_8);
+        MouseManager.PCDevice device;
+        try {
+            JSONObject json = new JSONObject(response);
+            if (!"QKEYBOARD_SERVER".equals(json.optString("type"))) {
+                return;
+            }
+            device = new MouseManager.PCDevice(
+                json.getString("name"),
+                reply.getAddress().getHostAddress(),
+                json.getString("id")
+            );
+        } catch (Exception e) {
+            return; // Başka bir uygulamanın paketi
+        }
+
+        synchronized (found) {
+            if (found.containsKey(device.id)) {
+                return; // Aynı sunucu birden çok yoklamaya yanıt verir
+            }
+            found.put(device.id, device);
+        }
+        Log.d(TAG, "✅ PC bulundu: " + device.name + " (" + device.ipAddress + ")");
+        listener.onDeviceFound(device);
+    }
+}
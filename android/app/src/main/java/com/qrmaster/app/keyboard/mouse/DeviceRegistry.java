@@ -0,0 +1,128 @@
+package com.qrmaster.app.keyboard.mouse;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 📒 Bilinen PC'ler - keşifte görülen/eşleşen cihazlar, son görülme zamanıyla
+ *
+ * SharedPreferences (mouse_connections):
+ * - device_{id}_name / _ip: eşleşmiş cihaz (başarılı AUTH) - eski sürümlerle aynı anahtarlar
+ * - device_{id}_pin: son başarılı PIN (sunucu yeniden başlayana kadar geçerli)
+ * - device_{id}_seen: son görülme (ms)
+ * - seen_{id}_name / _ip: eşleşmemiş ama görülmüş cihaz
+ * - registry_ids: kayıtlı id'ler (en fazla MAX_DEVICES, en eskisi silinir)
+ *
+ * Uygulama açılışında en son eşleşen cihaza bu PIN ile doğrudan bağlanılır; olmazsa keşif
+ * bu listedeki IP'leri önce unicast ile yoklar.
+ *
+ * PIN düz metin olduğundan dosya yedeklemeden/cihaz aktarımından hariç tutulur
+ * (res/xml/backup_rules.xml, data_extraction_rules.xml).
+ */
+final class DeviceRegistry {
+    private static final String KEY_IDS = "registry_ids";
+    private static final int MAX_DEVICES = 16;
+
+    private final SharedPreferences prefs;
+
+    DeviceRegistry(Context context, String prefsName) {
+        this.prefs = context.getSharedPreferences(prefsName, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * @return Kayıtlı cihazlar, en son görülen önce
+     */
+    List<MouseManager.PCDevice> knownDevices() {
+        Set<String> ids = new HashSet<>(prefs.getStringSet(KEY_IDS, Collections.emptySet()));
+        // Kayıt defterinden önceki sürümlerde eşleşmiş cihazlar
+        for (String key : prefs.getAll().keySet()) {
+            if (key.startsWith("device_") && key.endsWith("_ip")) {
+                ids.add(key.substring("device_".length(), key.length() - "_ip".length()));
+            }
+        }
+
+        List<MouseManager.PCDevice> devices = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            boolean paired = isPaired(id);
+            String prefix = paired ? "device_" : "seen_";
+            String ip = prefs.getString(prefix + id + "_ip", null);
+            if (ip == null) {
+                continue;
+            }
+            MouseManager.PCDevice device = new MouseManager.PCDevice(
+                prefs.getString(prefix + id + "_name", id), ip, id);
+            device.lastSeen = prefs.getLong("device_" + id + "_seen", 0);
+            device.isPaired = paired;
+            devices.add(device);
+        }
+        Collections.sort(devices, (a, b) -> Long.compare(b.lastSeen, a.lastSeen));
+        return devices;
+    }
+
+    /** Keşifte görüldü - IP ve son görülme güncellenir */
+    void remember(MouseManager.PCDevice device) {
+        String prefix = isPaired(device.id) ? "device_" : "seen_";
+        SharedPreferences.Editor editor = prefs.edit()
+            .putString(prefix + device.id + "_name", device.name)
+            .putString(prefix + device.id + "_ip", device.ipAddress)
+            .putLong("device_" + device.id + "_seen", device.lastSeen);
+        addId(editor, device.id);
+        editor.apply();
+    }
+
+    /** Başarılı bağlantı */
+    void markPaired(MouseManager.PCDevice device, String pin) {
+        SharedPreferences.Editor editor = prefs.edit()
+            .putString("device_" + device.id + "_name", device.name)
+            .putString("device_" + device.id + "_ip", device.ipAddress)
+            .putString("device_" + device.id + "_pin", pin)
+            .putLong("device_" + device.id + "_seen", System.currentTimeMillis())
+            .remove("seen_" + device.id + "_name")
+            .remove("seen_" + device.id + "_ip");
+        addId(editor, device.id);
+        editor.apply();
+    }
+
+    boolean isPaired(String deviceId) {
+        return prefs.contains("device_" + deviceId + "_name");
+    }
+
+    /** @return Son başarılı PIN veya null (eşleşmemiş / PIN reddedilmiş) */
+    String pinFor(String deviceId) {
+        return prefs.getString("device_" + deviceId + "_pin", null);
+    }
+
+    /** Sunucu PIN'i reddetti - açılışta doğrudan bağlanılmaz, keşif + PIN sorulur */
+    void forgetPin(String deviceId) {
+        prefs.edit().remove("device_" + deviceId + "_pin").apply();
+    }
+
+    // registry_ids güncellenir; sınır aşılırsa en uzun süredir görülmeyen silinir
+    private void addId(SharedPreferences.Editor editor, String id) {
+        Set<String> ids = new HashSet<>(prefs.getStringSet(KEY_IDS, Collections.emptySet()));
+        if (!ids.add(id) || ids.size() <= MAX_DEVICES) {
+            editor.putStringSet(KEY_IDS, ids);
+            return;
+        }
+        Map<String, Long> seen = new LinkedHashMap<>();
+        for (String known : ids) {
+            seen.put(known, known.equals(id) ? Long.MAX_VALUE : prefs.getLong("device_" + known + "_seen", 0));
+        }
+        String oldest = Collections.min(seen.entrySet(), Map.Entry.comparingByValue()).getKey();
+        ids.remove(oldest);
+        editor.putStringSet(KEY_IDS, ids)
+            .remove("device_" + oldest + "_name")
+            .remove("device_" + oldest + "_ip")
+            .remove("device_" + oldest + "_pin")
+            .remove("device_" + oldest + "_seen")
+            .remove("seen_" + oldest + "_name")
+            .remove("seen_" + oldest + "_ip");
+    }
+}
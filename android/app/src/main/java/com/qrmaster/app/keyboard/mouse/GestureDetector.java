@@ -1,5 +1,7 @@
 package com.qrmaster.app.keyboard.mouse;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.view.MotionEvent;
 import android.util.Log;
 import java.util.*;
@@ -15,6 +17,7 @@ public class GestureDetector {
     private static final float SWIPE_THRESHOLD = 100f;
     private static final float VELOCITY_THRESHOLD = 1000f;
     private static final int TAP_TIMEOUT = 200;
+    private static final int SETTLE_DELAY_MS = 40; // Parmak bu kadar hareketsizse tahmin geri alınır
     
     private GestureCallback callback;
     private int pointerCount = 0;
@@ -24,6 +27,11 @@ public class GestureDetector {
     private float initialDistance;
     private boolean isScrolling = false;
     
+    // Tek parmak imleç hareketi: filtre + ivme + gecikme tahmini
+    private final TrackpadFilter trackpadFilter;
+    private final Handler settleHandler = new Handler(Looper.getMainLooper());
+    private final Runnable settleRunnable = this::settleCursor;
+    
     public interface GestureCallback {
         void onMouseMove(float deltaX, float deltaY);
         void onSingleTap();
@@ -41,8 +49,19 @@ public class GestureDetector {
         void onPinchZoom(float scale); // Zoom in/out
     }
     
-    public GestureDetector(GestureCallback callback) {
+    /**
+     * @param density Ekran yoğunluğu (px/dp) - ivme eğrisi dp/s cinsinden
+     */
+    public GestureDetector(GestureCallback callback, float density) {
         this.callback = callback;
+        this.trackpadFilter = new TrackpadFilter(density);
+    }
+    
+    /**
+     * İmleç bu kadar ileri tahmin edilir (tek yön ağ gecikmesi, ms)
+     */
+    public void setPredictionLatency(int oneWayLatencyMs) {
+        trackpadFilter.setPredictionLatency(oneWayLatencyMs);
     }
     
     public boolean onTouchEvent(MotionEvent event) {
@@ -70,6 +89,9 @@ public class GestureDetector {
     }
     
     private void handlePointerDown(MotionEvent event) {
+        if (pointerCount == 1) {
+            settleCursor(); // İkinci parmak geldi: imleç tahmini geri alınır
+        }
         pointerCount = event.getPointerCount();
         gestureStartTime = System.currentTimeMillis();
         
@@ -78,7 +100,9 @@ public class GestureDetector {
         previousX = initialX;
         previousY = initialY;
         
-        if (pointerCount == 2) {
+        if (pointerCount == 1) {
+            trackpadFilter.begin(initialX, initialY, event.getEventTime());
+        } else if (pointerCount == 2) {
             initialDistance = calculateDistance(event);
         }
         
@@ -99,10 +123,18 @@ public class GestureDetector {
         
         switch (pointerCount) {
             case 1:
-                // Tek parmak: Mouse hareketi
-                if (Math.abs(deltaX) > 0.5f || Math.abs(deltaY) > 0.5f) {
-                    callback.onMouseMove(deltaX, deltaY);
+                // Tek parmak: Mouse hareketi - son olaydan beri biriken tüm örnekler (getHistoricalX) sırayla
+                int historySize = event.getHistorySize();
+                for (int h = 0; h < historySize; h++) {
+                    trackpadFilter.add(event.getHistoricalX(0, h), event.getHistoricalY(0, h),
+                        event.getHistoricalEventTime(h));
                 }
+                trackpadFilter.add(currentX, currentY, event.getEventTime());
+                emitCursorMove();
+                
+                // Parmak dururken MOVE gelmeyebilir: kısa süre sessizlikte tahmin geri alınır
+                settleHandler.removeCallbacks(settleRunnable);
+                settleHandler.postDelayed(settleRunnable, SETTLE_DELAY_MS);
                 break;
                 
             case 2:
@@ -130,6 +162,9 @@ public class GestureDetector {
     }
     
     private void handlePointerUp(MotionEvent event) {
+        if (pointerCount == 1) {
+            settleCursor();
+        }
         long duration = System.currentTimeMillis() - gestureStartTime;
         float totalDeltaX = event.getX(0) - initialX;
         float totalDeltaY = event.getY(0) - initialY;
@@ -177,6 +212,11 @@ public class GestureDetector {
             reset();
         } else {
             pointerCount = event.getPointerCount() - 1;
+            if (pointerCount == 1) {
+                // Kalan parmaktan devam: filtre yeni konumdan başlar, imleç sıçramaz
+                int remaining = event.getActionIndex() == 0 ? 1 : 0;
+                trackpadFilter.begin(event.getX(remaining), event.getY(remaining), event.getEventTime());
+            }
         }
     }
     
@@ -227,7 +267,24 @@ public class GestureDetector {
         return (float) Math.sqrt(x * x + y * y);
     }
     
+    private void emitCursorMove() {
+        float deltaX = trackpadFilter.takeDeltaX();
+        float deltaY = trackpadFilter.takeDeltaY();
+        if (deltaX != 0f || deltaY != 0f) {
+            callback.onMouseMove(deltaX, deltaY); // Piksel altı kısım MouseManager'da birikir
+        }
+    }
+    
+    private void settleCursor() {
+        settleHandler.removeCallbacks(settleRunnable);
+        if (pointerCount == 1 && trackpadFilter.hasLead()) {
+            trackpadFilter.settle();
+            emitCursorMove();
+        }
+    }
+    
     private void reset() {
+        settleHandler.removeCallbacks(settleRunnable);
         pointerCount = 0;
         isScrolling = false;
         initialDistance = 0;
@@ -0,0 +1,73 @@
+package com.qrmaster.app.keyboard.mouse;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * MouseCommandWriter thread - eski sunucular için JSON satırları (binary_version yoksa, TEXT yok)
+ */
+final class JsonSink implements CommandPipeline.Sink {
+    private final PrintWriter writer;
+
+    JsonSink(PrintWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void click(String button) throws Exception {
+        JSONObject msg = new JSONObject();
+        msg.put("type", "MOUSE_CLICK");
+        msg.put("button", button);
+        writer.println(msg.toString());
+    }
+
+    @Override
+    public void scroll(int delta) throws Exception {
+        JSONObject msg = new JSONObject();
+        msg.put("type", "MOUSE_SCROLL");
+        msg.put("delta", delta);
+        writer.println(msg.toString());
+    }
+
+    @Override
+    public void key(String key) throws Exception {
+        JSONObject msg = new JSONObject();
+        msg.put("type", "KEY_PRESS");
+        msg.put("key", key);
+        writer.println(msg.toString());
+    }
+
+    // JSON'da TEXT yok: kuyruktan kalan TEXT komutu (ör. binary oturumdan sonra tekrar) karakter başına KEY_PRESS olur
+    @Override
+    public void text(String text) throws Exception {
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            key(new String(Character.toChars(codePoint)));
+            i += Character.charCount(codePoint);
+        }
+    }
+
+    @Override
+    public void gesture(String name) throws Exception {
+        JSONObject msg = new JSONObject();
+        msg.put("type", "GESTURE");
+        msg.put("name", name);
+        writer.println(msg.toString());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+        // PrintWriter hataları yutar; kopan bağlantıyı hat ancak böyle fark eder
+        if (writer.checkError()) {
+            throw new IOException("TCP yazma hatası");
+        }
+    }
+
+    @Override
+    public boolean supportsText() {
+        return false;
+    }
+}
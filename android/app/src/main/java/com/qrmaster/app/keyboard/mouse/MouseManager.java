@@ -1,42 +1,153 @@
 package com.qrmaster.app.keyboard.mouse;
 
 import android.content.Context;
-import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
 import android.util.Log;
+import android.view.Choreographer;
 import org.json.JSONObject;
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * WiFi Mouse Yönetimi - Bilgisayar Keşfi ve Bağlantı
  * Ultra düşük gecikme hedefi: <15ms
+ *
+ * Bağlantı durumu: DISCONNECTED → CONNECTING → CONNECTED ⇄ RECONNECTING
+ * Kısa kopmalarda (Wi-Fi geçişi, ping timeout) PIN sorulmaz: sunucunun verdiği oturum
+ * token'ıyla yeniden bağlanılır, arada yazılan komutlar sırasıyla tekrar gönderilir.
  */
 public class MouseManager {
     private static final String TAG = "MouseManager";
     private static final int TCP_PORT = 58080;
     private static final int UDP_PORT = 59090;
     private static final String PREFS_NAME = "mouse_connections";
+    private static final long DISCOVERY_TIMEOUT_MS = 2000;
     
     private Socket tcpSocket;
-    private DatagramSocket udpSocket;
+    private volatile DatagramSocket udpSocket;
     private PrintWriter tcpWriter;
     private BufferedReader tcpReader;
+    // Sunucu binary_version'ı kabul ettiyse dolu; null ise JSON satırları (eski sunucular)
+    private volatile MouseProtocol.FrameWriter frameWriter;
+    private MouseProtocol.FrameReader frameReader;
+    // Tıklama/tuş/gesture: tek yazıcılı sıralı hat (bağlantı başına)
+    private volatile CommandPipeline commandPipeline;
     private PCDevice currentDevice; // Mevcut bağlı cihaz
     private ExecutorService executorService;
-    private boolean isConnected = false;
-    private long lastPingTime = 0;
-    private int latency = 0;
+    private volatile boolean isConnected = false; // Sadece CONNECTED'da true
+    
+    // 🔄 Yeniden bağlanma (alanlar connectionLock ile)
+    enum State { DISCONNECTED, CONNECTING, CONNECTED, RECONNECTING }
+    private static final long[] RECONNECT_BACKOFF_MS = {0, 100, 200, 400, 800, 1600, 3200, 5000};
+    private static final long RECONNECT_GIVE_UP_MS = 60_000;
+    private static final int RECONNECT_CONNECT_TIMEOUT_MS = 1500;
+    private volatile State state = State.DISCONNECTED;
+    private String sessionPin;   // Sunucu oturumu unuttuysa yeni oturum için (DeviceRegistry'de de saklı)
+    private String sessionToken; // Sunucu oturum sürdürmeyi desteklemiyorsa null
+    private int connectionGeneration; // Eski bağlantının geç gelen hatası yenisini kapatmasın
+    private int reconnectAttempt;
+    private long reconnectStartedMs;
+    private ScheduledFuture<?> reconnectTask;
+    private ConnectivityManager.NetworkCallback networkCallback;
+    private volatile long lastPingTime = 0;
+    private volatile int latency = 0;
+    private volatile int jitter = 0;
+    
+    // 💓 Heartbeat: komut gönderimi ve sonuç okuma birbirini beklemez
+    private static final long PING_INTERVAL_MS = 1000;
+    private static final long PONG_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final int MAX_MISSED_PINGS = 3;
+    private final ScheduledExecutorService heartbeatExecutor;
+    private ScheduledFuture<?> heartbeatTask;
+    private final ConcurrentHashMap<Long, Long> pendingPings = new ConcurrentHashMap<>(); // ping id → gönderim nanoTime
+    private final AtomicLong nextPingId = new AtomicLong();
+    private final AtomicInteger missedPings = new AtomicInteger();
+    private final RttEstimator rttEstimator = new RttEstimator();
+    private final Object connectionLock = new Object();
     
     private final Context context;
+    private final DeviceRegistry deviceRegistry;
+    private volatile DeviceDiscovery activeDiscovery;
     private ConnectionCallback callback;
     
+    // 🖱️ Hareket yolu - kare başına birleştir, tek thread'den tekrar kullanılan paketle gönder
+    private final HandlerThread moveThread;
+    private final Handler moveHandler;
+    private final byte[] moveBuffer = new byte[MouseProtocol.MOVE_PACKET_SIZE];
+    private final ByteBuffer moveWriter = ByteBuffer.wrap(moveBuffer); // Big-endian
+    private final DatagramPacket movePacket = new DatagramPacket(moveBuffer, MouseProtocol.MOVE_PACKET_SIZE);
+    private int moveSequence; // Sadece moveThread
+    
+    // Ana thread: bu karede biriken hareket (küsurat bir sonraki kareye taşınır)
+    private Choreographer choreographer;
+    private float pendingDeltaX;
+    private float pendingDeltaY;
+    private boolean frameScheduled;
+    
+    // Ana thread → moveThread
+    private final Object moveLock = new Object();
+    private int outgoingDeltaX;
+    private int outgoingDeltaY;
+    private boolean sendScheduled;
+    
+    private final Choreographer.FrameCallback moveFrameCallback = frameTimeNanos -> flushMouseMove();
+    private final Runnable sendMoveRunnable = this::sendPendingMove;
+    
     public interface ConnectionCallback {
         void onConnected(String pcName, String ipAddress);
         void onDisconnected();
-        void onLatencyUpdate(int latencyMs);
+        /** Yumuşatılmış RTT ve jitter (ms) - her pong'da, MouseTcpReader thread'inden */
+        void onLatencyUpdate(int latencyMs, int jitterMs);
         void onError(String error);
+        
+        /** Bağlantı koptu, attempt. deneme delayMs sonra - komutlar bu arada kuyrukta bekler */
+        default void onReconnecting(int attempt, long delayMs) {
+        }
+        
+        /** Oturum geri geldi, bekleyen komutlar gönderiliyor */
+        default void onReconnected() {
+        }
+    }
+    
+    /**
+     * Tek TCP + UDP bağlantısı (kimliği doğrulanmış). Yeniden bağlanmada yenisiyle değiştirilir.
+     */
+    private static final class Channels {
+        Socket tcpSocket;
+        DatagramSocket udpSocket;
+        PrintWriter tcpWriter;
+        BufferedReader tcpReader;
+        MouseProtocol.FrameWriter frameWriter;
+        MouseProtocol.FrameReader frameReader;
+        CommandPipeline.Sink sink;
+        String sessionToken; // null: sunucu oturum sürdürmeyi desteklemiyor
+        boolean resumed;
+        long received;       // Sunucunun bu oturumda işlediği komut sayısı
+        
+        void close() {
+            try {
+                if (tcpSocket != null) tcpSocket.close();
+            } catch (IOException e) {
+                // Zaten kapalı
+            }
+            if (udpSocket != null) udpSocket.close();
+        }
+    }
+    
+    /** Sunucu PIN'i (veya oturumu) reddetti - tekrar denemek anlamsız */
+    private static final class AuthException extends IOException {
+        AuthException(String message) {
+            super(message);
+        }
     }
     
     public static class PCDevice {
@@ -57,7 +168,13 @@ public class MouseManager {
     
     public MouseManager(Context context) {
         this.context = context;
+        this.deviceRegistry = new DeviceRegistry(context, PREFS_NAME);
         this.executorService = Executors.newFixedThreadPool(3);
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(
+            r -> new Thread(r, "MouseHeartbeat"));
+        this.moveThread = new HandlerThread("MouseMove", Process.THREAD_PRIORITY_DISPLAY);
+        this.moveThread.start();
+        this.moveHandler = new Handler(moveThread.getLooper());
     }
     
     public void setCallback(ConnectionCallback callback) {
@@ -69,7 +186,9 @@ public class MouseManager {
     }
     
     /**
-     * Ağdaki PC'leri keşfet (mDNS/Broadcast)
+     * Ağdaki PC'leri keşfet: bilinen IP'lere unicast + alt ağ yayını + multicast, hepsi aynı anda.
+     * Her yeni cihaz bulunduğu anda onDeviceFound ile, tam liste süre sonunda
+     * (veya finishDiscovery() çağrılınca) onDevicesFound ile verilir. İkisi de keşif thread'inden.
      */
     public void discoverDevices(DeviceDiscoveryCallback discoveryCallback) {
         if (discoveryCallback == null) {
@@ -77,83 +196,56 @@ public class MouseManager {
             return;
         }
         
-        Log.d(TAG, "Discovery başlatılıyor...");
+        finishDiscovery(); // Önceki oturum varsa elindekilerle biter
+        List<String> knownIps = new ArrayList<>();
+        for (PCDevice known : deviceRegistry.knownDevices()) {
+            knownIps.add(known.ipAddress);
+        }
+        Log.d(TAG, "Discovery başlatılıyor... (" + knownIps.size() + " bilinen IP)");
+        
+        DeviceDiscovery discovery = new DeviceDiscovery(knownIps, UDP_PORT, device -> {
+            device.isPaired = deviceRegistry.isPaired(device.id);
+            deviceRegistry.remember(device);
+            discoveryCallback.onDeviceFound(device);
+        });
+        activeDiscovery = discovery;
         
         executorService.execute(() -> {
             List<PCDevice> devices = new ArrayList<>();
-            
             try {
-                Log.d(TAG, "Broadcast mesajı gönderiliyor...");
-                
-                // Broadcast mesajı gönder
-                DatagramSocket socket = new DatagramSocket();
-                socket.setBroadcast(true);
-                socket.setReuseAddress(true);
-                
-                String discoveryMsg = "QKEYBOARD_DISCOVERY";
-                byte[] buffer = discoveryMsg.getBytes();
-                
-                // Local subnet'teki tüm cihazlara gönder
-                InetAddress broadcastAddr = InetAddress.getByName("255.255.255.255");
-                DatagramPacket packet = new DatagramPacket(buffer, buffer.length, broadcastAddr, UDP_PORT);
-                socket.send(packet);
-                
-                Log.d(TAG, "Broadcast gönderildi: " + broadcastAddr + ":" + UDP_PORT);
-                
-                // Yanıtları dinle (2 saniye)
-                socket.setSoTimeout(2000);
-                byte[] receiveBuffer = new byte[1024];
-                
-                long startTime = System.currentTimeMillis();
-                while (System.currentTimeMillis() - startTime < 2000) {
-                    try {
-                        DatagramPacket receivePacket = new DatagramPacket(receiveBuffer, receiveBuffer.length);
-                        socket.receive(receivePacket);
-                        
-                        String response = new String(receivePacket.getData(), 0, receivePacket.getLength());
-                        Log.d(TAG, "Yanıt alındı: " + response);
-                        
-                        JSONObject json = new JSONObject(response);
-                        
-                        if (json.has("type") && "QKEYBOARD_SERVER".equals(json.getString("type"))) {
-                            PCDevice device = new PCDevice(
-                                json.getString("name"),
-                                receivePacket.getAddress().getHostAddress(),
-                                json.getString("id")
-                            );
-                            
-                            // Daha önce eşleştirilmiş mi?
-                            device.isPaired = isPaired(device.id);
-                            devices.add(device);
-                            
-                            Log.d(TAG, "✅ PC bulundu: " + device.name + " (" + device.ipAddress + ")");
-                        }
-                    } catch (SocketTimeoutException e) {
-                        // Timeout - normal
-                        break;
-                    }
-                }
-                
-                socket.close();
-                
+                devices = discovery.run(DISCOVERY_TIMEOUT_MS);
                 Log.d(TAG, "Discovery tamamlandı. " + devices.size() + " cihaz bulundu.");
-                
-                if (discoveryCallback != null) {
-                    discoveryCallback.onDevicesFound(devices);
-                }
-                
             } catch (Exception e) {
                 Log.e(TAG, "❌ Keşif hatası", e);
-                if (discoveryCallback != null) {
-                    discoveryCallback.onDevicesFound(devices); // Boş liste döndür
-                }
                 if (callback != null) {
                     callback.onError("Cihaz keşfi başarısız: " + e.getMessage());
                 }
+            } finally {
+                if (activeDiscovery == discovery) {
+                    activeDiscovery = null;
+                }
             }
+            discoveryCallback.onDevicesFound(devices); // Hata durumunda boş liste
         });
     }
     
+    /**
+     * Süren keşfi beklemeden bitir (ör. son kullanılan PC yanıt verdi)
+     */
+    public void finishDiscovery() {
+        DeviceDiscovery discovery = activeDiscovery;
+        if (discovery != null) {
+            discovery.finish();
+        }
+    }
+    
+    /**
+     * Kayıtlı PC'ler, en son görülen önce (ağ erişimi yok)
+     */
+    public List<PCDevice> getKnownDevices() {
+        return deviceRegistry.knownDevices();
+    }
+    
     /**
      * PC'ye bağlan (TCP + UDP)
      */
@@ -170,60 +262,7 @@ public class MouseManager {
         
         executorService.execute(() -> {
             try {
-                Log.d(TAG, "TCP bağlantısı kuruluyor...");
-                
-                // TCP bağlantısı (kontrol kanalı) - OPTIMIZED
-                tcpSocket = new Socket();
-                tcpSocket.setKeepAlive(true); // TCP KEEPALIVE - bağlantı canlı tutar
-                tcpSocket.setTcpNoDelay(true); // Nagle algoritmasını devre dışı bırak = düşük latency
-                tcpSocket.setSoTimeout(15000); // 15 saniye read timeout
-                tcpSocket.setReceiveBufferSize(65536); // 64KB buffer
-                tcpSocket.setSendBufferSize(65536); // 64KB send buffer
-                
-                tcpSocket.connect(new InetSocketAddress(device.ipAddress, TCP_PORT), 5000);
-                
-                Log.d(TAG, "TCP bağlandı, kimlik doğrulanıyor...");
-                
-                // BUFFERED writer - daha hızlı
-                tcpWriter = new PrintWriter(new java.io.BufferedWriter(
-                    new java.io.OutputStreamWriter(tcpSocket.getOutputStream())), true);
-                tcpReader = new BufferedReader(new InputStreamReader(tcpSocket.getInputStream()));
-                
-                // Kimlik doğrulama
-                JSONObject authMsg = new JSONObject();
-                authMsg.put("type", "AUTH");
-                authMsg.put("pin", pin);
-                authMsg.put("device_name", android.os.Build.MODEL);
-                tcpWriter.println(authMsg.toString());
-                
-                // Yanıtı bekle
-                String response = tcpReader.readLine();
-                JSONObject authResponse = new JSONObject(response);
-                
-                if ("AUTH_OK".equals(authResponse.getString("status"))) {
-                    // UDP bağlantısı (mouse pozisyonu için) - OPTIMIZED
-                    udpSocket = new DatagramSocket();
-                    udpSocket.setSendBufferSize(65536); // 64KB send buffer
-                    udpSocket.connect(InetAddress.getByName(device.ipAddress), UDP_PORT);
-                    
-                    isConnected = true;
-                    currentDevice = device;
-                    
-                    // Cihazı kaydet
-                    savePairedDevice(device);
-                    
-                    // Ping thread başlat
-                    startPingThread();
-                    
-                    if (callback != null) {
-                        callback.onConnected(device.name, device.ipAddress);
-                    }
-                    
-                    Log.d(TAG, "✅ Bağlantı başarılı: " + device.name);
-                } else {
-                    throw new Exception("Kimlik doğrulama başarısız: " + authResponse.optString("error"));
-                }
-                
+                openSession(device, pin, 5000);
             } catch (Exception e) {
                 Log.e(TAG, "Bağlantı hatası", e);
                 disconnect();
@@ -235,51 +274,283 @@ public class MouseManager {
     }
     
     /**
-     * Bağlantıyı kes
+     * Son eşleşen PC'ye kayıtlı PIN ile doğrudan bağlan (uygulama açılışı) - keşif beklenmez
+     *
+     * @param onFailure Bağlanılamazsa (IP değişti, sunucu yeniden başladı...) executor thread'inden çağrılır
+     * @return Kayıtlı PC yoksa false; onFailure çağrılmaz
      */
-    public void disconnect() {
-        isConnected = false;
+    public boolean connectLastDevice(Runnable onFailure) {
+        PCDevice last = null;
+        for (PCDevice known : deviceRegistry.knownDevices()) {
+            if (known.isPaired) {
+                last = known; // En son görülen önce
+                break;
+            }
+        }
+        String pin = last != null ? deviceRegistry.pinFor(last.id) : null;
+        if (pin == null) {
+            return false;
+        }
         
+        PCDevice device = last;
+        Log.d(TAG, "Son PC'ye doğrudan bağlanılıyor: " + device.ipAddress);
+        executorService.execute(() -> {
+            try {
+                openSession(device, pin, RECONNECT_CONNECT_TIMEOUT_MS);
+            } catch (Exception e) {
+                Log.w(TAG, "⚠️ Son PC'ye bağlanılamadı, keşfe geçiliyor: " + e.getMessage());
+                if (e instanceof AuthException) {
+                    deviceRegistry.forgetPin(device.id); // Sunucu yeni PIN üretti
+                }
+                disconnect();
+                onFailure.run();
+            }
+        });
+        return true;
+    }
+    
+    // executorService - TCP + UDP + AUTH, ardından hat ve heartbeat devreye girer
+    private void openSession(PCDevice device, String pin, int connectTimeoutMs) throws Exception {
+        state = State.CONNECTING;
+        Channels channels = openChannels(device, pin, null, connectTimeoutMs);
+        CommandPipeline pipeline = new CommandPipeline(channels.sink, pipelineListener);
+        synchronized (connectionLock) {
+            currentDevice = device;
+            sessionPin = pin;
+            commandPipeline = pipeline;
+            pipeline.start();
+            install(channels);
+        }
+        
+        // Cihazı (ve açılışta doğrudan bağlanmak için PIN'i) kaydet
+        savePairedDevice(device, pin);
+        registerNetworkCallback();
+        
+        if (callback != null) {
+            callback.onConnected(device.name, device.ipAddress);
+        }
+        
+        Log.d(TAG, "✅ Bağlantı başarılı: " + device.name
+            + (channels.sessionToken != null ? " (oturum sürdürülebilir)" : ""));
+    }
+    
+    /**
+     * TCP bağlan + AUTH (binary protokol teklifiyle) + UDP
+     *
+     * @param token Önceki oturum (yeniden bağlanma); sunucu tanımazsa PIN ile yeni oturum açar
+     */
+    private Channels openChannels(PCDevice device, String pin, String token, int connectTimeoutMs) throws Exception {
+        Channels channels = new Channels();
         try {
-            if (tcpWriter != null) {
-                JSONObject msg = new JSONObject();
-                msg.put("type", "DISCONNECT");
-                tcpWriter.println(msg.toString());
+            // TCP bağlantısı (kontrol kanalı) - OPTIMIZED
+            Socket socket = new Socket();
+            channels.tcpSocket = socket;
+            socket.setKeepAlive(true); // TCP KEEPALIVE - bağlantı canlı tutar
+            socket.setTcpNoDelay(true); // Nagle algoritmasını devre dışı bırak = düşük latency
+            socket.setSoTimeout(15000); // 15 saniye read timeout (yalnız AUTH yanıtı için)
+            socket.setReceiveBufferSize(65536); // 64KB buffer
+            socket.setSendBufferSize(65536); // 64KB send buffer
+            
+            socket.connect(new InetSocketAddress(device.ipAddress, TCP_PORT), connectTimeoutMs);
+            
+            InputStream tcpIn = socket.getInputStream();
+            OutputStream tcpOut = socket.getOutputStream();
+            
+            // BUFFERED writer - daha hızlı (flush toplu gönderimde elle)
+            channels.tcpWriter = new PrintWriter(new java.io.BufferedWriter(
+                new java.io.OutputStreamWriter(tcpOut)), false);
+            
+            // Kimlik doğrulama (binary protokol teklifiyle)
+            JSONObject authMsg = new JSONObject();
+            authMsg.put("type", "AUTH");
+            authMsg.put("pin", pin);
+            authMsg.put("device_name", android.os.Build.MODEL);
+            authMsg.put("binary_version", MouseProtocol.BINARY_VERSION);
+            if (token != null) {
+                authMsg.put("session", token);
+            }
+            channels.tcpWriter.println(authMsg.toString());
+            channels.tcpWriter.flush();
+            
+            // Yanıtı bekle - tamponsuz oku, arkasından binary çerçeveler gelebilir
+            String response = MouseProtocol.readLine(tcpIn);
+            if (response == null) {
+                throw new EOFException("Sunucu bağlantıyı kapattı");
+            }
+            JSONObject authResponse = new JSONObject(response);
+            if (!"AUTH_OK".equals(authResponse.getString("status"))) {
+                throw new AuthException("Kimlik doğrulama başarısız: " + authResponse.optString("error"));
+            }
+            // Okuyucu süresiz bekler: çerçeve ortasında zaman aşımı okuyucuyu kaydırırdı, canlılığı heartbeat izliyor
+            socket.setSoTimeout(0);
+            
+            if (authResponse.optInt("binary_version", 0) == MouseProtocol.BINARY_VERSION) {
+                channels.frameReader = new MouseProtocol.FrameReader(tcpIn);
+                channels.frameWriter = new MouseProtocol.FrameWriter(tcpOut);
+                channels.sink = new BinarySink(channels.frameWriter);
+                Log.d(TAG, "📦 Binary protokol v" + MouseProtocol.BINARY_VERSION);
+            } else {
+                channels.tcpReader = new BufferedReader(new InputStreamReader(tcpIn));
+                channels.sink = new JsonSink(channels.tcpWriter);
+                Log.d(TAG, "📄 Sunucu binary protokolü desteklemiyor, JSON ile devam");
+            }
+            channels.sessionToken = authResponse.has("session") ? authResponse.getString("session") : null;
+            channels.resumed = authResponse.optBoolean("resumed", false);
+            channels.received = authResponse.optLong("received", 0);
+            
+            // UDP bağlantısı (mouse pozisyonu için) - OPTIMIZED
+            channels.udpSocket = new DatagramSocket();
+            channels.udpSocket.setSendBufferSize(65536); // 64KB send buffer
+            channels.udpSocket.connect(InetAddress.getByName(device.ipAddress), UDP_PORT);
+            return channels;
+        } catch (Exception e) {
+            channels.close();
+            throw e;
+        }
+    }
+    
+    // connectionLock - yeni kanallar devreye girer, okuyucu + heartbeat başlar
+    private void install(Channels channels) {
+        tcpSocket = channels.tcpSocket;
+        udpSocket = channels.udpSocket;
+        tcpWriter = channels.tcpWriter;
+        tcpReader = channels.tcpReader;
+        frameWriter = channels.frameWriter;
+        frameReader = channels.frameReader;
+        sessionToken = channels.sessionToken;
+        connectionGeneration++;
+        state = State.CONNECTED;
+        isConnected = true;
+        startHeartbeat(connectionGeneration);
+    }
+    
+    /**
+     * Bağlantıyı kes (kullanıcı isteği) - oturum ve bekleyen komutlar bırakılır
+     */
+    public void disconnect() {
+        synchronized (connectionLock) {
+            state = State.DISCONNECTED;
+            isConnected = false;
+            connectionGeneration++;
+            if (reconnectTask != null) {
+                reconnectTask.cancel(false);
+                reconnectTask = null;
+            }
+            CommandPipeline pipeline = commandPipeline;
+            if (pipeline != null) {
+                pipeline.stop();
+                commandPipeline = null;
+            }
+            
+            try {
+                // Sunucu oturumu hemen unutsun
+                MouseProtocol.FrameWriter writer = frameWriter;
+                if (writer != null) {
+                    writer.writeDisconnect();
+                    writer.flush();
+                } else if (tcpWriter != null) {
+                    JSONObject msg = new JSONObject();
+                    msg.put("type", "DISCONNECT");
+                    tcpWriter.println(msg.toString());
+                    tcpWriter.flush();
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Disconnect hatası", e);
             }
+            closeChannels();
+            sessionToken = null;
+            sessionPin = null;
+        }
+        
+        if (callback != null) {
+            callback.onDisconnected();
+        }
+    }
+    
+    // connectionLock - heartbeat durur, soketler kapanır (okuyucu thread IOException ile biter)
+    private void closeChannels() {
+        if (heartbeatTask != null) {
+            heartbeatTask.cancel(false);
+            heartbeatTask = null;
+        }
+        pendingPings.clear();
+        
+        try {
             if (tcpSocket != null) tcpSocket.close();
             if (udpSocket != null) udpSocket.close();
         } catch (Exception e) {
-            Log.e(TAG, "Disconnect hatası", e);
+            Log.e(TAG, "Soket kapatma hatası", e);
         }
         
         tcpSocket = null;
         udpSocket = null;
         tcpWriter = null;
         tcpReader = null;
-        
-        if (callback != null) {
-            callback.onDisconnected();
-        }
+        frameWriter = null;
+        frameReader = null;
     }
     
     /**
      * Mouse hareketi gönder (UDP - ULTRA LOW LATENCY)
+     * 
+     * Ana thread'den (dokunma olayları) çağrılır. Deltalar ekran karesi boyunca
+     * toplanır ve Choreographer karesinde tek paket olarak gönderilir; bellek ayırma yok.
      */
     public void sendMouseMove(float deltaX, float deltaY) {
         if (!isConnected || udpSocket == null) return;
         
-        // DIREKT GÖNDER - ExecutorService kullanma, çok yavaş!
+        pendingDeltaX += deltaX;
+        pendingDeltaY += deltaY;
+        if (!frameScheduled) {
+            if (choreographer == null) {
+                choreographer = Choreographer.getInstance();
+            }
+            frameScheduled = true;
+            choreographer.postFrameCallback(moveFrameCallback);
+        }
+    }
+    
+    // Ana thread - kare başında biriken hareketi gönderime ver
+    private void flushMouseMove() {
+        frameScheduled = false;
+        
+        int deltaX = (int) pendingDeltaX;
+        int deltaY = (int) pendingDeltaY;
+        if (deltaX == 0 && deltaY == 0) {
+            return; // Piksel altı hareket - sonraki kareye kalsın
+        }
+        pendingDeltaX -= deltaX;
+        pendingDeltaY -= deltaY;
+        
+        synchronized (moveLock) {
+            outgoingDeltaX += deltaX;
+            outgoingDeltaY += deltaY;
+            if (sendScheduled) {
+                return; // Gönderici henüz önceki kareyi almadı, ona eklendi
+            }
+            sendScheduled = true;
+        }
+        moveHandler.post(sendMoveRunnable);
+    }
+    
+    // moveThread - paket tamponu tekrar kullanılır
+    private void sendPendingMove() {
+        int deltaX;
+        int deltaY;
+        synchronized (moveLock) {
+            deltaX = outgoingDeltaX;
+            deltaY = outgoingDeltaY;
+            outgoingDeltaX = 0;
+            outgoingDeltaY = 0;
+            sendScheduled = false;
+        }
+        
+        DatagramSocket socket = udpSocket;
+        if (!isConnected || socket == null) return;
+        
         try {
-            // Kompakt binary format: [0x01][deltaX:short][deltaY:short]
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            DataOutputStream dos = new DataOutputStream(baos);
-            dos.writeByte(0x01); // MOUSE_MOVE
-            dos.writeShort((short) deltaX);
-            dos.writeShort((short) deltaY);
-            
-            byte[] data = baos.toByteArray();
-            DatagramPacket packet = new DatagramPacket(data, data.length);
-            udpSocket.send(packet);
+            MouseProtocol.encodeMove(moveWriter, deltaX, deltaY, ++moveSequence);
+            socket.send(movePacket);
         } catch (Exception e) {
             // Silent fail - gecikme olmasın
         }
@@ -289,197 +560,334 @@ public class MouseManager {
      * Mouse tıklaması gönder (TCP - güvenilir)
      */
     public void sendMouseClick(String button) {
-        if (!isConnected || tcpWriter == null) return;
-        
-        executorService.execute(() -> {
-            try {
-                JSONObject msg = new JSONObject();
-                msg.put("type", "MOUSE_CLICK");
-                msg.put("button", button); // "LEFT", "RIGHT", "MIDDLE"
-                tcpWriter.println(msg.toString());
-            } catch (Exception e) {
-                Log.e(TAG, "Mouse click hatası", e);
-            }
-        });
+        CommandPipeline pipeline = commandPipeline;
+        if (pipeline == null) return; // Yeniden bağlanırken de kuyruğa girer
+        pipeline.click(button); // "LEFT", "RIGHT", "MIDDLE", "DOUBLE"
     }
     
     /**
      * Mouse scroll gönder
      */
     public void sendMouseScroll(int delta) {
-        if (!isConnected || tcpWriter == null) return;
-        
-        executorService.execute(() -> {
-            try {
-                JSONObject msg = new JSONObject();
-                msg.put("type", "MOUSE_SCROLL");
-                msg.put("delta", delta);
-                tcpWriter.println(msg.toString());
-            } catch (Exception e) {
-                Log.e(TAG, "Mouse scroll hatası", e);
-            }
-        });
+        CommandPipeline pipeline = commandPipeline;
+        if (pipeline == null) return; // Yeniden bağlanırken de kuyruğa girer
+        pipeline.scroll(delta);
     }
     
     /**
      * Windows 11 gesture gönder
      */
     public void sendGesture(String gestureName) {
-        if (!isConnected || tcpWriter == null) return;
-        
-        executorService.execute(() -> {
-            try {
-                JSONObject msg = new JSONObject();
-                msg.put("type", "GESTURE");
-                msg.put("name", gestureName);
-                tcpWriter.println(msg.toString());
-                
-                Log.d(TAG, "Gesture gönderildi: " + gestureName);
-            } catch (Exception e) {
-                Log.e(TAG, "Gesture hatası", e);
-            }
-        });
+        CommandPipeline pipeline = commandPipeline;
+        if (pipeline == null) return; // Yeniden bağlanırken de kuyruğa girer
+        if (pipeline.gesture(gestureName)) {
+            Log.d(TAG, "Gesture gönderildi: " + gestureName);
+        }
     }
     
     /**
-     * Keyboard tuşu gönder
+     * Keyboard tuşu gönder - sırası korunur, art arda karakterler tek TEXT'te birleşir
      */
     public void sendKeyPress(String key) {
-        if (!isConnected || tcpWriter == null) {
+        CommandPipeline pipeline = commandPipeline;
+        if (pipeline == null) {
             Log.w(TAG, "⚠️ sendKeyPress çağrıldı ama bağlantı yok: " + key);
             return;
         }
+        pipeline.key(key);
+    }
+    
+    /**
+     * Metni tek seferde gönder (binary: TEXT çerçevesi, JSON: karakter başına KEY_PRESS)
+     */
+    public void sendText(String text) {
+        CommandPipeline pipeline = commandPipeline;
+        if (pipeline == null || text == null || text.isEmpty()) return;
+        pipeline.text(text);
+    }
+    
+    private final CommandPipeline.Listener pipelineListener = new CommandPipeline.Listener() {
+        @Override
+        public void onOverload(int pending) {
+            Log.w(TAG, "⚠️ Komut kuyruğu dolu (" + pending + "), bağlantı yavaş - yeni komutlar atlanıyor");
+            if (callback != null) {
+                callback.onError("Bağlantı yavaş, bazı tuşlar gönderilemedi");
+            }
+        }
         
-        executorService.execute(() -> {
-            try {
-                JSONObject msg = new JSONObject();
-                msg.put("type", "KEY_PRESS");
-                msg.put("key", key);
-                
-                // NULL check
-                if (tcpWriter != null) {
-                    tcpWriter.println(msg.toString());
-                    tcpWriter.flush(); // FORCE SEND
-                    // Log.d(TAG, "✓ Key gönderildi: " + key);
-                } else {
-                    Log.e(TAG, "❌ tcpWriter NULL!");
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "❌ Key press hatası: " + key, e);
-                // Bağlantı koptu - reconnect dene
-                isConnected = false;
-                if (callback != null) {
-                    callback.onDisconnected();
-                }
+        @Override
+        public void onWriteError(Exception e) {
+            Log.e(TAG, "❌ Komut gönderme hatası", e);
+            int generation;
+            synchronized (connectionLock) {
+                generation = connectionGeneration;
             }
-        });
-    }
+            connectionLost(generation); // Yeniden bağlanılıyorsa etkisiz
+        }
+    };
     
     /**
-     * Ping thread - bağlantı kontrolü ve latency ölçümü
+     * Bağlantı kurulunca: TCP okuyucu thread'i + zamanlanmış heartbeat
      */
-    private void startPingThread() {
-        executorService.execute(() -> {
-            int failedPings = 0;
-            final int MAX_FAILED_PINGS = 3;
-            
+    private void startHeartbeat(int generation) {
+        rttEstimator.reset();
+        pendingPings.clear();
+        missedPings.set(0);
+        
+        Thread reader = new Thread(() -> readLoop(generation), "MouseTcpReader");
+        reader.setDaemon(true);
+        reader.start();
+        
+        heartbeatTask = heartbeatExecutor.scheduleWithFixedDelay(
+            () -> sendHeartbeat(generation), 0, PING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+    
+    // heartbeatExecutor - süresi dolan ping'leri say, yenisini gönder
+    private void sendHeartbeat(int generation) {
+        if (!isConnected) return;
+        
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Long, Long>> it = pendingPings.entrySet().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().getValue() > PONG_TIMEOUT_NANOS) {
+                it.remove();
+                Log.w(TAG, "⚠️ Pong alınamadı (" + missedPings.incrementAndGet() + "/" + MAX_MISSED_PINGS + ")");
+            }
+        }
+        if (missedPings.get() >= MAX_MISSED_PINGS) {
+            Log.e(TAG, "❌ Bağlantı kayboldu (ping timeout)");
+            connectionLost(generation);
+            return;
+        }
+        
+        // Ping kimliği sunucudan aynen döner (JSON "timestamp" / binary PONG payload)
+        long pingId = nextPingId.incrementAndGet();
+        pendingPings.put(pingId, now);
+        try {
+            MouseProtocol.FrameWriter writer = frameWriter;
+            PrintWriter jsonWriter = tcpWriter;
+            if (writer != null) {
+                writer.writePing(pingId);
+                writer.flush();
+            } else if (jsonWriter != null) {
+                JSONObject ping = new JSONObject();
+                ping.put("type", "PING");
+                ping.put("timestamp", pingId);
+                jsonWriter.println(ping.toString());
+                jsonWriter.flush();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Ping hatası", e);
+            connectionLost(generation);
+        }
+    }
+    
+    // MouseTcpReader - sunucudan gelen her şeyi tek yerden oku, PONG'ları eşleştir
+    private void readLoop(int generation) {
+        MouseProtocol.FrameReader frames = frameReader;
+        BufferedReader lines = tcpReader;
+        try {
             while (isConnected) {
                 try {
-                    long pingStart = System.currentTimeMillis();
-                    
-                    JSONObject ping = new JSONObject();
-                    ping.put("type", "PING");
-                    ping.put("timestamp", pingStart);
-                    
-                    if (tcpWriter != null) {
-                        tcpWriter.println(ping.toString());
-                        tcpWriter.flush();
-                    } else {
-                        Log.e(TAG, "❌ Ping: tcpWriter NULL!");
-                        break;
-                    }
-                    
-                    // Pong bekle (timeout ile)
-                    tcpSocket.setSoTimeout(2000); // 2 saniye timeout
-                    String response = tcpReader.readLine();
-                    
-                    if (response != null) {
-                        JSONObject pong = new JSONObject(response);
-                        if ("PONG".equals(pong.getString("type"))) {
-                            latency = (int) (System.currentTimeMillis() - pingStart);
-                            lastPingTime = System.currentTimeMillis();
-                            failedPings = 0; // Reset
-                            
-                            if (callback != null) {
-                                callback.onLatencyUpdate(latency);
-                            }
+                    if (frames != null) {
+                        MouseProtocol.Frame frame = frames.read();
+                        if (frame == null) break;
+                        if (frame.opcode == MouseProtocol.OP_PONG) {
+                            onPong(frame.longValue());
                         }
                     } else {
-                        failedPings++;
-                        Log.w(TAG, "⚠️ Pong alınamadı (" + failedPings + "/" + MAX_FAILED_PINGS + ")");
-                    }
-                    
-                    // Çok fazla başarısız ping - bağlantı koptu
-                    if (failedPings >= MAX_FAILED_PINGS) {
-                        Log.e(TAG, "❌ Bağlantı kayboldu (ping timeout)");
-                        disconnect();
-                        if (callback != null) {
-                            callback.onDisconnected();
+                        String line = lines.readLine();
+                        if (line == null) break;
+                        JSONObject msg = new JSONObject(line);
+                        if ("PONG".equals(msg.optString("type"))) {
+                            onPong(msg.optLong("timestamp", -1));
                         }
-                        break;
                     }
-                    
-                    Thread.sleep(1000); // Her saniye ping
-                    
-                } catch (java.net.SocketTimeoutException e) {
-                    failedPings++;
-                    Log.w(TAG, "⚠️ Ping timeout (" + failedPings + "/" + MAX_FAILED_PINGS + ")");
-                    
-                    if (failedPings >= MAX_FAILED_PINGS) {
-                        Log.e(TAG, "❌ Bağlantı koptu (timeout)");
-                        disconnect();
-                        if (callback != null) {
-                            callback.onDisconnected();
-                        }
-                        break;
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "❌ Ping hatası", e);
-                    disconnect();
-                    if (callback != null) {
-                        callback.onDisconnected();
-                    }
-                    break;
+                } catch (org.json.JSONException e) {
+                    Log.w(TAG, "⚠️ Geçersiz sunucu mesajı", e);
                 }
             }
-            Log.d(TAG, "Ping thread sonlandı");
-        });
+            if (isConnected) {
+                Log.e(TAG, "❌ Sunucu bağlantıyı kapattı");
+            }
+        } catch (Exception e) {
+            if (isConnected) {
+                Log.e(TAG, "❌ Okuma hatası", e);
+            }
+        }
+        connectionLost(generation);
+        Log.d(TAG, "Okuyucu thread sonlandı");
     }
     
-    // SharedPreferences helpers
-    private void savePairedDevice(PCDevice device) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        prefs.edit()
-            .putString("device_" + device.id + "_name", device.name)
-            .putString("device_" + device.id + "_ip", device.ipAddress)
-            .apply();
+    private void onPong(long pingId) {
+        Long sentAt = pendingPings.remove(pingId);
+        if (sentAt == null) return; // Süresi dolmuş ya da bilinmeyen ping
+        
+        rttEstimator.addSample(System.nanoTime() - sentAt);
+        missedPings.set(0);
+        latency = (int) Math.round(rttEstimator.getSmoothedMillis());
+        jitter = (int) Math.round(rttEstimator.getJitterMillis());
+        lastPingTime = System.currentTimeMillis();
+        
+        if (callback != null) {
+            callback.onLatencyUpdate(latency, jitter);
+        }
+    }
+    
+    // Okuyucu, heartbeat, yazıcı ve ağ callback'i aynı anda fark edebilir - tek sefer, sadece güncel bağlantı için
+    private void connectionLost(int generation) {
+        synchronized (connectionLock) {
+            if (state != State.CONNECTED || generation != connectionGeneration) return;
+            state = State.RECONNECTING;
+            isConnected = false;
+            closeChannels();
+            CommandPipeline pipeline = commandPipeline;
+            if (pipeline != null) {
+                pipeline.suspend(); // Komutlar kuyrukta bekler
+            }
+            reconnectAttempt = 0;
+            reconnectStartedMs = System.currentTimeMillis();
+            scheduleReconnect(0);
+        }
+    }
+    
+    // connectionLock - üstel geri çekilme, ±%20 rastgele (aynı anda kopan istemciler yığılmasın)
+    private void scheduleReconnect(int attempt) {
+        long base = RECONNECT_BACKOFF_MS[Math.min(attempt, RECONNECT_BACKOFF_MS.length - 1)];
+        long delay = base == 0 ? 0 : (long) (base * (0.8 + 0.4 * Math.random()));
+        reconnectTask = heartbeatExecutor.schedule(this::attemptReconnect, delay, TimeUnit.MILLISECONDS);
+        
+        if (callback != null) {
+            callback.onReconnecting(attempt + 1, delay);
+        }
+    }
+    
+    // heartbeatExecutor - tek deneme; başarısızsa bir sonraki zamanlanır
+    private void attemptReconnect() {
+        PCDevice device;
+        String pin;
+        String token;
+        synchronized (connectionLock) {
+            if (state != State.RECONNECTING) return;
+            reconnectTask = null;
+            device = currentDevice;
+            pin = sessionPin;
+            token = sessionToken;
+        }
+        
+        try {
+            Channels channels = openChannels(device, pin, token, RECONNECT_CONNECT_TIMEOUT_MS);
+            synchronized (connectionLock) {
+                if (state != State.RECONNECTING) {
+                    channels.close(); // Bu arada kullanıcı bağlantıyı kesti
+                    return;
+                }
+                // Oturum sürdüyse sunucunun almadıkları, yoksa hiç gönderilmeyenler gider
+                commandPipeline.resume(channels.sink, channels.resumed ? channels.received : -1);
+                install(channels);
+            }
+            Log.d(TAG, "✅ Yeniden bağlandı (" + (channels.resumed
+                ? "oturum sürdü, sunucu " + channels.received + " komut almış" : "yeni oturum") + ")");
+            if (callback != null) {
+                callback.onReconnected();
+            }
+        } catch (Exception e) {
+            boolean giveUp = e instanceof AuthException
+                || System.currentTimeMillis() - reconnectStartedMs > RECONNECT_GIVE_UP_MS;
+            if (giveUp) {
+                Log.e(TAG, "❌ Yeniden bağlanılamadı, vazgeçildi", e);
+                synchronized (connectionLock) {
+                    if (state != State.RECONNECTING) return;
+                }
+                disconnect();
+                if (callback != null) {
+                    callback.onError(e instanceof AuthException
+                        ? "Oturum sona erdi, tekrar PIN girin" : "Bağlantı geri gelmedi");
+                }
+                return;
+            }
+            Log.w(TAG, "⚠️ Yeniden bağlanma denemesi başarısız: " + e.getMessage());
+            synchronized (connectionLock) {
+                if (state == State.RECONNECTING && reconnectTask == null) {
+                    scheduleReconnect(++reconnectAttempt);
+                }
+            }
+        }
+    }
+    
+    // Ağ geri gelince bekleme süresini beklemeden dene, kaybolunca ping timeout'unu bekleme
+    private void registerNetworkCallback() {
+        if (networkCallback != null) return;
+        ConnectivityManager connectivity = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivity == null) return;
+        
+        networkCallback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                synchronized (connectionLock) {
+                    if (state != State.RECONNECTING || reconnectTask == null) return;
+                    if (reconnectTask.cancel(false)) {
+                        reconnectAttempt = 0;
+                        Log.d(TAG, "📶 Ağ geri geldi, hemen yeniden bağlanılıyor");
+                        scheduleReconnect(0);
+                    }
+                }
+            }
+            
+            @Override
+            public void onLost(Network network) {
+                int generation;
+                synchronized (connectionLock) {
+                    generation = connectionGeneration;
+                }
+                Log.w(TAG, "📶 Ağ kayboldu");
+                connectionLost(generation);
+            }
+        };
+        try {
+            connectivity.registerDefaultNetworkCallback(networkCallback);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Ağ callback'i kaydedilemedi: " + e.getMessage());
+            networkCallback = null;
+        }
     }
     
-    private boolean isPaired(String deviceId) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        return prefs.contains("device_" + deviceId + "_name");
+    // SharedPreferences helpers
+    private void savePairedDevice(PCDevice device, String pin) {
+        deviceRegistry.markPaired(device, pin);
     }
     
     public boolean isConnected() {
         return isConnected;
     }
     
+    /** Bağlantı koptu ama oturum sürüyor - komutlar kuyruğa alınıyor */
+    public boolean isReconnecting() {
+        return state == State.RECONNECTING;
+    }
+    
     public int getLatency() {
         return latency;
     }
     
+    public int getJitter() {
+        return jitter;
+    }
+    
     public void cleanup() {
+        finishDiscovery();
         disconnect();
+        if (networkCallback != null) {
+            ConnectivityManager connectivity = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+            connectivity.unregisterNetworkCallback(networkCallback);
+            networkCallback = null;
+        }
+        if (choreographer != null) {
+            choreographer.removeFrameCallback(moveFrameCallback);
+            frameScheduled = false;
+        }
+        moveThread.quitSafely();
+        heartbeatExecutor.shutdownNow();
         if (executorService != null) {
             executorService.shutdown();
         }
@@ -487,6 +895,10 @@ public class MouseManager {
     
     public interface DeviceDiscoveryCallback {
         void onDevicesFound(List<PCDevice> devices);
+        
+        /** Cihaz yanıt verdiği anda (süre dolmadan) */
+        default void onDeviceFound(PCDevice device) {
+        }
     }
 }
 
@@ -0,0 +1,245 @@
+package com.qrmaster.app.keyboard.mouse;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 📦 TCP komut kanalı için kompakt binary protokol
+ *
+ * El sıkışma: AUTH satırı (JSON) "binary_version" alanı taşır. Sunucu aynı sürümü
+ * AUTH_OK yanıtında geri yazarsa iki taraf da o satırdan sonra binary çerçeveye geçer;
+ * alanı tanımayan eski sunucular satır bazlı JSON ile devam eder.
+ *
+ * Çerçeve: [uzunluk:u16][opcode:u8][payload] (big-endian, uzunluk = 1 + payload)
+ *
+ * UDP hareket paketi: [0x01][deltaX:i16][deltaY:i16][seq:i32] (ilk 5 bayt eski sunucularla aynı)
+ *
+ * Android'e bağımlı değil; MouseManager ve JVM testlerindeki loopback sunucu aynı sınıfı kullanır.
+ */
+final class MouseProtocol {
+    static final int BINARY_VERSION = 1;
+
+    static final byte OP_CLICK = 1;      // [button:u8]
+    static final byte OP_SCROLL = 2;     // [delta:i32]
+    static final byte OP_KEY = 3;        // [tuş adı: UTF-8]
+    static final byte OP_TEXT = 4;       // [metin: UTF-8]
+    static final byte OP_GESTURE = 5;    // [gesture adı: UTF-8]
+    static final byte OP_PING = 6;       // [timestamp:i64]
+    static final byte OP_PONG = 7;       // [timestamp:i64] (PING'deki değer aynen döner)
+    static final byte OP_DISCONNECT = 8; // payload yok
+
+    static final byte BUTTON_LEFT = 0;
+    static final byte BUTTON_RIGHT = 1;
+    static final byte BUTTON_MIDDLE = 2;
+    static final byte BUTTON_DOUBLE = 3;
+
+    static final int MAX_PAYLOAD = 0xFFFF - 1;
+
+    static final byte PACKET_MOUSE_MOVE = 0x01;
+    static final int MOVE_PACKET_SIZE = 9;
+
+    static final String DISCOVERY_MESSAGE = "QKEYBOARD_DISCOVERY"; // UDP keşif yoklaması
+
+    private static final String[] BUTTON_NAMES = {"LEFT", "RIGHT", "MIDDLE", "DOUBLE"};
+    private static final int MAX_LINE = 4096;
+
+    private MouseProtocol() {
+    }
+
+    static byte buttonCode(String button) {
+        for (int i = 0; i < BUTTON_NAMES.length; i++) {
+            if (BUTTON_NAMES[i].equals(button)) {
+                return (byte) i;
+            }
+        }
+        throw new IllegalArgumentException("Bilinmeyen buton: " + button);
+    }
+
+    static String buttonName(byte code) {
+        if (code < 0 || code >= BUTTON_NAMES.length) {
+            throw new IllegalArgumentException("Bilinmeyen buton kodu: " + code);
+        }
+        return BUTTON_NAMES[code];
+    }
+
+    /**
+     * Hareket paketini tekrar kullanılan tampona yaz (bellek ayırma yok); deltalar i16'ya sıkıştırılır
+     */
+    static void encodeMove(ByteBuffer packet, int deltaX, int deltaY, int sequence) {
+        packet.put(0, PACKET_MOUSE_MOVE);
+        packet.putShort(1, clampToShort(deltaX));
+        packet.putShort(3, clampToShort(deltaY));
+        packet.putInt(5, sequence); // Sunucu eski/sırası bozuk paketi atar
+    }
+
+    private static short clampToShort(int value) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+    }
+
+    /**
+     * El sıkışma satırını tampon kullanmadan oku; arkasından gelen binary baytlara dokunmaz.
+     *
+     * @return Satır ("\n" ve "\r" hariç) veya akış kapandıysa null
+     */
+    static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                return new String(line.toByteArray(), StandardCharsets.UTF_8).trim();
+            }
+            if (line.size() >= MAX_LINE) {
+                throw new IOException("El sıkışma satırı çok uzun");
+            }
+            line.write(b);
+        }
+        return line.size() == 0 ? null : new String(line.toByteArray(), StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Çerçeve yazıcı - birden çok thread'den çağrılabilir, çerçeveler birbirine karışmaz.
+     * Yazılanlar tamponda bekler; toplu gönderim için sonda bir kez flush() çağrılır.
+     */
+    static final class FrameWriter {
+        private final DataOutputStream out;
+
+        FrameWriter(OutputStream stream) {
+            this.out = new DataOutputStream(new BufferedOutputStream(stream, 1024));
+        }
+
+        void writeClick(String button) throws IOException {
+            byte code = buttonCode(button);
+            synchronized (this) {
+                header(OP_CLICK, 1);
+                out.writeByte(code);
+            }
+        }
+
+        void writeScroll(int delta) throws IOException {
+            synchronized (this) {
+                header(OP_SCROLL, 4);
+                out.writeInt(delta);
+            }
+        }
+
+        void writeKey(String key) throws IOException {
+            writeString(OP_KEY, key);
+        }
+
+        void writeText(String text) throws IOException {
+            writeString(OP_TEXT, text);
+        }
+
+        void writeGesture(String name) throws IOException {
+            writeString(OP_GESTURE, name);
+        }
+
+        void writePing(long timestamp) throws IOException {
+            writeLong(OP_PING, timestamp);
+        }
+
+        void writePong(long timestamp) throws IOException {
+            writeLong(OP_PONG, timestamp);
+        }
+
+        void writeDisconnect() throws IOException {
+            synchronized (this) {
+                header(OP_DISCONNECT, 0);
+            }
+        }
+
+        synchronized void flush() throws IOException {
+            out.flush();
+        }
+
+        private void writeString(byte opcode, String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_PAYLOAD) {
+                throw new IllegalArgumentException("Çerçeve çok büyük: " + bytes.length + " bayt");
+            }
+            synchronized (this) {
+                header(opcode, bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        private void writeLong(byte opcode, long value) throws IOException {
+            synchronized (this) {
+                header(opcode, 8);
+                out.writeLong(value);
+            }
+        }
+
+        private void header(byte opcode, int payloadLength) throws IOException {
+            out.writeShort(1 + payloadLength);
+            out.writeByte(opcode);
+        }
+    }
+
+    /**
+     * Çerçeve okuyucu - tek thread'den kullanılmalı
+     */
+    static final class FrameReader {
+        private final DataInputStream in;
+
+        FrameReader(InputStream stream) {
+            this.in = new DataInputStream(new BufferedInputStream(stream, 1024));
+        }
+
+        /**
+         * Sıradaki çerçeveyi oku
+         *
+         * @return Çerçeve veya akış çerçeve sınırında kapandıysa null
+         * @throws EOFException Akış çerçevenin ortasında kapandıysa
+         */
+        Frame read() throws IOException {
+            int high = in.read();
+            if (high == -1) {
+                return null;
+            }
+            int length = (high << 8) | in.readUnsignedByte();
+            if (length == 0) {
+                throw new IOException("Geçersiz çerçeve uzunluğu: 0");
+            }
+            byte opcode = in.readByte();
+            byte[] payload = new byte[length - 1];
+            in.readFully(payload);
+            return new Frame(opcode, payload);
+        }
+    }
+
+    static final class Frame {
+        final byte opcode;
+        final byte[] payload;
+
+        Frame(byte opcode, byte[] payload) {
+            this.opcode = opcode;
+            this.payload = payload;
+        }
+
+        String text() {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+
+        int intValue() {
+            return ByteBuffer.wrap(payload).getInt();
+        }
+
+        long longValue() {
+            return ByteBuffer.wrap(payload).getLong();
+        }
+
+        String buttonValue() {
+            return buttonName(payload[0]);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.qrmaster.app.keyboard.mouse;
+
+/**
+ * 📶 Ping/pong gidiş-dönüş süresi tahmini
+ *
+ * - Yumuşatılmış RTT ve sapma: TCP'nin RTO hesabıyla aynı (RFC 6298, α=1/8, β=1/4)
+ * - Jitter: ardışık örnekler arası farkın 1/16 kazançla ortalaması (RFC 3550)
+ *
+ * Tek bir örnek yüzünden gecikme göstergesi zıplamaz; ani sıçramalar jitter'da görünür.
+ */
+final class RttEstimator {
+    private static final double ALPHA = 1.0 / 8;
+    private static final double BETA = 1.0 / 4;
+    private static final double JITTER_GAIN = 1.0 / 16;
+
+    private int sampleCount;
+    private double smoothedMs;
+    private double deviationMs;
+    private double jitterMs;
+    private double lastMs;
+
+    synchronized void addSample(long rttNanos) {
+        double rttMs = rttNanos / 1_000_000.0;
+        if (sampleCount == 0) {
+            smoothedMs = rttMs;
+            deviationMs = rttMs / 2;
+            jitterMs = 0;
+        } else {
+            deviationMs += BETA * (Math.abs(smoothedMs - rttMs) - deviationMs);
+            smoothedMs += ALPHA * (rttMs - smoothedMs);
+            jitterMs += JITTER_GAIN * (Math.abs(rttMs - lastMs) - jitterMs);
+        }
+        lastMs = rttMs;
+        sampleCount++;
+    }
+
+    synchronized void reset() {
+        sampleCount = 0;
+        smoothedMs = 0;
+        deviationMs = 0;
+        jitterMs = 0;
+        lastMs = 0;
+    }
+
+    synchronized int getSampleCount() {
+        return sampleCount;
+    }
+
+    synchronized double getSmoothedMillis() {
+        return smoothedMs;
+    }
+
+    synchronized double getDeviationMillis() {
+        return deviationMs;
+    }
+
+    synchronized double getJitterMillis() {
+        return jitterMs;
+    }
+
+    synchronized double getLastMillis() {
+        return lastMs;
+    }
+}
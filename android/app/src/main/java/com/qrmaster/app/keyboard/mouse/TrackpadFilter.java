@@ -0,0 +1,168 @@
+package com.qrmaster.app.keyboard.mouse;
+
+/**
+ * 🎯 Trackpad hareket hattı: 1€ filtresi → hız tabanlı ivme → gecikme tahmini
+ *
+ * - Parmak konumu 1€ filtresinden geçer: yavaşken titreme bastırılır, hızlanınca
+ *   kesim frekansı yükselir ve gecikme kaybolur (Casiez vd., CHI 2012)
+ * - Filtrelenmiş hızdan ivme kazancı: yavaş hareket piksel hassasiyetinde, hızlı hareket ekranı geçer
+ * - İmleç, ağ gecikmesi kadar ileri tahmin edilir (hız × süre). Tahmin ayrı tutulur:
+ *   parmak durunca/kalkınca settle() ile geri alınır, toplam yer değiştirme bozulmaz
+ *
+ * Birimler içeride dp ve saniye; girdi/çıktı piksel. Android'e bağımlı değil, tek thread (ana thread).
+ * Mevcut KalmanFilter sabit-konum modelli tek değişkenli bir filtre; hız tahmini vermediği için
+ * burada kullanılmadı.
+ */
+final class TrackpadFilter {
+    // 1€ parametreleri (dp, saniye)
+    private static final float MIN_CUTOFF_HZ = 3f;
+    private static final float BETA = 0.02f;
+    private static final float DERIVATIVE_CUTOFF_HZ = 4f; // Hız kazanç ve tahminde de kullanılır
+
+    // İvme eğrisi: MIN_GAIN ... MAX_GAIN arası smoothstep (dp/s)
+    private static final float SLOW_SPEED = 30f;
+    private static final float FAST_SPEED = 1200f;
+    private static final float MIN_GAIN = 0.6f;
+    private static final float MAX_GAIN = 2.8f;
+
+    // Tahmin: titremeyi büyütmemek için yavaş harekette kapalı, uzun sıçramalara karşı sınırlı
+    private static final float MAX_PREDICTION_MS = 50f;
+    private static final float PREDICTION_MIN_SPEED = 60f; // dp/s
+    private static final float MAX_LEAD_DP = 24f;
+
+    private final float density;
+    private final OneEuroFilter filterX = new OneEuroFilter();
+    private final OneEuroFilter filterY = new OneEuroFilter();
+
+    private float predictionSeconds;
+    private long lastTimeMs;
+    private float rawX, rawY;           // Son ham konum (dp)
+    private float filteredX, filteredY; // Son filtrelenmiş konum (dp)
+    private float gain = 1f;
+    private float cursorX, cursorY;     // İvmelenmiş birikmiş hareket (px)
+    private float leadX, leadY;         // Tahmin payı (px)
+    private float emittedX, emittedY;   // takeDelta ile verilmiş toplam (px)
+
+    TrackpadFilter(float density) {
+        this.density = density > 0 ? density : 1f;
+    }
+
+    /**
+     * @param oneWayLatencyMs Dokunmadan imlecin hareketine kadar tahmini süre (RTT/2)
+     */
+    void setPredictionLatency(float oneWayLatencyMs) {
+        predictionSeconds = Math.max(0f, Math.min(MAX_PREDICTION_MS, oneWayLatencyMs)) / 1000f;
+    }
+
+    /** Parmak indi - birikimler sıfırlanır */
+    void begin(float x, float y, long timeMs) {
+        rawX = filteredX = x / density;
+        rawY = filteredY = y / density;
+        lastTimeMs = timeMs;
+        filterX.reset(rawX);
+        filterY.reset(rawY);
+        gain = 1f;
+        cursorX = cursorY = 0f;
+        leadX = leadY = 0f;
+        emittedX = emittedY = 0f;
+    }
+
+    /** Yeni örnek (MotionEvent geçmişi dahil, zaman sırasıyla) */
+    void add(float x, float y, long timeMs) {
+        float dt = Math.max(1L, timeMs - lastTimeMs) / 1000f; // Aynı zaman damgalı örnekler
+        lastTimeMs = Math.max(timeMs, lastTimeMs + 1);
+        rawX = x / density;
+        rawY = y / density;
+
+        float nextX = filterX.filter(rawX, dt);
+        float nextY = filterY.filter(rawY, dt);
+        float velocityX = filterX.velocity();
+        float velocityY = filterY.velocity();
+        float speed = (float) Math.hypot(velocityX, velocityY);
+
+        gain = gainFor(speed);
+        cursorX += (nextX - filteredX) * gain * density;
+        cursorY += (nextY - filteredY) * gain * density;
+        filteredX = nextX;
+        filteredY = nextY;
+
+        if (predictionSeconds > 0f && speed > PREDICTION_MIN_SPEED) {
+            float lead = Math.min(speed * predictionSeconds, MAX_LEAD_DP) * gain * density / speed;
+            leadX = velocityX * lead;
+            leadY = velocityY * lead;
+        } else {
+            leadX = leadY = 0f;
+        }
+    }
+
+    /**
+     * Parmak durdu veya kalktı: filtre gecikmesi kapatılır, tahmin geri alınır
+     */
+    void settle() {
+        cursorX += (rawX - filteredX) * gain * density;
+        cursorY += (rawY - filteredY) * gain * density;
+        filteredX = rawX;
+        filteredY = rawY;
+        filterX.reset(rawX);
+        filterY.reset(rawY);
+        leadX = leadY = 0f;
+    }
+
+    boolean hasLead() {
+        return leadX != 0f || leadY != 0f || filteredX != rawX || filteredY != rawY;
+    }
+
+    /** Son çağrıdan beri imlecin gitmesi gereken yatay mesafe (px, tahmin geri alınırken negatif olabilir) */
+    float takeDeltaX() {
+        float delta = cursorX + leadX - emittedX;
+        emittedX += delta;
+        return delta;
+    }
+
+    float takeDeltaY() {
+        float delta = cursorY + leadY - emittedY;
+        emittedY += delta;
+        return delta;
+    }
+
+    // dp/s → kazanç
+    static float gainFor(float speed) {
+        float t = (speed - SLOW_SPEED) / (FAST_SPEED - SLOW_SPEED);
+        t = Math.max(0f, Math.min(1f, t));
+        return MIN_GAIN + (MAX_GAIN - MIN_GAIN) * t * t * (3f - 2f * t);
+    }
+
+    /**
+     * 1€ filtresi - hızla uyarlanan kesim frekanslı birinci derece alçak geçiren
+     */
+    private static final class OneEuroFilter {
+        private float value;
+        private float previousSample;
+        private float derivative;
+
+        void reset(float start) {
+            value = start;
+            previousSample = start;
+            derivative = 0f;
+        }
+
+        float filter(float sample, float dt) {
+            // Türev ham örneklerden (filtrelenmiş değer gecikmeli olduğu için hızı abartır)
+            float rawDerivative = (sample - previousSample) / dt;
+            previousSample = sample;
+            derivative += alpha(DERIVATIVE_CUTOFF_HZ, dt) * (rawDerivative - derivative);
+            float cutoff = MIN_CUTOFF_HZ + BETA * Math.abs(derivative);
+            value += alpha(cutoff, dt) * (sample - value);
+            return value;
+        }
+
+        float velocity() {
+            return derivative;
+        }
+
+        private static float alpha(float cutoff, float dt) {
+            float tau = (float) (1.0 / (2.0 * Math.PI * cutoff));
+            return 1f / (1f + tau / dt);
+        }
+    }
+}
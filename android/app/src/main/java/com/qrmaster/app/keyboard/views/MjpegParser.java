@@ -0,0 +1,438 @@
+package com.qrmaster.app.keyboard.views;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * 🎞️ multipart/x-mixed-replace (MJPEG) akış ayrıştırıcısı
+ *
+ * - Her parça sınır satırı + başlıklar + gövdeden oluşur
+ * - Content-Length varsa gövde taramadan, tek kopyayla okunur
+ * - Yoksa JPEG segmentleri uzunluklarıyla atlanır, kare EOI (FF D9) gelince biter:
+ *   APP1 içindeki gömülü küçük resmin FF D9'u kareyi erken bitirmez, sonraki sınırı beklemek gerekmez
+ * - JPEG olmayan gövde bir sonraki sınır satırına kadar okunur
+ * - Kare tamponu kareler arasında tekrar kullanılır, gerektikçe büyür (MAX_FRAME_SIZE'a kadar)
+ *
+ * Android'e bağımlı değil. Tek thread'den kullanılmalı; frameBuffer() bir sonraki nextFrame() çağrısına kadar geçerli.
+ */
+final class MjpegParser {
+    static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_HEADER_LINE = 8 * 1024;
+    private static final int INITIAL_FRAME_SIZE = 256 * 1024;
+
+    private final InputStream in;
+    private final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+    private int readPos;
+    private int readLimit;
+
+    private final String boundary; // Content-Type'tan, null ise ilk "--" satırından öğrenilir
+    private byte[] dashBoundary;   // Akışta görülen sınır satırı ("--frame")
+    private boolean boundaryPending; // Gövde taraması sınır satırını zaten tüketti
+    private boolean finished;
+
+    private byte[] frame = new byte[INITIAL_FRAME_SIZE];
+    private int frameSize; // readJpegBody sırasında
+    private final StringBuilder line = new StringBuilder(128);
+
+    MjpegParser(InputStream in, String boundary) {
+        this.in = in;
+        this.boundary = boundary;
+    }
+
+    /**
+     * Content-Type başlığından sınırı al: multipart/x-mixed-replace; boundary="frame"
+     *
+     * @return Sınır veya bulunamazsa null
+     */
+    static String boundaryFromContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        for (String param : contentType.split(";")) {
+            String trimmed = param.trim();
+            if (trimmed.regionMatches(true, 0, "boundary=", 0, 9)) {
+                String value = trimmed.substring(9).trim();
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                return value.isEmpty() ? null : value;
+            }
+        }
+        return null;
+    }
+
+    byte[] frameBuffer() {
+        return frame;
+    }
+
+    /**
+     * Sıradaki JPEG parçasını oku
+     *
+     * @return Kare uzunluğu (veri frameBuffer()'da) veya akış bittiyse -1
+     */
+    int nextFrame() throws IOException {
+        while (!finished) {
+            if (!boundaryPending && !skipToBoundary()) {
+                return -1;
+            }
+            boundaryPending = false;
+
+            int contentLength = readHeaders();
+            if (contentLength < 0 && finished) {
+                return -1;
+            }
+            int length;
+            if (contentLength >= 0) {
+                length = readFixedBody(contentLength);
+            } else if (peekJpegStart()) {
+                length = readJpegBody();
+            } else {
+                length = readUntilBoundary();
+            }
+            if (length > 0) {
+                return length;
+            }
+            // Boş parça - sonrakine geç
+        }
+        return -1;
+    }
+
+    // Sınır satırına kadar her şeyi atla (preamble, önceki parçanın CRLF'i)
+    private boolean skipToBoundary() throws IOException {
+        String current;
+        while ((current = readLine()) != null) {
+            if (current.isEmpty()) {
+                continue;
+            }
+            if (dashBoundary == null) {
+                if (!learnBoundary(current)) {
+                    continue;
+                }
+                return true;
+            }
+            String dash = new String(dashBoundary, StandardCharsets.ISO_8859_1);
+            if (current.equals(dash)) {
+                return true;
+            }
+            if (current.equals(dash + "--")) {
+                finished = true;
+                return false;
+            }
+        }
+        finished = true;
+        return false;
+    }
+
+    private boolean learnBoundary(String current) {
+        String dash;
+        if (boundary == null) {
+            if (!current.startsWith("--")) {
+                return false;
+            }
+            dash = current;
+        } else if (current.equals("--" + boundary)) {
+            dash = current;
+        } else if (current.equals(boundary) && boundary.startsWith("--")) {
+            // Bazı sunucular boundary parametresine "--" ekliyor
+            dash = current;
+        } else {
+            return false;
+        }
+        dashBoundary = dash.getBytes(StandardCharsets.ISO_8859_1);
+        return true;
+    }
+
+    /**
+     * Parça başlıklarını boş satıra kadar oku
+     *
+     * @return Content-Length veya yoksa -1
+     */
+    private int readHeaders() throws IOException {
+        int contentLength = -1;
+        String header;
+        while ((header = readLine()) != null) {
+            if (header.isEmpty()) {
+                return contentLength;
+            }
+            int colon = header.indexOf(':');
+            if (colon > 0 && header.substring(0, colon).trim().toLowerCase(Locale.US).equals("content-length")) {
+                try {
+                    contentLength = Integer.parseInt(header.substring(colon + 1).trim());
+                } catch (NumberFormatException e) {
+                    contentLength = -1; // Taramaya düş
+                }
+                if (contentLength > MAX_FRAME_SIZE) {
+                    throw new IOException("Kare çok büyük: " + contentLength + " bayt");
+                }
+            }
+        }
+        finished = true;
+        return -1;
+    }
+
+    private int readFixedBody(int length) throws IOException {
+        ensureFrameCapacity(length);
+        int copied = 0;
+        // Önce okuma tamponunda kalanlar, sonra doğrudan kare tamponuna
+        int buffered = Math.min(readLimit - readPos, length);
+        if (buffered > 0) {
+            System.arraycopy(readBuffer, readPos, frame, 0, buffered);
+            readPos += buffered;
+            copied = buffered;
+        }
+        while (copied < length) {
+            int n = in.read(frame, copied, length - copied);
+            if (n < 0) {
+                return truncated();
+            }
+            copied += n;
+        }
+        return length;
+    }
+
+    private boolean peekJpegStart() throws IOException {
+        if (readLimit - readPos < 2) {
+            compactAndFill(2);
+        }
+        return readLimit - readPos >= 2
+            && readBuffer[readPos] == (byte) 0xFF && readBuffer[readPos + 1] == (byte) 0xD8;
+    }
+
+    /**
+     * Content-Length yok, gövde JPEG: işaretçi yapısını izle, EOI'da bitir.
+     * Segmentler (APPn, DQT, SOF, SOS başlığı...) uzunluklarıyla toplu kopyalanır,
+     * sadece sıkıştırılmış veri (SOS sonrası) bayt bayt taranır; orada FF hep 00 ile doldurulur.
+     *
+     * @return Kare uzunluğu; akış kare ortasında bittiyse 0; yapı bozuksa 0 (parça atlanır)
+     */
+    private int readJpegBody() throws IOException {
+        frameSize = 0;
+        appendBytes(2); // SOI
+        int marker = -1;
+        while (true) {
+            if (marker < 0) {
+                int b = appendByte();
+                if (b < 0) {
+                    return truncated();
+                }
+                if (b != 0xFF) {
+                    return corrupt();
+                }
+                marker = nextMarker();
+                if (marker < 0) {
+                    return truncated();
+                }
+            }
+            if (marker == 0xD9) {
+                return frameSize; // EOI
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                marker = -1; // Uzunluksuz işaretçi
+                continue;
+            }
+            int high = appendByte();
+            int low = appendByte();
+            if (low < 0) {
+                return truncated();
+            }
+            int segmentLength = (high << 8) | low;
+            if (segmentLength < 2) {
+                return corrupt();
+            }
+            if (!appendBytes(segmentLength - 2)) {
+                return truncated();
+            }
+            if (marker != 0xDA) {
+                marker = -1;
+                continue;
+            }
+            // SOS: sıkıştırılmış veri - doldurulmamış FF ve RSTn dışındaki ilk işaretçiye kadar
+            marker = scanEntropyCodedData();
+            if (marker < 0) {
+                return truncated();
+            }
+        }
+    }
+
+    private int scanEntropyCodedData() throws IOException {
+        while (true) {
+            int b = appendByte();
+            if (b < 0) {
+                return -1;
+            }
+            if (b != 0xFF) {
+                continue;
+            }
+            int marker = nextMarker();
+            if (marker < 0) {
+                return -1;
+            }
+            if (marker != 0x00 && (marker < 0xD0 || marker > 0xD7)) {
+                return marker; // EOI ya da progresif JPEG'de sonraki segment
+            }
+        }
+    }
+
+    // FF'den sonraki işaretçi baytı (dolgu FF'leri atlanır)
+    private int nextMarker() throws IOException {
+        int marker;
+        do {
+            marker = appendByte();
+        } while (marker == 0xFF);
+        return marker;
+    }
+
+    private int truncated() {
+        finished = true;
+        return 0; // Yarım kare - atılır
+    }
+
+    private int corrupt() {
+        return 0; // Parça atlanır, skipToBoundary sıradaki sınırı arar
+    }
+
+    private int appendByte() throws IOException {
+        if (readPos == readLimit && !fill()) {
+            return -1;
+        }
+        if (frameSize == frame.length) {
+            ensureFrameCapacity(frameSize + 1);
+        }
+        byte b = readBuffer[readPos++];
+        frame[frameSize++] = b;
+        return b & 0xFF;
+    }
+
+    private boolean appendBytes(int count) throws IOException {
+        ensureFrameCapacity(frameSize + count);
+        while (count > 0) {
+            if (readPos == readLimit && !fill()) {
+                return false;
+            }
+            int n = Math.min(count, readLimit - readPos);
+            System.arraycopy(readBuffer, readPos, frame, frameSize, n);
+            readPos += n;
+            frameSize += n;
+            count -= n;
+        }
+        return true;
+    }
+
+    // Content-Length yok, JPEG değil: "\n" + sınır görülene kadar kopyala
+    private int readUntilBoundary() throws IOException {
+        if (dashBoundary == null) {
+            throw new IOException("Sınır bilinmiyor");
+        }
+        byte[] dash = dashBoundary;
+        int delimiterLength = dash.length + 1;
+        byte last = dash[dash.length - 1];
+        int size = 0;
+        while (true) {
+            if (readPos == readLimit && !fill()) {
+                finished = true;
+                return 0; // Yarım kare - atılır
+            }
+            byte b = readBuffer[readPos++];
+            if (size == frame.length) {
+                ensureFrameCapacity(size + 1);
+            }
+            frame[size++] = b;
+            if (b == last && size >= delimiterLength && endsWithDelimiter(size, dash)) {
+                int length = size - delimiterLength;
+                if (length > 0 && frame[length - 1] == '\r') {
+                    length--;
+                }
+                boundaryPending = true;
+                if (consumeBoundaryLineEnd()) {
+                    finished = true;
+                }
+                return length;
+            }
+        }
+    }
+
+    private boolean endsWithDelimiter(int size, byte[] dash) {
+        int start = size - dash.length;
+        if (frame[start - 1] != '\n') {
+            return false;
+        }
+        for (int i = 0; i < dash.length; i++) {
+            if (frame[start + i] != dash[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Sınır satırının kalanı: "--" ise akış sonu
+    private boolean consumeBoundaryLineEnd() throws IOException {
+        String rest = readLine();
+        return rest == null || rest.startsWith("--");
+    }
+
+    private void ensureFrameCapacity(int needed) throws IOException {
+        if (needed <= frame.length) {
+            return;
+        }
+        if (needed > MAX_FRAME_SIZE) {
+            throw new IOException("Kare çok büyük: " + needed + " bayt");
+        }
+        int newSize = frame.length;
+        while (newSize < needed) {
+            newSize *= 2;
+        }
+        byte[] grown = new byte[Math.min(newSize, MAX_FRAME_SIZE)];
+        System.arraycopy(frame, 0, grown, 0, frame.length);
+        frame = grown;
+    }
+
+    // ASCII satır ("\r\n" veya "\n" ile biter, sonlandırıcı dahil edilmez); akış bittiyse null
+    // MAX_HEADER_LINE'dan uzun satırlar kırpılır
+    private String readLine() throws IOException {
+        line.setLength(0);
+        while (true) {
+            if (readPos == readLimit && !fill()) {
+                return line.length() == 0 ? null : line.toString();
+            }
+            byte b = readBuffer[readPos++];
+            if (b == '\n') {
+                int end = line.length();
+                if (end > 0 && line.charAt(end - 1) == '\r') {
+                    line.setLength(end - 1);
+                }
+                return line.toString();
+            }
+            if (line.length() < MAX_HEADER_LINE) {
+                line.append((char) (b & 0xFF)); // Daha uzunu (bozuk parça artığı) kırpılır
+            }
+        }
+    }
+
+    // Tamponda en az min bayt olsun (akış bitmediyse)
+    private void compactAndFill(int min) throws IOException {
+        int remaining = readLimit - readPos;
+        System.arraycopy(readBuffer, readPos, readBuffer, 0, remaining);
+        readPos = 0;
+        readLimit = remaining;
+        while (readLimit < min) {
+            int n = in.read(readBuffer, readLimit, readBuffer.length - readLimit);
+            if (n < 0) {
+                return;
+            }
+            readLimit += n;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(readBuffer, 0, readBuffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        readPos = 0;
+        readLimit = n;
+        return true;
+    }
+}
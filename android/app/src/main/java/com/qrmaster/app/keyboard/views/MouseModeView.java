@@ -81,14 +81,29 @@ public class MouseModeView extends LinearLayout {
             }
             
             @Override
-            public void onLatencyUpdate(int latencyMs) {
-                updateLatency(latencyMs);
+            public void onLatencyUpdate(int latencyMs, int jitterMs) {
+                updateLatency(latencyMs, jitterMs);
+                if (gestureDetector != null) {
+                    gestureDetector.setPredictionLatency(latencyMs / 2); // RTT → tek yön
+                }
             }
             
             @Override
             public void onError(String error) {
                 Toast.makeText(context, "❌ " + error, Toast.LENGTH_SHORT).show();
             }
+            
+            @Override
+            public void onReconnecting(int attempt, long delayMs) {
+                // isConnected true kalır: yazılanlar kuyruğa girer, PIN tekrar sorulmaz
+                updateStatus("🟡 Yeniden bağlanıyor..." + (attempt > 1 ? " (" + attempt + ")" : ""), 0xFFFFCC00);
+            }
+            
+            @Override
+            public void onReconnected() {
+                MouseManager.PCDevice device = mouseManager.getCurrentDevice();
+                updateStatus("🟢 Bağlı: " + (device != null ? device.name : ""), 0xFF34C759);
+            }
         });
         
         // Header
@@ -208,9 +223,14 @@ public class MouseModeView extends LinearLayout {
                     }
                 }
             }
-        });
+        }, getResources().getDisplayMetrics().density);
         
         trackpadArea.setOnTouchListener((v, event) -> gestureDetector.onTouchEvent(event));
+        
+        // Açılışta son PC'ye doğrudan bağlan - keşif yalnız bu başarısız olursa
+        if (mouseManager.connectLastDevice(() -> post(this::startWiFiDiscovery))) {
+            updateStatus("🔗 Son PC'ye bağlanıyor...", 0xFF007AFF);
+        }
     }
     
     /**
@@ -262,6 +282,25 @@ public class MouseModeView extends LinearLayout {
         screenPreview.setLayoutParams(previewParams);
         container.addView(screenPreview);
         
+        // Çift dokunma: dokunulan bölgeye yakınlaş / tüm ekrana dön (sunucu sadece o bölgeyi gönderir)
+        android.view.GestureDetector zoomDetector = new android.view.GestureDetector(context,
+            new android.view.GestureDetector.SimpleOnGestureListener() {
+                @Override
+                public boolean onDown(MotionEvent e) {
+                    return true;
+                }
+                
+                @Override
+                public boolean onDoubleTap(MotionEvent e) {
+                    if (screenThread != null) {
+                        screenThread.toggleZoomAt(e.getX(), e.getY());
+                        vibrate(10);
+                    }
+                    return true;
+                }
+            });
+        screenPreview.setOnTouchListener((v, event) -> zoomDetector.onTouchEvent(event));
+        
         return container;
     }
     
@@ -666,30 +705,55 @@ public class MouseModeView extends LinearLayout {
             Toast.makeText(getContext(), "🔍 PC aranıyor... (2 saniye)", Toast.LENGTH_SHORT).show();
         });
         
-        // PC keşfini başlat
-        mouseManager.discoverDevices(devices -> {
-            post(() -> {
-                if (devices.isEmpty()) {
-                    // Detaylı hata mesajı
-                    String errorMsg = "❌ PC BULUNAMADI!\n\n" +
-                        "✅ Yapılması gerekenler:\n\n" +
-                        "1. PC'de komutu çalıştır:\n" +
-                        "   python qkeyboard_server.py\n\n" +
-                        "2. Telefon ve PC AYNI WiFi'de olmalı\n\n" +
-                        "3. Windows Firewall:\n" +
-                        "   Port 58080 ve 59090 açık olmalı\n\n" +
-                        "Tekrar dene!";
-                    
-                    Toast.makeText(getContext(), errorMsg, Toast.LENGTH_LONG).show();
-                    
-                    // Status güncelle
-                    updateStatus("⚪ PC bulunamadı", 0xFFFF9500);
-                } else {
-                    // PC bulundu!
-                    updateStatus("✅ " + devices.size() + " PC bulundu", 0xFF34C759);
-                    showDeviceListDialog(devices);
+        // Son bağlanılan PC yanıt verince süre dolmadan devam edilir (unicast yoklama ilk turda döner)
+        String lastPairedIp = null;
+        for (MouseManager.PCDevice known : mouseManager.getKnownDevices()) {
+            if (known.isPaired) {
+                lastPairedIp = known.ipAddress;
+                break;
+            }
+        }
+        final String preferredIp = lastPairedIp;
+        final int[] foundCount = {0};
+        
+        // PC keşfini başlat - bulunanlar geldikçe gösterilir
+        mouseManager.discoverDevices(new MouseManager.DeviceDiscoveryCallback() {
+            @Override
+            public void onDeviceFound(MouseManager.PCDevice device) {
+                post(() -> {
+                    foundCount[0]++;
+                    updateStatus("🔍 " + foundCount[0] + " PC: " + device.name, 0xFF0A84FF);
+                });
+                if (device.ipAddress.equals(preferredIp)) {
+                    mouseManager.finishDiscovery();
                 }
-            });
+            }
+            
+            @Override
+            public void onDevicesFound(java.util.List<MouseManager.PCDevice> devices) {
+                post(() -> {
+                    if (devices.isEmpty()) {
+                        // Detaylı hata mesajı
+                        String errorMsg = "❌ PC BULUNAMADI!\n\n" +
+                            "✅ Yapılması gerekenler:\n\n" +
+                            "1. PC'de komutu çalıştır:\n" +
+                            "   python qkeyboard_server.py\n\n" +
+                            "2. Telefon ve PC AYNI WiFi'de olmalı\n\n" +
+                            "3. Windows Firewall:\n" +
+                            "   Port 58080, 59090 ve 59091 açık olmalı\n\n" +
+                            "Tekrar dene!";
+                        
+                        Toast.makeText(getContext(), errorMsg, Toast.LENGTH_LONG).show();
+                        
+                        // Status güncelle
+                        updateStatus("⚪ PC bulunamadı", 0xFFFF9500);
+                    } else {
+                        // PC bulundu!
+                        updateStatus("✅ " + devices.size() + " PC bulundu", 0xFF34C759);
+                        showDeviceListDialog(devices);
+                    }
+                });
+            }
         });
     }
     
@@ -1248,7 +1312,7 @@ public class MouseModeView extends LinearLayout {
         });
     }
     
-    private void updateLatency(int latencyMs) {
+    private void updateLatency(int latencyMs, int jitterMs) {
         post(() -> {
             if (latencyText != null) {
                 String quality;
@@ -1268,7 +1332,7 @@ public class MouseModeView extends LinearLayout {
                     color = 0xFFFF9500;
                 }
                 
-                latencyText.setText(String.format("Gecikme: %dms %s", latencyMs, quality));
+                latencyText.setText(String.format("Gecikme: %dms ±%d %s", latencyMs, jitterMs, quality));
                 latencyText.setTextColor(color);
             }
         });
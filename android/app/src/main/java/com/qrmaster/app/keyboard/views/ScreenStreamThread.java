@@ -2,31 +2,89 @@ package com.qrmaster.app.keyboard.views;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 import android.widget.ImageView;
 
-import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Screen streaming thread - MJPEG stream reader
+ * Screen streaming thread - delta karo akışı, eski sunucularda MJPEG
+ *
+ * Karo modu (/screen/tiles): istemci gösterdiği bölgeyi (viewport) ve ImageView boyutunu bildirir,
+ * sunucu son onaylanan sürümden beri değişen karoları o ölçekte gönderir. Karolar
+ * BITMAP_POOL_SIZE adet kalıcı tuvalden birine çizilir; tuvaller arası eksik kalan bölgeler
+ * gösterilen tuvalden kopyalanır. UI kareyi göstermeden yeni istek atılmaz, onay (since) ilerlemez.
+ *
+ * MJPEG modu (/screen): JPEG'ler bu thread'de, ImageView boyutuna göre küçültülerek (inSampleSize)
+ * ve havuzdaki bitmap'lerden biri üzerine (inBitmap) çözülür; karede bellek ayırma yok.
+ * UI önceki kareyi henüz göstermediyse yeni kare hiç çözülmeden atlanır.
  */
 public class ScreenStreamThread extends Thread {
     private static final String TAG = "ScreenStreamThread";
     
     private final String streamUrl;
+    private final String tilesUrl;
     private final ImageView targetImageView;
     private final Handler mainHandler;
     private volatile boolean running = false;
     
+    // 🖼️ Bitmap havuzu: gösterilen + bir önceki (RenderThread hâlâ çiziyor olabilir) + çözülen
+    private static final int BITMAP_POOL_SIZE = 3;
+    private final Bitmap[] bitmapPool = new Bitmap[BITMAP_POOL_SIZE]; // Sadece stream thread
+    private final BitmapFactory.Options decodeOptions = new BitmapFactory.Options();
+    private volatile int shownSlot = -1;     // Ana thread yazar
+    private volatile int previousSlot = -1;  // Ana thread yazar
+    
+    // Stream thread → ana thread (aynı anda en fazla bir kare bekler)
+    private final AtomicBoolean framePending = new AtomicBoolean();
+    private volatile Bitmap pendingBitmap;
+    private volatile int pendingSlot = -1;
+    private final Runnable showFrameRunnable = this::showPendingFrame;
+    private int decodedFrames;
+    private int droppedFrames;
+    
+    // 🧩 Delta karo modu
+    private static final int TILE_MAGIC = 0x5154494C; // "QTIL"
+    private static final int TILE_VERSION = 1;
+    private static final int TILE_FLAG_KEYFRAME = 0x01;
+    private static final int MAX_STALE_RECTS = 64;
+    private static final float ZOOM_FACTOR = 2f;
+    private static final float[] FULL_VIEWPORT = {0f, 0f, 1f, 1f};
+    private volatile float[] viewport = FULL_VIEWPORT; // {x, y, w, h} ekranın 0..1 oranı
+    private volatile int canvasWidth;
+    private volatile int canvasHeight;
+    private final List<List<Rect>> staleRects = new ArrayList<>(); // Slot başına: gösterilen tuvalden kopyalanacaklar
+    private final BitmapFactory.Options tileOptions = new BitmapFactory.Options();
+    private final Canvas compositor = new Canvas();
+    private final Rect tileRect = new Rect();
+    private Bitmap tileBitmap;
+    private byte[] tileBuffer = new byte[64 * 1024];
+    private long tileBytes;
+    
     public ScreenStreamThread(String serverIp, int httpPort, ImageView imageView) {
         this.streamUrl = "http://" + serverIp + ":" + httpPort + "/screen";
+        this.tilesUrl = streamUrl + "/tiles";
         this.targetImageView = imageView;
         this.mainHandler = new Handler(Looper.getMainLooper());
+        this.decodeOptions.inMutable = true; // inBitmap için şart
+        this.decodeOptions.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        this.tileOptions.inMutable = true;
+        this.tileOptions.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        for (int i = 0; i < BITMAP_POOL_SIZE; i++) {
+            staleRects.add(new ArrayList<>());
+        }
         setDaemon(true);
     }
     
@@ -41,98 +99,398 @@ public class ScreenStreamThread extends Thread {
         });
         
         try {
-            URL url = new URL(streamUrl);
+            // Karo uç noktası olmayan eski sunucu: tam kare MJPEG
+            if (!runTileStream()) {
+                Log.d(TAG, "🧩 /screen/tiles yok, MJPEG'e geçiliyor");
+                runMjpegStream();
+            }
+        } catch (InterruptedException e) {
+            // stopStream() - normal kapanış
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Stream error: " + e.getMessage(), e);
+            mainHandler.post(() -> {
+                android.widget.Toast.makeText(targetImageView.getContext(), 
+                    "❌ Stream hatası: " + e.getMessage(), android.widget.Toast.LENGTH_LONG).show();
+            });
+        } finally {
+            running = false;
+            Log.d(TAG, "📺 Screen stream durduruldu (" + decodedFrames + " kare, " + droppedFrames + " atlandı, "
+                + tileBytes / 1024 + " KB karo)");
+        }
+    }
+    
+    private void runMjpegStream() throws IOException {
+        URL url = new URL(streamUrl);
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestMethod("GET");
+        conn.setConnectTimeout(5000);
+        conn.setReadTimeout(10000);
+        
+        Log.d(TAG, "🔗 Bağlanıyor: " + streamUrl);
+        conn.connect();
+        
+        int responseCode = conn.getResponseCode();
+        Log.d(TAG, "📡 HTTP Response: " + responseCode);
+        
+        if (responseCode != 200) {
+            Log.e(TAG, "❌ HTTP Error: " + responseCode + " - " + conn.getResponseMessage());
+            showHttpError(responseCode);
+            return;
+        }
+        
+        InputStream inputStream = conn.getInputStream(); // MjpegParser kendi tamponunu tutar
+        Log.d(TAG, "✅ Stream bağlandı, veri alınıyor...");
+        
+        // MJPEG parser - multipart sınırı + Content-Length
+        MjpegParser parser = new MjpegParser(inputStream,
+            MjpegParser.boundaryFromContentType(conn.getContentType()));
+        int frameSize;
+        while (running && (frameSize = parser.nextFrame()) >= 0) {
+            // Decode (bu thread) and display frame (ana thread)
+            onFrame(parser.frameBuffer(), frameSize);
+        }
+        
+        inputStream.close();
+        conn.disconnect();
+    }
+    
+    /**
+     * Delta karo döngüsü: istek → karoları bekleyen tuvale çiz → UI'a ver → gösterilince onayla
+     *
+     * @return Sunucu karo uç noktasını bilmiyorsa (404) false
+     */
+    private boolean runTileStream() throws IOException, InterruptedException {
+        long acked = 0;
+        float[] requestedViewport = null;
+        int requestedWidth = -1;
+        int requestedHeight = -1;
+        boolean first = true;
+        
+        while (running) {
+            // UI önceki tuvali göstermeden yenisine çizilmez (gösterilen/önceki tuvale dokunulmaz)
+            while (running && framePending.get()) {
+                Thread.sleep(4);
+            }
+            
+            float[] view = viewport;
+            int outWidth = targetImageView.getWidth() > 0 ? targetImageView.getWidth() : 640;
+            int outHeight = targetImageView.getHeight() > 0 ? targetImageView.getHeight() : 360;
+            if (view != requestedViewport || outWidth != requestedWidth || outHeight != requestedHeight) {
+                acked = 0; // Bölge/ölçek değişti: eski tuval geçersiz, tam kare iste
+                requestedViewport = view;
+                requestedWidth = outWidth;
+                requestedHeight = outHeight;
+            }
+            
+            URL url = new URL(String.format(Locale.US, "%s?since=%d&x=%.4f&y=%.4f&w=%.4f&h=%.4f&ow=%d&oh=%d",
+                tilesUrl, acked, view[0], view[1], view[2], view[3], outWidth, outHeight));
             HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
             conn.setConnectTimeout(5000);
             conn.setReadTimeout(10000);
             
-            Log.d(TAG, "🔗 Bağlanıyor: " + streamUrl);
-            conn.connect();
-            
             int responseCode = conn.getResponseCode();
-            Log.d(TAG, "📡 HTTP Response: " + responseCode);
-            
+            if (first) {
+                Log.d(TAG, "📡 HTTP Response (tiles): " + responseCode);
+                first = false;
+                if (responseCode == 404) {
+                    conn.disconnect();
+                    return false;
+                }
+            }
+            if (responseCode == 503) {
+                conn.disconnect(); // Capture henüz başlamadı
+                Thread.sleep(250);
+                continue;
+            }
             if (responseCode != 200) {
                 Log.e(TAG, "❌ HTTP Error: " + responseCode + " - " + conn.getResponseMessage());
-                mainHandler.post(() -> {
-                    android.widget.Toast.makeText(targetImageView.getContext(), 
-                        "❌ HTTP Error: " + responseCode, android.widget.Toast.LENGTH_LONG).show();
-                });
-                return;
+                conn.disconnect();
+                showHttpError(responseCode);
+                return true;
             }
             
-            InputStream inputStream = new BufferedInputStream(conn.getInputStream());
-            Log.d(TAG, "✅ Stream bağlandı, veri alınıyor...");
-            
-            // MJPEG parser
-            byte[] buffer = new byte[4096];
-            int bytesRead;
-            byte[] frameBuffer = new byte[1024 * 1024]; // 1MB max frame
-            int frameSize = 0;
-            boolean inFrame = false;
-            
-            while (running && (bytesRead = inputStream.read(buffer)) != -1) {
-                for (int i = 0; i < bytesRead; i++) {
-                    if (!inFrame) {
-                        // Look for JPEG start marker (FF D8)
-                        if (buffer[i] == (byte)0xFF && i + 1 < bytesRead && buffer[i + 1] == (byte)0xD8) {
-                            inFrame = true;
-                            frameSize = 0;
-                            frameBuffer[frameSize++] = buffer[i];
-                            frameBuffer[frameSize++] = buffer[++i];
-                        }
-                    } else {
-                        frameBuffer[frameSize++] = buffer[i];
-                        
-                        // Look for JPEG end marker (FF D9)
-                        if (buffer[i] == (byte)0xFF && i + 1 < bytesRead && buffer[i + 1] == (byte)0xD9) {
-                            frameBuffer[frameSize++] = buffer[++i];
-                            inFrame = false;
-                            
-                            // Decode and display frame
-                            final byte[] finalFrame = new byte[frameSize];
-                            System.arraycopy(frameBuffer, 0, finalFrame, 0, frameSize);
-                            
-                            mainHandler.post(() -> {
-                                try {
-                                    Bitmap bitmap = BitmapFactory.decodeByteArray(finalFrame, 0, finalFrame.length);
-                                    if (bitmap != null) {
-                                        targetImageView.setImageBitmap(bitmap);
-                                        Log.d(TAG, "🖼️ Frame gösterildi: " + bitmap.getWidth() + "x" + bitmap.getHeight());
-                                    } else {
-                                        Log.e(TAG, "❌ Bitmap null!");
-                                    }
-                                } catch (Exception e) {
-                                    Log.e(TAG, "Frame decode error", e);
-                                }
-                            });
-                            
-                            frameSize = 0;
-                        }
-                        
-                        // Buffer overflow protection
-                        if (frameSize >= frameBuffer.length - 10) {
-                            inFrame = false;
-                            frameSize = 0;
-                        }
-                    }
+            // Gövde sonuna kadar okunup kapatılır: bağlantı keep-alive havuzuna döner
+            try (DataInputStream in = new DataInputStream(conn.getInputStream())) {
+                long seq = readTileDelta(in, acked);
+                if (seq >= 0) {
+                    acked = seq;
                 }
             }
-            
-            inputStream.close();
-            conn.disconnect();
-            
+        }
+        return true;
+    }
+    
+    /**
+     * Yanıtı oku ve boş tuvale çiz
+     *
+     * @return Tuvalin yeni sürümü; değişiklik yoksa since, tam kare gerekiyorsa 0
+     */
+    private long readTileDelta(DataInputStream in, long since) throws IOException {
+        if (in.readInt() != TILE_MAGIC || in.readUnsignedByte() != TILE_VERSION) {
+            throw new IOException("Geçersiz karo yanıtı");
+        }
+        boolean keyframe = (in.readUnsignedByte() & TILE_FLAG_KEYFRAME) != 0;
+        long seq = in.readInt() & 0xFFFFFFFFL;
+        int width = in.readUnsignedShort();
+        int height = in.readUnsignedShort();
+        int tileCount = in.readUnsignedShort();
+        if (tileCount == 0 && !keyframe) {
+            return since; // Long-poll zaman aşımı: ekran değişmedi
+        }
+        
+        int slot = freeSlot();
+        int shown = shownSlot;
+        Bitmap front = shown >= 0 ? bitmapPool[shown] : null;
+        boolean frontMatches = front != null && front.getWidth() == width && front.getHeight() == height;
+        boolean drawable = keyframe || frontMatches;
+        Bitmap target = bitmapPool[slot];
+        if (drawable && (target == null || target.getWidth() != width || target.getHeight() != height)) {
+            target = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            bitmapPool[slot] = target;
+            if (!keyframe) {
+                markStale(slot, new Rect(0, 0, width, height));
+            }
+        }
+        
+        // Tuval bir önceki gösterilenden geride: aradaki karolar gösterilen tuvalden kopyalanır
+        List<Rect> stale = staleRects.get(slot);
+        if (drawable) {
+            compositor.setBitmap(target);
+            if (!keyframe) {
+                for (Rect rect : stale) {
+                    compositor.drawBitmap(front, rect, rect, null);
+                }
+            }
+            stale.clear();
+        }
+        
+        List<Rect> drawn = new ArrayList<>(tileCount);
+        boolean complete = true;
+        for (int i = 0; i < tileCount; i++) {
+            int x = in.readUnsignedShort();
+            int y = in.readUnsignedShort();
+            int tileWidth = in.readUnsignedShort();
+            int tileHeight = in.readUnsignedShort();
+            int length = in.readInt();
+            if (length < 0 || length > MjpegParser.MAX_FRAME_SIZE) {
+                throw new IOException("Karo çok büyük: " + length);
+            }
+            if (tileBuffer.length < length) {
+                tileBuffer = new byte[Math.max(length, tileBuffer.length * 2)];
+            }
+            in.readFully(tileBuffer, 0, length);
+            tileBytes += length;
+            if (drawable) {
+                tileRect.set(x, y, x + tileWidth, y + tileHeight);
+                Bitmap tile = decodeTile(length);
+                if (tile != null) {
+                    compositor.drawBitmap(tile, null, tileRect, null);
+                    drawn.add(new Rect(tileRect));
+                } else {
+                    complete = false;
+                }
+            }
+        }
+        compositor.setBitmap(null);
+        if (!drawable) {
+            // Sunucunun tuvali bizimkiyle uyuşmuyor (ör. yeniden başladı) - tam kare iste
+            return 0;
+        }
+        
+        // Diğer tuvaller bu karoları kaçırdı
+        for (int i = 0; i < BITMAP_POOL_SIZE; i++) {
+            if (i == slot) {
+                continue;
+            }
+            if (keyframe) {
+                staleRects.get(i).clear();
+                markStale(i, new Rect(0, 0, width, height));
+            } else {
+                for (Rect rect : drawn) {
+                    markStale(i, rect);
+                }
+            }
+        }
+        
+        decodedFrames++;
+        canvasWidth = width;
+        canvasHeight = height;
+        pendingBitmap = target;
+        pendingSlot = slot;
+        framePending.set(true);
+        mainHandler.post(showFrameRunnable);
+        // Çözülemeyen karo tuvalde eski kalır: onaylamak yerine tam kare iste
+        return complete ? seq : 0;
+    }
+    
+    private void markStale(int slot, Rect rect) {
+        List<Rect> stale = staleRects.get(slot);
+        if (stale.size() >= MAX_STALE_RECTS) {
+            // Çok parçalı: tüm tuvali tek seferde kopyalamak daha ucuz
+            Rect all = new Rect(0, 0, Math.max(rect.right, canvasWidth), Math.max(rect.bottom, canvasHeight));
+            stale.clear();
+            stale.add(all);
+            return;
+        }
+        stale.add(rect);
+    }
+    
+    private Bitmap decodeTile(int length) {
+        tileOptions.inBitmap = tileBitmap;
+        Bitmap tile;
+        try {
+            tile = BitmapFactory.decodeByteArray(tileBuffer, 0, length, tileOptions);
+        } catch (IllegalArgumentException e) {
+            // Karo önceki bitmap'e sığmıyor - yenisini ayır, sonrakiler onu kullanır
+            tileOptions.inBitmap = null;
+            tile = BitmapFactory.decodeByteArray(tileBuffer, 0, length, tileOptions);
+        }
+        tileOptions.inBitmap = null;
+        if (tile != null) {
+            tileBitmap = tile;
+        }
+        return tile;
+    }
+    
+    private void showHttpError(int responseCode) {
+        mainHandler.post(() -> {
+            android.widget.Toast.makeText(targetImageView.getContext(), 
+                "❌ HTTP Error: " + responseCode, android.widget.Toast.LENGTH_LONG).show();
+        });
+    }
+    
+    // Stream thread - UI yetişemiyorsa kareyi çözmeden at
+    private void onFrame(byte[] data, int length) {
+        if (framePending.get()) {
+            droppedFrames++;
+            return;
+        }
+        
+        int slot = freeSlot();
+        Bitmap bitmap;
+        try {
+            bitmap = decodeInto(slot, data, length);
         } catch (Exception e) {
-            Log.e(TAG, "❌ Stream error: " + e.getMessage(), e);
-            mainHandler.post(() -> {
-                android.widget.Toast.makeText(targetImageView.getContext(), 
-                    "❌ Stream hatası: " + e.getMessage(), android.widget.Toast.LENGTH_LONG).show();
-            });
-        } finally {
-            running = false;
-            Log.d(TAG, "📺 Screen stream durduruldu");
+            Log.e(TAG, "Frame decode error", e);
+            return;
+        }
+        if (bitmap == null) {
+            Log.e(TAG, "❌ Bitmap null!");
+            return;
+        }
+        
+        decodedFrames++;
+        pendingBitmap = bitmap;
+        pendingSlot = slot;
+        framePending.set(true);
+        mainHandler.post(showFrameRunnable);
+    }
+    
+    private Bitmap decodeInto(int slot, byte[] data, int length) {
+        // Sadece başlık okunur - boyut için
+        decodeOptions.inJustDecodeBounds = true;
+        decodeOptions.inBitmap = null;
+        BitmapFactory.decodeByteArray(data, 0, length, decodeOptions);
+        if (decodeOptions.outWidth <= 0 || decodeOptions.outHeight <= 0) {
+            return null;
+        }
+        
+        decodeOptions.inJustDecodeBounds = false;
+        decodeOptions.inSampleSize = sampleSizeFor(decodeOptions.outWidth, decodeOptions.outHeight);
+        decodeOptions.inBitmap = bitmapPool[slot];
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeByteArray(data, 0, length, decodeOptions);
+        } catch (IllegalArgumentException e) {
+            // Havuzdaki bitmap yeni kare için küçük (çözünürlük/ölçek değişti) - yenisini ayır
+            decodeOptions.inBitmap = null;
+            bitmap = BitmapFactory.decodeByteArray(data, 0, length, decodeOptions);
+        }
+        decodeOptions.inBitmap = null;
+        if (bitmap != null) {
+            bitmapPool[slot] = bitmap;
+        }
+        return bitmap;
+    }
+    
+    // FIT_CENTER: görüntü ölçeği = min(view/kare); bunu karşılayan en büyük 2'nin kuvveti
+    private int sampleSizeFor(int frameWidth, int frameHeight) {
+        int viewWidth = targetImageView.getWidth();
+        int viewHeight = targetImageView.getHeight();
+        if (viewWidth <= 0 || viewHeight <= 0) {
+            return 1;
+        }
+        float scale = Math.min(viewWidth / (float) frameWidth, viewHeight / (float) frameHeight);
+        int sampleSize = 1;
+        while (sampleSize * 2 * scale <= 1f) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+    
+    // Gösterilen ve bir önceki karenin bitmap'ine dokunma
+    private int freeSlot() {
+        int shown = shownSlot;
+        int previous = previousSlot;
+        for (int i = 0; i < BITMAP_POOL_SIZE; i++) {
+            if (i != shown && i != previous) {
+                return i;
+            }
+        }
+        return 0; // BITMAP_POOL_SIZE >= 3 iken ulaşılmaz
+    }
+    
+    // Ana thread
+    private void showPendingFrame() {
+        Bitmap bitmap = pendingBitmap;
+        int slot = pendingSlot;
+        pendingBitmap = null;
+        if (running && bitmap != null) {
+            targetImageView.setImageBitmap(bitmap);
+            if (slot != shownSlot) {
+                previousSlot = shownSlot;
+                shownSlot = slot;
+            }
+        }
+        // Slot bilgisi yazıldıktan sonra: stream thread bir sonraki kareyi serbest slota çözer
+        framePending.set(false);
+    }
+    
+    /**
+     * Gösterilen bölgeyi değiştir (herhangi bir thread). Karo modunda bir sonraki istek
+     * yeni bölge için tam kare alır; MJPEG modunda etkisizdir.
+     */
+    public void setViewport(float x, float y, float width, float height) {
+        float w = Math.max(0.01f, Math.min(1f, width));
+        float h = Math.max(0.01f, Math.min(1f, height));
+        viewport = new float[]{
+            Math.max(0f, Math.min(1f - w, x)), Math.max(0f, Math.min(1f - h, y)), w, h
+        };
+    }
+    
+    /**
+     * Ana thread - dokunulan noktaya ZOOM_FACTOR yakınlaş, yakınsa tüm ekrana dön
+     */
+    public void toggleZoomAt(float viewX, float viewY) {
+        float[] current = viewport;
+        if (current[2] < 1f || current[3] < 1f) {
+            viewport = FULL_VIEWPORT;
+            return;
+        }
+        int width = canvasWidth;
+        int height = canvasHeight;
+        int viewWidth = targetImageView.getWidth();
+        int viewHeight = targetImageView.getHeight();
+        float fx = 0.5f;
+        float fy = 0.5f;
+        if (width > 0 && height > 0 && viewWidth > 0 && viewHeight > 0) {
+            // FIT_CENTER: tuval view'in ortasında, ölçek = min(view/tuval)
+            float scale = Math.min(viewWidth / (float) width, viewHeight / (float) height);
+            fx = (viewX - (viewWidth - width * scale) / 2f) / (width * scale);
+            fy = (viewY - (viewHeight - height * scale) / 2f) / (height * scale);
         }
+        float size = 1f / ZOOM_FACTOR;
+        setViewport(fx - size / 2f, fy - size / 2f, size, size);
     }
     
     public void stopStream() {
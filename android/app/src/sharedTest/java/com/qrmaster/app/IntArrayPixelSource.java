@@ -0,0 +1,33 @@
+package com.qrmaster.app;
+
+import java.util.Arrays;
+
+/**
+ * int[] ARGB kare üzerinden PixelSource (Bitmap.getPixels ile aynı sözleşme)
+ *
+ * Motor testleri ve benchmark modülü ortak kullanır.
+ */
+final class IntArrayPixelSource implements PixelScanKernel.PixelSource {
+
+    private final int[] frame;
+    private final int frameWidth;
+
+    IntArrayPixelSource(int[] frame, int frameWidth) {
+        this.frame = frame;
+        this.frameWidth = frameWidth;
+    }
+
+    @Override
+    public void read(int[] dst, int x, int y, int width, int rows) {
+        for (int r = 0; r < rows; r++) {
+            System.arraycopy(frame, (y + r) * frameWidth + x, dst, r * width, width);
+        }
+    }
+
+    /** Karede [left, left+width) × [top, top+height) dikdörtgenini boya */
+    static void fill(int[] frame, int frameWidth, int left, int top, int width, int height, int color) {
+        for (int y = top; y < top + height; y++) {
+            Arrays.fill(frame, y * frameWidth + left, y * frameWidth + left + width, color);
+        }
+    }
+}
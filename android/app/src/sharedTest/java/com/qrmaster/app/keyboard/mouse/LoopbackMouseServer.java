@@ -0,0 +1,389 @@
+package com.qrmaster.app.keyboard.mouse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * qkeyboard_server.py'nin saf Java karşılığı (testler için, sadece loopback, rastgele portlar)
+ *
+ * - TCP komut kanalı: istemciler sırayla kabul edilir. AUTH'ta binary_version teklif edilirse ve
+ *   binarySupported açıksa binary çerçevelere, değilse JSON satırlarına geçer. Oturum token'ı ve
+ *   işlenen komut sayısı ("received") gerçek sunucudaki gibi verilir; dropClient() Wi-Fi kopmasını taklit eder.
+ *   Gelen komutlar "CLICK LEFT", "SCROLL -3", "KEY a", "TEXT ...", "GESTURE ...", "PING",
+ *   "DISCONNECT", "CLOSED" biçiminde events kuyruğuna yazılır.
+ * - UDP hareket: paketler sayılır, deltalar toplanır, sırası bozuk gelenler sayılır
+ * - Keşif: QKEYBOARD_DISCOVERY yoklamasına kaynak adrese JSON yanıt
+ * - HTTP /screen: setScreenFrames() ile verilen kareler bir kez multipart MJPEG olarak
+ *   (Content-Length'li, qkeyboard_server_screen.py biçiminde) yazılır, sonra akış kapanır
+ *
+ * views paketindeki ekran akışı testleri de kullandığı için public.
+ */
+public final class LoopbackMouseServer implements Closeable {
+    static final String DEVICE_NAME = "Loopback PC";
+    static final String DEVICE_ID = "loopback_1234";
+
+    private static final Pattern NUMBER_FIELD = Pattern.compile("\"(\\w+)\"\\s*:\\s*(-?\\d+)");
+    private static final Pattern STRING_FIELD = Pattern.compile("\"(\\w+)\"\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    private final ServerSocket serverSocket;
+    private final DatagramSocket udpSocket;
+    private final DatagramSocket discoverySocket;
+    private final ServerSocket httpSocket;
+    private final String pin;
+    private final boolean binarySupported;
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    private volatile Socket client;
+    private volatile boolean closed;
+
+    // Oturum - sadece TCP thread'i
+    private String sessionToken;
+    private long processed;
+    private volatile int sessionCount;
+
+    // UDP hareket istatistikleri
+    private final AtomicInteger movesReceived = new AtomicInteger();
+    private final AtomicInteger movesOutOfOrder = new AtomicInteger();
+    private final AtomicLong totalDeltaX = new AtomicLong();
+    private final AtomicLong totalDeltaY = new AtomicLong();
+    private int lastMoveSequence; // Sadece UDP thread'i
+
+    private volatile List<byte[]> screenFrames = Collections.emptyList();
+
+    public LoopbackMouseServer(String pin, boolean binarySupported) throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        this.serverSocket = new ServerSocket(0, 1, loopback);
+        this.udpSocket = new DatagramSocket(new InetSocketAddress(loopback, 0));
+        this.udpSocket.setReceiveBufferSize(1 << 20); // Hız testinde paket kaybı ölçülsün, tampon taşması değil
+        this.discoverySocket = new DatagramSocket(new InetSocketAddress(loopback, 0));
+        this.httpSocket = new ServerSocket(0, 4, loopback);
+        this.pin = pin;
+        this.binarySupported = binarySupported;
+        start(this::serve, "LoopbackMouseServer");
+        start(this::serveMoves, "LoopbackMouseUdp");
+        start(this::serveDiscovery, "LoopbackDiscovery");
+        start(this::serveHttp, "LoopbackScreenHttp");
+    }
+
+    private void start(Runnable body, String name) {
+        Thread thread = new Thread(body, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    int getUdpPort() {
+        return udpSocket.getLocalPort();
+    }
+
+    int getDiscoveryPort() {
+        return discoverySocket.getLocalPort();
+    }
+
+    public int getHttpPort() {
+        return httpSocket.getLocalPort();
+    }
+
+    /**
+     * Sıradaki komut (2 sn içinde gelmezse null)
+     */
+    String nextEvent() throws InterruptedException {
+        return events.poll(2, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Bağlı istemciyi RST ile kes (Wi-Fi kopması); oturum sürer, sunucu yeni bağlantı bekler
+     */
+    void dropClient() throws IOException {
+        Socket socket = client;
+        if (socket != null) {
+            socket.setSoLinger(true, 0);
+            socket.close();
+        }
+    }
+
+    /** Kaç kez PIN ile yeni oturum açıldı */
+    int sessionCount() {
+        return sessionCount;
+    }
+
+    int movesReceived() {
+        return movesReceived.get();
+    }
+
+    int movesOutOfOrder() {
+        return movesOutOfOrder.get();
+    }
+
+    long totalDeltaX() {
+        return totalDeltaX.get();
+    }
+
+    long totalDeltaY() {
+        return totalDeltaY.get();
+    }
+
+    /**
+     * Sonraki /screen isteğinde yazılacak JPEG kareleri
+     */
+    public void setScreenFrames(List<byte[]> frames) {
+        this.screenFrames = new ArrayList<>(frames);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        udpSocket.close();
+        discoverySocket.close();
+        httpSocket.close();
+        Socket socket = client;
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+    // TCP: bağlantılar sırayla (yeniden bağlanma testleri için kapanınca yenisi kabul edilir)
+    private void serve() {
+        while (!closed) {
+            try (Socket socket = serverSocket.accept()) {
+                client = socket;
+                socket.setTcpNoDelay(true);
+                serveConnection(socket);
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+                events.add("CLOSED");
+            }
+        }
+    }
+
+    private void serveConnection(Socket socket) throws IOException {
+        InputStream in = socket.getInputStream();
+        OutputStream out = socket.getOutputStream();
+        PrintWriter lineWriter = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), true);
+
+        String auth = MouseProtocol.readLine(in);
+        if (auth == null || !"AUTH".equals(stringField(auth, "type"))) {
+            return;
+        }
+        String requestedSession = stringField(auth, "session");
+        boolean resumed = sessionToken != null && sessionToken.equals(requestedSession);
+        if (!resumed) {
+            if (!pin.equals(stringField(auth, "pin"))) {
+                lineWriter.println("{\"status\": \"AUTH_FAILED\", \"error\": \"Yanlış PIN\"}");
+                return;
+            }
+            sessionCount++;
+            sessionToken = "loopback-session-" + sessionCount;
+            processed = 0;
+        }
+
+        boolean binary = binarySupported && numberField(auth, "binary_version") == MouseProtocol.BINARY_VERSION;
+        String session = ", \"session\": \"" + sessionToken + "\", \"resumed\": " + resumed + ", \"received\": " + processed;
+        if (binary) {
+            lineWriter.println("{\"status\": \"AUTH_OK\", \"binary_version\": " + MouseProtocol.BINARY_VERSION + session + "}");
+            serveBinary(in, out);
+        } else {
+            lineWriter.println("{\"status\": \"AUTH_OK\"" + session + "}");
+            serveJson(in, lineWriter);
+        }
+    }
+
+    private void serveBinary(InputStream in, OutputStream out) throws IOException {
+        MouseProtocol.FrameReader reader = new MouseProtocol.FrameReader(in);
+        MouseProtocol.FrameWriter writer = new MouseProtocol.FrameWriter(out);
+        MouseProtocol.Frame frame;
+        while ((frame = reader.read()) != null) {
+            switch (frame.opcode) {
+                case MouseProtocol.OP_CLICK:
+                    command("CLICK " + frame.buttonValue());
+                    break;
+                case MouseProtocol.OP_SCROLL:
+                    command("SCROLL " + frame.intValue());
+                    break;
+                case MouseProtocol.OP_KEY:
+                    command("KEY " + frame.text());
+                    break;
+                case MouseProtocol.OP_TEXT:
+                    command("TEXT " + frame.text());
+                    break;
+                case MouseProtocol.OP_GESTURE:
+                    command("GESTURE " + frame.text());
+                    break;
+                case MouseProtocol.OP_PING:
+                    writer.writePong(frame.longValue());
+                    writer.flush();
+                    events.add("PING");
+                    break;
+                case MouseProtocol.OP_DISCONNECT:
+                    events.add("DISCONNECT");
+                    sessionToken = null;
+                    return;
+                default:
+                    events.add("UNKNOWN " + frame.opcode);
+                    break;
+            }
+        }
+        events.add("CLOSED");
+    }
+
+    private void serveJson(InputStream in, PrintWriter lineWriter) throws IOException {
+        String line;
+        while ((line = MouseProtocol.readLine(in)) != null) {
+            String type = stringField(line, "type");
+            if ("MOUSE_CLICK".equals(type)) {
+                command("CLICK " + stringField(line, "button"));
+            } else if ("MOUSE_SCROLL".equals(type)) {
+                command("SCROLL " + numberField(line, "delta"));
+            } else if ("KEY_PRESS".equals(type)) {
+                command("KEY " + stringField(line, "key"));
+            } else if ("GESTURE".equals(type)) {
+                command("GESTURE " + stringField(line, "name"));
+            } else if ("PING".equals(type)) {
+                lineWriter.println("{\"type\": \"PONG\", \"timestamp\": " + numberField(line, "timestamp") + "}");
+                events.add("PING");
+            } else if ("DISCONNECT".equals(type)) {
+                events.add("DISCONNECT");
+                sessionToken = null;
+                return;
+            }
+        }
+        events.add("CLOSED");
+    }
+
+    // Oturumda işlenen komut - yeniden bağlanmada "received" olarak döner
+    private void command(String event) {
+        processed++;
+        events.add(event);
+    }
+
+    // UDP: [0x01][deltaX:i16][deltaY:i16][seq:i32]
+    private void serveMoves() {
+        byte[] buffer = new byte[64];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        ByteBuffer reader = ByteBuffer.wrap(buffer);
+        while (!closed) {
+            try {
+                packet.setLength(buffer.length);
+                udpSocket.receive(packet);
+            } catch (IOException e) {
+                return;
+            }
+            if (packet.getLength() < MouseProtocol.MOVE_PACKET_SIZE || buffer[0] != MouseProtocol.PACKET_MOUSE_MOVE) {
+                continue;
+            }
+            int sequence = reader.getInt(5);
+            if (sequence <= lastMoveSequence) {
+                movesOutOfOrder.incrementAndGet();
+            }
+            lastMoveSequence = Math.max(lastMoveSequence, sequence);
+            totalDeltaX.addAndGet(reader.getShort(1));
+            totalDeltaY.addAndGet(reader.getShort(3));
+            movesReceived.incrementAndGet();
+        }
+    }
+
+    // Keşif: yoklamanın geldiği adres:porta yanıt (gerçek sunucudaki gibi)
+    private void serveDiscovery() {
+        byte[] buffer = new byte[256];
+        DatagramPacket probe = new DatagramPacket(buffer, buffer.length);
+        byte[] reply = ("{\"type\": \"QKEYBOARD_SERVER\", \"name\": \"" + DEVICE_NAME + "\", \"id\": \"" + DEVICE_ID
+            + "\", \"tcp_port\": " + getPort() + ", \"udp_port\": " + getUdpPort() + "}").getBytes(StandardCharsets.UTF_8);
+        while (!closed) {
+            try {
+                probe.setLength(buffer.length);
+                discoverySocket.receive(probe);
+                String message = new String(buffer, 0, probe.getLength(), StandardCharsets.UTF_8);
+                if (MouseProtocol.DISCOVERY_MESSAGE.equals(message)) {
+                    discoverySocket.send(new DatagramPacket(reply, reply.length, probe.getSocketAddress()));
+                }
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    // HTTP: sadece GET /screen; kareler bittiğinde bağlantı kapanır
+    private void serveHttp() {
+        while (!closed) {
+            try (Socket socket = httpSocket.accept()) {
+                InputStream in = socket.getInputStream();
+                String requestLine = MouseProtocol.readLine(in);
+                String header;
+                do {
+                    header = MouseProtocol.readLine(in);
+                } while (header != null && !header.isEmpty());
+
+                OutputStream out = socket.getOutputStream();
+                if (requestLine == null || !requestLine.startsWith("GET /screen ")) {
+                    out.write("HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\nConnection: close\r\n\r\n"
+                        .getBytes(StandardCharsets.US_ASCII));
+                    continue;
+                }
+                out.write(("HTTP/1.1 200 OK\r\nContent-Type: multipart/x-mixed-replace; boundary=frame\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                for (byte[] frame : screenFrames) {
+                    out.write(("--frame\r\nContent-Type: image/jpeg\r\nContent-Length: " + frame.length + "\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                    out.write(frame);
+                    out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+                }
+                out.flush();
+            } catch (SocketException e) {
+                if (closed) {
+                    return;
+                }
+            } catch (IOException e) {
+                // İstemci akışın ortasında kapattı - sıradaki istek
+            }
+        }
+    }
+
+    // Testlerin ürettiği düz JSON için yeterli; kaçışlı karakterler çözülmez
+    static String stringField(String json, String name) {
+        Matcher m = STRING_FIELD.matcher(json);
+        while (m.find()) {
+            if (m.group(1).equals(name)) {
+                return m.group(2);
+            }
+        }
+        return null;
+    }
+
+    static long numberField(String json, String name) {
+        Matcher m = NUMBER_FIELD.matcher(json);
+        while (m.find()) {
+            if (m.group(1).equals(name)) {
+                return Long.parseLong(m.group(2));
+            }
+        }
+        return -1;
+    }
+}
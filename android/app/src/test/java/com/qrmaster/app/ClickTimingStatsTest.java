@@ -0,0 +1,81 @@
+package com.qrmaster.app;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * ClickTimingStats: ulaşılan hız, aralık jitter'ı, gecikme yüzdelikleri ve halka pencere
+ */
+public class ClickTimingStatsTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void emptyStatsAreZero() {
+        ClickTimingStats.Snapshot snapshot = new ClickTimingStats().snapshot();
+        assertEquals(0, snapshot.clicks);
+        assertEquals(0.0, snapshot.clicksPerSecond, 0.0);
+        assertEquals(0.0, snapshot.intervalJitterMs, 0.0);
+    }
+
+    @Test
+    public void steadyTenHertzHasNoJitter() {
+        ClickTimingStats stats = new ClickTimingStats();
+        for (int i = 0; i < 50; i++) {
+            stats.recordClick(1_000 * MS + i * 100 * MS, 0);
+        }
+        ClickTimingStats.Snapshot snapshot = stats.snapshot();
+        assertEquals(50, snapshot.clicks);
+        assertEquals(10.0, snapshot.clicksPerSecond, 1e-9);
+        assertEquals(0.0, snapshot.intervalJitterMs, 1e-9);
+        assertEquals(0.0, snapshot.p95LatenessMs, 0.0);
+    }
+
+    @Test
+    public void alternatingLatenessShowsAsJitterAndPercentiles() {
+        ClickTimingStats stats = new ClickTimingStats();
+        for (int i = 0; i < 20; i++) {
+            long late = (i % 2 == 0) ? 0 : MS; // Her ikinci tıklama 1 ms geç
+            if (i == 19) {
+                late = 5 * MS;                  // Tek büyük sapma
+            }
+            stats.recordClick(i * 100 * MS + late, late);
+        }
+        ClickTimingStats.Snapshot snapshot = stats.snapshot();
+        assertEquals(5.0, snapshot.maxLatenessMs, 1e-9);
+        assertEquals(1.0, snapshot.p95LatenessMs, 1e-9); // 19/20 örnek ≤ 1 ms
+        assertEquals((9 * 1 + 5) / 20.0, snapshot.meanLatenessMs, 1e-9);
+        assertTrue(snapshot.toString(), snapshot.intervalJitterMs > 0.9 && snapshot.intervalJitterMs < 1.5);
+        assertEquals(10.0, snapshot.clicksPerSecond, 0.3);
+    }
+
+    @Test
+    public void windowKeepsOnlyRecentClicksButCountersAccumulate() {
+        ClickTimingStats stats = new ClickTimingStats();
+        long t = 0;
+        for (int i = 0; i < ClickTimingStats.WINDOW; i++) { // Yavaş başlangıç: 2/sn
+            stats.recordClick(t, 50 * MS);
+            t += 500 * MS;
+        }
+        for (int i = 0; i < ClickTimingStats.WINDOW; i++) { // Sonra 20/sn, zamanında
+            stats.recordClick(t, 0);
+            t += 50 * MS;
+        }
+        stats.recordMissed(3);
+        stats.recordEmpty();
+        stats.recordCancelled();
+
+        ClickTimingStats.Snapshot snapshot = stats.snapshot();
+        assertEquals(2L * ClickTimingStats.WINDOW, snapshot.clicks);
+        assertEquals(3, snapshot.missedSlots);
+        assertEquals(1, snapshot.emptySlots);
+        assertEquals(1, snapshot.cancelled);
+        assertEquals(20.0, snapshot.clicksPerSecond, 1e-9);
+        assertEquals(0.0, snapshot.maxLatenessMs, 0.0);
+
+        stats.reset();
+        assertEquals(0, stats.snapshot().clicks);
+        assertEquals(0.0, stats.snapshot().clicksPerSecond, 0.0);
+    }
+}
@@ -0,0 +1,95 @@
+package com.qrmaster.app;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * FrameChangeDetector: aynı kare sessiz, yerel değişim doğru bölgede, gürültü eşiğin altında
+ *
+ * Özetin maliyeti benchmark modülünde ölçülür (FrameChangeDetectorBenchmark).
+ */
+public class FrameChangeDetectorTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 2400;
+
+    private static int[] uiFrame() {
+        int[] frame = new int[WIDTH * HEIGHT];
+        Arrays.fill(frame, 0xFFFFFFFF);
+        for (int i = 0; i < 12; i++) { // Liste satırları
+            IntArrayPixelSource.fill(frame, WIDTH, 0, 500 + i * 150, WIDTH, 2, 0xFFDDDDDD);
+            IntArrayPixelSource.fill(frame, WIDTH, 200, 540 + i * 150, 400, 40, 0xFF333333);
+        }
+        return frame;
+    }
+
+    @Test
+    public void firstFrameIsFullChangeThenIdenticalFramesAreQuiet() {
+        FrameChangeDetector detector = new FrameChangeDetector(16, 32, 6);
+        int[] frame = uiFrame();
+
+        FrameChangeDetector.Change first = detector.update(new IntArrayPixelSource(frame, WIDTH), WIDTH, HEIGHT);
+        assertTrue(first.changed);
+        assertTrue(first.firstFrame);
+        assertEquals(HEIGHT, first.bottom);
+
+        for (int i = 0; i < 3; i++) {
+            FrameChangeDetector.Change change = detector.update(new IntArrayPixelSource(frame.clone(), WIDTH), WIDTH, HEIGHT);
+            assertFalse(change.toString(), change.changed);
+            assertFalse(change.intersects(0, 0, WIDTH, HEIGHT));
+        }
+    }
+
+    @Test
+    public void localChangeIsBoundedToItsCells() {
+        FrameChangeDetector detector = new FrameChangeDetector(16, 32, 6);
+        int[] frame = uiFrame();
+        detector.update(new IntArrayPixelSource(frame, WIDTH), WIDTH, HEIGHT);
+
+        IntArrayPixelSource.fill(frame, WIDTH, 50, 1200, 100, 60, 0xFFFF6B00); // Alev ikonu belirdi
+        FrameChangeDetector.Change change = detector.update(new IntArrayPixelSource(frame, WIDTH), WIDTH, HEIGHT);
+
+        assertTrue(change.changed);
+        assertFalse(change.firstFrame);
+        assertTrue(change.toString(), change.left <= 50 && change.right >= 150 && change.right <= 3 * WIDTH / 16);
+        assertTrue(change.toString(), change.top <= 1200 && change.bottom >= 1260 && change.bottom - change.top <= 4 * HEIGHT / 32);
+        assertTrue(change.intersects(40, 480, 140, 2040));   // Alev alanı
+        assertFalse(change.intersects(600, 0, WIDTH, HEIGHT)); // Sağ taraf değişmedi
+    }
+
+    @Test
+    public void smallNoiseStaysBelowThreshold() {
+        FrameChangeDetector detector = new FrameChangeDetector(16, 32, 6);
+        int[] frame = uiFrame();
+        detector.update(new IntArrayPixelSource(frame, WIDTH), WIDTH, HEIGHT);
+
+        Random random = new Random(23);
+        int[] noisy = frame.clone();
+        for (int i = 0; i < noisy.length; i++) { // ±2 seviye sıkıştırma gürültüsü
+            int delta = random.nextInt(5) - 2;
+            int gray = Math.max(0, Math.min(255, (noisy[i] & 0xFF) + delta));
+            noisy[i] = 0xFF000000 | gray << 16 | gray << 8 | gray;
+        }
+        assertFalse(detector.update(new IntArrayPixelSource(noisy, WIDTH), WIDTH, HEIGHT).changed);
+    }
+
+    @Test
+    public void sizeChangeOrResetStartsOver() {
+        FrameChangeDetector detector = new FrameChangeDetector(16, 32, 6);
+        int[] frame = uiFrame();
+        detector.update(new IntArrayPixelSource(frame, WIDTH), WIDTH, HEIGHT);
+
+        detector.reset();
+        assertTrue(detector.update(new IntArrayPixelSource(frame, WIDTH), WIDTH, HEIGHT).firstFrame);
+
+        int[] half = new int[540 * 1200];
+        Arrays.fill(half, 0xFFFFFFFF);
+        FrameChangeDetector.Change change = detector.update(new IntArrayPixelSource(half, 540), 540, 1200);
+        assertTrue(change.firstFrame);
+        assertEquals(540, change.right);
+    }
+}
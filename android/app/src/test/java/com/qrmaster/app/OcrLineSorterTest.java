@@ -0,0 +1,88 @@
+package com.qrmaster.app;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * OcrLineSorter: satır gruplama ilk elemana sabit, sonuç girdi sırasından bağımsız
+ */
+public class OcrLineSorterTest {
+
+    private static final int THRESHOLD = 10;
+
+    private static final class Box implements OcrLineSorter.Line {
+        final String name;
+        final int top;
+        final int left;
+
+        Box(String name, int top, int left) {
+            this.name = name;
+            this.top = top;
+            this.left = left;
+        }
+
+        @Override
+        public int top() {
+            return top;
+        }
+
+        @Override
+        public int left() {
+            return left;
+        }
+    }
+
+    private static String names(List<Box> boxes) {
+        StringBuilder sb = new StringBuilder();
+        for (Box box : boxes) {
+            sb.append(box.name);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void sameRowIsOrderedLeftToRight() {
+        List<Box> boxes = new ArrayList<>(Arrays.asList(
+            new Box("c", 103, 400), new Box("a", 100, 10), new Box("b", 97, 200),
+            new Box("d", 150, 0)));
+        OcrLineSorter.sort(boxes, THRESHOLD);
+        assertEquals("abcd", names(boxes));
+    }
+
+    @Test
+    public void rowIsAnchoredAtItsTopmostLine() {
+        // 0-6 ve 6-12 eşik içinde, 0-12 değil: 12 yeni satır başlatır
+        List<Box> boxes = new ArrayList<>(Arrays.asList(
+            new Box("z", 12, 0), new Box("y", 6, 100), new Box("x", 0, 200)));
+        OcrLineSorter.sort(boxes, THRESHOLD);
+        assertEquals("yxz", names(boxes));
+    }
+
+    @Test
+    public void resultDoesNotDependOnInputOrder() {
+        Random random = new Random(7);
+        List<Box> boxes = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) { // Yakın Y'ler: eski karşılaştırıcıyla TimSort hatası riski
+            boxes.add(new Box(Character.toString((char) ('A' + i % 26)), random.nextInt(400), random.nextInt(1000)));
+        }
+        List<Box> expected = new ArrayList<>(boxes);
+        OcrLineSorter.sort(expected, THRESHOLD);
+
+        for (int round = 0; round < 5; round++) {
+            List<Box> shuffled = new ArrayList<>(boxes);
+            Collections.shuffle(shuffled, random);
+            OcrLineSorter.sort(shuffled, THRESHOLD);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).top, shuffled.get(i).top);
+                assertEquals(expected.get(i).left, shuffled.get(i).left);
+            }
+        }
+    }
+}
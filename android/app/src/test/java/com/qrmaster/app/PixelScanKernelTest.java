@@ -0,0 +1,128 @@
+package com.qrmaster.app;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * PixelScanKernel: int[] kare üzerinde sınıflandırma doğruluğu, ince hedefler ve süre bütçesi
+ *
+ * Tarama hızı benchmark modülünde ölçülür (PixelScanKernelBenchmark).
+ */
+public class PixelScanKernelTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 2400;
+    private static final int BACKGROUND = 0xFFF5F5F5;
+    private static final int FLAME = 0xFFFF6B00;   // RGB(255, 107, 0)
+    private static final int DIM_FLAME = 0xFFB4643C;
+
+    private static final PixelScanKernel.ColorRule FLAME_RULE = new PixelScanKernel.ColorRule(150, 150, 100, false);
+    private static final PixelScanKernel.ColorRule RED_OVER_GREEN_RULE = new PixelScanKernel.ColorRule(150, 180, 100, true);
+
+    private static int[] blankFrame() {
+        int[] frame = new int[WIDTH * HEIGHT];
+        Arrays.fill(frame, BACKGROUND);
+        return frame;
+    }
+
+    @Test
+    public void branchFreeRuleMatchesReferencePredicate() {
+        Random random = new Random(21);
+        for (int i = 0; i < 200_000; i++) {
+            int pixel = random.nextInt();
+            int red = (pixel >> 16) & 0xFF;
+            int green = (pixel >> 8) & 0xFF;
+            int blue = pixel & 0xFF;
+
+            boolean flame = red > 150 && green < 150 && blue < 100;
+            boolean redOverGreen = red > 150 && green < 180 && blue < 100 && red > green;
+            assertEquals(Integer.toHexString(pixel), flame ? 1 : 0, FLAME_RULE.match(pixel));
+            assertEquals(Integer.toHexString(pixel), redOverGreen ? 1 : 0, RED_OVER_GREEN_RULE.match(pixel));
+        }
+        // Eşik sınırları (kesin büyük/küçük)
+        assertEquals(0, FLAME_RULE.match(0xFF960000));  // red == 150
+        assertEquals(1, FLAME_RULE.match(0xFF970000));
+        assertEquals(0, FLAME_RULE.match(0xFFFF9600));  // green == 150
+        assertEquals(0, FLAME_RULE.match(0xFFFF0064));  // blue == 100
+    }
+
+    @Test
+    public void findsThinTargetsBetweenOldSampleRows() {
+        int[] frame = blankFrame();
+        // Eski tarama 600, 700, 800... satırlarına bakıyordu; 3 px'lik hedefler arada kalıyor
+        IntArrayPixelSource.fill(frame, WIDTH, 70, 640, 12, 3, FLAME);
+        IntArrayPixelSource.fill(frame, WIDTH, 90, 1005, 30, 40, FLAME);
+        IntArrayPixelSource.fill(frame, WIDTH, 60, 1310, 8, 1, DIM_FLAME);
+
+        PixelScanKernel kernel = new PixelScanKernel();
+        List<PixelScanKernel.Candidate> out = new ArrayList<>();
+        int found = kernel.scan(new IntArrayPixelSource(frame, WIDTH), WIDTH, HEIGHT, 50, HEIGHT / 4, 150, HEIGHT * 3 / 4,
+            FLAME_RULE, 6, 0, out);
+
+        assertEquals(out.toString(), 3, found);
+        PixelScanKernel.Candidate thin = out.get(0);
+        assertEquals(640, thin.top);
+        assertEquals(642, thin.bottom);
+        assertEquals(641, thin.y);
+        assertEquals(70, thin.x);
+        assertEquals(36, thin.pixelCount);
+        assertEquals(FLAME, thin.samplePixel);
+        assertEquals(255, thin.avgRed);
+        assertEquals(107, thin.avgGreen);
+        assertEquals(0, thin.avgBlue);
+
+        PixelScanKernel.Candidate tall = out.get(1);
+        assertEquals(1024, tall.y);
+        assertEquals(90, tall.x);
+        assertEquals(30 * 40, tall.pixelCount);
+
+        PixelScanKernel.Candidate dim = out.get(2);
+        assertEquals(1310, dim.y);
+        assertEquals(DIM_FLAME, dim.samplePixel);
+        assertEquals(1, kernel.lastRowStep());
+    }
+
+    @Test
+    public void gapsWithinIconKeepOneCandidateAndRegionIsClipped() {
+        int[] frame = blankFrame();
+        IntArrayPixelSource.fill(frame, WIDTH, 100, 700, 20, 10, FLAME);
+        IntArrayPixelSource.fill(frame, WIDTH, 100, 714, 20, 10, FLAME);  // 3 satır boşluk - aynı ikon
+        IntArrayPixelSource.fill(frame, WIDTH, 100, 760, 20, 10, FLAME);  // 35 satır boşluk - yeni aday
+        IntArrayPixelSource.fill(frame, WIDTH, 100, HEIGHT - 5, 20, 5, FLAME);
+
+        PixelScanKernel kernel = new PixelScanKernel();
+        List<PixelScanKernel.Candidate> out = new ArrayList<>();
+        kernel.scan(new IntArrayPixelSource(frame, WIDTH), WIDTH, HEIGHT, 50, 600, 150, HEIGHT + 500, FLAME_RULE, 6, 0, out);
+
+        assertEquals(out.toString(), 3, out.size());
+        assertEquals(700, out.get(0).top);
+        assertEquals(723, out.get(0).bottom);
+        assertEquals(760, out.get(1).top);
+        assertEquals(HEIGHT - 1, out.get(2).bottom);
+
+        out.clear();
+        assertEquals(0, kernel.scan(new IntArrayPixelSource(frame, WIDTH), WIDTH, HEIGHT, WIDTH, 0, WIDTH + 10, HEIGHT,
+            FLAME_RULE, 6, 0, out));
+    }
+
+    @Test
+    public void expiredBudgetFallsBackToSparseRows() {
+        int[] frame = blankFrame();
+        IntArrayPixelSource.fill(frame, WIDTH, 100, 1500, 20, 24, FLAME);
+
+        PixelScanKernel kernel = new PixelScanKernel();
+        List<PixelScanKernel.Candidate> out = new ArrayList<>();
+        kernel.scan(new IntArrayPixelSource(frame, WIDTH), WIDTH, HEIGHT, 0, 0, WIDTH, HEIGHT, FLAME_RULE, 6,
+            System.nanoTime() - 1, out);
+
+        assertEquals(PixelScanKernel.MAX_ROW_STEP, kernel.lastRowStep());
+        assertEquals(out.toString(), 1, out.size()); // Seyrek satırlarla da kalın hedef bulunur
+        assertTrue(out.get(0).top >= 1500 && out.get(0).bottom < 1524);
+    }
+}
@@ -0,0 +1,106 @@
+package com.qrmaster.app;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ScreenFrame: RGBA düzlemi rowStride / pixelStride dolgusuyla doğru okunuyor mu
+ */
+public class ScreenFrameTest {
+
+    private static int argb(int x, int y) {
+        return 0xFF000000 | ((x * 7) & 0xFF) << 16 | ((y * 13) & 0xFF) << 8 | ((x + y) & 0xFF);
+    }
+
+    /** ImageReader gibi RGBA bayt sırası; dolgu baytları 0x5A (okunmamalı) */
+    private static ByteBuffer plane(int width, int height, int rowStride, int pixelStride) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(rowStride * height);
+        for (int i = 0; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) 0x5A);
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int pixel = argb(x, y);
+                int offset = y * rowStride + x * pixelStride;
+                buffer.put(offset, (byte) (pixel >> 16));
+                buffer.put(offset + 1, (byte) (pixel >> 8));
+                buffer.put(offset + 2, (byte) pixel);
+                buffer.put(offset + 3, (byte) (pixel >>> 24));
+            }
+        }
+        return buffer;
+    }
+
+    private static void assertFrame(int width, int height, int rowStride, int pixelStride) {
+        ScreenFrame frame = new ScreenFrame(plane(width, height, rowStride, pixelStride), width, height,
+            rowStride, pixelStride, 1f, 0);
+
+        assertEquals(argb(0, 0), frame.getPixel(0, 0));
+        assertEquals(argb(width - 1, height - 1), frame.getPixel(width - 1, height - 1));
+
+        int[] block = new int[5 * 3];
+        frame.read(block, width - 5, 2, 5, 3);
+        for (int r = 0; r < 3; r++) {
+            for (int i = 0; i < 5; i++) {
+                assertEquals("(" + (width - 5 + i) + "," + (2 + r) + ")", argb(width - 5 + i, 2 + r), block[r * 5 + i]);
+            }
+        }
+    }
+
+    @Test
+    public void readsTightAndPaddedPlanes() {
+        assertFrame(37, 11, 37 * 4, 4);   // Dolgusuz
+        assertFrame(37, 11, 64 * 4, 4);   // Satır dolgusu (hizalı → IntBuffer yolu)
+        assertFrame(37, 11, 37 * 8 + 6, 8); // Piksel aralığı + hizasız satır
+    }
+
+    @Test
+    public void bufferIsReadOnlyAndDiesWithImage() {
+        ScreenFrame frame = new ScreenFrame(plane(8, 4, 48, 4), 8, 4, 48, 4, 0.5f, 123L);
+        assertTrue(frame.getBuffer().isReadOnly());
+        assertFalse(frame.isTightlyPacked());
+        assertEquals(20f, frame.toScreenX(10f), 0f);
+        assertEquals(123L, frame.getTimestampNs());
+
+        frame.release();
+        try {
+            frame.getPixel(0, 0);
+            fail("Released frame must not be readable");
+        } catch (IllegalStateException expected) {
+            // Image kapandı
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsReadsOutsideFrame() {
+        ScreenFrame frame = new ScreenFrame(plane(8, 4, 32, 4), 8, 4, 32, 4, 1f, 0);
+        frame.read(new int[16], 4, 0, 8, 2);
+    }
+
+    @Test
+    public void kernelScansPlaneDirectly() {
+        int width = 200;
+        int height = 120;
+        ByteBuffer buffer = plane(width, height, 208 * 4, 4);
+        for (int y = 50; y < 53; y++) { // İnce turuncu şerit (RGBA: FF 6B 00 FF)
+            for (int x = 120; x < 140; x++) {
+                buffer.putInt(y * 208 * 4 + x * 4, 0xFF6B00FF);
+            }
+        }
+        ScreenFrame frame = new ScreenFrame(buffer, width, height, 208 * 4, 4, 1f, 0);
+
+        List<PixelScanKernel.Candidate> out = new ArrayList<>();
+        new PixelScanKernel().scan(frame, width, height, 100, 0, 160, 100,
+            new PixelScanKernel.ColorRule(200, 120, 60, false), 2, 0, out);
+
+        assertEquals(out.toString(), 1, out.size());
+        assertEquals(51, out.get(0).y);
+        assertEquals(120, out.get(0).x);
+        assertEquals(0xFFFF6B00, out.get(0).samplePixel);
+    }
+}
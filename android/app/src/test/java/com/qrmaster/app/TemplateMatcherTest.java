@@ -0,0 +1,131 @@
+package com.qrmaster.app;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * TemplateMatcher: sentetik UI karesinde ikon bulma, son isabet takibi ve eşik
+ *
+ * Tam/yerel arama gecikmesi benchmark modülünde ölçülür (TemplateMatcherBenchmark).
+ */
+public class TemplateMatcherTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 2400;
+    private static final int ICON = 64;
+
+    /** Düz arka plan + rastgele gri kartlar (metin/buton benzeri) */
+    private static int[] uiFrame(long seed) {
+        int[] frame = new int[WIDTH * HEIGHT];
+        Arrays.fill(frame, 0xFFF2F2F2);
+        Random random = new Random(seed);
+        for (int i = 0; i < 300; i++) {
+            int w = 20 + random.nextInt(300);
+            int h = 10 + random.nextInt(60);
+            int x = random.nextInt(WIDTH - w);
+            int y = random.nextInt(HEIGHT - h);
+            int gray = 60 + random.nextInt(160);
+            int color = 0xFF000000 | gray << 16 | gray << 8 | gray;
+            IntArrayPixelSource.fill(frame, WIDTH, x, y, w, h, color);
+        }
+        return frame;
+    }
+
+    /** Beyaz buton üzerinde halka + çapraz çizgi ikonu */
+    private static void drawIcon(int[] frame, int left, int top) {
+        for (int y = 0; y < ICON; y++) {
+            for (int x = 0; x < ICON; x++) {
+                double dx = x - ICON / 2.0 + 0.5;
+                double dy = y - ICON / 2.0 + 0.5;
+                double r = Math.sqrt(dx * dx + dy * dy);
+                int color;
+                if (r > 20 && r < 28) {
+                    color = 0xFF1E66F5;
+                } else if (Math.abs(x - y) < 4 && r <= 20) {
+                    color = 0xFFFFFFFF;
+                } else if (r <= 20) {
+                    color = 0xFFE64553;
+                } else {
+                    color = 0xFFFFFFFF; // Buton zemini
+                }
+                frame[(top + y) * WIDTH + left + x] = color;
+            }
+        }
+    }
+
+    private static int[] crop(int[] frame, int left, int top, int w, int h) {
+        int[] out = new int[w * h];
+        for (int y = 0; y < h; y++) {
+            System.arraycopy(frame, (top + y) * WIDTH + left, out, y * w, w);
+        }
+        return out;
+    }
+
+    @Test
+    public void findsIconAndFollowsItWhenItMoves() {
+        int[] frame = uiFrame(1);
+        drawIcon(frame, 300, 900);
+        TemplateMatcher.Template template = new TemplateMatcher.Template(crop(frame, 300, 900, ICON, ICON), ICON, ICON);
+        assertTrue(template.levels >= 2);
+
+        TemplateMatcher matcher = new TemplateMatcher();
+        TemplateMatcher.Match first = matcher.find(new IntArrayPixelSource(frame, WIDTH), WIDTH, HEIGHT, template, 0.8f, null);
+        assertTrue(first.toString(), first.found);
+        assertFalse(first.fromLastHit);
+        assertEquals(332, first.x, TemplateMatcher.DOWNSCALE);
+        assertEquals(932, first.y, TemplateMatcher.DOWNSCALE);
+        assertTrue(first.score > 0.95f);
+
+        // Küçük kayma: son isabetin çevresinde bulunur
+        int[] shifted = uiFrame(1);
+        drawIcon(shifted, 330, 940);
+        TemplateMatcher.Match local = matcher.find(new IntArrayPixelSource(shifted, WIDTH), WIDTH, HEIGHT, template, 0.8f, first);
+        assertTrue(local.toString(), local.found);
+        assertTrue(local.fromLastHit);
+        assertEquals(362, local.x, TemplateMatcher.DOWNSCALE);
+        assertEquals(972, local.y, TemplateMatcher.DOWNSCALE);
+
+        // Uzağa taşındı (farklı arka plan): yerel arama yetmez, tüm kare aranır
+        int[] moved = uiFrame(2);
+        drawIcon(moved, 800, 2100);
+        TemplateMatcher.Match far = matcher.find(new IntArrayPixelSource(moved, WIDTH), WIDTH, HEIGHT, template, 0.8f, local);
+        assertTrue(far.toString(), far.found);
+        assertFalse(far.fromLastHit);
+        assertEquals(832, far.x, TemplateMatcher.DOWNSCALE);
+        assertEquals(2132, far.y, TemplateMatcher.DOWNSCALE);
+    }
+
+    @Test
+    public void absentIconStaysBelowThreshold() {
+        int[] frame = uiFrame(3);
+        drawIcon(frame, 100, 100);
+        TemplateMatcher.Template template = new TemplateMatcher.Template(crop(frame, 100, 100, ICON, ICON), ICON, ICON);
+
+        TemplateMatcher.Match match = new TemplateMatcher().find(new IntArrayPixelSource(uiFrame(3), WIDTH), WIDTH, HEIGHT,
+            template, 0.8f, null);
+        assertFalse(match.toString(), match.found);
+        assertTrue(match.score < 0.8f);
+    }
+
+    @Test
+    public void rejectsFlatOrOversizedTemplates() {
+        int[] flat = new int[ICON * ICON];
+        Arrays.fill(flat, 0xFF808080);
+        try {
+            new TemplateMatcher.Template(flat, ICON, ICON);
+            fail("Flat template accepted");
+        } catch (IllegalArgumentException expected) {
+            // Dokusuz
+        }
+        try {
+            new TemplateMatcher.Template(new int[300 * 300], 300, 300);
+            fail("Oversized template accepted");
+        } catch (IllegalArgumentException expected) {
+            // Çok büyük
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.qrmaster.app.keyboard;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * compileDictionary çıktısı (dictionary_tr.bin): SuggestionManager gibi mmap'lenip okunur
+ *
+ * Dosya yolları app/build.gradle'daki testOptions'tan gelir (görev testlerden önce çalışır).
+ */
+public class DictionaryAssetTest {
+
+    private static Path path(String property) {
+        String value = System.getProperty(property);
+        assertNotNull("-D" + property + " yok (testleri Gradle ile çalıştırın)", value);
+        return Paths.get(value);
+    }
+
+    private static MappedByteBuffer mapAsset() throws Exception {
+        try (FileChannel channel = FileChannel.open(path("dictionary.asset"), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static DictionaryTrie.Builder builderFromSource() throws Exception {
+        try (BufferedReader reader = Files.newBufferedReader(path("dictionary.source"), StandardCharsets.UTF_8)) {
+            return new DictionaryTrie.Builder().addWordList(reader);
+        }
+    }
+
+    @Test
+    public void assetIsByteIdenticalToBuilderOutput() throws Exception {
+        ByteBuffer expected = builderFromSource().toBuffer();
+        assertEquals(expected, mapAsset());
+    }
+
+    @Test
+    public void mappedAssetServesEveryWord() throws Exception {
+        DictionaryTrie trie = DictionaryTrie.fromBuffer(mapAsset());
+        assertTrue(trie.size() > 0);
+
+        int words = 0;
+        for (String line : Files.readAllLines(path("dictionary.source"), StandardCharsets.UTF_8)) {
+            String word = line.trim();
+            int tab = word.indexOf('\t');
+            if (tab > 0) {
+                word = word.substring(0, tab);
+            }
+            if (word.isEmpty()) {
+                continue;
+            }
+            words++;
+            assertTrue(word, trie.frequency(word) > 0);
+
+            String prefix = word.substring(0, Math.min(2, word.length()));
+            List<String> completions = trie.topK(prefix, 5);
+            assertFalse(prefix, completions.isEmpty());
+            for (String completion : completions) {
+                assertTrue(completion, completion.startsWith(DictionaryTrie.foldCase(prefix)));
+            }
+        }
+        assertTrue(trie.size() <= words); // Katlamadan sonra aynı olanlar tek kelime
+    }
+
+    @Test
+    public void rejectsForeignFile() {
+        ByteBuffer garbage = ByteBuffer.wrap("dictionary_tr.txt".getBytes(StandardCharsets.UTF_8));
+        try {
+            DictionaryTrie.fromBuffer(garbage);
+            fail("Yabancı dosya kabul edildi");
+        } catch (IllegalArgumentException expected) {
+            // Derlenmemiş / eski sürüm dosya
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.qrmaster.app.keyboard;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * DictionaryTrie: birleşik kenarlar (kenar ortasında biten önek), Türkçe katlama, best-first sıra
+ */
+public class DictionaryTrieTest {
+
+    private static DictionaryTrie trie() {
+        return new DictionaryTrie.Builder()
+                .add("kitap", 50)
+                .add("kitaplık", 20)
+                .add("kitapçı", 30)
+                .add("kırmızı", 40)
+                .add("Işık", 60)
+                .add("İstanbul", 70)
+                .build();
+    }
+
+    @Test
+    public void prefixEndingInsideAnEdgeFindsItsSubtree() {
+        DictionaryTrie trie = trie();
+        assertEquals(Arrays.asList("kitap", "kitapçı", "kitaplık"), trie.topK("ki", 5));
+        assertEquals(Arrays.asList("kitap", "kitapçı", "kitaplık"), trie.topK("kitap", 5));
+        assertEquals(Collections.singletonList("kitaplık"), trie.topK("kitapl", 5));
+        assertEquals(Collections.emptyList(), trie.topK("kitx", 5));
+    }
+
+    @Test
+    public void frequencyNeedsTheWholeWord() {
+        DictionaryTrie trie = trie();
+        assertEquals(50, trie.frequency("kitap"));
+        assertEquals(20, trie.frequency("kitaplık"));
+        assertEquals(0, trie.frequency("kita"));      // Kenar ortası
+        assertEquals(0, trie.frequency("kitaplı"));   // Kenar ortası
+        assertEquals(0, trie.frequency("kitaplıklar"));
+        assertEquals(6, trie.size());
+    }
+
+    @Test
+    public void turkishCaseFolding() {
+        DictionaryTrie trie = trie();
+        assertEquals(60, trie.frequency("IŞIK"));
+        assertEquals(70, trie.frequency("istanbul"));
+        assertEquals(Collections.singletonList("ışık"), trie.topK("I", 5));
+        assertEquals(Collections.singletonList("istanbul"), trie.topK("İS", 5));
+    }
+
+    @Test
+    public void completionsComeInFrequencyOrder() {
+        assertEquals(Arrays.asList("kitap", "kırmızı", "kitapçı", "kitaplık"), trie().topK("k", 10));
+    }
+}
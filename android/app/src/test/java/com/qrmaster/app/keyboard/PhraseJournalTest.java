@@ -0,0 +1,161 @@
+package com.qrmaster.app.keyboard;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PhraseJournal: ekle + yeniden yükle, nesil değiştiren sıkıştırma, yarım kalmış son kayıt
+ */
+public class PhraseJournalTest {
+
+    private static final String NAME = "phrases";
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("phrase-journal").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void appendedLearnsSurviveReload() throws Exception {
+        PhraseModel expected = new PhraseModel();
+        PhraseJournal journal = open(new PhraseModel());
+        learn(journal, expected, "merhaba", null, null);
+        learn(journal, expected, "dünya", "merhaba", null);
+        learn(journal, expected, "nasılsın", "dünya", "merhaba");
+        learn(journal, expected, "dünya", "merhaba", null);
+        journal.shutdown();
+
+        PhraseModel reloaded = new PhraseModel();
+        open(reloaded).shutdown();
+        assertEquals(dump(expected), dump(reloaded));
+        assertEquals(2, reloaded.bigramCount());
+        assertEquals(1, reloaded.trigramCount());
+    }
+
+    @Test
+    public void compactionStartsANewGenerationAndIgnoresTheStaleJournal() throws Exception {
+        PhraseModel expected = new PhraseModel();
+        PhraseJournal journal = open(new PhraseModel());
+        for (int i = 0; i < 1000; i++) {
+            learnSample(journal, expected, i);
+        }
+        journal.flush().get();
+        assertFalse(snapshot().exists());
+        byte[] staleJournal = Files.readAllBytes(journalFile().toPath());
+
+        // ~30 bayt/kayıt - 256 KB eşiğini aş
+        for (int i = 1000; i < 10000; i++) {
+            learnSample(journal, expected, i);
+        }
+        journal.flush().get();
+        assertTrue(snapshot().exists());
+        assertEquals(12, journalFile().length());   // Yalnız başlık (nesil 1)
+        List<String> compacted = dump(expected);
+
+        learn(journal, expected, "sonra", "sıkıştırma", null);
+        journal.shutdown();
+
+        PhraseModel reloaded = new PhraseModel();
+        open(reloaded).shutdown();
+        assertEquals(dump(expected), dump(reloaded));
+
+        // Snapshot yerine kondu ama günlük sıfırlanamadan çökülmüş gibi: eski nesil tekrar sayılmamalı
+        Files.write(journalFile().toPath(), staleJournal);
+        PhraseModel afterCrash = new PhraseModel();
+        open(afterCrash).shutdown();
+        assertEquals(compacted, dump(afterCrash));
+    }
+
+    @Test
+    public void recordCutMidWriteIsDroppedAndLaterAppendsStayReadable() throws Exception {
+        PhraseModel expected = new PhraseModel();
+        PhraseJournal journal = open(new PhraseModel());
+        learn(journal, expected, "bir", null, null);
+        learn(journal, expected, "iki", "bir", null);
+        journal.learn("üç", "iki", "bir");
+        journal.shutdown();
+
+        // Son kaydın ortasından kes
+        try (RandomAccessFile raf = new RandomAccessFile(journalFile(), "rw")) {
+            raf.setLength(raf.length() - 4);
+        }
+
+        PhraseModel recovered = new PhraseModel();
+        journal = open(recovered);
+        assertEquals(dump(expected), dump(recovered));
+
+        learn(journal, expected, "dört", "iki", "bir");
+        journal.shutdown();
+
+        PhraseModel reloaded = new PhraseModel();
+        open(reloaded).shutdown();
+        assertEquals(dump(expected), dump(reloaded));
+    }
+
+    // ---- Yardımcılar ----
+
+    private PhraseJournal open(PhraseModel model) throws InterruptedException {
+        PhraseJournal journal = new PhraseJournal(dir, NAME, model);
+        CountDownLatch loaded = new CountDownLatch(1);
+        journal.load(loaded::countDown);
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        return journal;
+    }
+
+    private static void learn(PhraseJournal journal, PhraseModel expected,
+                              String word, String prev, String prev2) throws Exception {
+        expected.applyLearn(word, prev, prev2);
+        journal.learn(word, prev, prev2);
+        journal.flush().get();
+    }
+
+    private static void learnSample(PhraseJournal journal, PhraseModel expected, int i) {
+        String word = "kelime" + (i % 40);
+        String prev = "önceki" + (i % 7);
+        String prev2 = "daha" + (i % 3);
+        expected.applyLearn(word, prev, prev2);
+        journal.learn(word, prev, prev2);
+    }
+
+    private File snapshot() {
+        return new File(dir, NAME + ".snap");
+    }
+
+    private File journalFile() {
+        return new File(dir, NAME + ".log");
+    }
+
+    private static List<String> dump(PhraseModel model) throws IOException {
+        List<String> rows = new ArrayList<>();
+        model.forEachCount((type, context, word, count) ->
+                rows.add(type + "|" + context + "|" + word + "|" + count));
+        Collections.sort(rows);
+        return rows;
+    }
+}
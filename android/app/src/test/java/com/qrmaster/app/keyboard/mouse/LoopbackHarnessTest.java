@@ -0,0 +1,308 @@
+package com.qrmaster.app.keyboard.mouse;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Telefon tarafının MouseManager'ın kullandığı katmanlarla (DeviceDiscovery, CommandPipeline +
+ * Binary/JsonSink, MouseProtocol hareket paketi) LoopbackMouseServer'a karşı uçtan uca testleri
+ *
+ * MouseManager'ın kendisi Handler/Choreographer'a bağlı olduğu için JVM'de çalışmaz; bağlantı
+ * kurulumu burada aynı AUTH satırıyla elle yapılır. Sadece sıra, kayıpsızlık ve tekrarsızlık
+ * denetlenir; hız ve gecikme benchmark modülünde ölçülür (MousePipelineBenchmark).
+ */
+public class LoopbackHarnessTest {
+
+    private static final String PIN = "1234";
+    private static final int KEY_COUNT = 20000;
+    private static final int MOVE_COUNT = 20000;
+
+    private LoopbackMouseServer server;
+    private final List<Closeable> resources = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new LoopbackMouseServer(PIN, true);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (Closeable resource : resources) {
+            resource.close();
+        }
+        server.close();
+    }
+
+    @Test
+    public void discoveryFindsServerAtKnownIp() throws Exception {
+        AtomicReference<DeviceDiscovery> discovery = new AtomicReference<>();
+        List<MouseManager.PCDevice> streamed = Collections.synchronizedList(new ArrayList<>());
+        discovery.set(new DeviceDiscovery(Collections.singletonList("127.0.0.1"), server.getDiscoveryPort(), 0,
+            device -> {
+                streamed.add(device);
+                discovery.get().finish(); // Bilinen PC yanıt verdi, süre dolmasını bekleme
+            }));
+
+        List<MouseManager.PCDevice> found = discovery.get().run(2000);
+
+        assertEquals(1, found.size());
+        assertEquals(1, streamed.size());
+        MouseManager.PCDevice device = found.get(0);
+        assertEquals(LoopbackMouseServer.DEVICE_ID, device.id);
+        assertEquals(LoopbackMouseServer.DEVICE_NAME, device.name);
+        assertEquals("127.0.0.1", device.ipAddress);
+    }
+
+    @Test
+    public void binaryCommandsArriveInOrder() throws Exception {
+        assertCommandOrder(open(null), Arrays.asList("TEXT ab", "KEY ENTER"));
+    }
+
+    @Test
+    public void jsonCommandsArriveInOrder() throws Exception {
+        server.close();
+        server = new LoopbackMouseServer(PIN, false);
+        assertCommandOrder(open(null), Arrays.asList("KEY a", "KEY b", "KEY ENTER"));
+    }
+
+    @Test
+    public void jsonSinkWritesTextAsKeys() throws Exception {
+        server.close();
+        server = new LoopbackMouseServer(PIN, false);
+        // Binary oturumdan kalan TEXT komutu JSON bağlantısında tekrar gönderilebilir
+        CommandPipeline.Sink sink = open(null).sink;
+        sink.text("aş👋");
+        sink.flush();
+        assertEquals("KEY a", server.nextEvent());
+        assertEquals("KEY ş", server.nextEvent());
+        assertEquals("KEY 👋", server.nextEvent());
+        assertNull(server.nextEvent());
+    }
+
+    @Test
+    public void manyKeysArriveInOrder() throws Exception {
+        CommandPipeline pipeline = pipeline(open(null).sink, null);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String key = i % 2 == 0 ? "ENTER" : "BACKSPACE"; // Birleştirilmeyen tuşlar
+            offer(() -> pipeline.key(key));
+        }
+        for (int i = 0; i < KEY_COUNT; i++) {
+            assertEquals(i % 2 == 0 ? "KEY ENTER" : "KEY BACKSPACE", server.nextEvent());
+        }
+        assertNull(server.nextEvent());
+    }
+
+    @Test
+    public void movesArriveInOrderWithoutLoss() throws Exception {
+        DatagramSocket socket = new DatagramSocket();
+        resources.add(socket);
+        socket.connect(InetAddress.getLoopbackAddress(), server.getUdpPort());
+        byte[] buffer = new byte[MouseProtocol.MOVE_PACKET_SIZE];
+        ByteBuffer writer = ByteBuffer.wrap(buffer);
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+
+        for (int sequence = 1; sequence <= MOVE_COUNT; sequence++) {
+            MouseProtocol.encodeMove(writer, 3, -2, sequence);
+            socket.send(packet);
+            // Alıcı tamponu taşmasın: denetlenen şey yolun kendisi, çekirdeğin paket atması değil
+            if (sequence - server.movesReceived() > 512) {
+                awaitMoves(sequence - 256);
+            }
+        }
+        awaitMoves(MOVE_COUNT);
+
+        assertEquals(MOVE_COUNT, server.movesReceived());
+        assertEquals(0, server.movesOutOfOrder());
+        assertEquals(3L * MOVE_COUNT, server.totalDeltaX());
+        assertEquals(-2L * MOVE_COUNT, server.totalDeltaY());
+    }
+
+    @Test
+    public void resumeReplaysUnreceivedCommandsExactlyOnce() throws Exception {
+        Connection first = open(null);
+        CountDownLatch writeFailed = new CountDownLatch(1);
+        CommandPipeline pipeline = pipeline(first.sink, writeFailed);
+
+        for (int i = 1; i <= 100; i++) {
+            assertTrue(pipeline.scroll(i));
+        }
+        for (int i = 1; i <= 100; i++) {
+            assertEquals("SCROLL " + i, server.nextEvent());
+        }
+
+        server.dropClient(); // Wi-Fi koptu
+        assertEquals("CLOSED", server.nextEvent());
+        pipeline.suspend();
+        for (int i = 101; i <= 200; i++) {
+            assertTrue(pipeline.scroll(i)); // Kopukken yazılanlar kuyrukta bekler
+        }
+
+        Connection second = open(first.session);
+        assertTrue(second.resumed);
+        assertEquals(100, second.received);
+        pipeline.resume(second.sink, second.received);
+        for (int i = 101; i <= 200; i++) {
+            assertEquals("SCROLL " + i, server.nextEvent());
+        }
+        assertNull(server.nextEvent());
+        assertEquals(1, server.sessionCount());
+    }
+
+    @Test
+    public void writeErrorPausesPipelineUntilResume() throws Exception {
+        Connection first = open(null);
+        CountDownLatch writeFailed = new CountDownLatch(1);
+        CommandPipeline pipeline = pipeline(first.sink, writeFailed);
+        assertTrue(pipeline.scroll(0));
+        assertEquals("SCROLL 0", server.nextEvent());
+
+        server.dropClient();
+        assertEquals("CLOSED", server.nextEvent());
+        // Kopukluğu ilk yazma fark eder (RST); fark edilene kadar yazılanlar da tekrar gönderilir
+        for (int i = 1; writeFailed.getCount() > 0 && i <= 1000; i++) {
+            assertTrue(pipeline.scroll(i));
+            writeFailed.await(5, TimeUnit.MILLISECONDS);
+        }
+        assertTrue("Yazma hatası fark edilmedi", writeFailed.await(2, TimeUnit.SECONDS));
+        int sentBeforeError = pipeline.pendingCount();
+        assertTrue(pipeline.scroll(-1));
+        assertEquals(sentBeforeError + 1, pipeline.pendingCount()); // Yazıcı duraklamada, kuyruk büyür
+
+        Connection second = open(first.session);
+        pipeline.resume(second.sink, second.received);
+        List<String> replayed = new ArrayList<>();
+        String event;
+        while ((event = server.nextEvent()) != null && !event.equals("SCROLL -1")) {
+            replayed.add(event);
+        }
+        assertEquals("SCROLL -1", event);
+        for (int i = 0; i < replayed.size(); i++) {
+            assertEquals("SCROLL " + (i + 1), replayed.get(i)); // Boşluk ve tekrar yok
+        }
+    }
+
+    // Karışık komutlar tek yazıcıdan sırası bozulmadan geçmeli; yazdırılabilir tuşlar sink'e göre birleşir
+    // (JSON yazıcısı kuyruktan yavaş; dolunca beklenir, komut atlanmaz)
+    private void assertCommandOrder(Connection connection, List<String> typedEvents) throws Exception {
+        CommandPipeline pipeline = pipeline(connection.sink, null);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int delta = i;
+            offer(() -> pipeline.scroll(delta));
+            expected.add("SCROLL " + i);
+            if (i % 7 == 0) {
+                offer(() -> pipeline.click("LEFT"));
+                expected.add("CLICK LEFT");
+            }
+            if (i % 11 == 0) {
+                offer(() -> pipeline.gesture("ALT_TAB"));
+                expected.add("GESTURE ALT_TAB");
+            }
+            if (i % 13 == 0) {
+                offer(() -> pipeline.text("ab")); // Tek kayıt: yazıcı partilerine bölünmez
+                offer(() -> pipeline.key("ENTER"));
+                expected.addAll(typedEvents);
+            }
+        }
+        for (String event : expected) {
+            assertEquals(event, server.nextEvent());
+        }
+        assertNull(server.nextEvent());
+    }
+
+    private CommandPipeline pipeline(CommandPipeline.Sink sink, CountDownLatch writeFailed) {
+        CommandPipeline pipeline = new CommandPipeline(sink, new CommandPipeline.Listener() {
+            @Override
+            public void onOverload(int pending) {
+            }
+
+            @Override
+            public void onWriteError(Exception e) {
+                if (writeFailed == null) {
+                    throw new AssertionError("Beklenmeyen yazma hatası", e);
+                }
+                writeFailed.countDown();
+            }
+        });
+        pipeline.start();
+        resources.add(pipeline::stop);
+        return pipeline;
+    }
+
+    // Kuyruk doluysa (CAPACITY) yazıcının yetişmesini bekle
+    private static void offer(CommandOffer offer) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!offer.offer()) {
+            if (System.nanoTime() > deadline) {
+                fail("Komut kuyruğu boşalmadı");
+            }
+            Thread.sleep(0, 100_000);
+        }
+    }
+
+    private interface CommandOffer {
+        boolean offer();
+    }
+
+    private void awaitMoves(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (server.movesReceived() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * MouseManager.openChannels ile aynı el sıkışma (UDP hariç)
+     */
+    private Connection open(String session) throws Exception {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        resources.add(socket);
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(2000);
+        OutputStream out = socket.getOutputStream();
+        PrintWriter lines = new PrintWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), false);
+        lines.println("{\"type\":\"AUTH\",\"pin\":\"" + PIN + "\",\"device_name\":\"test\",\"binary_version\":"
+            + MouseProtocol.BINARY_VERSION + (session != null ? ",\"session\":\"" + session + "\"" : "") + "}");
+        lines.flush();
+
+        String response = MouseProtocol.readLine(socket.getInputStream());
+        assertEquals("AUTH_OK", LoopbackMouseServer.stringField(response, "status"));
+        Connection connection = new Connection();
+        connection.session = LoopbackMouseServer.stringField(response, "session");
+        connection.resumed = response.contains("\"resumed\": true");
+        connection.received = LoopbackMouseServer.numberField(response, "received");
+        connection.sink = LoopbackMouseServer.numberField(response, "binary_version") == MouseProtocol.BINARY_VERSION
+            ? new BinarySink(new MouseProtocol.FrameWriter(out))
+            : new JsonSink(lines);
+        return connection;
+    }
+
+    private static final class Connection {
+        CommandPipeline.Sink sink;
+        String session;
+        boolean resumed;
+        long received;
+    }
+}
@@ -0,0 +1,164 @@
+package com.qrmaster.app.keyboard.mouse;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * MouseProtocol çerçeveleme + LoopbackMouseServer üzerinden el sıkışma testleri
+ */
+public class MouseProtocolTest {
+
+    private static final String PIN = "1234";
+    private static final String AUTH_BINARY =
+        "{\"type\":\"AUTH\",\"pin\":\"1234\",\"device_name\":\"test\",\"binary_version\":1}";
+
+    @Test
+    public void framesRoundTrip() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MouseProtocol.FrameWriter writer = new MouseProtocol.FrameWriter(bytes);
+        writer.writeClick("DOUBLE");
+        writer.writeScroll(-120);
+        writer.writeText("Çığ düştü 👋");
+        writer.writePing(Long.MAX_VALUE);
+        writer.writeDisconnect();
+        writer.flush();
+
+        MouseProtocol.FrameReader reader = new MouseProtocol.FrameReader(new ByteArrayInputStream(bytes.toByteArray()));
+        MouseProtocol.Frame frame = reader.read();
+        assertEquals(MouseProtocol.OP_CLICK, frame.opcode);
+        assertEquals("DOUBLE", frame.buttonValue());
+        frame = reader.read();
+        assertEquals(MouseProtocol.OP_SCROLL, frame.opcode);
+        assertEquals(-120, frame.intValue());
+        frame = reader.read();
+        assertEquals(MouseProtocol.OP_TEXT, frame.opcode);
+        assertEquals("Çığ düştü 👋", frame.text());
+        frame = reader.read();
+        assertEquals(MouseProtocol.OP_PING, frame.opcode);
+        assertEquals(Long.MAX_VALUE, frame.longValue());
+        frame = reader.read();
+        assertEquals(MouseProtocol.OP_DISCONNECT, frame.opcode);
+        assertEquals(0, frame.payload.length);
+        assertNull(reader.read());
+    }
+
+    @Test
+    public void clickFrameIsFourBytes() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MouseProtocol.FrameWriter writer = new MouseProtocol.FrameWriter(bytes);
+        writer.writeClick("LEFT");
+        assertEquals(0, bytes.size());
+        writer.flush();
+        assertArrayEquals(new byte[]{0, 2, MouseProtocol.OP_CLICK, MouseProtocol.BUTTON_LEFT}, bytes.toByteArray());
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedFrameFails() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MouseProtocol.FrameWriter writer = new MouseProtocol.FrameWriter(bytes);
+        writer.writeKey("ENTER");
+        writer.flush();
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 1);
+        new MouseProtocol.FrameReader(new ByteArrayInputStream(truncated)).read();
+    }
+
+    @Test
+    public void readLineLeavesFollowingBytes() throws Exception {
+        InputStream in = new ByteArrayInputStream("{\"status\":\"AUTH_OK\"}\n\u0000\u0002".getBytes(StandardCharsets.UTF_8));
+        assertEquals("{\"status\":\"AUTH_OK\"}", MouseProtocol.readLine(in));
+        assertEquals(0, in.read());
+        assertEquals(2, in.read());
+    }
+
+    @Test
+    public void binaryHandshakeOverLoopback() throws Exception {
+        try (LoopbackMouseServer server = new LoopbackMouseServer(PIN, true);
+             Socket socket = connect(server)) {
+            PrintWriter lines = lineWriter(socket);
+            lines.println(AUTH_BINARY);
+            String response = MouseProtocol.readLine(socket.getInputStream());
+            assertEquals("AUTH_OK", LoopbackMouseServer.stringField(response, "status"));
+            assertEquals(MouseProtocol.BINARY_VERSION, LoopbackMouseServer.numberField(response, "binary_version"));
+
+            MouseProtocol.FrameWriter writer = new MouseProtocol.FrameWriter(socket.getOutputStream());
+            MouseProtocol.FrameReader reader = new MouseProtocol.FrameReader(socket.getInputStream());
+            writer.writeClick("RIGHT");
+            writer.writeScroll(-5);
+            writer.writeKey("LWIN");
+            writer.writeText("merhaba dünya");
+            writer.writeGesture("ALT_TAB");
+            writer.writePing(42L);
+            writer.flush();
+
+            assertEquals("CLICK RIGHT", server.nextEvent());
+            assertEquals("SCROLL -5", server.nextEvent());
+            assertEquals("KEY LWIN", server.nextEvent());
+            assertEquals("TEXT merhaba dünya", server.nextEvent());
+            assertEquals("GESTURE ALT_TAB", server.nextEvent());
+            assertEquals("PING", server.nextEvent());
+
+            MouseProtocol.Frame pong = reader.read();
+            assertEquals(MouseProtocol.OP_PONG, pong.opcode);
+            assertEquals(42L, pong.longValue());
+
+            writer.writeDisconnect();
+            writer.flush();
+            assertEquals("DISCONNECT", server.nextEvent());
+        }
+    }
+
+    @Test
+    public void jsonFallbackWhenServerIsOld() throws Exception {
+        try (LoopbackMouseServer server = new LoopbackMouseServer(PIN, false);
+             Socket socket = connect(server)) {
+            PrintWriter lines = lineWriter(socket);
+            lines.println(AUTH_BINARY);
+            String response = MouseProtocol.readLine(socket.getInputStream());
+            assertEquals("AUTH_OK", LoopbackMouseServer.stringField(response, "status"));
+            assertEquals(-1, LoopbackMouseServer.numberField(response, "binary_version"));
+
+            lines.println("{\"type\":\"KEY_PRESS\",\"key\":\"a\"}");
+            lines.println("{\"type\":\"PING\",\"timestamp\":7}");
+            assertEquals("KEY a", server.nextEvent());
+            assertEquals("PING", server.nextEvent());
+
+            String pong = MouseProtocol.readLine(socket.getInputStream());
+            assertEquals("PONG", LoopbackMouseServer.stringField(pong, "type"));
+            assertEquals(7, LoopbackMouseServer.numberField(pong, "timestamp"));
+        }
+    }
+
+    @Test
+    public void wrongPinIsRejected() throws Exception {
+        try (LoopbackMouseServer server = new LoopbackMouseServer(PIN, true);
+             Socket socket = connect(server)) {
+            lineWriter(socket).println(AUTH_BINARY.replace(PIN, "0000"));
+            String response = MouseProtocol.readLine(socket.getInputStream());
+            assertEquals("AUTH_FAILED", LoopbackMouseServer.stringField(response, "status"));
+            assertNull(MouseProtocol.readLine(socket.getInputStream()));
+        }
+    }
+
+    private static Socket connect(LoopbackMouseServer server) throws Exception {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        socket.setSoTimeout(2000);
+        socket.setTcpNoDelay(true);
+        return socket;
+    }
+
+    private static PrintWriter lineWriter(Socket socket) throws Exception {
+        return new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+    }
+}
@@ -0,0 +1,70 @@
+package com.qrmaster.app.keyboard.mouse;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * TrackpadFilter: tahmin toplam yer değiştirmeyi bozmaz, ivme eğrisinin uçları
+ */
+public class TrackpadFilterTest {
+
+    private static final float DENSITY = 2.75f;
+    private static final float EPSILON = 0.01f; // px
+
+    /** Hızlanıp yavaşlayan kavisli sürükleme, 8 ms aralıklı; her 3 örnekte bir gönderim */
+    private static float[] drag(TrackpadFilter filter) {
+        float[] sent = new float[2];
+        filter.begin(100f, 900f, 0L);
+        float x = 100f;
+        float y = 900f;
+        for (int i = 1; i <= 60; i++) {
+            float speed = i <= 30 ? i * 1.5f : (61 - i) * 1.5f; // px/örnek
+            x += speed;
+            y -= speed * 0.4f + (float) Math.sin(i / 6.0) * 3f;
+            filter.add(x, y, i * 8L);
+            if (i % 3 == 0) {
+                sent[0] += filter.takeDeltaX();
+                sent[1] += filter.takeDeltaY();
+            }
+        }
+        return sent;
+    }
+
+    private static float[] finish(TrackpadFilter filter, float[] sent) {
+        filter.settle();
+        return new float[]{sent[0] + filter.takeDeltaX(), sent[1] + filter.takeDeltaY()};
+    }
+
+    @Test
+    public void predictionDoesNotChangeTotalDisplacement() {
+        TrackpadFilter plain = new TrackpadFilter(DENSITY);
+        TrackpadFilter predicted = new TrackpadFilter(DENSITY);
+        predicted.setPredictionLatency(40f);
+
+        float[] plainSent = drag(plain);
+        float[] predictedSent = drag(predicted);
+        // Hareket sırasında tahmin imleci gerçekten ileri taşımış olmalı
+        assertTrue(predicted.hasLead());
+        assertTrue(predictedSent[0] > plainSent[0] + 1f);
+
+        float[] plainTotal = finish(plain, plainSent);
+        float[] predictedTotal = finish(predicted, predictedSent);
+        assertFalse(predicted.hasLead());
+        assertTrue(plainTotal[0] > 0f);
+        assertEquals(plainTotal[0], predictedTotal[0], EPSILON);
+        assertEquals(plainTotal[1], predictedTotal[1], EPSILON);
+    }
+
+    @Test
+    public void gainSpansSlowToFastSpeeds() {
+        assertEquals(0.6f, TrackpadFilter.gainFor(30f), 1e-6f);
+        assertEquals(2.8f, TrackpadFilter.gainFor(1200f), 1e-6f);
+        assertEquals(0.6f, TrackpadFilter.gainFor(0f), 1e-6f);
+        assertEquals(2.8f, TrackpadFilter.gainFor(5000f), 1e-6f);
+
+        float mid = TrackpadFilter.gainFor(615f); // Eğrinin ortası
+        assertEquals(1.7f, mid, 1e-4f);
+        assertTrue(TrackpadFilter.gainFor(100f) < TrackpadFilter.gainFor(300f));
+    }
+}
@@ -0,0 +1,224 @@
+package com.qrmaster.app.keyboard.views;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * MjpegParser testleri - kaydedilmiş akışlar farklı parça boyutlarıyla yeniden oynatılır
+ *
+ * resources/mjpeg altındaki kayıtlar qkeyboard_server_screen.py'nin yazdığı biçimde
+ * (eski: Content-Length yok, yeni: Content-Length var) üç kare içerir:
+ * 1200 bayt, 5000 bayt (gömülü küçük resim, içinde FF D8 ... FF D9) ve 70000 bayt.
+ */
+public class MjpegParserTest {
+
+    private static final int[] CAPTURED_FRAME_SIZES = {1200, 5000, 70000};
+    private static final int[] CHUNK_SIZES = {1, 2, 7, 1000, 4096, 65536};
+
+    @Test
+    public void replaysLegacyCaptureAtAnyChunkSize() throws Exception {
+        byte[] capture = resource("/mjpeg/screen_server_legacy.mjpeg");
+        for (int chunk : CHUNK_SIZES) {
+            assertCapturedFrames(replay(capture, "frame", chunk));
+        }
+    }
+
+    @Test
+    public void replaysContentLengthCaptureAtAnyChunkSize() throws Exception {
+        byte[] capture = resource("/mjpeg/screen_server_content_length.mjpeg");
+        for (int chunk : CHUNK_SIZES) {
+            assertCapturedFrames(replay(capture, "frame", chunk));
+        }
+    }
+
+    @Test
+    public void bothCapturesYieldIdenticalFrames() throws Exception {
+        List<byte[]> legacy = replay(resource("/mjpeg/screen_server_legacy.mjpeg"), "frame", 4096);
+        List<byte[]> sized = replay(resource("/mjpeg/screen_server_content_length.mjpeg"), "frame", 4096);
+        assertEquals(legacy.size(), sized.size());
+        for (int i = 0; i < legacy.size(); i++) {
+            assertArrayEquals(legacy.get(i), sized.get(i));
+        }
+    }
+
+    @Test
+    public void replaysWithRandomChunks() throws Exception {
+        byte[] capture = resource("/mjpeg/screen_server_legacy.mjpeg");
+        Random random = new Random(15);
+        for (int round = 0; round < 20; round++) {
+            MjpegParser parser = new MjpegParser(new ChunkedInputStream(capture, random), "frame");
+            assertCapturedFrames(readAll(parser));
+        }
+    }
+
+    @Test
+    public void learnsBoundaryWhenContentTypeIsMissing() throws Exception {
+        byte[] capture = resource("/mjpeg/screen_server_legacy.mjpeg");
+        assertCapturedFrames(replay(capture, null, 4096));
+    }
+
+    @Test
+    public void framesLargerThanOneMegabyte() throws Exception {
+        byte[] big = fakeJpeg(3 * 1024 * 1024 + 17);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        writePart(stream, "frame", big, true);
+        writePart(stream, "frame", big, false);
+
+        List<byte[]> frames = replay(stream.toByteArray(), "frame", 65536);
+        assertEquals(2, frames.size());
+        assertArrayEquals(big, frames.get(0));
+        assertArrayEquals(big, frames.get(1));
+    }
+
+    @Test
+    public void stopsAtCloseDelimiterAndDropsTruncatedFrame() throws Exception {
+        byte[] jpeg = fakeJpeg(300);
+        ByteArrayOutputStream closed = new ByteArrayOutputStream();
+        writePart(closed, "b", jpeg, false);
+        closed.write("--b--\r\n".getBytes(StandardCharsets.US_ASCII));
+        writePart(closed, "b", jpeg, false); // Kapanıştan sonrası okunmaz
+        assertEquals(1, replay(closed.toByteArray(), "b", 64).size());
+
+        ByteArrayOutputStream truncated = new ByteArrayOutputStream();
+        writePart(truncated, "b", jpeg, false);
+        truncated.write("--b\r\nContent-Type: image/jpeg\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        truncated.write(jpeg, 0, 100);
+        assertEquals(1, replay(truncated.toByteArray(), "b", 64).size());
+    }
+
+    @Test
+    public void nonJpegPartsEndAtBoundary() throws Exception {
+        String stream = "--x\r\nContent-Type: text/plain\r\n\r\nbir\r\n--x\r\n\r\niki\nsatır\r\n--x--\r\n";
+        List<byte[]> parts = replay(stream.getBytes(StandardCharsets.UTF_8), "x", 3);
+        assertEquals(2, parts.size());
+        assertEquals("bir", new String(parts.get(0), StandardCharsets.UTF_8));
+        assertEquals("iki\nsatır", new String(parts.get(1), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void parsesBoundaryParameter() {
+        assertEquals("frame", MjpegParser.boundaryFromContentType("multipart/x-mixed-replace; boundary=frame"));
+        assertEquals("my boundary", MjpegParser.boundaryFromContentType("multipart/x-mixed-replace;Boundary=\"my boundary\""));
+        assertNull(MjpegParser.boundaryFromContentType("image/jpeg"));
+        assertNull(MjpegParser.boundaryFromContentType(null));
+    }
+
+    // --- Yeniden oynatma yardımcıları ---
+
+    static List<byte[]> replay(byte[] capture, String boundary, int chunkSize) throws IOException {
+        return readAll(new MjpegParser(new ChunkedInputStream(capture, chunkSize), boundary));
+    }
+
+    static List<byte[]> readAll(MjpegParser parser) throws IOException {
+        List<byte[]> frames = new ArrayList<>();
+        int length;
+        while ((length = parser.nextFrame()) >= 0) {
+            frames.add(Arrays.copyOf(parser.frameBuffer(), length));
+        }
+        return frames;
+    }
+
+    private static void assertCapturedFrames(List<byte[]> frames) {
+        assertEquals(CAPTURED_FRAME_SIZES.length, frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            byte[] frame = frames.get(i);
+            assertEquals(CAPTURED_FRAME_SIZES[i], frame.length);
+            assertEquals((byte) 0xFF, frame[0]);
+            assertEquals((byte) 0xD8, frame[1]);
+            assertEquals((byte) 0xFF, frame[frame.length - 2]);
+            assertEquals((byte) 0xD9, frame[frame.length - 1]);
+        }
+    }
+
+    private static byte[] resource(String name) throws IOException {
+        try (InputStream in = MjpegParserTest.class.getResourceAsStream(name)) {
+            assertNotNull("Kayıt bulunamadı: " + name, in);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    // SOI + SOS başlığı + doldurulmuş (FF → FF 00) sıkıştırılmış veri + EOI, tam size bayt
+    static byte[] fakeJpeg(int size) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        out.write(0xFF);
+        out.write(0xD8);
+        out.write(0xFF);
+        out.write(0xDA);
+        out.write(0);
+        out.write(4);
+        out.write(1);
+        out.write(0);
+        Random random = new Random(size);
+        while (out.size() < size - 2) {
+            int b = random.nextInt(256);
+            if (b == 0xFF) {
+                if (out.size() + 2 > size - 2) {
+                    b = 0;
+                } else {
+                    out.write(0xFF);
+                    b = 0;
+                }
+            }
+            out.write(b);
+        }
+        out.write(0xFF);
+        out.write(0xD9);
+        return out.toByteArray();
+    }
+
+    private static void writePart(ByteArrayOutputStream out, String boundary, byte[] body, boolean withLength)
+            throws IOException {
+        StringBuilder headers = new StringBuilder("--").append(boundary).append("\r\nContent-Type: image/jpeg\r\n");
+        if (withLength) {
+            headers.append("Content-Length: ").append(body.length).append("\r\n");
+        }
+        headers.append("\r\n");
+        out.write(headers.toString().getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+        out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Ağdan okuma gibi davranır: her read() en fazla chunkSize (veya rastgele) bayt döndürür
+     */
+    static final class ChunkedInputStream extends FilterInputStream {
+        private final int chunkSize;
+        private final Random random;
+
+        ChunkedInputStream(byte[] data, int chunkSize) {
+            super(new ByteArrayInputStream(data));
+            this.chunkSize = chunkSize;
+            this.random = null;
+        }
+
+        ChunkedInputStream(byte[] data, Random random) {
+            super(new ByteArrayInputStream(data));
+            this.chunkSize = 0;
+            this.random = random;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int limit = random != null ? 1 + random.nextInt(5000) : chunkSize;
+            return super.read(b, off, Math.min(len, limit));
+        }
+    }
+}
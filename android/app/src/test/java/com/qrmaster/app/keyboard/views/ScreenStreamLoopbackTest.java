@@ -0,0 +1,68 @@
+package com.qrmaster.app.keyboard.views;
+
+import static org.junit.Assert.*;
+
+import com.qrmaster.app.keyboard.mouse.LoopbackMouseServer;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * /screen MJPEG akışı: LoopbackMouseServer'dan HttpURLConnection + MjpegParser ile
+ * (ScreenStreamThread.runMjpegStream'deki gibi) okunur; kare sırası ve içerik doğrulanır.
+ * Hız burada ölçülmez (paylaşımlı CI makinesinde duvar saati güvenilmez).
+ */
+public class ScreenStreamLoopbackTest {
+
+    private static final int FRAME_COUNT = 60;
+
+    @Test
+    public void mjpegFramesArriveIntactAndInOrder() throws Exception {
+        List<byte[]> frames = new ArrayList<>();
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            byte[] frame = MjpegParserTest.fakeJpeg(2000 + i * 4001); // 2 KB ... ~240 KB
+            frames.add(frame);
+        }
+
+        try (LoopbackMouseServer server = new LoopbackMouseServer("1234", true)) {
+            server.setScreenFrames(frames);
+            URL url = new URL("http://127.0.0.1:" + server.getHttpPort() + "/screen");
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn.setConnectTimeout(2000);
+            conn.setReadTimeout(2000);
+
+            List<byte[]> received = new ArrayList<>();
+            try (InputStream in = conn.getInputStream()) {
+                MjpegParser parser = new MjpegParser(in, MjpegParser.boundaryFromContentType(conn.getContentType()));
+                int length;
+                while ((length = parser.nextFrame()) >= 0) {
+                    received.add(Arrays.copyOf(parser.frameBuffer(), length));
+                }
+            } finally {
+                conn.disconnect();
+            }
+            assertEquals(FRAME_COUNT, received.size());
+            for (int i = 0; i < FRAME_COUNT; i++) {
+                assertArrayEquals("Kare " + i, frames.get(i), received.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void unknownPathIsNotFound() throws Exception {
+        try (LoopbackMouseServer server = new LoopbackMouseServer("1234", true)) {
+            URL url = new URL("http://127.0.0.1:" + server.getHttpPort() + "/screen/tiles?since=0");
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn.setConnectTimeout(2000);
+            conn.setReadTimeout(2000);
+            assertEquals(404, conn.getResponseCode()); // ScreenStreamThread bu durumda MJPEG'e geçer
+            conn.disconnect();
+        }
+    }
+}
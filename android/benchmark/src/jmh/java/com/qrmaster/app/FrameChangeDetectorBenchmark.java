@@ -0,0 +1,51 @@
+package com.qrmaster.app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+
+/**
+ * Ekran analizi değişim özeti: 1080x2400 liste ekranı, değişmeyen ve yerel değişen kareler
+ *
+ * PixelScanKernelBenchmark'taki tam kare taramayla karşılaştırılır; özet ondan çok daha ucuz olmalı.
+ */
+@State(Scope.Thread)
+public class FrameChangeDetectorBenchmark {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 2400;
+
+    private final FrameChangeDetector detector = new FrameChangeDetector(16, 32, 6); // IntelligentVisionSystem ile aynı
+    private PixelScanKernel.PixelSource still;
+    private PixelScanKernel.PixelSource changed;
+    private boolean toggle;
+
+    @Setup
+    public void setup() {
+        int[] frame = new int[WIDTH * HEIGHT];
+        Arrays.fill(frame, 0xFFFFFFFF);
+        for (int i = 0; i < 12; i++) { // Liste satırları
+            IntArrayPixelSource.fill(frame, WIDTH, 0, 500 + i * 150, WIDTH, 2, 0xFFDDDDDD);
+            IntArrayPixelSource.fill(frame, WIDTH, 200, 540 + i * 150, 400, 40, 0xFF333333);
+        }
+        int[] badge = frame.clone();
+        IntArrayPixelSource.fill(badge, WIDTH, 900, 1200, 60, 60, 0xFFFF6B00); // Yerel değişim (rozet belirdi)
+
+        still = new IntArrayPixelSource(frame, WIDTH);
+        changed = new IntArrayPixelSource(badge, WIDTH);
+        detector.update(still, WIDTH, HEIGHT);
+    }
+
+    @Benchmark
+    public boolean unchangedFrame() {
+        return detector.update(still, WIDTH, HEIGHT).changed;
+    }
+
+    @Benchmark
+    public boolean localChange() {
+        toggle = !toggle;
+        return detector.update(toggle ? changed : still, WIDTH, HEIGHT).changed;
+    }
+}
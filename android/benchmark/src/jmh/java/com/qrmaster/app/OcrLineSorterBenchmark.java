@@ -0,0 +1,67 @@
+package com.qrmaster.app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * SmartOCRProcessor satır sıralaması: sayfa düzeninde (sütunlu, hafif eğik) karışık satırlar
+ */
+@State(Scope.Thread)
+public class OcrLineSorterBenchmark {
+    private static final int LINE_OVERLAP_THRESHOLD = 10; // SmartOCRProcessor ile aynı
+
+    public static final class Line implements OcrLineSorter.Line {
+        final int top;
+        final int left;
+
+        Line(int top, int left) {
+            this.top = top;
+            this.left = left;
+        }
+
+        @Override
+        public int top() {
+            return top;
+        }
+
+        @Override
+        public int left() {
+            return left;
+        }
+    }
+
+    @Param({"100", "1000", "10000"})
+    public int lineCount;
+
+    private List<Line> shuffled;
+    private final List<Line> work = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        shuffled = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            int row = i / 3;       // Satır başına 3 sütun
+            int column = i % 3;
+            int jitter = random.nextInt(7) - 3; // Eğik tarama
+            shuffled.add(new Line(row * 24 + jitter, column * 320 + random.nextInt(20)));
+        }
+        Collections.shuffle(shuffled, random);
+    }
+
+    @Benchmark
+    public List<Line> sortLines() {
+        work.clear();
+        work.addAll(shuffled);
+        OcrLineSorter.sort(work, LINE_OVERLAP_THRESHOLD);
+        return work;
+    }
+}
@@ -0,0 +1,47 @@
+package com.qrmaster.app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * AutoClickerService alev taraması: 1080x2400 karenin tamamı, her satır (süre bütçesi yok)
+ */
+@State(Scope.Thread)
+public class PixelScanKernelBenchmark {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 2400;
+    private static final int FLAME = 0xFFFF6B00;
+    private static final PixelScanKernel.ColorRule FLAME_RULE = new PixelScanKernel.ColorRule(150, 150, 100, false);
+
+    private PixelScanKernel.PixelSource source;
+    private final PixelScanKernel kernel = new PixelScanKernel();
+    private final List<PixelScanKernel.Candidate> out = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        int[] frame = new int[WIDTH * HEIGHT];
+        Arrays.fill(frame, 0xFFF5F5F5);
+        Random random = new Random(7);
+        for (int i = 0; i < 40; i++) { // Dağınık alev ikonları
+            int left = random.nextInt(WIDTH - 40);
+            int top = random.nextInt(HEIGHT - 40);
+            int width = 1 + random.nextInt(40);
+            int height = 1 + random.nextInt(40);
+            IntArrayPixelSource.fill(frame, WIDTH, left, top, width, height, FLAME);
+        }
+        source = new IntArrayPixelSource(frame, WIDTH);
+    }
+
+    @Benchmark
+    public int denseFullFrameScan() {
+        out.clear();
+        return kernel.scan(source, WIDTH, HEIGHT, 0, 0, WIDTH, HEIGHT, FLAME_RULE, 6, 0, out);
+    }
+}
@@ -0,0 +1,91 @@
+package com.qrmaster.app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Görsel hedef (HEDEF aksiyonu) şablon eşleme: 1080x2400 UI karesinde 64 px ikon
+ *
+ * fullSearch: son isabet yok, tüm kare piramitle aranır. localSearch: önceki isabetin çevresi.
+ * İkisi de tıklama aralığının (AutoClickerService) içinde kalmalı; yerel arama tam aramadan ucuz olmalı.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TemplateMatcherBenchmark {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 2400;
+    private static final int ICON = 64;
+    private static final float MIN_SCORE = 0.8f;
+
+    private final TemplateMatcher matcher = new TemplateMatcher();
+    private PixelScanKernel.PixelSource source;
+    private TemplateMatcher.Template template;
+    private TemplateMatcher.Match lastHit;
+
+    @Setup
+    public void setup() {
+        int[] frame = new int[WIDTH * HEIGHT];
+        Arrays.fill(frame, 0xFFF2F2F2);
+        Random random = new Random(4);
+        for (int i = 0; i < 300; i++) { // Metin/buton benzeri gri kartlar
+            int w = 20 + random.nextInt(300);
+            int h = 10 + random.nextInt(60);
+            int x = random.nextInt(WIDTH - w);
+            int y = random.nextInt(HEIGHT - h);
+            int gray = 60 + random.nextInt(160);
+            int color = 0xFF000000 | gray << 16 | gray << 8 | gray;
+            IntArrayPixelSource.fill(frame, WIDTH, x, y, w, h, color);
+        }
+        drawIcon(frame, 500, 1500);
+
+        int[] crop = new int[ICON * ICON];
+        for (int y = 0; y < ICON; y++) {
+            System.arraycopy(frame, (1500 + y) * WIDTH + 500, crop, y * ICON, ICON);
+        }
+        template = new TemplateMatcher.Template(crop, ICON, ICON);
+        source = new IntArrayPixelSource(frame, WIDTH);
+        lastHit = matcher.find(source, WIDTH, HEIGHT, template, MIN_SCORE, null);
+        if (!lastHit.found) {
+            throw new IllegalStateException("İkon bulunamadı: " + lastHit);
+        }
+    }
+
+    /** Beyaz buton üzerinde halka + çapraz çizgi ikonu */
+    private static void drawIcon(int[] frame, int left, int top) {
+        for (int y = 0; y < ICON; y++) {
+            for (int x = 0; x < ICON; x++) {
+                double dx = x - ICON / 2.0 + 0.5;
+                double dy = y - ICON / 2.0 + 0.5;
+                double r = Math.sqrt(dx * dx + dy * dy);
+                int color;
+                if (r > 20 && r < 28) {
+                    color = 0xFF1E66F5;
+                } else if (Math.abs(x - y) < 4 && r <= 20) {
+                    color = 0xFFFFFFFF;
+                } else if (r <= 20) {
+                    color = 0xFFE64553;
+                } else {
+                    color = 0xFFFFFFFF;
+                }
+                frame[(top + y) * WIDTH + left + x] = color;
+            }
+        }
+    }
+
+    @Benchmark
+    public float fullSearch() {
+        return matcher.find(source, WIDTH, HEIGHT, template, MIN_SCORE, null).score;
+    }
+
+    @Benchmark
+    public float localSearch() {
+        return matcher.find(source, WIDTH, HEIGHT, template, MIN_SCORE, lastHit).score;
+    }
+}
@@ -0,0 +1,90 @@
+package com.qrmaster.app.bench;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 📚 Benchmark'lar için sentetik Türkçe benzeri derlem
+ *
+ * - Hece birleştirerek tekrarsız kelime listesi üretir (sıra = sıklık sırası)
+ * - Frekanslar ve akan metin Zipf dağılımına uyar (gerçek dile yakın)
+ * - Aynı seed her zaman aynı derlemi verir, ölçümler karşılaştırılabilir kalır
+ */
+public final class SyntheticCorpus {
+    private static final String[] ONSETS = {
+        "", "b", "c", "ç", "d", "f", "g", "h", "k", "l", "m", "n", "p", "r", "s", "ş", "t", "v", "y", "z"
+    };
+    private static final String[] NUCLEI = {"a", "e", "ı", "i", "o", "ö", "u", "ü"};
+    private static final String[] CODAS = {"", "", "", "n", "r", "l", "k", "m", "s", "t", "z", "ş"};
+
+    private SyntheticCorpus() {
+    }
+
+    /**
+     * count adet farklı kelime; indeks 0 en sık kelime
+     */
+    public static String[] vocabulary(int count, long seed) {
+        Random random = new Random(seed);
+        Set<String> words = new LinkedHashSet<>(count * 2);
+        StringBuilder sb = new StringBuilder();
+        while (words.size() < count) {
+            sb.setLength(0);
+            // Sık kelimeler kısa olsun: ilk kelimeler 1-2, sonrakiler 2-4 hece
+            int syllables = words.size() < 1000 ? 1 + random.nextInt(2) : 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                sb.append(ONSETS[random.nextInt(ONSETS.length)]);
+                sb.append(NUCLEI[random.nextInt(NUCLEI.length)]);
+                sb.append(CODAS[random.nextInt(CODAS.length)]);
+            }
+            if (sb.length() >= 2) {
+                words.add(sb.toString());
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * Zipf frekansı (sözlük dosyasındaki sıralamaya benzer)
+     */
+    public static int frequency(int rank) {
+        return 1_000_000 / (rank + 1) + 1;
+    }
+
+    /**
+     * vocabulary'den Zipf dağılımıyla length kelimelik akan metin
+     */
+    public static String[] text(String[] vocabulary, int length, long seed) {
+        double[] cumulative = new double[vocabulary.length];
+        double total = 0;
+        for (int i = 0; i < vocabulary.length; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+
+        Random random = new Random(seed);
+        String[] text = new String[length];
+        for (int i = 0; i < length; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            text[i] = vocabulary[Math.min(index, vocabulary.length - 1)];
+        }
+        return text;
+    }
+
+    /**
+     * Yazılmakta olan kelime gibi 1-3 karakterlik önekler (metinden örneklenir)
+     */
+    public static String[] prefixes(String[] text, int count, long seed) {
+        Random random = new Random(seed);
+        String[] prefixes = new String[count];
+        for (int i = 0; i < count; i++) {
+            String word = text[random.nextInt(text.length)];
+            prefixes[i] = word.substring(0, Math.min(word.length(), 1 + random.nextInt(3)));
+        }
+        return prefixes;
+    }
+}
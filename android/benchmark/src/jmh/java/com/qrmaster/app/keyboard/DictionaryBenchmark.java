@@ -0,0 +1,60 @@
+package com.qrmaster.app.keyboard;
+
+import com.qrmaster.app.bench.SyntheticCorpus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * SuggestionManager önek araması: DictionaryTrie best-first top-K ve sıralayıcıya toplama
+ */
+@State(Scope.Thread)
+public class DictionaryBenchmark {
+    private static final int PREFIX_COUNT = 4096; // 2'nin kuvveti
+
+    @Param({"10000", "100000", "1000000"})
+    public int dictionarySize;
+
+    private DictionaryTrie trie;
+    private String[] prefixes;
+    private int next;
+    private final SuggestionRanker ranker = new SuggestionRanker();
+
+    @Setup
+    public void setup() {
+        String[] vocabulary = SyntheticCorpus.vocabulary(dictionarySize, 42);
+        DictionaryTrie.Builder builder = new DictionaryTrie.Builder();
+        for (int rank = 0; rank < vocabulary.length; rank++) {
+            builder.add(vocabulary[rank], SyntheticCorpus.frequency(rank));
+        }
+        trie = builder.build();
+
+        String[] text = SyntheticCorpus.text(vocabulary, PREFIX_COUNT * 4, 7);
+        prefixes = SyntheticCorpus.prefixes(text, PREFIX_COUNT, 11);
+        for (int i = 0; i < prefixes.length; i++) {
+            prefixes[i] = DictionaryTrie.foldCase(prefixes[i]);
+        }
+    }
+
+    private String nextPrefix() {
+        return prefixes[next++ & (PREFIX_COUNT - 1)];
+    }
+
+    @Benchmark
+    public List<String> topK() {
+        return trie.topK(nextPrefix(), SuggestionRanker.MAX_RESULTS);
+    }
+
+    @Benchmark
+    public List<String> collectIntoRanker() {
+        String prefix = nextPrefix();
+        ranker.begin(prefix);
+        trie.collect(prefix, SuggestionRanker.MAX_RESULTS, ranker, SuggestionRanker.SOURCE_DICTIONARY);
+        return ranker.finish();
+    }
+}
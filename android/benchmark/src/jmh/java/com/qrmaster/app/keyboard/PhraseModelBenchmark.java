@@ -0,0 +1,81 @@
+package com.qrmaster.app.keyboard;
+
+import com.qrmaster.app.bench.SyntheticCorpus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * SmartPhrasePredictor n-gram modeli: öğrenme ve tahmin (PhraseModel üzerinden)
+ */
+@State(Scope.Thread)
+public class PhraseModelBenchmark {
+    private static final int QUERY_COUNT = 4096; // 2'nin kuvveti
+
+    @Param({"10000", "100000", "1000000"})
+    public int corpusWords;
+
+    private PhraseModel model;
+    private String[] text;
+    private String[] prefixes;
+    private int[] positions; // Context'i (önceki 2 kelime) olan rastgele konumlar
+    private int next;
+    private final SuggestionRanker ranker = new SuggestionRanker();
+
+    @Setup
+    public void setup() {
+        String[] vocabulary = SyntheticCorpus.vocabulary(Math.max(1000, corpusWords / 10), 42);
+        text = SyntheticCorpus.text(vocabulary, corpusWords, 7);
+        prefixes = SyntheticCorpus.prefixes(text, QUERY_COUNT, 11);
+        Random random = new Random(13);
+        positions = new int[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            positions[i] = 2 + random.nextInt(text.length - 2);
+        }
+
+        // Derlemin tamamı öğrenilmiş model
+        model = new PhraseModel();
+        for (int i = 0; i < text.length; i++) {
+            model.applyLearn(text[i], i > 0 ? text[i - 1] : null, i > 1 ? text[i - 2] : null);
+        }
+    }
+
+    private int nextIndex() {
+        return positions[next++ & (QUERY_COUNT - 1)];
+    }
+
+    @Benchmark
+    public int learn() {
+        int i = nextIndex();
+        model.applyLearn(text[i], text[i - 1], text[i - 2]);
+        return model.wordCount();
+    }
+
+    @Benchmark
+    public List<String> predictNextWord() {
+        int i = nextIndex();
+        return model.getContextSuggestions(Arrays.asList(text[i - 2], text[i - 1]), 3);
+    }
+
+    @Benchmark
+    public List<String> predictWithPrefix() {
+        int i = nextIndex();
+        return model.getSuggestions(prefixes[i & (QUERY_COUNT - 1)],
+            Arrays.<String>asList(), Arrays.asList(text[i - 2], text[i - 1]), 3);
+    }
+
+    @Benchmark
+    public List<String> collectIntoRanker() {
+        int i = nextIndex();
+        ranker.begin(prefixes[i & (QUERY_COUNT - 1)]);
+        model.collectCandidates(ranker, Arrays.asList(text[i - 2], text[i - 1]));
+        return ranker.finish();
+    }
+}
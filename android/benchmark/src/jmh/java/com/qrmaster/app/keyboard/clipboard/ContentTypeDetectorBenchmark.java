@@ -0,0 +1,48 @@
+package com.qrmaster.app.keyboard.clipboard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.regex.Pattern;
+
+/**
+ * ContextualPasteHelper.detectType (ContentTypeDetector) - karışık pano içerikleri
+ *
+ * Not: android.util.Patterns JVM'de yok; URL ve e-posta için basitleştirilmiş
+ * eşdeğer kalıplar kullanılır, mutlak süreler cihazdakinden biraz farklı olabilir.
+ */
+@State(Scope.Thread)
+public class ContentTypeDetectorBenchmark {
+    private static final Pattern WEB_URL = Pattern.compile(
+        "((https?|rtsp)://)?([a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,63}(:\\d{1,5})?(/[^\\s]*)?");
+    private static final Pattern EMAIL_ADDRESS = Pattern.compile(
+        "[a-zA-Z0-9+._%\\-]{1,256}@[a-zA-Z0-9][a-zA-Z0-9\\-]{0,64}(\\.[a-zA-Z0-9][a-zA-Z0-9\\-]{0,25})+");
+
+    private static final String[] SAMPLES = {
+        "https://www.example.com/path?q=1",
+        "ornek.com.tr",
+        "ali.veli@example.com",
+        "TR33 0006 1005 1978 6457 8413 26",
+        "+90 532 123 45 67",
+        "0212 555 12 34",
+        "Atatürk Cad. No:5\nKadıköy",
+        "Yarın saat 3'te İstanbul'da buluşalım",
+        "Bugün hava çok güzel, sanırım yağmur yağacak",
+        "ok",
+        "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor",
+        "   ",
+        "123456",
+        "Kayseri mantısı",
+        "http://192.168.1.10:8080/stream",
+        "not-an-email@",
+    };
+
+    private final ContentTypeDetector detector = new ContentTypeDetector(WEB_URL, EMAIL_ADDRESS);
+    private int next;
+
+    @Benchmark
+    public ContentType detectType() {
+        return detector.detect(SAMPLES[next++ & (SAMPLES.length - 1)]);
+    }
+}
@@ -0,0 +1,49 @@
+package com.qrmaster.app.keyboard.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * FairytaleEncoder: şifreli mesajı zero-width karakterlere gizleme / geri çıkarma
+ */
+@State(Scope.Thread)
+public class FairytaleEncoderBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int messageLength;
+
+    private String message;
+    private String fairytale;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder("ENC:");
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        while (sb.length() < messageLength) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        message = sb.toString();
+        fairytale = FairytaleEncoder.encode(message);
+    }
+
+    @Benchmark
+    public String encode() {
+        return FairytaleEncoder.encode(message);
+    }
+
+    @Benchmark
+    public String decode() {
+        return FairytaleEncoder.decode(fairytale);
+    }
+
+    @Benchmark
+    public boolean hasFairytale() {
+        return FairytaleEncoder.hasFairytale(fairytale);
+    }
+}
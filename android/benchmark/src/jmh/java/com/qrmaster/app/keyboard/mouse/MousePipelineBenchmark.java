@@ -0,0 +1,140 @@
+package com.qrmaster.app.keyboard.mouse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PC protokolü uçtan uca (LoopbackMouseServer): tuş hızı, UDP hareket hızı ve komut gecikmesi
+ *
+ * Telefon tarafı MouseManager'ın katmanlarıyla aynı: CommandPipeline + BinarySink, MouseProtocol
+ * hareket paketi. Doğruluk (sıra, kayıpsızlık) LoopbackHarnessTest'te denetlenir.
+ */
+@State(Scope.Thread)
+public class MousePipelineBenchmark {
+    private static final String PIN = "1234";
+    private static final int KEY_BATCH = 1000;
+    private static final int MOVE_BATCH = 1000;
+
+    private LoopbackMouseServer server;
+    private Socket socket;
+    private CommandPipeline pipeline;
+    private DatagramSocket udp;
+    private final byte[] moveBuffer = new byte[MouseProtocol.MOVE_PACKET_SIZE];
+    private final ByteBuffer moveWriter = ByteBuffer.wrap(moveBuffer);
+    private DatagramPacket movePacket;
+    private int moveSequence;
+    private int scrollDelta;
+
+    @Setup
+    public void setup() throws Exception {
+        server = new LoopbackMouseServer(PIN, true);
+
+        // MouseManager.openChannels ile aynı el sıkışma (UDP hariç)
+        socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        socket.setTcpNoDelay(true);
+        OutputStream out = socket.getOutputStream();
+        out.write(("{\"type\":\"AUTH\",\"pin\":\"" + PIN + "\",\"device_name\":\"bench\",\"binary_version\":"
+            + MouseProtocol.BINARY_VERSION + "}\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        String response = MouseProtocol.readLine(socket.getInputStream());
+        if (!"AUTH_OK".equals(LoopbackMouseServer.stringField(response, "status"))) {
+            throw new IllegalStateException("AUTH başarısız: " + response);
+        }
+
+        pipeline = new CommandPipeline(new BinarySink(new MouseProtocol.FrameWriter(out)),
+            new CommandPipeline.Listener() {
+                @Override
+                public void onOverload(int pending) {
+                }
+
+                @Override
+                public void onWriteError(Exception e) {
+                    throw new IllegalStateException("Yazma hatası", e);
+                }
+            });
+        pipeline.start();
+
+        udp = new DatagramSocket();
+        udp.connect(InetAddress.getLoopbackAddress(), server.getUdpPort());
+        movePacket = new DatagramPacket(moveBuffer, moveBuffer.length);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        pipeline.stop();
+        udp.close();
+        socket.close();
+        server.close();
+    }
+
+    /** Birleştirilmeyen tuşlar, kuyruk doluysa yazıcı beklenir */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(KEY_BATCH)
+    public void keyThroughput() throws InterruptedException {
+        for (int i = 0; i < KEY_BATCH; i++) {
+            String key = (i & 1) == 0 ? "ENTER" : "BACKSPACE";
+            while (!pipeline.key(key)) {
+                Thread.onSpinWait();
+            }
+        }
+        for (int i = 0; i < KEY_BATCH; i++) {
+            expectEvent();
+        }
+    }
+
+    /** Alıcı tamponu taşmasın diye en fazla 512 paket önde gidilir */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(MOVE_BATCH)
+    public void moveThroughput() throws IOException {
+        int target = moveSequence + MOVE_BATCH;
+        while (moveSequence < target) {
+            moveSequence++;
+            MouseProtocol.encodeMove(moveWriter, 3, -2, moveSequence);
+            udp.send(movePacket);
+            while (moveSequence - server.movesReceived() > 512) {
+                Thread.onSpinWait();
+            }
+        }
+        while (server.movesReceived() < moveSequence) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Komutun kuyruğa girmesinden sunucuda çözülmesine kadar (p50/p95/p99 SampleTime çıktısında) */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void commandLatency() throws InterruptedException {
+        while (!pipeline.scroll(++scrollDelta)) {
+            Thread.onSpinWait();
+        }
+        expectEvent();
+    }
+
+    private void expectEvent() throws InterruptedException {
+        if (server.nextEvent() == null) {
+            throw new IllegalStateException("Sunucu komutu almadı");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package android.util;
+
+/**
+ * JVM shim: benchmark'larda android.util.Log çağrıları sessizce yutulur
+ * (gerçek Log maliyeti cihaza özgü, ölçüme katılmaz)
+ */
+public final class Log {
+    private Log() {
+    }
+
+    public static int d(String tag, String msg) {
+        return 0;
+    }
+
+    public static int i(String tag, String msg) {
+        return 0;
+    }
+
+    public static int w(String tag, String msg) {
+        return 0;
+    }
+
+    public static int w(String tag, String msg, Throwable tr) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        return 0;
+    }
+}
@@ -0,0 +1,48 @@
+package com.qrmaster.app.keyboard;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 📚 dictionary_tr.txt → dictionary_tr.bin (build sırasında, compileDictionary görevi)
+ *
+ * Kullanım: DictionaryCompiler <kelime listesi> <çıktı dosyası>
+ */
+public final class DictionaryCompiler {
+
+    private DictionaryCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: DictionaryCompiler <words.txt> <output.bin>");
+            System.exit(2);
+        }
+        Path source = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+
+        DictionaryTrie.Builder builder = new DictionaryTrie.Builder();
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            builder.addWordList(reader);
+        }
+        ByteBuffer buffer = builder.toBuffer();
+        int bytes = buffer.remaining();
+        int words = DictionaryTrie.fromBuffer(buffer).size();
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        System.out.println("📚 Sözlük derlendi: " + words + " kelime, " + bytes + " bayt → " + output);
+    }
+}
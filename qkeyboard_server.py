@@ -14,7 +14,9 @@ import qrcode
 import pyautogui
 import random
 import io
+import secrets
 import threading
+import time
 from datetime import datetime
 from pynput import keyboard as kb, mouse
 from aiohttp import web
@@ -24,6 +26,8 @@ import mss
 # Constants
 TCP_PORT = 58080  # Farklı port (çakışma önleme)
 UDP_PORT = 59090
+DISCOVERY_PORT = 59091
+DISCOVERY_MULTICAST_GROUP = "239.255.42.99"  # Broadcast engelli ağlar için
 HTTP_PORT = 58081  # Screen streaming için HTTP server
 VERSION = "1.1.0"
 DEVICE_NAME = socket.gethostname()
@@ -35,6 +39,13 @@ current_pin = str(random.randint(1000, 9999))
 # Connected clients
 connected_clients = {}
 
+# Resumable sessions: token -> {"processed", "writer", "expires", "closed"}
+# Bağlantı koparsa istemci token ile PIN'siz döner; "processed" sayesinde
+# tekrar gönderilen komutlardan sadece işlenmemiş olanlar çalışır
+SESSION_TTL = 300  # saniye
+sessions = {}
+COMMAND_TYPES = ("MOUSE_CLICK", "MOUSE_SCROLL", "GESTURE", "KEY_PRESS")
+
 # Screen streaming
 screen_streaming_enabled = False
 latest_screen_frame = None
@@ -46,6 +57,26 @@ pyautogui.PAUSE = 0
 pyautogui.MINIMUM_DURATION = 0  # En hızlı hareket
 pyautogui.MINIMUM_SLEEP = 0  # Bekleme yok
 
+# Binary TCP protokolü (AUTH'ta binary_version ile anlaşılır, yoksa JSON satırları)
+# Çerçeve: [uzunluk:u16][opcode:u8][payload], big-endian, uzunluk = 1 + payload
+BINARY_VERSION = 1
+OP_CLICK = 1       # [button:u8]
+OP_SCROLL = 2      # [delta:i32]
+OP_KEY = 3         # [UTF-8]
+OP_TEXT = 4        # [UTF-8]
+OP_GESTURE = 5     # [UTF-8]
+OP_PING = 6        # [timestamp:i64]
+OP_PONG = 7        # [timestamp:i64]
+OP_DISCONNECT = 8
+COMMAND_OPCODES = (OP_CLICK, OP_SCROLL, OP_KEY, OP_TEXT, OP_GESTURE)
+BUTTON_NAMES = ("LEFT", "RIGHT", "MIDDLE", "DOUBLE")
+
+def is_newer_sequence(seq, last):
+    """UDP hareket sıra numarası son kabul edilenden yeni mi? (32-bit sarma dahil)"""
+    diff = (seq - last) & 0xFFFFFFFF
+    return 0 < diff < 0x80000000
+
+
 class MouseEmulator:
     """Windows 11 Precision Touchpad Emulator"""
     
@@ -156,6 +187,11 @@ class MouseEmulator:
             print(f"❌ Tuş hatası ({key_name}): {e}")
             # BAĞLANTIYI KOPARMADAN devam et!
     
+    def type_text(self, text):
+        """Type a whole string (binary TEXT frame)"""
+        for char in text:
+            self.key_press(char)
+    
     def _key_combo(self, keys):
         """Press multiple keys together"""
         for key in keys:
@@ -224,6 +260,8 @@ class QKeyboardServer:
         print(f"🔗 Yeni bağlantı: {addr}")
         
         client_id = None  # Initialize to avoid UnboundLocalError
+        session_id = None
+        session = None
         
         try:
             # Wait for authentication
@@ -231,7 +269,8 @@ class QKeyboardServer:
             msg = json.loads(data.decode())
             
             if msg.get("type") == "AUTH":
-                if msg.get("pin") == current_pin:
+                session_id, session, resumed = self.open_session(msg, writer)
+                if session:
                     # Authentication successful
                     device_name = msg.get("device_name", "Unknown")
                     client_id = f"{addr[0]}:{addr[1]}"
@@ -241,14 +280,29 @@ class QKeyboardServer:
                         "writer": writer
                     }
                     
-                    response = {"status": "AUTH_OK", "message": "Bağlantı başarılı"}
+                    use_binary = msg.get("binary_version") == BINARY_VERSION
+                    response = {
+                        "status": "AUTH_OK",
+                        "message": "Bağlantı başarılı",
+                        "session": session_id,
+                        "resumed": resumed,
+                        "received": session["processed"]
+                    }
+                    if use_binary:
+                        response["binary_version"] = BINARY_VERSION
                     writer.write((json.dumps(response) + "\n").encode())
                     await writer.drain()
                     
-                    print(f"✅ Kimlik doğrulandı: {device_name}")
+                    if resumed:
+                        print(f"🔄 Oturum sürdürüldü: {device_name} ({session['processed']} komut işlenmişti)")
+                    else:
+                        print(f"✅ Kimlik doğrulandı: {device_name} ({'binary' if use_binary else 'JSON'})")
                     
                     # Handle messages
-                    await self.message_loop(reader, writer, client_id)
+                    if use_binary:
+                        await self.binary_message_loop(reader, writer, client_id, session)
+                    else:
+                        await self.message_loop(reader, writer, client_id, session)
                 else:
                     response = {"status": "AUTH_FAILED", "error": "Yanlış PIN"}
                     writer.write((json.dumps(response) + "\n").encode())
@@ -259,11 +313,41 @@ class QKeyboardServer:
         except Exception as e:
             print(f"❌ Client hatası: {e}")
         finally:
+            if session and session["writer"] is writer:
+                if session["closed"]:
+                    sessions.pop(session_id, None)
+                else:
+                    # İstemci SESSION_TTL içinde token ile dönebilir
+                    session["writer"] = None
+                    session["expires"] = time.monotonic() + SESSION_TTL
             if client_id and client_id in connected_clients:
                 del connected_clients[client_id]
                 print(f"🔌 Bağlantı kesildi: {addr}")
     
-    async def message_loop(self, reader, writer, client_id):
+    def open_session(self, msg, writer):
+        """Resume a session by token, or start a new one with the PIN.
+        Returns (session_id, session, resumed); session is None if rejected."""
+        now = time.monotonic()
+        for expired_id in [sid for sid, s in sessions.items() if s["expires"] is not None and s["expires"] < now]:
+            del sessions[expired_id]
+        
+        session_id = msg.get("session")
+        session = sessions.get(session_id) if session_id else None
+        resumed = session is not None
+        if not resumed:
+            if msg.get("pin") != current_pin:
+                return None, None, False
+            session_id = secrets.token_hex(16)
+            session = {"processed": 0, "writer": None, "expires": None, "closed": False}
+            sessions[session_id] = session
+        elif session["writer"] is not None:
+            # Eski bağlantı yarı açık kalmış olabilir - komut okumayı bıraksın
+            session["writer"].close()
+        session["writer"] = writer
+        session["expires"] = None
+        return session_id, session, resumed
+    
+    async def message_loop(self, reader, writer, client_id, session):
         """Handle client messages - ULTRA STABLE VERSION"""
         last_ping = asyncio.get_event_loop().time()
         ping_timeout = 15  # 15 saniye timeout (daha toleranslı)
@@ -282,6 +366,10 @@ class QKeyboardServer:
                     msg = json.loads(data.decode().strip())
                     msg_type = msg.get("type")
                     message_count += 1
+                    if msg_type in COMMAND_TYPES:
+                        if session["writer"] is not writer:
+                            break  # Oturum yeni bağlantıya geçti, komutlar orada tekrar gelir
+                        session["processed"] += 1
                     
                     if msg_type == "PING":
                         # Send pong back - IMMEDIATELY
@@ -325,6 +413,7 @@ class QKeyboardServer:
                     
                     elif msg_type == "DISCONNECT":
                         print(f"📱 Client bağlantı kesmek istiyor")
+                        session["closed"] = True
                         break
                 
                 except asyncio.TimeoutError:
@@ -348,6 +437,80 @@ class QKeyboardServer:
         finally:
             print(f"📊 Toplam {message_count} mesaj işlendi")
     
+    async def binary_message_loop(self, reader, writer, client_id, session):
+        """Handle binary frames (negotiated in AUTH)"""
+        last_ping = asyncio.get_event_loop().time()
+        ping_timeout = 15
+        message_count = 0
+        
+        try:
+            while True:
+                try:
+                    # readexactly iptal edilirse tampondan bir şey tüketmez, çerçeve bölünmez
+                    header = await asyncio.wait_for(reader.readexactly(3), timeout=2.0)
+                except asyncio.TimeoutError:
+                    elapsed = asyncio.get_event_loop().time() - last_ping
+                    if elapsed > ping_timeout:
+                        print(f"⚠️ Ping timeout ({elapsed:.1f}s), bağlantı koptu")
+                        break
+                    continue
+                except asyncio.IncompleteReadError:
+                    print(f"⚠️ Client bağlantıyı kapattı")
+                    break
+                
+                length, opcode = struct.unpack(">HB", header)
+                payload = await reader.readexactly(length - 1) if length > 1 else b""
+                message_count += 1
+                if opcode in COMMAND_OPCODES:
+                    if session["writer"] is not writer:
+                        break  # Oturum yeni bağlantıya geçti, komutlar orada tekrar gelir
+                    session["processed"] += 1
+                
+                try:
+                    if opcode == OP_PING:
+                        last_ping = asyncio.get_event_loop().time()
+                        writer.write(struct.pack(">HBq", 9, OP_PONG, struct.unpack(">q", payload)[0]))
+                        await writer.drain()
+                        
+                        if message_count % 10 == 0:
+                            print(f"💚 Bağlantı stabil - {message_count} mesaj")
+                    
+                    elif opcode == OP_CLICK:
+                        self.emulator.mouse_click(BUTTON_NAMES[payload[0]])
+                    
+                    elif opcode == OP_SCROLL:
+                        self.emulator.mouse_scroll(struct.unpack(">i", payload)[0])
+                    
+                    elif opcode == OP_KEY:
+                        self.emulator.key_press(payload.decode("utf-8"))
+                    
+                    elif opcode == OP_TEXT:
+                        self.emulator.type_text(payload.decode("utf-8"))
+                    
+                    elif opcode == OP_GESTURE:
+                        self.emulator.execute_gesture(payload.decode("utf-8"))
+                    
+                    elif opcode == OP_DISCONNECT:
+                        print(f"📱 Client bağlantı kesmek istiyor")
+                        session["closed"] = True
+                        break
+                    
+                    else:
+                        print(f"⚠️ Bilinmeyen opcode: {opcode}")
+                
+                except (struct.error, IndexError, UnicodeDecodeError) as e:
+                    print(f"❌ Çerçeve hatası (opcode {opcode}): {e}")
+                except Exception as e:
+                    print(f"⚠️ Komut hatası (opcode {opcode}): {e}")
+        
+        except Exception as e:
+            print(f"❌ Binary loop hatası: {e}")
+            import traceback
+            traceback.print_exc()
+        
+        finally:
+            print(f"📊 Toplam {message_count} mesaj işlendi")
+    
     async def udp_listener(self):
         """Listen for UDP mouse move packets"""
         self.udp_socket = socket.socket(socket.AF_INET, socket.SOCK_DGRAM)
@@ -357,12 +520,21 @@ class QKeyboardServer:
         print(f"📡 UDP dinleyici başlatıldı: Port {UDP_PORT}")
         
         loop = asyncio.get_event_loop()
+        last_sequences = {}  # (ip, port) -> son kabul edilen sıra numarası
         
         while True:
             try:
                 data, addr = await loop.sock_recvfrom(self.udp_socket, 1024)
                 
                 if len(data) >= 5 and data[0] == 0x01:  # MOUSE_MOVE
+                    # Yeni istemciler sona sıra numarası ekler: geç kalan/tekrar eden paketi at
+                    if len(data) >= 9:
+                        seq = struct.unpack('>I', data[5:9])[0]
+                        last = last_sequences.get(addr)
+                        if last is not None and not is_newer_sequence(seq, last):
+                            continue
+                        last_sequences[addr] = seq
+                    
                     delta_x = struct.unpack('>h', data[1:3])[0]
                     delta_y = struct.unpack('>h', data[3:5])[0]
                     
@@ -372,20 +544,29 @@ class QKeyboardServer:
                 await asyncio.sleep(0.001)
     
     async def broadcast_responder(self):
-        """Respond to device discovery broadcasts - FARKLI PORT KULLAN"""
+        """Respond to device discovery probes (broadcast, multicast, unicast) - FARKLI PORT KULLAN"""
         try:
             # 59091 portu kullan - çakışma olmasın
             sock = socket.socket(socket.AF_INET, socket.SOCK_DGRAM)
             sock.setsockopt(socket.SOL_SOCKET, socket.SO_REUSEADDR, 1)
-            sock.bind(('0.0.0.0', 59091))  # Farklı port
+            sock.bind(('0.0.0.0', DISCOVERY_PORT))  # Farklı port
             sock.setblocking(False)
             
-            print(f"📡 Broadcast responder başlatıldı: Port 59091")
+            print(f"📡 Broadcast responder başlatıldı: Port {DISCOVERY_PORT}")
             
         except Exception as e:
             print(f"⚠️ Broadcast responder hatası: {e}")
             return
         
+        # Multicast grubuna katıl - olmazsa broadcast/unicast yine çalışır
+        try:
+            membership = struct.pack('4s4s', socket.inet_aton(DISCOVERY_MULTICAST_GROUP),
+                                     socket.inet_aton('0.0.0.0'))
+            sock.setsockopt(socket.IPPROTO_IP, socket.IP_ADD_MEMBERSHIP, membership)
+            print(f"📡 Multicast grubu: {DISCOVERY_MULTICAST_GROUP}:{DISCOVERY_PORT}")
+        except OSError as e:
+            print(f"⚠️ Multicast katılımı başarısız: {e}")
+        
         loop = asyncio.get_event_loop()
         
         while True:
@@ -404,12 +585,12 @@ class QKeyboardServer:
                         "udp_port": UDP_PORT
                     }
                     
-                    # Telefona 59090 portuna gönder (buradan 59091'de dinliyoruz)
+                    # Yoklamanın geldiği adres:porta gönder (telefon o soketi dinliyor)
                     response_sock = socket.socket(socket.AF_INET, socket.SOCK_DGRAM)
-                    response_sock.sendto(json.dumps(response).encode(), (addr[0], UDP_PORT))
+                    response_sock.sendto(json.dumps(response).encode(), addr)
                     response_sock.close()
                     
-                    print(f"🔍 Discovery yanıtı gönderildi: {addr[0]}:{UDP_PORT}")
+                    print(f"🔍 Discovery yanıtı gönderildi: {addr[0]}:{addr[1]}")
             
             except Exception as e:
                 await asyncio.sleep(0.1)
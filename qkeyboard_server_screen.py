@@ -10,6 +10,9 @@ import socket
 import sys
 import io
 import threading
+import struct
+import zlib
+from collections import OrderedDict
 from aiohttp import web
 from PIL import Image
 import mss
@@ -32,10 +35,24 @@ latest_screen_frame = None
 frame_lock = threading.Lock()
 connected_clients = {}
 
+# Delta (karo) streaming - /screen/tiles
+TILE_SIZE = 64            # Kaynak ekranda karo kenarı (piksel)
+TILE_HISTORY = 64         # Kaç içerik sürümünün karo özeti saklanır
+TILE_POLL_TIMEOUT = 1.0   # Değişiklik yoksa yanıt en fazla bu kadar bekletilir
+TILE_MAGIC = b'QTIL'
+TILE_VERSION = 1
+TILE_FLAG_KEYFRAME = 0x01
+
 # PyAutoGUI settings
 pyautogui.FAILSAFE = False
 pyautogui.PAUSE = 0
 
+def is_newer_sequence(seq, last):
+    """UDP hareket sıra numarası son kabul edilenden yeni mi? (32-bit sarma dahil)"""
+    diff = (seq - last) & 0xFFFFFFFF
+    return 0 < diff < 0x80000000
+
+
 class MouseEmulator:
     """Mouse/Keyboard emulator"""
     
@@ -84,6 +101,12 @@ class ScreenCapture:
         self.running = False
         self.thread = None
         self.fps = 15  # 15 FPS
+        # Karo durumu: içerik değiştikçe artan sürüm + sürüm başına karo özetleri
+        self.tile_lock = threading.Lock()
+        self.tile_seq = 0
+        self.tile_image = None
+        self.tile_grid = None     # (sütun, satır, genişlik, yükseklik)
+        self.tile_history = OrderedDict()
         
     def start(self):
         global screen_streaming_enabled
@@ -119,13 +142,15 @@ class ScreenCapture:
                     
                     # PIL Image'a çevir
                     img = Image.frombytes('RGB', screenshot.size, screenshot.rgb)
+                    self._update_tiles(screenshot, img)
                     
-                    # Resize to 640x360 (16:9)
-                    img.thumbnail((640, 360), Image.Resampling.LANCZOS)
+                    # Resize to 640x360 (16:9) - tam kare /screen için
+                    preview = img.copy()
+                    preview.thumbnail((640, 360), Image.Resampling.LANCZOS)
                     
                     # JPEG'e çevir
                     buffer = io.BytesIO()
-                    img.save(buffer, format='JPEG', quality=70, optimize=True)
+                    preview.save(buffer, format='JPEG', quality=70, optimize=True)
                     
                     # Global frame buffer'a yaz
                     with frame_lock:
@@ -141,6 +166,117 @@ class ScreenCapture:
                     time.sleep(1)
             
             print(f"📺 Capture loop sonlandı")
+    
+    def _update_tiles(self, screenshot, img):
+        """Karo özetlerini (CRC32) hesapla; içerik değiştiyse yeni sürüm yayınla"""
+        width, height = screenshot.size
+        cols = (width + TILE_SIZE - 1) // TILE_SIZE
+        rows = (height + TILE_SIZE - 1) // TILE_SIZE
+        stride = width * 4
+        raw = memoryview(screenshot.raw)  # BGRA, kopyasız dilimlenir
+        
+        hashes = []
+        for row in range(rows):
+            y0 = row * TILE_SIZE
+            y1 = min(y0 + TILE_SIZE, height)
+            for col in range(cols):
+                x0 = col * TILE_SIZE * 4
+                x1 = min((col + 1) * TILE_SIZE, width) * 4
+                crc = 0
+                for y in range(y0, y1):
+                    offset = y * stride
+                    crc = zlib.crc32(raw[offset + x0:offset + x1], crc)
+                hashes.append(crc)
+        
+        grid = (cols, rows, width, height)
+        with self.tile_lock:
+            if grid == self.tile_grid and self.tile_history and \
+                    next(reversed(self.tile_history.values())) == hashes:
+                return  # Değişiklik yok - sürüm artmaz, bekleyen istemciler uyumaya devam eder
+            if grid != self.tile_grid:
+                self.tile_history.clear()  # Çözünürlük değişti: eski sürümlerle fark alınamaz
+            self.tile_seq = (self.tile_seq % 0xFFFFFFFF) + 1
+            self.tile_grid = grid
+            self.tile_image = img
+            self.tile_history[self.tile_seq] = hashes
+            while len(self.tile_history) > TILE_HISTORY:
+                self.tile_history.popitem(last=False)
+    
+    def tile_snapshot(self):
+        """(sürüm, görüntü, ızgara, özetler) - görüntü yayınlandıktan sonra değiştirilmez"""
+        with self.tile_lock:
+            if self.tile_image is None:
+                return None
+            return self.tile_seq, self.tile_image, self.tile_grid, self.tile_history[self.tile_seq]
+    
+    def tile_hashes(self, seq):
+        with self.tile_lock:
+            return self.tile_history.get(seq)
+
+def encode_tile_delta(snapshot, old_hashes, viewport, out_size):
+    """Bölgedeki değişmiş karoları istemci ölçeğinde JPEG'e çevir (executor thread'i)"""
+    seq, img, (cols, rows, width, height), hashes = snapshot
+    
+    # Görünen bölge (kaynak pikseller) ve ölçek - büyütme yok, en-boy oranı korunur
+    vx0 = int(viewport[0] * width)
+    vy0 = int(viewport[1] * height)
+    vx1 = max(vx0 + 1, min(width, int((viewport[0] + viewport[2]) * width)))
+    vy1 = max(vy0 + 1, min(height, int((viewport[1] + viewport[3]) * height)))
+    scale = min(out_size[0] / (vx1 - vx0), out_size[1] / (vy1 - vy0), 1.0)
+    canvas_w = max(1, int((vx1 - vx0) * scale))
+    canvas_h = max(1, int((vy1 - vy0) * scale))
+    
+    def to_canvas(value, origin, limit):
+        return min(limit, int((value - origin) * scale))
+    
+    # since geçmişte yoksa (çok eski / çözünürlük değişti) tam kare gönderilir
+    keyframe = old_hashes is None
+    
+    def dirty(row, col):
+        index = row * cols + col
+        return keyframe or hashes[index] != old_hashes[index]
+    
+    tiles = []
+    col0, col1 = vx0 // TILE_SIZE, (vx1 - 1) // TILE_SIZE
+    for row in range(vy0 // TILE_SIZE, (vy1 - 1) // TILE_SIZE + 1):
+        col = col0
+        while col <= col1:
+            if not dirty(row, col):
+                col += 1
+                continue
+            # Satırdaki bitişik kirli karolar tek JPEG olur (karo başına başlık yükü yerine)
+            run_end = col
+            while run_end < col1 and dirty(row, run_end + 1):
+                run_end += 1
+            sx0 = max(vx0, col * TILE_SIZE)
+            sx1 = min(vx1, (run_end + 1) * TILE_SIZE)
+            sy0 = max(vy0, row * TILE_SIZE)
+            sy1 = min(vy1, (row + 1) * TILE_SIZE)
+            # Komşu karolar aynı kenar değerini paylaşır: tuvalde boşluk/bindirme olmaz
+            cx0, cx1 = to_canvas(sx0, vx0, canvas_w), to_canvas(sx1, vx0, canvas_w)
+            cy0, cy1 = to_canvas(sy0, vy0, canvas_h), to_canvas(sy1, vy0, canvas_h)
+            if sx1 == vx1:
+                cx1 = canvas_w
+            if sy1 == vy1:
+                cy1 = canvas_h
+            if cx1 > cx0 and cy1 > cy0:
+                part = img.crop((sx0, sy0, sx1, sy1))
+                if part.size != (cx1 - cx0, cy1 - cy0):
+                    part = part.resize((cx1 - cx0, cy1 - cy0), Image.Resampling.BILINEAR)
+                buffer = io.BytesIO()
+                part.save(buffer, format='JPEG', quality=70)
+                tiles.append((cx0, cy0, cx1 - cx0, cy1 - cy0, buffer.getvalue()))
+            col = run_end + 1
+    
+    out = io.BytesIO()
+    out.write(TILE_MAGIC)
+    out.write(struct.pack('>BBIHHH', TILE_VERSION, TILE_FLAG_KEYFRAME if keyframe else 0,
+                          seq, canvas_w, canvas_h, len(tiles)))
+    for x, y, w, h, data in tiles:
+        out.write(struct.pack('>HHHHI', x, y, w, h, len(data)))
+        out.write(data)
+    return out.getvalue()
+
 
 class QKeyboardServer:
     """Main server"""
@@ -179,6 +315,7 @@ class QKeyboardServer:
         """HTTP server for screen streaming"""
         self.http_app = web.Application()
         self.http_app.router.add_get('/screen', self.handle_screen_stream)
+        self.http_app.router.add_get('/screen/tiles', self.handle_screen_tiles)
         self.http_app.router.add_post('/screen/enable', self.handle_screen_enable)
         self.http_app.router.add_post('/screen/disable', self.handle_screen_disable)
         
@@ -200,8 +337,10 @@ class QKeyboardServer:
                     with frame_lock:
                         frame_data = latest_screen_frame
                     
+                    # Content-Length: istemci gövdeyi JPEG işaretçisi aramadan okur
                     await response.write(b'--frame\r\n')
-                    await response.write(b'Content-Type: image/jpeg\r\n\r\n')
+                    await response.write(b'Content-Type: image/jpeg\r\n')
+                    await response.write(f'Content-Length: {len(frame_data)}\r\n\r\n'.encode())
                     await response.write(frame_data)
                     await response.write(b'\r\n')
                 
@@ -210,6 +349,39 @@ class QKeyboardServer:
             pass
         return response
     
+    async def handle_screen_tiles(self, request):
+        """Delta karo isteği (long-poll)
+        
+        Sorgu: since = istemcinin en son uyguladığı sürüm (0: tam kare iste),
+               x, y, w, h = gösterilen bölge (ekranın 0..1 oranı), ow, oh = istemcideki görüntü boyutu.
+        Yanıt (big-endian): 'QTIL' sürüm:u8 bayrak:u8 seq:u32 tuvalG:u16 tuvalY:u16 karoSayısı:u16
+               + karo başına x:u16 y:u16 g:u16 y:u16 uzunluk:u32 JPEG (tuval koordinatlarında)
+        """
+        if not screen_streaming_enabled:
+            return web.Response(status=503, text="screen streaming disabled")
+        try:
+            q = request.query
+            since = int(q.get('since', 0))
+            viewport = tuple(min(max(float(q.get(k, d)), 0.0), 1.0)
+                             for k, d in (('x', 0), ('y', 0), ('w', 1), ('h', 1)))
+            out_size = (max(1, int(q.get('ow', 640))), max(1, int(q.get('oh', 360))))
+        except ValueError:
+            return web.Response(status=400, text="bad query")
+        
+        # Yeni sürüm gelene kadar bekle; since hâlâ güncelse boş yanıt döner
+        loop = asyncio.get_running_loop()
+        deadline = loop.time() + TILE_POLL_TIMEOUT
+        snapshot = self.screen_capture.tile_snapshot()
+        while (snapshot is None or snapshot[0] == since) and loop.time() < deadline:
+            await asyncio.sleep(0.02)
+            snapshot = self.screen_capture.tile_snapshot()
+        if snapshot is None:
+            return web.Response(status=503, text="no frame yet")
+        
+        old_hashes = self.screen_capture.tile_hashes(since) if since else None
+        body = await loop.run_in_executor(None, encode_tile_delta, snapshot, old_hashes, viewport, out_size)
+        return web.Response(body=body, content_type='application/octet-stream')
+    
     async def handle_screen_enable(self, request):
         self.screen_capture.start()
         return web.json_response({"status": "enabled"})
@@ -287,6 +459,7 @@ class QKeyboardServer:
         print(f"📡 UDP: Port {UDP_PORT}")
         
         loop = asyncio.get_event_loop()
+        last_sequences = {}  # (ip, port) -> son kabul edilen sıra numarası
         
         while True:
             try:
@@ -294,6 +467,13 @@ class QKeyboardServer:
                 
                 if len(data) >= 5 and data[0] == 0x01:
                     import struct
+                    # Yeni istemciler sona sıra numarası ekler: geç kalan/tekrar eden paketi at
+                    if len(data) >= 9:
+                        seq = struct.unpack('>I', data[5:9])[0]
+                        last = last_sequences.get(addr)
+                        if last is not None and not is_newer_sequence(seq, last):
+                            continue
+                        last_sequences[addr] = seq
                     deltaX = struct.unpack('>h', data[1:3])[0]
                     deltaY = struct.unpack('>h', data[3:5])[0]
                     self.emulator.mouse_move(deltaX, deltaY)
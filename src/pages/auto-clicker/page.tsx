@@ -67,6 +67,14 @@ export default function AutoClickerPage() {
     }
   };
 
+  const handleEnableVisualTargets = async () => {
+    try {
+      await AutoClicker.enableVisualTargets();
+    } catch (error) {
+      console.error('❌ Görsel hedef izni hatası:', error);
+    }
+  };
+
   const allPermissionsGranted = overlayPermission && accessibilityPermission;
 
   return (
@@ -201,15 +209,26 @@ export default function AutoClickerPage() {
                 </div>
               </button>
             ) : (
-              <button
-                onClick={handleStop}
-                className="w-full bg-gradient-to-r from-red-500 via-rose-500 to-pink-500 hover:from-red-600 hover:via-rose-600 hover:to-pink-600 text-white font-bold py-5 rounded-2xl transition-all shadow-2xl text-lg"
-              >
-                <div className="flex items-center justify-center gap-3">
-                  <i className="ri-stop-fill text-2xl"></i>
-                  <span>Durdur</span>
-                </div>
-              </button>
+              <>
+                <button
+                  onClick={handleStop}
+                  className="w-full bg-gradient-to-r from-red-500 via-rose-500 to-pink-500 hover:from-red-600 hover:via-rose-600 hover:to-pink-600 text-white font-bold py-5 rounded-2xl transition-all shadow-2xl text-lg"
+                >
+                  <div className="flex items-center justify-center gap-3">
+                    <i className="ri-stop-fill text-2xl"></i>
+                    <span>Durdur</span>
+                  </div>
+                </button>
+                <button
+                  onClick={handleEnableVisualTargets}
+                  className="w-full mt-3 bg-white/10 hover:bg-white/20 text-white font-semibold py-3 rounded-2xl transition-all border border-white/20"
+                >
+                  <div className="flex items-center justify-center gap-2">
+                    <i className="ri-focus-3-line text-xl"></i>
+                    <span>Görsel Hedefleri Aç (HEDEF)</span>
+                  </div>
+                </button>
+              </>
             )}
           </div>
         )}
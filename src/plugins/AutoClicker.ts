@@ -30,6 +30,11 @@ export interface AutoClickerPlugin {
    * Accessibility izni iste
    */
   requestAccessibilityPermission(): Promise<{ success: boolean; opened?: boolean; message?: string }>;
+  
+  /**
+   * Ekran yakalama izni iste (panelde HEDEF ile görsel hedef eklemek için)
+   */
+  enableVisualTargets(): Promise<void>;
 
 }
 
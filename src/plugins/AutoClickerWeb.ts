@@ -27,6 +27,10 @@ export class AutoClickerWeb extends WebPlugin implements AutoClickerPlugin {
   async requestAccessibilityPermission(): Promise<{ success: boolean; opened?: boolean; message?: string }> {
     throw new Error('Accessibility Service sadece Android\'de çalışır. Web platformunda desteklenmez.');
   }
+  
+  async enableVisualTargets(): Promise<void> {
+    throw new Error('Görsel hedefler sadece Android\'de çalışır. Web platformunda desteklenmez.');
+  }
 }
 
 